@@ -21,6 +21,18 @@ public final class AppSettingsStore {
         public String editorFontFamily = "JetBrains Mono";
         public double editorFontSize = 14;
         public boolean ctrlScrollZoomEnabled = true;
+        /** Grid edits sent per MongoDB bulkWrite round trip. */
+        public int mongoBulkWriteChunkSize = 1000;
+        /** Ordered bulk writes stop at the first failing document; unordered ones apply the rest. */
+        public boolean mongoBulkWriteOrdered = false;
+        /** Reopen sorted Mongo result pages by range on the sort key instead of skip(). */
+        public boolean mongoRangePaging = true;
+        /** Server-side time limit for a filtered document count shown in the Mongo pagers. */
+        public int mongoCountMaxTimeSeconds = 30;
+        /** Let console aggregate() stages that exceed the 100 MB memory limit spill to disk. */
+        public boolean mongoAggregateAllowDiskUse = true;
+        /** Documents per aggregate() cursor batch (first batch and every getMore). */
+        public int mongoAggregateBatchSize = 500;
 
         public Theme getTheme() { return theme; }
         public void setTheme(Theme theme) { this.theme = theme; }
@@ -32,6 +44,30 @@ public final class AppSettingsStore {
         public void setCtrlScrollZoomEnabled(boolean ctrlScrollZoomEnabled) {
             this.ctrlScrollZoomEnabled = ctrlScrollZoomEnabled;
         }
+        public int getMongoBulkWriteChunkSize() { return mongoBulkWriteChunkSize; }
+        public void setMongoBulkWriteChunkSize(int mongoBulkWriteChunkSize) {
+            this.mongoBulkWriteChunkSize = mongoBulkWriteChunkSize;
+        }
+        public boolean isMongoBulkWriteOrdered() { return mongoBulkWriteOrdered; }
+        public void setMongoBulkWriteOrdered(boolean mongoBulkWriteOrdered) {
+            this.mongoBulkWriteOrdered = mongoBulkWriteOrdered;
+        }
+        public boolean isMongoRangePaging() { return mongoRangePaging; }
+        public void setMongoRangePaging(boolean mongoRangePaging) {
+            this.mongoRangePaging = mongoRangePaging;
+        }
+        public int getMongoCountMaxTimeSeconds() { return mongoCountMaxTimeSeconds; }
+        public void setMongoCountMaxTimeSeconds(int mongoCountMaxTimeSeconds) {
+            this.mongoCountMaxTimeSeconds = mongoCountMaxTimeSeconds;
+        }
+        public boolean isMongoAggregateAllowDiskUse() { return mongoAggregateAllowDiskUse; }
+        public void setMongoAggregateAllowDiskUse(boolean mongoAggregateAllowDiskUse) {
+            this.mongoAggregateAllowDiskUse = mongoAggregateAllowDiskUse;
+        }
+        public int getMongoAggregateBatchSize() { return mongoAggregateBatchSize; }
+        public void setMongoAggregateBatchSize(int mongoAggregateBatchSize) {
+            this.mongoAggregateBatchSize = mongoAggregateBatchSize;
+        }
     }
 
     private static final Path FILE =
@@ -0,0 +1,241 @@
+package com.roze.dbnavigator.db;
+
+import com.roze.dbnavigator.model.ConnectionProfile;
+import com.roze.dbnavigator.model.DbObject;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * Loads rows pulled from a {@link RowSource} into one table with JDBC
+ * batching: rows are bound and addBatch()'d, sent with executeBatch() every
+ * {@code batchSize} rows (which the MySQL/PostgreSQL drivers rewrite into
+ * multi-row INSERTs — see JdbcClient), and committed every
+ * {@code commitEvery} rows so a huge file neither holds one giant
+ * transaction open nor pays a commit per row. Nothing is read ahead beyond
+ * the current batch, so the file can be any size.
+ *
+ * A batch that fails is rolled back to a savepoint taken just before it and
+ * replayed one row at a time (each under its own savepoint — PostgreSQL
+ * otherwise aborts the whole transaction on the first error), so the good
+ * rows still go in and each bad one is reported with its line number.
+ */
+public final class BatchImporter {
+
+    public static final int DEFAULT_BATCH_SIZE = 1_000;
+    public static final int DEFAULT_COMMIT_EVERY = 10_000;
+
+    /** Failed rows listed individually in the log before it switches to a count. */
+    private static final int MAX_REPORTED_FAILURES = 100;
+
+    /** Pull-style source of already-split input rows. */
+    public interface RowSource extends AutoCloseable {
+        /** The next row's fields, or null at end of input. */
+        String[] next() throws IOException;
+
+        /** 1-based line in the input where the row last returned by {@link #next} started. */
+        long lineNumber();
+
+        @Override
+        default void close() throws IOException {}
+    }
+
+    public record Result(long imported, long failed, boolean cancelled) {}
+
+    private final ConnectionProfile profile;
+    private final DbObject table;
+    private final List<String> targetColumns;
+    private final int[] sourceIndexes;
+    private final int batchSize;
+    private final int commitEvery;
+
+    /**
+     * @param targetColumns table columns to insert, in parameter order
+     * @param sourceIndexes for each target column, the input field it takes its value from
+     */
+    public BatchImporter(ConnectionProfile profile, DbObject table, List<String> targetColumns,
+                         int[] sourceIndexes, int batchSize, int commitEvery) {
+        this.profile = profile;
+        this.table = table;
+        this.targetColumns = List.copyOf(targetColumns);
+        this.sourceIndexes = sourceIndexes.clone();
+        this.batchSize = Math.max(1, batchSize);
+        this.commitEvery = Math.max(this.batchSize, commitEvery);
+    }
+
+    public String insertSql() {
+        return "INSERT INTO " + table.qualifiedName() + " ("
+                + String.join(", ", targetColumns.stream().map(DbObject::quote).toList())
+                + ") VALUES (" + String.join(", ", targetColumns.stream().map(c -> "?").toList()) + ")";
+    }
+
+    /**
+     * Runs the whole import on one pooled connection. Rows already committed
+     * stay committed if the run is cancelled or fails; only the batch in
+     * flight since the last commit is rolled back.
+     *
+     * @param log       progress and per-row failure lines (e.g. the Run panel)
+     * @param cancelled polled between rows
+     */
+    public Result run(RowSource source, Consumer<String> log, BooleanSupplier cancelled)
+            throws SQLException, IOException {
+        return run(MetadataService.loadColumnTypes(profile, table), source, log, cancelled);
+    }
+
+    /** As {@link #run(RowSource, Consumer, BooleanSupplier)} with the column types already loaded. */
+    Result run(Map<String, Integer> types, RowSource source, Consumer<String> log, BooleanSupplier cancelled)
+            throws SQLException, IOException {
+        Integer[] columnTypes = new Integer[targetColumns.size()];
+        for (int i = 0; i < columnTypes.length; i++) columnTypes[i] = types.get(targetColumns.get(i));
+
+        try (Connection conn = ClientRegistry.jdbc(profile, table.getCatalog()).getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(insertSql())) {
+                return new Run(conn, stmt, columnTypes, log).load(source, cancelled);
+            } catch (SQLException | IOException | RuntimeException failure) {
+                try { conn.rollback(); } catch (SQLException ignored) {}
+                throw failure;
+            }
+        }
+    }
+
+    /** State of one import run. */
+    private final class Run {
+        private final Connection conn;
+        private final PreparedStatement stmt;
+        private final Integer[] columnTypes;
+        private final Consumer<String> log;
+        private final boolean savepoints;
+
+        private final String[][] pending;
+        private final long[] pendingLines;
+        private int pendingCount;
+
+        private long imported;
+        private long failed;
+        private long sinceCommit;
+        private final long started = System.nanoTime();
+
+        Run(Connection conn, PreparedStatement stmt, Integer[] columnTypes, Consumer<String> log)
+                throws SQLException {
+            this.conn = conn;
+            this.stmt = stmt;
+            this.columnTypes = columnTypes;
+            this.log = log;
+            this.savepoints = conn.getMetaData().supportsSavepoints();
+            this.pending = new String[batchSize][];
+            this.pendingLines = new long[batchSize];
+        }
+
+        Result load(RowSource source, BooleanSupplier cancelled) throws SQLException, IOException {
+            String[] fields;
+            while ((fields = source.next()) != null) {
+                if (cancelled.getAsBoolean()) {
+                    conn.rollback();
+                    log.accept("Import stopped — " + String.format("%,d", imported - sinceCommit)
+                            + " row(s) committed before the stop were kept.");
+                    return new Result(imported - sinceCommit, failed, true);
+                }
+                String[] values = new String[sourceIndexes.length];
+                for (int i = 0; i < values.length; i++) {
+                    int src = sourceIndexes[i];
+                    values[i] = src < fields.length ? fields[src] : null;
+                }
+                long line = source.lineNumber();
+                try {
+                    bind(values);
+                    stmt.addBatch();
+                } catch (SQLException bindFailure) {
+                    stmt.clearParameters();
+                    reportFailure(line, bindFailure);
+                    continue;
+                }
+                pending[pendingCount] = values;
+                pendingLines[pendingCount] = line;
+                if (++pendingCount == batchSize) flush();
+            }
+            flush();
+            commit();
+            return new Result(imported, failed, false);
+        }
+
+        private void bind(String[] values) throws SQLException {
+            for (int i = 0; i < values.length; i++) {
+                SqlValueBinder.bind(stmt, i + 1, columnTypes[i], values[i]);
+            }
+        }
+
+        private void flush() throws SQLException {
+            if (pendingCount == 0) return;
+            Savepoint before = savepoints ? conn.setSavepoint() : null;
+            try {
+                stmt.executeBatch();
+                imported += pendingCount;
+                sinceCommit += pendingCount;
+                release(before);
+            } catch (SQLException batchFailure) {
+                stmt.clearBatch();
+                if (before != null) {
+                    conn.rollback(before);
+                } else {
+                    // Without savepoints every batch is committed on its own
+                    // (below), so rolling back to the last commit undoes
+                    // exactly this batch and nothing before it.
+                    conn.rollback();
+                }
+                replayRowByRow();
+            }
+            pendingCount = 0;
+            if (sinceCommit >= commitEvery || !savepoints) commit();
+        }
+
+        private void replayRowByRow() throws SQLException {
+            for (int i = 0; i < pendingCount; i++) {
+                Savepoint before = savepoints ? conn.setSavepoint() : null;
+                try {
+                    bind(pending[i]);
+                    stmt.executeUpdate();
+                    imported++;
+                    sinceCommit++;
+                    release(before);
+                } catch (SQLException rowFailure) {
+                    if (before != null) conn.rollback(before);
+                    else conn.rollback();
+                    reportFailure(pendingLines[i], rowFailure);
+                }
+                if (before == null) commit();
+            }
+        }
+
+        private void commit() throws SQLException {
+            if (sinceCommit == 0) return;
+            conn.commit();
+            sinceCommit = 0;
+            double seconds = Math.max(0.001, (System.nanoTime() - started) / 1e9);
+            log.accept(String.format("  %,d row(s) committed (%.0f rows/s)", imported, imported / seconds));
+        }
+
+        private void release(Savepoint savepoint) {
+            if (savepoint == null) return;
+            try { conn.releaseSavepoint(savepoint); } catch (SQLException ignored) {
+                // Oracle has no RELEASE SAVEPOINT; the savepoint just lapses at commit.
+            }
+        }
+
+        private void reportFailure(long line, SQLException e) {
+            failed++;
+            if (failed <= MAX_REPORTED_FAILURES) {
+                log.accept("Line " + line + " failed: " + e.getMessage());
+            } else if (failed == MAX_REPORTED_FAILURES + 1) {
+                log.accept("(further failed lines are counted but not listed)");
+            }
+        }
+    }
+}
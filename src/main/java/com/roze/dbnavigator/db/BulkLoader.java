@@ -0,0 +1,372 @@
+package com.roze.dbnavigator.db;
+
+import com.microsoft.sqlserver.jdbc.ISQLServerBulkData;
+import com.microsoft.sqlserver.jdbc.SQLServerBulkCopy;
+import com.microsoft.sqlserver.jdbc.SQLServerBulkCopyOptions;
+import com.microsoft.sqlserver.jdbc.SQLServerConnection;
+import com.roze.dbnavigator.model.ConnectionProfile;
+import com.roze.dbnavigator.model.ConnectionProfile.DatabaseType;
+import com.roze.dbnavigator.model.DbObject;
+import org.postgresql.PGConnection;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLWarning;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * Import through each engine's native bulk protocol instead of INSERTs:
+ * PostgreSQL COPY FROM STDIN, MySQL/MariaDB LOAD DATA LOCAL INFILE fed from
+ * an in-memory stream, and SQL Server's bulk copy. The mapped columns are
+ * re-encoded on the fly as the rows are pulled, so like {@link BatchImporter}
+ * nothing beyond a small buffer is ever held in memory.
+ *
+ * Trade-off versus batched INSERTs: a bulk load is one statement, so it is
+ * all-or-nothing and the engine reports only the first bad row (COPY and
+ * bulk copy) or downgrades bad values to warnings (LOAD DATA LOCAL). Engines
+ * without a native path (SQLite, Oracle, ...) go through BatchImporter.
+ */
+public final class BulkLoader {
+
+    /** Encoded rows are handed to the driver in chunks of about this size. */
+    private static final int CHUNK_CHARS = 64 * 1024;
+    private static final long PROGRESS_INTERVAL_MS = 2_000;
+    /** LOAD DATA warnings echoed to the log before just counting them. */
+    private static final int MAX_REPORTED_WARNINGS = 20;
+
+    private final ConnectionProfile profile;
+    private final DbObject table;
+    private final List<String> targetColumns;
+    private final int[] sourceIndexes;
+    private final int batchSize;
+    private final int commitEvery;
+
+    /** Same arguments as {@link BatchImporter}, which is used when there is no native path. */
+    public BulkLoader(ConnectionProfile profile, DbObject table, List<String> targetColumns,
+                      int[] sourceIndexes, int batchSize, int commitEvery) {
+        this.profile = profile;
+        this.table = table;
+        this.targetColumns = List.copyOf(targetColumns);
+        this.sourceIndexes = sourceIndexes.clone();
+        this.batchSize = Math.max(1, batchSize);
+        this.commitEvery = commitEvery;
+    }
+
+    public static boolean supports(DatabaseType type) {
+        return type == DatabaseType.POSTGRESQL || type == DatabaseType.MYSQL
+                || type == DatabaseType.MARIADB || type == DatabaseType.SQLSERVER;
+    }
+
+    public BatchImporter.Result run(BatchImporter.RowSource source, Consumer<String> log,
+                                    BooleanSupplier cancelled) throws SQLException, IOException {
+        return switch (profile.getType()) {
+            case POSTGRESQL -> copy(source, log, cancelled);
+            case MYSQL, MARIADB -> loadData(source, log, cancelled);
+            case SQLSERVER -> bulkCopy(source, log, cancelled);
+            default -> {
+                log.accept("No native bulk-load path for " + profile.getType() + " — using batched INSERTs.");
+                yield new BatchImporter(profile, table, targetColumns, sourceIndexes, batchSize, commitEvery)
+                        .run(source, log, cancelled);
+            }
+        };
+    }
+
+    private String columnList() {
+        return String.join(", ", targetColumns.stream().map(DbObject::quote).toList());
+    }
+
+    // ---- PostgreSQL -------------------------------------------------------
+
+    private BatchImporter.Result copy(BatchImporter.RowSource source, Consumer<String> log,
+                                      BooleanSupplier cancelled) throws SQLException, IOException {
+        String sql = "COPY " + table.qualifiedName() + " (" + columnList() + ") FROM STDIN WITH (FORMAT csv)";
+        try (Connection conn = ClientRegistry.jdbc(profile, table.getCatalog()).getConnection()) {
+            conn.setAutoCommit(false);
+            // CSV NULL is an unquoted empty field; every real value is quoted,
+            // so an empty string still arrives as '' rather than NULL.
+            CsvRowStream stream = new CsvRowStream(source, "", log, cancelled);
+            try {
+                long rows = conn.unwrap(PGConnection.class).getCopyAPI().copyIn(sql, stream, CHUNK_CHARS);
+                conn.commit();
+                return new BatchImporter.Result(rows, 0, false);
+            } catch (SQLException | IOException | RuntimeException failure) {
+                try { conn.rollback(); } catch (SQLException ignored) {}
+                if (stream.cancelled) return new BatchImporter.Result(0, 0, true);
+                throw failure;
+            }
+        }
+    }
+
+    // ---- MySQL / MariaDB --------------------------------------------------
+
+    private BatchImporter.Result loadData(BatchImporter.RowSource source, Consumer<String> log,
+                                          BooleanSupplier cancelled) throws SQLException, IOException {
+        // The pool has the LOAD DATA LOCAL opt-in set (see JdbcClient), so
+        // the load counts against the profile's connection budget like any
+        // other import.
+        String sql = "LOAD DATA LOCAL INFILE 'dbnavigator-import' INTO TABLE " + table.qualifiedName()
+                + " CHARACTER SET utf8mb4 FIELDS TERMINATED BY ',' OPTIONALLY ENCLOSED BY '\"' ESCAPED BY ''"
+                + " LINES TERMINATED BY '\\n' (" + columnList() + ")";
+        try (Connection conn = ClientRegistry.jdbc(profile, table.getCatalog()).getConnection();
+             Statement stmt = conn.createStatement()) {
+            conn.setAutoCommit(false);
+            // With ESCAPED BY '' an unquoted NULL is SQL NULL and a quoted one is the text.
+            CsvRowStream stream = new CsvRowStream(source, "NULL", log, cancelled);
+            if (profile.getType() == DatabaseType.MYSQL) {
+                stmt.unwrap(com.mysql.cj.jdbc.JdbcStatement.class).setLocalInfileInputStream(stream);
+            } else {
+                stmt.unwrap(org.mariadb.jdbc.Statement.class).setLocalInfileInputStream(stream);
+            }
+            try {
+                long rows = stmt.executeLargeUpdate(sql);
+                reportWarnings(stmt.getWarnings(), log);
+                conn.commit();
+                return new BatchImporter.Result(rows, 0, false);
+            } catch (SQLException | RuntimeException failure) {
+                try { conn.rollback(); } catch (SQLException ignored) {}
+                if (stream.cancelled) return new BatchImporter.Result(0, 0, true);
+                throw failure;
+            }
+        }
+    }
+
+    /**
+     * LOAD DATA LOCAL behaves as if IGNORE were given: unparseable values and
+     * duplicate keys become warnings and the row is adjusted or skipped, so
+     * those warnings are the only record of what went wrong.
+     */
+    private static void reportWarnings(SQLWarning warning, Consumer<String> log) {
+        long count = 0;
+        for (; warning != null; warning = warning.getNextWarning()) {
+            if (++count <= MAX_REPORTED_WARNINGS) log.accept("Warning: " + warning.getMessage());
+        }
+        if (count > MAX_REPORTED_WARNINGS) {
+            log.accept("(" + (count - MAX_REPORTED_WARNINGS) + " more warning(s) not listed)");
+        }
+        if (count > 0) log.accept(count + " warning(s): those rows were loaded with adjusted values or skipped.");
+    }
+
+    // ---- SQL Server -------------------------------------------------------
+
+    private BatchImporter.Result bulkCopy(BatchImporter.RowSource source, Consumer<String> log,
+                                          BooleanSupplier cancelled) throws SQLException, IOException {
+        Map<String, Integer> types = MetadataService.loadColumnTypes(profile, table);
+        try (Connection conn = ClientRegistry.jdbc(profile, table.getCatalog()).getConnection()) {
+            conn.setAutoCommit(false);
+            BulkRows rows = new BulkRows(source, types, columnSizes(conn), log, cancelled);
+            SQLServerBulkCopyOptions options = new SQLServerBulkCopyOptions();
+            options.setBatchSize(batchSize);
+            options.setBulkCopyTimeout(0);
+            options.setUseInternalTransaction(false);
+            try (SQLServerBulkCopy bulk = new SQLServerBulkCopy(conn.unwrap(SQLServerConnection.class))) {
+                bulk.setBulkCopyOptions(options);
+                bulk.setDestinationTableName(table.qualifiedName());
+                for (int i = 0; i < targetColumns.size(); i++) bulk.addColumnMapping(i + 1, targetColumns.get(i));
+                bulk.writeToServer(rows);
+                conn.commit();
+                return new BatchImporter.Result(rows.count, 0, false);
+            } catch (SQLException | RuntimeException failure) {
+                try { conn.rollback(); } catch (SQLException ignored) {}
+                if (rows.cancelled) return new BatchImporter.Result(0, 0, true);
+                throw failure;
+            }
+        }
+    }
+
+    /** COLUMN_SIZE / DECIMAL_DIGITS per column, which bulk copy needs as source precision/scale. */
+    private Map<String, int[]> columnSizes(Connection conn) throws SQLException {
+        Map<String, int[]> sizes = new HashMap<>();
+        try (ResultSet rs = conn.getMetaData().getColumns(conn.getCatalog(), table.getSchema(), table.getName(), "%")) {
+            while (rs.next()) {
+                sizes.put(rs.getString("COLUMN_NAME"), new int[]{rs.getInt("COLUMN_SIZE"), rs.getInt("DECIMAL_DIGITS")});
+            }
+        }
+        return sizes;
+    }
+
+    /**
+     * Bulk copy pulls rows itself: each next() reads one input row and
+     * converts the mapped fields to the column's Java type the same way
+     * SqlValueBinder would. Columns of types it has no conversion for are
+     * declared as NVARCHAR and left for the server to convert.
+     */
+    @SuppressWarnings("serial")
+    private final class BulkRows implements ISQLServerBulkData {
+        private final BatchImporter.RowSource source;
+        private final Integer[] columnTypes;
+        private final int[] declaredTypes;
+        private final int[][] sizes;
+        private final Progress progress;
+        private final BooleanSupplier cancelRequested;
+        private Object[] current;
+        long count;
+        boolean cancelled;
+
+        BulkRows(BatchImporter.RowSource source, Map<String, Integer> types, Map<String, int[]> columnSizes,
+                 Consumer<String> log, BooleanSupplier cancelRequested) {
+            this.source = source;
+            this.progress = new Progress(log);
+            this.cancelRequested = cancelRequested;
+            int n = targetColumns.size();
+            columnTypes = new Integer[n];
+            declaredTypes = new int[n];
+            sizes = new int[n][];
+            for (int i = 0; i < n; i++) {
+                Integer type = types.get(targetColumns.get(i));
+                columnTypes[i] = type;
+                declaredTypes[i] = type != null && SqlValueBinder.hasConversion(type) ? type : Types.NVARCHAR;
+                int[] size = columnSizes.getOrDefault(targetColumns.get(i), new int[]{0, 0});
+                sizes[i] = new int[]{size[0] > 0 ? size[0] : 4000, size[1]};
+            }
+        }
+
+        @Override
+        public Set<Integer> getColumnOrdinals() {
+            Set<Integer> ordinals = new LinkedHashSet<>();
+            for (int i = 1; i <= targetColumns.size(); i++) ordinals.add(i);
+            return ordinals;
+        }
+
+        @Override public String getColumnName(int column) { return targetColumns.get(column - 1); }
+        @Override public int getColumnType(int column) { return declaredTypes[column - 1]; }
+        @Override public int getPrecision(int column) { return sizes[column - 1][0]; }
+        @Override public int getScale(int column) { return sizes[column - 1][1]; }
+        @Override public Object[] getRowData() { return current; }
+
+        @Override
+        public boolean next() throws SQLException {
+            if (cancelRequested.getAsBoolean()) {
+                cancelled = true;
+                throw new SQLException("Import cancelled");
+            }
+            String[] fields;
+            try {
+                fields = source.next();
+            } catch (IOException e) {
+                throw new SQLException("Could not read import file: " + e.getMessage(), e);
+            }
+            if (fields == null) return false;
+            current = new Object[sourceIndexes.length];
+            for (int i = 0; i < current.length; i++) {
+                int src = sourceIndexes[i];
+                String text = src < fields.length ? fields[src] : null;
+                current[i] = declaredTypes[i] == Types.NVARCHAR
+                        ? (text == null || text.equals("NULL") ? null : text)
+                        : SqlValueBinder.convert(columnTypes[i], text);
+            }
+            progress.row(++count);
+            return true;
+        }
+    }
+
+    // ---- shared -----------------------------------------------------------
+
+    /**
+     * Encodes the mapped fields of each pulled row as one CSV line — every
+     * non-null value double-quoted with quotes doubled, NULL written as the
+     * given unquoted token — and serves the UTF-8 bytes to the driver a chunk
+     * at a time.
+     */
+    private final class CsvRowStream extends InputStream {
+        private final BatchImporter.RowSource source;
+        private final String nullToken;
+        private final Progress progress;
+        private final BooleanSupplier cancelRequested;
+        private final StringBuilder chunk = new StringBuilder(CHUNK_CHARS + 1024);
+        private byte[] buffer = new byte[0];
+        private int position;
+        private boolean done;
+        private long rows;
+        boolean cancelled;
+
+        CsvRowStream(BatchImporter.RowSource source, String nullToken, Consumer<String> log,
+                     BooleanSupplier cancelRequested) {
+            this.source = source;
+            this.nullToken = nullToken;
+            this.progress = new Progress(log);
+            this.cancelRequested = cancelRequested;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return fill() ? buffer[position++] & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) return 0;
+            if (!fill()) return -1;
+            int n = Math.min(len, buffer.length - position);
+            System.arraycopy(buffer, position, b, off, n);
+            position += n;
+            return n;
+        }
+
+        private boolean fill() throws IOException {
+            if (position < buffer.length) return true;
+            if (done) return false;
+            if (cancelRequested.getAsBoolean()) {
+                cancelled = true;
+                throw new IOException("Import cancelled");
+            }
+            chunk.setLength(0);
+            String[] fields;
+            while (chunk.length() < CHUNK_CHARS && (fields = source.next()) != null) {
+                for (int i = 0; i < sourceIndexes.length; i++) {
+                    if (i > 0) chunk.append(',');
+                    int src = sourceIndexes[i];
+                    String value = src < fields.length ? fields[src] : null;
+                    if (value == null || value.equals("NULL")) {
+                        chunk.append(nullToken);
+                    } else {
+                        chunk.append('"');
+                        for (int c = 0; c < value.length(); c++) {
+                            char ch = value.charAt(c);
+                            if (ch == '"') chunk.append('"');
+                            chunk.append(ch);
+                        }
+                        chunk.append('"');
+                    }
+                }
+                chunk.append('\n');
+                progress.row(++rows);
+            }
+            if (chunk.length() == 0) {
+                done = true;
+                return false;
+            }
+            buffer = chunk.toString().getBytes(StandardCharsets.UTF_8);
+            position = 0;
+            return true;
+        }
+    }
+
+    /** Rate-limited "rows sent so far" lines for the Run panel. */
+    private static final class Progress {
+        private final Consumer<String> log;
+        private final long started = System.currentTimeMillis();
+        private long lastReport = started;
+
+        Progress(Consumer<String> log) { this.log = log; }
+
+        void row(long rows) {
+            long now = System.currentTimeMillis();
+            if (now - lastReport < PROGRESS_INTERVAL_MS) return;
+            lastReport = now;
+            double seconds = Math.max(0.001, (now - started) / 1000.0);
+            log.accept(String.format("  %,d row(s) sent (%.0f rows/s)", rows, rows / seconds));
+        }
+    }
+}
@@ -2,15 +2,44 @@ package com.roze.dbnavigator.db;
 
 import com.roze.dbnavigator.model.ConnectionProfile;
 import com.roze.dbnavigator.model.ConnectionProfile.DatabaseType;
+import com.roze.dbnavigator.util.AppExecutor;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
 
-/** Keeps live clients per connection profile, and per database when a query targets one specifically. */
+/**
+ * Keeps live clients per connection profile, and per database when a query targets one specifically.
+ *
+ * Pools of databases other than the connection's own are closed again when
+ * unused: after the profile's idle window, or — least recently used first —
+ * once the profile has more of them open than its cap. Nobody keeps a
+ * JdbcClient across calls (everything asks {@link #jdbc} again), so the next
+ * use just opens a fresh pool. A pool with a connection checked out (a
+ * paged result, an open transaction) is never closed under its user.
+ */
 public final class ClientRegistry {
 
+    private static final long SWEEP_SECONDS = 30;
+    /** Grace period so a pool handed out a moment ago isn't closed before its caller borrows a connection. */
+    private static final long MIN_UNUSED_NANOS = TimeUnit.SECONDS.toNanos(5);
+
     private static final Map<String, JdbcClient> jdbcClients = new ConcurrentHashMap<>();
     private static final Map<String, MongoDbClient> mongoClients = new ConcurrentHashMap<>();
+    /** Per profile: the connection budget all of its JDBC pools share. */
+    private static final Map<String, ConnectionBudget> budgets = new ConcurrentHashMap<>();
+    /** Per profile: the single-connection pools of consoles in session mode. Never idle-closed. */
+    private static final Map<String, Set<JdbcClient>> sessions = new ConcurrentHashMap<>();
+
+    static {
+        JdbcClient.HOUSEKEEPING.scheduleWithFixedDelay(ClientRegistry::closeIdlePools,
+                SWEEP_SECONDS, SWEEP_SECONDS, TimeUnit.SECONDS);
+    }
 
     private ClientRegistry() {}
 
@@ -38,7 +67,168 @@ public final class ClientRegistry {
                 && !catalog.equals(profile.getDatabase());
         String key = perCatalog ? profile.getId() + "::" + catalog : profile.getId();
         String override = perCatalog ? catalog : null;
-        return jdbcClients.computeIfAbsent(key, k -> new JdbcClient(profile, override));
+        ConnectionBudget budget = budgetFor(profile);
+        boolean[] created = {false};
+        // Touched inside compute so the idle sweep, which removes under the
+        // same lock, can't close a pool between lookup and touch.
+        JdbcClient client = jdbcClients.compute(key, (k, existing) -> {
+            JdbcClient c = existing;
+            if (c == null) {
+                created[0] = true;
+                c = new JdbcClient(profile, override, budget);
+            }
+            c.touch();
+            return c;
+        });
+        if (created[0] && perCatalog) {
+            enforcePoolCap(profile, key);
+        }
+        if (created[0] && !perCatalog && profile.isPoolPrewarm()) {
+            AppExecutor.run(() -> prewarm(profile));
+        }
+        return client;
+    }
+
+    private static ConnectionBudget budgetFor(ConnectionProfile profile) {
+        return budgets.computeIfAbsent(profile.getId(), id -> new ConnectionBudget(profile.getPoolConnectionBudget()));
+    }
+
+    /**
+     * Called when a profile is saved: a budget cached from its old settings
+     * is dropped if the limit changed, so the next pool opened gets the new
+     * one. Pools already open keep the budget they were created with until
+     * they close — editing a connection disconnects it anyway.
+     */
+    static void profileSaved(ConnectionProfile profile) {
+        int limit = Math.max(0, profile.getPoolConnectionBudget());
+        budgets.computeIfPresent(profile.getId(), (id, budget) -> budget.limit() == limit ? budget : null);
+    }
+
+    /**
+     * Opens a console session: its own one-connection pool (see
+     * {@link JdbcClient#session}) inside the profile's connection budget,
+     * connected before this returns. The console owns it and must hand it to
+     * {@link #closeSession}; disconnecting the profile closes it as well.
+     */
+    public static JdbcClient openSession(ConnectionProfile profile, String catalog) {
+        boolean perCatalog = catalog != null && !catalog.isBlank() && !catalog.equals(profile.getDatabase());
+        JdbcClient session = JdbcClient.session(profile, perCatalog ? catalog : null, budgetFor(profile));
+        sessions.computeIfAbsent(profile.getId(), id -> ConcurrentHashMap.newKeySet()).add(session);
+        return session;
+    }
+
+    public static void closeSession(JdbcClient session) {
+        Set<JdbcClient> open = sessions.get(session.getProfile().getId());
+        if (open != null) open.remove(session);
+        session.close();
+    }
+
+    /** Closes the least recently used idle database pools beyond the profile's cap, sparing {@code keep}. */
+    private static void enforcePoolCap(ConnectionProfile profile, String keep) {
+        List<String> others = new ArrayList<>();
+        for (Map.Entry<String, JdbcClient> e : jdbcClients.entrySet()) {
+            if (isDatabasePoolOf(profile, e.getKey()) && !e.getKey().equals(keep)) others.add(e.getKey());
+        }
+        int excess = others.size() + 1 - profile.getPoolMaxDatabasePools();
+        if (excess <= 0) return;
+        others.sort(Comparator.comparingLong(k -> {
+            JdbcClient c = jdbcClients.get(k);
+            return c == null ? Long.MIN_VALUE : c.lastUsedNanos();
+        }));
+        long now = System.nanoTime();
+        for (String key : others) {
+            if (excess == 0) return;
+            // Busy pools are skipped; the cap is then exceeded until they
+            // go quiet, while the connection budget still holds.
+            if (closeIf(key, c -> now - c.lastUsedNanos() >= MIN_UNUSED_NANOS)) excess--;
+        }
+    }
+
+    /** The periodic sweep: closes every database pool unused for longer than its profile's idle window. */
+    private static void closeIdlePools() {
+        long now = System.nanoTime();
+        for (String key : List.copyOf(jdbcClients.keySet())) {
+            if (!key.contains("::")) continue;   // the connection's own pool stays until disconnect
+            try {
+                closeIf(key, c -> {
+                    int minutes = c.getProfile().getPoolIdleCloseMinutes();
+                    long unused = now - c.lastUsedNanos();
+                    return minutes > 0 && unused >= Math.max(MIN_UNUSED_NANOS, TimeUnit.MINUTES.toNanos(minutes));
+                });
+            } catch (RuntimeException ignored) {
+                // never let one pool's failure cancel the scheduled sweep
+            }
+        }
+    }
+
+    /**
+     * Removes the pool if it is idle and {@code unused} holds — checked under
+     * the map's lock so a concurrent {@link #jdbc} either sees it gone and
+     * opens a new one, or touches it first and keeps it. The close itself
+     * (which waits for Hikari to shut its connections) runs off the lock.
+     */
+    private static boolean closeIf(String key, Predicate<JdbcClient> unused) {
+        JdbcClient[] removed = {null};
+        jdbcClients.computeIfPresent(key, (k, c) -> {
+            if (c.isBusy() || !unused.test(c)) return c;
+            removed[0] = c;
+            return null;
+        });
+        if (removed[0] == null) return false;
+        AppExecutor.run(removed[0]::close);
+        return true;
+    }
+
+    private static boolean isDatabasePoolOf(ConnectionProfile profile, String key) {
+        return key.startsWith(profile.getId() + "::");
+    }
+
+    /**
+     * Opens, in the background, the pools of the databases this connection
+     * shows in the tree (its Show/Hide Databases selection), so the first
+     * expansion or console on each doesn't wait for a connection handshake.
+     * Only explicitly selected databases — "show all" could mean hundreds —
+     * and only while the connection budget has room.
+     */
+    private static void prewarm(ConnectionProfile profile) {
+        List<String> visible = profile.getVisibleDatabases();
+        if (visible == null) return;
+        for (String database : visible) {
+            ConnectionBudget budget = budgets.get(profile.getId());
+            if (budget == null || !budget.hasRoom()) return;   // disconnected meanwhile, or out of room
+            long open = jdbcClients.keySet().stream().filter(k -> isDatabasePoolOf(profile, k)).count();
+            if (open >= profile.getPoolMaxDatabasePools()) return;   // would only evict what it just opened
+            try {
+                jdbc(profile, database);
+            } catch (RuntimeException ignored) {
+                // best-effort — the tree reports it if the user actually opens that database
+            }
+        }
+    }
+
+    /** One open pool of a profile: the database it serves (null for the connection's own) and its statistics. */
+    public record PoolStatus(String database, PoolMetrics.Snapshot stats) {}
+
+    /** Every open JDBC pool of the profile, the connection's own first. */
+    public static List<PoolStatus> poolStats(ConnectionProfile profile) {
+        List<PoolStatus> result = new ArrayList<>();
+        JdbcClient own = jdbcClients.get(profile.getId());
+        if (own != null) result.add(new PoolStatus(null, own.poolStats()));
+        String prefix = profile.getId() + "::";
+        jdbcClients.entrySet().stream()
+                .filter(e -> isDatabasePoolOf(profile, e.getKey()))
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(e -> result.add(new PoolStatus(e.getKey().substring(prefix.length()),
+                        e.getValue().poolStats())));
+        for (JdbcClient session : sessions.getOrDefault(profile.getId(), Set.of())) {
+            result.add(new PoolStatus("console session", session.poolStats()));
+        }
+        return result;
+    }
+
+    /** The profile's shared connection budget, or null while none of its pools is open. */
+    public static ConnectionBudget budget(ConnectionProfile profile) {
+        return budgets.get(profile.getId());
     }
 
     public static MongoDbClient mongo(ConnectionProfile profile) {
@@ -58,8 +248,12 @@ public final class ClientRegistry {
             }
             return false;
         });
+        Set<JdbcClient> openSessions = sessions.remove(profile.getId());
+        if (openSessions != null) openSessions.forEach(JdbcClient::close);
+        budgets.remove(profile.getId());
         MongoDbClient mongo = mongoClients.remove(profile.getId());
         if (mongo != null) mongo.close();
+        MongoSchemaSampler.invalidate(profile);
     }
 
     /**
@@ -79,6 +273,9 @@ public final class ClientRegistry {
     public static void closeAll() {
         jdbcClients.values().forEach(JdbcClient::close);
         jdbcClients.clear();
+        sessions.values().forEach(open -> open.forEach(JdbcClient::close));
+        sessions.clear();
+        budgets.clear();
         mongoClients.values().forEach(MongoDbClient::close);
         mongoClients.clear();
     }
@@ -0,0 +1,105 @@
+package com.roze.dbnavigator.db;
+
+import com.roze.dbnavigator.model.ColumnarRows;
+import com.roze.dbnavigator.model.ColumnarRows.Kind;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Reads JDBC rows straight into {@link ColumnarRows} with the primitive
+ * getters (getLong/getDouble/getTimestamp...) so no per-cell boxed object or
+ * String survives the read — shared by {@link JdbcClient} and
+ * {@link PagedResultCursor}, which used to each build List-of-String rows.
+ */
+final class ColumnarReader {
+
+    private ColumnarReader() {}
+
+    /**
+     * Storage kind per column, from the driver's reported Java class.
+     *
+     * @param typed false for SQLite: its column "types" are only declared
+     *              affinities and any cell may hold any value, so getLong() on
+     *              an INTEGER column could silently turn stored text into 0.
+     *              Everything is read as text there, exactly as before.
+     */
+    static Kind[] kinds(ResultSetMetaData meta, boolean typed) throws SQLException {
+        Kind[] kinds = new Kind[meta.getColumnCount()];
+        for (int i = 0; i < kinds.length; i++) {
+            kinds[i] = typed ? kindOf(safeClassName(meta, i + 1)) : Kind.TEXT;
+        }
+        return kinds;
+    }
+
+    private static Kind kindOf(String className) {
+        return switch (className) {
+            case "java.lang.Long", "java.lang.Integer", "java.lang.Short", "java.lang.Byte" -> Kind.LONG;
+            case "java.lang.Double" -> Kind.DOUBLE;
+            case "java.lang.Float" -> Kind.FLOAT;
+            case "java.lang.Boolean" -> Kind.BOOLEAN;
+            case "java.sql.Timestamp" -> Kind.TIMESTAMP;
+            case "java.sql.Date" -> Kind.DATE;
+            case "java.time.LocalDateTime" -> Kind.LOCAL_DATE_TIME;
+            case "java.time.LocalDate" -> Kind.LOCAL_DATE;
+            default -> Kind.TEXT;
+        };
+    }
+
+    private static String safeClassName(ResultSetMetaData meta, int i) {
+        try {
+            String name = meta.getColumnClassName(i);
+            return name == null ? "" : name;
+        } catch (SQLException e) {
+            return "";
+        }
+    }
+
+    /** Copies the ResultSet's current row into a new row of {@code into}. */
+    static void readRow(ResultSet rs, ColumnarRows into) throws SQLException {
+        int row = into.addRow();
+        for (int c = 0; c < into.columnCount(); c++) {
+            int i = c + 1;
+            switch (into.kind(c)) {
+                case LONG -> {
+                    long v = rs.getLong(i);
+                    if (rs.wasNull()) into.setNull(row, c); else into.setLong(row, c, v);
+                }
+                case DOUBLE, FLOAT -> {
+                    double v = rs.getDouble(i);
+                    if (rs.wasNull()) into.setNull(row, c); else into.setDouble(row, c, v);
+                }
+                case BOOLEAN -> {
+                    boolean v = rs.getBoolean(i);
+                    if (rs.wasNull()) into.setNull(row, c); else into.setBoolean(row, c, v);
+                }
+                case TIMESTAMP -> {
+                    Timestamp ts = rs.getTimestamp(i);
+                    if (ts == null) into.setNull(row, c); else into.setTemporal(row, c, ts.getTime(), ts.getNanos());
+                }
+                case DATE -> {
+                    java.sql.Date d = rs.getDate(i);
+                    if (d == null) into.setNull(row, c); else into.setLong(row, c, d.getTime());
+                }
+                case LOCAL_DATE_TIME -> {
+                    LocalDateTime t = rs.getObject(i, LocalDateTime.class);
+                    if (t == null) into.setNull(row, c);
+                    else into.setTemporal(row, c, t.toEpochSecond(ZoneOffset.UTC), t.getNano());
+                }
+                case LOCAL_DATE -> {
+                    LocalDate d = rs.getObject(i, LocalDate.class);
+                    if (d == null) into.setNull(row, c); else into.setLong(row, c, d.toEpochDay());
+                }
+                case TEXT -> {
+                    Object value = rs.getObject(i);
+                    into.setText(row, c, value == null ? null : String.valueOf(value));
+                }
+            }
+        }
+    }
+}
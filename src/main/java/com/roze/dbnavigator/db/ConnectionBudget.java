@@ -0,0 +1,179 @@
+package com.roze.dbnavigator.db;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTransientConnectionException;
+import java.util.Properties;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * Caps the physical connections one connection profile holds across all of
+ * its pools. Each database browsed under a profile gets its own Hikari pool
+ * (see {@link ClientRegistry#jdbc}), and each pool sizes itself
+ * independently — with twenty PostgreSQL databases expanded, twenty pools of
+ * ten could ask a server with a 100-connection limit for 200.
+ *
+ * Hikari has no notion of a limit shared between pools, so the budget sits
+ * underneath them instead: every pool opens its connections through a
+ * {@link #dataSource} that takes a permit first and gives it back when the
+ * physical connection closes. When the budget is used up a pool waits for
+ * another pool to retire an idle connection (their idle timeout does that
+ * within a minute), and fails its borrower with a clear message if none
+ * comes back within the wait.
+ */
+public final class ConnectionBudget {
+
+    private final int limit;
+    /** Null when unlimited. */
+    private final Semaphore permits;
+    private final AtomicInteger open = new AtomicInteger();
+
+    /** @param limit physical connections allowed at once; 0 or less means unlimited */
+    public ConnectionBudget(int limit) {
+        this.limit = Math.max(0, limit);
+        this.permits = this.limit == 0 ? null : new Semaphore(this.limit, true);
+    }
+
+    /** 0 when unlimited. */
+    public int limit() { return limit; }
+
+    /** Physical connections currently open under this budget. */
+    public int inUse() { return open.get(); }
+
+    public boolean hasRoom() {
+        return permits == null || permits.availablePermits() > 0;
+    }
+
+    private void release() {
+        open.decrementAndGet();
+        if (permits != null) permits.release();
+    }
+
+    /**
+     * A DataSource for Hikari's {@code setDataSource} that opens driver
+     * connections via DriverManager — what Hikari itself does for a plain
+     * JDBC URL — within this budget.
+     *
+     * @param properties      driver properties (the ones a JDBC-URL pool gets from addDataSourceProperty)
+     * @param waitMillis      how long to wait for room in the budget before failing
+     */
+    public DataSource dataSource(String jdbcUrl, Properties properties, long waitMillis) {
+        return new BudgetedDataSource(jdbcUrl, properties, waitMillis);
+    }
+
+    private final class BudgetedDataSource implements DataSource {
+        private final String jdbcUrl;
+        private final Properties properties;
+        private final long waitMillis;
+        private int loginTimeout;
+
+        BudgetedDataSource(String jdbcUrl, Properties properties, long waitMillis) {
+            this.jdbcUrl = jdbcUrl;
+            this.properties = properties;
+            this.waitMillis = waitMillis;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return open(copy(properties));
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            Properties withLogin = copy(properties);
+            if (username != null) withLogin.setProperty("user", username);
+            if (password != null) withLogin.setProperty("password", password);
+            return open(withLogin);
+        }
+
+        /** A real copy, not a defaults chain: some drivers only iterate a Properties' own entries. */
+        private static Properties copy(Properties source) {
+            Properties copy = new Properties();
+            copy.putAll(source);
+            return copy;
+        }
+
+        private Connection open(Properties connectProperties) throws SQLException {
+            try {
+                if (permits != null && !permits.tryAcquire(waitMillis, TimeUnit.MILLISECONDS)) {
+                    throw new SQLTransientConnectionException("All " + limit + " connections of this data "
+                            + "source's connection budget are in use by its other databases");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLTransientConnectionException("Interrupted while waiting for the connection budget", e);
+            }
+            open.incrementAndGet();
+            try {
+                return releasingOnClose(DriverManager.getConnection(jdbcUrl, connectProperties));
+            } catch (SQLException | RuntimeException e) {
+                release();
+                throw e;
+            }
+        }
+
+        /**
+         * Wraps the driver connection so the permit goes back exactly once
+         * when Hikari closes it. Everything else passes straight through —
+         * including unwrap(), so driver-specific APIs (PGConnection's COPY,
+         * SQLServerBulkCopy) still reach the real connection.
+         */
+        private Connection releasingOnClose(Connection physical) {
+            AtomicBoolean released = new AtomicBoolean();
+            InvocationHandler handler = (proxy, method, args) -> {
+                if ("close".equals(method.getName()) && method.getParameterCount() == 0) {
+                    try {
+                        physical.close();
+                    } finally {
+                        if (released.compareAndSet(false, true)) release();
+                    }
+                    return null;
+                }
+                try {
+                    return method.invoke(physical, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            };
+            return (Connection) Proxy.newProxyInstance(ConnectionBudget.class.getClassLoader(),
+                    new Class<?>[] {Connection.class}, handler);
+        }
+
+        @Override public PrintWriter getLogWriter() { return null; }
+        @Override public void setLogWriter(PrintWriter out) { }
+        /** Same as Hikari's own JDBC-URL data source: DriverManager's login timeout is the only one there is. */
+        @Override
+        public void setLoginTimeout(int seconds) {
+            loginTimeout = seconds;
+            DriverManager.setLoginTimeout(seconds);
+        }
+        @Override public int getLoginTimeout() { return loginTimeout; }
+
+        @Override
+        public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+            throw new SQLFeatureNotSupportedException();
+        }
+
+        @Override
+        public <T> T unwrap(Class<T> iface) throws SQLException {
+            if (iface.isInstance(this)) return iface.cast(this);
+            throw new SQLException("Not a wrapper for " + iface.getName());
+        }
+
+        @Override
+        public boolean isWrapperFor(Class<?> iface) {
+            return iface.isInstance(this);
+        }
+    }
+}
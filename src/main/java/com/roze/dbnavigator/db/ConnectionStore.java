@@ -59,6 +59,7 @@ public final class ConnectionStore {
         profiles.removeIf(p -> p.getId().equals(profile.getId()));
         profiles.add(profile);
         persist();
+        ClientRegistry.profileSaved(profile);
     }
 
     public static synchronized void delete(ConnectionProfile profile) {
@@ -1,38 +1,100 @@
 package com.roze.dbnavigator.db;
 
+import com.roze.dbnavigator.model.ColumnarRows;
 import com.roze.dbnavigator.model.ConnectionProfile;
 import com.roze.dbnavigator.model.QueryResult;
+import com.roze.dbnavigator.util.RowSink;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
 
+import java.io.IOException;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 
 /** One pooled JDBC client per relational connection profile. */
 public class JdbcClient implements AutoCloseable {
 
+    private static final long CONNECTION_TIMEOUT_MILLIS = 10_000;
+
+    /**
+     * One housekeeping thread for every pool instead of one per pool. Hikari
+     * otherwise starts a scheduler per HikariDataSource just to retire idle
+     * connections every 30 s, so the thread count grew with every database
+     * browsed. A shared executor handed to Hikari is never shut down by it.
+     * ClientRegistry's idle-pool sweep runs on it too.
+     */
+    static final ScheduledThreadPoolExecutor HOUSEKEEPING = housekeeping();
+
+    private static ScheduledThreadPoolExecutor housekeeping() {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread t = new Thread(r, "pool-housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+        executor.setRemoveOnCancelPolicy(true);
+        return executor;
+    }
+
     private final ConnectionProfile profile;
     private final HikariDataSource dataSource;
+    private final PoolMetrics metrics = new PoolMetrics();
+    private volatile long lastUsedNanos = System.nanoTime();
+    /** A console session: one long-lived connection with the driver's statement cache on. */
+    private final boolean session;
+
+    /**
+     * @param catalogOverride connect to a different database on the same server.
+     * @param budget          shared by all of the profile's pools; caps their physical connections together
+     */
+    public JdbcClient(ConnectionProfile profile, String catalogOverride, ConnectionBudget budget) {
+        this(profile, catalogOverride, budget, false);
+    }
 
-    public JdbcClient(ConnectionProfile profile) {
-        this(profile, null);
+    /**
+     * A pool of exactly one connection that is never retired, for a console
+     * in session mode: every statement the console runs lands on the same
+     * server session, so temp tables and SET variables survive between runs,
+     * and the driver's prepared-statement cache (switched on here, see
+     * {@link #statementCacheProperties}) keeps parsed statements across them.
+     * Only if the connection breaks does Hikari replace it — a fresh session.
+     */
+    static JdbcClient session(ConnectionProfile profile, String catalogOverride, ConnectionBudget budget) {
+        return new JdbcClient(profile, catalogOverride, budget, true);
     }
 
-    /** @param catalogOverride connect to a different database on the same server. */
-    public JdbcClient(ConnectionProfile profile, String catalogOverride) {
+    private JdbcClient(ConnectionProfile profile, String catalogOverride, ConnectionBudget budget,
+                       boolean session) {
         this.profile = profile;
+        this.session = session;
         HikariConfig config = new HikariConfig();
-        config.setJdbcUrl(profile.getJdbcUrl(catalogOverride));
+        Properties driverProperties = new Properties();
         if (profile.getType() != ConnectionProfile.DatabaseType.SQLITE) {
             config.setUsername(profile.getUsername());
             config.setPassword(profile.getPassword() == null ? "" : profile.getPassword());
         }
-        config.setMaximumPoolSize(10);
-        config.setMinimumIdle(2);
-        config.setConnectionTimeout(10_000);
-        config.setIdleTimeout(60_000);
-        config.setMaxLifetime(600_000);
+        if (session) {
+            config.setMaximumPoolSize(1);
+            config.setMinimumIdle(1);
+            config.setMaxLifetime(0);                 // never recycled: that would end the session
+            config.setKeepaliveTime(300_000);         // nor dropped by the server's idle timeout
+            driverProperties.putAll(statementCacheProperties(profile.getType()));
+        } else {
+            // Sized per profile. The connection's own pool keeps its idle
+            // connections ready; a pool for another database browsed under it
+            // keeps none (one when pre-warming), so the databases merely
+            // expanded once in the tree don't sit on the shared budget.
+            int maxSize = profile.getPoolMaxSize();
+            int minIdle = catalogOverride == null ? profile.getPoolMinIdle() : profile.isPoolPrewarm() ? 1 : 0;
+            config.setMaximumPoolSize(maxSize);
+            config.setMinimumIdle(Math.min(minIdle, maxSize));
+            config.setIdleTimeout(60_000);
+            config.setMaxLifetime(600_000);
+        }
+        config.setConnectionTimeout(CONNECTION_TIMEOUT_MILLIS);
         if (profile.getType() == ConnectionProfile.DatabaseType.SQLITE) {
             // SQLite's default journal mode (rollback journal) needs an
             // exclusive-ish lock to actually finish a commit. If ANOTHER
@@ -58,17 +120,141 @@ public class JdbcClient implements AutoCloseable {
             // as exactly that ALTER SESSION) rather than by changing the URL.
             config.setSchema(catalogOverride);
         }
+        // Let the drivers collapse a JDBC batch of single-row INSERTs into
+        // multi-row statements on the wire, so BatchImporter's executeBatch()
+        // is one round trip per batch rather than one per row. MariaDB's 3.x
+        // driver no longer has a rewrite option — it already sends batches
+        // over its bulk protocol by default.
+        switch (profile.getType()) {
+            case MYSQL -> driverProperties.setProperty("rewriteBatchedStatements", "true");
+            case POSTGRESQL -> driverProperties.setProperty("reWriteBatchedInserts", "true");
+            default -> { }
+        }
+        // BulkLoader's LOAD DATA LOCAL borrows from this pool, and both drivers
+        // refuse the statement unless the client opts in. Connector/J only
+        // reads the stream BulkLoader hands it when allowLoadLocalInfile is
+        // on (allowLoadLocalInfileInPath alone won't do), which also lets the
+        // server ask for a local file in reply to any query — acceptable for
+        // a server the user chose to connect to. MariaDB's driver additionally
+        // checks that the requested file is the one the statement named.
+        switch (profile.getType()) {
+            case MYSQL -> driverProperties.setProperty("allowLoadLocalInfile", "true");
+            case MARIADB -> driverProperties.setProperty("allowLocalInfile", "true");
+            default -> { }
+        }
+        config.setDataSource(budget.dataSource(profile.getJdbcUrl(catalogOverride), driverProperties,
+                CONNECTION_TIMEOUT_MILLIS));
+        config.setMetricsTrackerFactory(metrics);
+        config.setScheduledExecutor(HOUSEKEEPING);
         config.setPoolName("DBNav-" + profile.getName()
-                + (catalogOverride == null ? "" : "-" + catalogOverride));
+                + (catalogOverride == null ? "" : "-" + catalogOverride) + (session ? "-session" : ""));
         this.dataSource = new HikariDataSource(config);
     }
 
     public ConnectionProfile getProfile() { return profile; }
 
+    public boolean isSession() { return session; }
+
+    /**
+     * Driver settings that make a prepared statement's server-side parse
+     * outlive the PreparedStatement object, keyed by SQL text per connection:
+     * PostgreSQL server-prepares from the first execution (and, with
+     * stringtype=unspecified, lets the server type bound string values the
+     * way it types literals); MySQL and MariaDB prepare on the server and
+     * cache the handles; SQL Server pools its sp_prepare handles; Oracle keeps
+     * an implicit statement cache. SQLite has no server to parse on.
+     */
+    static Properties statementCacheProperties(ConnectionProfile.DatabaseType type) {
+        Properties p = new Properties();
+        switch (type) {
+            case POSTGRESQL -> {
+                p.setProperty("prepareThreshold", "1");
+                p.setProperty("preparedStatementCacheQueries", "256");
+                p.setProperty("stringtype", "unspecified");
+            }
+            case MYSQL -> {
+                p.setProperty("useServerPrepStmts", "true");
+                p.setProperty("cachePrepStmts", "true");
+                p.setProperty("prepStmtCacheSize", "250");
+                p.setProperty("prepStmtCacheSqlLimit", "8192");
+            }
+            case MARIADB -> {
+                p.setProperty("useServerPrepStmts", "true");
+                p.setProperty("cachePrepStmts", "true");
+                p.setProperty("prepStmtCacheSize", "250");
+            }
+            case SQLSERVER -> {
+                p.setProperty("disableStatementPooling", "false");
+                p.setProperty("statementPoolingCacheSize", "256");
+            }
+            case ORACLE -> p.setProperty("oracle.jdbc.implicitStatementCacheSize", "50");
+            default -> { }
+        }
+        return p;
+    }
+
+    /**
+     * createStatement() normally; a PreparedStatement on a session, so even
+     * a plain re-run hits the driver's statement cache. Text containing a
+     * '?' without parameters to bind stays a plain Statement — PostgreSQL's
+     * jsonb operators would otherwise be read as placeholders.
+     */
+    static Statement newStatement(Connection conn, String sql, boolean prepared, boolean hasParameters)
+            throws SQLException {
+        if (prepared && (hasParameters || sql.indexOf('?') < 0)) return conn.prepareStatement(sql);
+        return conn.createStatement();
+    }
+
+    /** MySQL/MariaDB's "not supported in the prepared statement protocol" — retry as a plain statement. */
+    static boolean isUnpreparable(SQLException ex) {
+        return ex.getErrorCode() == 1295;
+    }
+
+    /** Executes {@code stmt}, prepared by {@link #newStatement} or plain. */
+    static boolean run(Statement stmt, String sql) throws SQLException {
+        return stmt instanceof PreparedStatement prepared ? prepared.execute() : stmt.execute(sql);
+    }
+
+    /**
+     * Binds console parameter values in order. Everything goes over as a
+     * string, the way the value was typed, and the server converts it to
+     * the compared column's type — as it would a literal, so an integer key
+     * still uses its index (see the stringtype setting above). A
+     * blank value is NULL, as with textual substitution.
+     */
+    static void bind(PreparedStatement stmt, List<String> values) throws SQLException {
+        for (int i = 0; i < values.size(); i++) {
+            String value = values.get(i);
+            if (value == null || value.isBlank()) stmt.setNull(i + 1, Types.VARCHAR);
+            else stmt.setString(i + 1, value);
+        }
+    }
+
+    /** Live pool statistics for the pool-stats panel. */
+    public PoolMetrics.Snapshot poolStats() {
+        return metrics.snapshot();
+    }
+
     public Connection getConnection() throws SQLException {
+        lastUsedNanos = System.nanoTime();
         return dataSource.getConnection();
     }
 
+    /** Marks the pool as used now, for ClientRegistry's idle eviction. */
+    void touch() {
+        lastUsedNanos = System.nanoTime();
+    }
+
+    long lastUsedNanos() {
+        return lastUsedNanos;
+    }
+
+    /** True while a connection is checked out or a thread waits for one — closing now would abort it. */
+    boolean isBusy() {
+        var pool = dataSource.getHikariPoolMXBean();
+        return pool != null && (pool.getActiveConnections() > 0 || pool.getThreadsAwaitingConnection() > 0);
+    }
+
     /** Executes any SQL statement; returns rows for SELECTs, update count otherwise. */
     public QueryResult execute(String sql, int maxRows) throws SQLException {
         return execute(sql, maxRows, null);
@@ -90,16 +276,18 @@ public class JdbcClient implements AutoCloseable {
         long start = System.currentTimeMillis();
 
         try {
-            executeOnce(sql, maxRows, statementHolder, result, true);
+            executeOnce(sql, maxRows, statementHolder, result, true, session);
         } catch (SQLException ex) {
-            if (isTransactionBlockError(ex)) {
+            if (session && isUnpreparable(ex)) {
+                executeOnce(sql, maxRows, statementHolder, result, true, false);
+            } else if (isTransactionBlockError(ex)) {
                 // Some statements (CREATE DATABASE, DROP DATABASE, VACUUM,
                 // ALTER SYSTEM, etc.) are only valid outside any transaction
                 // on PostgreSQL — the autocommit(false) used below for
                 // cursor-based fetching puts every statement inside an
                 // implicit one. Retry once without it; none of these
                 // statements return large result sets anyway.
-                executeOnce(sql, maxRows, statementHolder, result, false);
+                executeOnce(sql, maxRows, statementHolder, result, false, false);
             } else {
                 throw ex;
             }
@@ -117,7 +305,7 @@ public class JdbcClient implements AutoCloseable {
 
     private void executeOnce(String sql, int maxRows,
                              java.util.concurrent.atomic.AtomicReference<Statement> statementHolder,
-                             QueryResult result, boolean useCursor) throws SQLException {
+                             QueryResult result, boolean useCursor, boolean prepared) throws SQLException {
         try (Connection conn = getConnection()) {
             // Same fix as PagedResultCursor: without this, PostgreSQL's driver
             // ignores setFetchSize and eagerly buffers the ENTIRE result set
@@ -126,7 +314,7 @@ public class JdbcClient implements AutoCloseable {
             // memory-pressure freeze/crash regardless of how the rows are
             // consumed afterward.
             boolean supportsCursor = useCursor && trySetAutoCommitFalse(conn);
-            try (Statement stmt = conn.createStatement()) {
+            try (Statement stmt = newStatement(conn, sql, prepared, false)) {
                 if (supportsCursor) {
                     stmt.setFetchSize(maxRows > 0 ? Math.min(maxRows, 1000) : 1000);
                 }
@@ -137,11 +325,12 @@ public class JdbcClient implements AutoCloseable {
                 }
                 if (statementHolder != null) statementHolder.set(stmt);
                 stmt.setMaxRows(maxRows);
-                boolean hasResultSet = stmt.execute(sql);
+                boolean hasResultSet = run(stmt, sql);
 
                 if (hasResultSet) {
                     try (ResultSet rs = stmt.getResultSet()) {
-                        readResultSet(rs, result, maxRows);
+                        readResultSet(rs, result, maxRows,
+                                profile.getType() != ConnectionProfile.DatabaseType.SQLITE);
                     }
                 } else {
                     int count = stmt.getUpdateCount();
@@ -169,6 +358,83 @@ public class JdbcClient implements AutoCloseable {
         }
     }
 
+    /**
+     * Runs a query and feeds every row to {@code sink} as it comes off the
+     * wire (begin, accept per row, end), holding no more than one fetch batch
+     * in memory — the path for exports far too large for {@link #execute},
+     * which materializes the whole result. Uses the same no-autocommit cursor
+     * setup as executeOnce so PostgreSQL really streams; MySQL needs its own
+     * signal (see {@link #streamingFetchSize}). There is deliberately
+     * no query timeout: a multi-GB export legitimately runs for a long time,
+     * and the caller can cancel through {@code statementHolder} instead (or by
+     * throwing from the sink). The row list handed to the sink is reused.
+     *
+     * @return the number of rows handed to the sink
+     */
+    public long stream(String sql, java.util.concurrent.atomic.AtomicReference<Statement> statementHolder,
+                       RowSink sink) throws SQLException, IOException {
+        try (Connection conn = getConnection()) {
+            boolean supportsCursor = trySetAutoCommitFalse(conn);
+            try (Statement stmt = conn.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                if (supportsCursor) stmt.setFetchSize(streamingFetchSize());
+                if (statementHolder != null) statementHolder.set(stmt);
+                if (!stmt.execute(sql)) {
+                    throw new SQLException("The statement did not return a result set");
+                }
+                try (ResultSet rs = stmt.getResultSet()) {
+                    ResultSetMetaData meta = rs.getMetaData();
+                    int colCount = meta.getColumnCount();
+                    List<String> names = new ArrayList<>(colCount);
+                    List<String> types = new ArrayList<>(colCount);
+                    for (int i = 1; i <= colCount; i++) {
+                        names.add(meta.getColumnLabel(i));
+                        String typeName = meta.getColumnTypeName(i);
+                        types.add(typeName == null ? "" : typeName);
+                    }
+                    sink.begin(names, types);
+
+                    String[] values = new String[colCount];
+                    List<String> row = Arrays.asList(values);
+                    long count = 0;
+                    while (rs.next()) {
+                        for (int i = 1; i <= colCount; i++) {
+                            Object value = rs.getObject(i);
+                            values[i - 1] = value == null ? null : String.valueOf(value);
+                        }
+                        sink.accept(row);
+                        count++;
+                    }
+                    sink.end();
+                    return count;
+                }
+            } finally {
+                if (statementHolder != null) statementHolder.set(null);
+                if (supportsCursor) {
+                    // Same as executeOnce: commit normally, roll back when a
+                    // cancel or error has left the transaction aborted.
+                    try {
+                        conn.commit();
+                    } catch (SQLException commitFailed) {
+                        try { conn.rollback(); } catch (SQLException ignored) {}
+                    }
+                    try { conn.setAutoCommit(true); } catch (SQLException ignored) {}
+                }
+            }
+        }
+    }
+
+    /**
+     * The fetch size that makes this engine's driver hand rows over as they
+     * arrive. MySQL Connector/J ignores a positive fetch size (short of the
+     * useCursorFetch URL option) and reads the whole result into memory
+     * first; only Integer.MIN_VALUE on a forward-only, read-only statement
+     * makes it stream row by row. MariaDB Connector/J streams in chunks of
+     * any positive fetch size, as PostgreSQL does once autocommit is off.
+     */
+    private int streamingFetchSize() {
+        return profile.getType() == ConnectionProfile.DatabaseType.MYSQL ? Integer.MIN_VALUE : 1000;
+    }
+
     private static boolean trySetAutoCommitFalse(Connection conn) {
         try {
             conn.setAutoCommit(false);
@@ -221,7 +487,8 @@ public class JdbcClient implements AutoCloseable {
         }
     }
 
-    static void readResultSet(ResultSet rs, QueryResult result, int maxRows) throws SQLException {
+    /** @param typed whether primitive column storage is safe — see {@link ColumnarReader#kinds}. */
+    static void readResultSet(ResultSet rs, QueryResult result, int maxRows, boolean typed) throws SQLException {
         ResultSetMetaData meta = rs.getMetaData();
         int colCount = meta.getColumnCount();
         for (int i = 1; i <= colCount; i++) {
@@ -234,16 +501,14 @@ public class JdbcClient implements AutoCloseable {
             }
             result.getColumnTypes().add(typeName == null ? "" : typeName);
         }
+        ColumnarRows rows = new ColumnarRows(ColumnarReader.kinds(meta, typed),
+                maxRows > 0 ? Math.min(maxRows, 1000) : 1000);
         int count = 0;
-        while (rs.next() && (maxRows <= 0 || count < maxRows)) {
-            List<String> row = new ArrayList<>(colCount);
-            for (int i = 1; i <= colCount; i++) {
-                Object value = rs.getObject(i);
-                row.add(value == null ? null : String.valueOf(value));
-            }
-            result.getRows().add(row);
+        while ((maxRows <= 0 || count < maxRows) && rs.next()) {
+            ColumnarReader.readRow(rs, rows);
             count++;
         }
+        result.getRows().addAll(rows.rows());
     }
 
     @Override
@@ -0,0 +1,419 @@
+package com.roze.dbnavigator.db;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.roze.dbnavigator.model.ConnectionProfile;
+import com.roze.dbnavigator.model.ConnectionProfile.DatabaseType;
+import com.roze.dbnavigator.model.DbObject;
+import com.roze.dbnavigator.util.AppExecutor;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Schema metadata kept on disk between runs, one file per connection and
+ * database under ~/.dbnavigator/metadata-cache. Without it every tree
+ * expansion and every console's completion preload asked DatabaseMetaData
+ * again, and reopening the app against a warehouse with thousands of
+ * tables downloaded the whole catalog anew.
+ *
+ * {@link MetadataService} routes its relational listings (tables, views,
+ * routines, sequences, columns, keys, indexes, completion name lists)
+ * through {@link #objects} and {@link #names}: a cached answer is returned
+ * at once, a miss is loaded live and remembered. A database's file is read
+ * the first time anything of it is asked for, and from then on — at most
+ * every {@link #REVALIDATE_MILLIS} — a background check compares a cheap
+ * catalog fingerprint with the one the entries were taken under (see
+ * {@link #fingerprint}). When DDL has changed it, the entries are dropped,
+ * so the next request loads live again, and {@link #addChangeListener
+ * listeners} such as the completion caches hear about it.
+ *
+ * A file written by a different {@link #FORMAT_VERSION}, or for a different
+ * database than the one asked for, is ignored. MongoDB
+ * isn't cached here; its sampled schemas have their own TTL cache.
+ */
+public final class MetadataCache {
+
+    /** Bump whenever the shape or meaning of cached entries changes. */
+    static final int FORMAT_VERSION = 2;
+    private static final long REVALIDATE_MILLIS = 5 * 60_000;
+    private static final long SAVE_DELAY_MILLIS = 2_000;
+    private static final Path DIR =
+            Path.of(System.getProperty("user.home"), ".dbnavigator", "metadata-cache");
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    /** One cached tree node — DbObject itself carries UI state (loaded) that doesn't belong on disk. */
+    public record CachedObject(String name, DbObject.Kind kind, String catalog, String schema,
+                               String tableName, String detail) {
+        static CachedObject of(DbObject obj) {
+            return new CachedObject(obj.getName(), obj.getKind(), obj.getCatalog(), obj.getSchema(),
+                    obj.getTableName(), obj.getDetail());
+        }
+
+        DbObject toDbObject() {
+            DbObject obj = new DbObject(name, kind, catalog, schema);
+            obj.setTableName(tableName);
+            obj.setDetail(detail);
+            return obj;
+        }
+    }
+
+    /** The on-disk form of one database's cache; {@code catalog} is the raw name it was written for. */
+    public record CacheFile(int version, String catalog, String fingerprint, long savedAt,
+                            Map<String, List<CachedObject>> objects, Map<String, List<String>> names) {}
+
+    /** Told when a database's cached metadata is dropped. */
+    @FunctionalInterface
+    public interface ChangeListener {
+        /**
+         * @param catalog  the database, or null for every database of the connection
+         * @param detected true when background change detection found DDL, false for an explicit invalidate
+         */
+        void changed(ConnectionProfile profile, String catalog, boolean detected);
+    }
+
+    /** A metadata load that may fail — MetadataService's loaders throw SQLException and friends. */
+    @FunctionalInterface
+    public interface Loader<T> {
+        T load() throws Exception;
+    }
+
+    private static final class Store {
+        final ConnectionProfile profile;
+        final String catalog;
+        final Path file;
+        final Map<String, List<CachedObject>> objects = new ConcurrentHashMap<>();
+        final Map<String, List<String>> names = new ConcurrentHashMap<>();
+        volatile String fingerprint;
+        volatile long validatedAt;
+        final AtomicBoolean validating = new AtomicBoolean();
+        final AtomicBoolean saveScheduled = new AtomicBoolean();
+
+        Store(ConnectionProfile profile, String catalog) {
+            this.profile = profile;
+            this.catalog = catalog;
+            this.file = DIR.resolve(fileName(profile.getId()))
+                    .resolve(fileName(catalog.isEmpty() ? "_default" : catalog) + ".json");
+        }
+    }
+
+    private static final Map<String, Store> stores = new ConcurrentHashMap<>();
+    private static final List<ChangeListener> listeners = new CopyOnWriteArrayList<>();
+    private static final ScheduledExecutorService WRITER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "metadata-cache-writer");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private MetadataCache() {}
+
+    /** Whether this profile's metadata goes through the cache at all. */
+    static boolean applies(ConnectionProfile profile) {
+        return profile.getType() != DatabaseType.MONGODB;
+    }
+
+    /** Tree nodes under {@code key}: cached if present, else loaded live and cached. */
+    static List<DbObject> objects(ConnectionProfile profile, String catalog, String key,
+                                  Loader<List<DbObject>> loader) throws Exception {
+        if (!applies(profile)) return loader.load();
+        Store store = store(profile, catalog);
+        List<CachedObject> cached = store.objects.get(key);
+        if (cached != null) {
+            return cached.stream().map(CachedObject::toDbObject).collect(java.util.stream.Collectors.toList());
+        }
+        List<DbObject> loaded = loader.load();
+        store.objects.put(key, loaded.stream().map(CachedObject::of).toList());
+        scheduleSave(store);
+        return loaded;
+    }
+
+    /** Name lists (completion) under {@code key}: cached if present, else loaded live and cached. */
+    static List<String> names(ConnectionProfile profile, String catalog, String key,
+                              Loader<List<String>> loader) throws Exception {
+        if (!applies(profile)) return loader.load();
+        Store store = store(profile, catalog);
+        List<String> cached = store.names.get(key);
+        if (cached != null) return cached;
+        List<String> loaded = List.copyOf(loader.load());
+        store.names.put(key, loaded);
+        scheduleSave(store);
+        return loaded;
+    }
+
+    /**
+     * Starts the background change check for a database if it is due, for
+     * holders of derived metadata ({@link SchemaGraph}) that don't read
+     * through {@link #objects}/{@link #names} on every use.
+     */
+    static void revalidate(ConnectionProfile profile, String catalog) {
+        if (applies(profile)) store(profile, catalog);
+    }
+
+    /**
+     * Registers a listener for dropped metadata — by change detection or an
+     * explicit refresh — so holders of derived copies can reload too.
+     */
+    public static void addChangeListener(ChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    /** Drops one database's cached metadata, e.g. for an explicit Refresh on it. */
+    public static void invalidate(ConnectionProfile profile, String catalog) {
+        Store store = stores.remove(storeKey(profile, normalize(profile, catalog)));
+        Path file = store != null ? store.file : new Store(profile, normalize(profile, catalog)).file;
+        deleteQuietly(file);
+        notifyChanged(profile, catalog, false);
+    }
+
+    /** Drops every database's cached metadata of a connection — after DDL, or a Refresh of the connection. */
+    public static void invalidate(ConnectionProfile profile) {
+        String prefix = profile.getId() + "|";
+        stores.keySet().removeIf(k -> k.startsWith(prefix));
+        deleteTree(DIR.resolve(fileName(profile.getId())));
+        notifyChanged(profile, null, false);
+    }
+
+    /** Used by "Invalidate Caches" — forgets all cached metadata, in memory and on disk. */
+    public static void clearAll() {
+        stores.clear();
+        deleteTree(DIR);
+    }
+
+    // ------------------------------------------------------------- stores
+
+    private static String normalize(ConnectionProfile profile, String catalog) {
+        if (catalog == null || catalog.isBlank()) {
+            return profile.getDatabase() == null ? "" : profile.getDatabase();
+        }
+        return catalog;
+    }
+
+    private static String storeKey(ConnectionProfile profile, String normalizedCatalog) {
+        return profile.getId() + "|" + normalizedCatalog;
+    }
+
+    private static Store store(ConnectionProfile profile, String catalog) {
+        String normalized = normalize(profile, catalog);
+        boolean[] created = {false};
+        Store store = stores.computeIfAbsent(storeKey(profile, normalized), k -> {
+            created[0] = true;
+            Store s = new Store(profile, normalized);
+            read(s);
+            return s;
+        });
+        if (created[0] || System.currentTimeMillis() - store.validatedAt > REVALIDATE_MILLIS) {
+            revalidateInBackground(store, catalog);
+        }
+        return store;
+    }
+
+    private static void read(Store store) {
+        if (!Files.isRegularFile(store.file)) return;
+        try {
+            CacheFile cached = MAPPER.readValue(store.file.toFile(), CacheFile.class);
+            if (cached.version() != FORMAT_VERSION) return;   // older format — rebuilt as used
+            if (!store.catalog.equals(cached.catalog())) return;   // another database's file, never trust it
+            if (cached.objects() != null) store.objects.putAll(cached.objects());
+            if (cached.names() != null) store.names.putAll(cached.names());
+            store.fingerprint = cached.fingerprint();
+        } catch (IOException e) {
+            System.err.println("Ignoring unreadable metadata cache " + store.file + ": " + e.getMessage());
+        }
+    }
+
+    /** Coalesces the writes of a burst of expansions into one, a moment later. */
+    private static void scheduleSave(Store store) {
+        if (!store.saveScheduled.compareAndSet(false, true)) return;
+        WRITER.schedule(() -> {
+            store.saveScheduled.set(false);
+            if (stores.get(storeKey(store.profile, store.catalog)) != store) return;   // invalidated meanwhile
+            save(store);
+        }, SAVE_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    private static void save(Store store) {
+        try {
+            Files.createDirectories(store.file.getParent());
+            // Write-then-rename, so a crash mid-write never leaves a torn file behind.
+            Path temp = store.file.resolveSibling(store.file.getFileName() + ".tmp");
+            MAPPER.writeValue(temp.toFile(), new CacheFile(FORMAT_VERSION, store.catalog, store.fingerprint,
+                    System.currentTimeMillis(), Map.copyOf(store.objects), Map.copyOf(store.names)));
+            Files.move(temp, store.file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Could not save metadata cache: " + e.getMessage());
+        }
+    }
+
+    // ------------------------------------------------------------- change detection
+
+    /**
+     * Compares the database's current fingerprint with the cached entries'
+     * and drops them if it moved. Entries cached before any fingerprint was
+     * known are adopted under the current one. A failing or unsupported
+     * fingerprint keeps the entries — an explicit Refresh still clears them.
+     */
+    private static void revalidateInBackground(Store store, String catalog) {
+        if (!store.validating.compareAndSet(false, true)) return;
+        AppExecutor.run(() -> {
+            try {
+                String current = fingerprint(store.profile, catalog);
+                store.validatedAt = System.currentTimeMillis();
+                if (current == null) return;
+                String previous = store.fingerprint;
+                store.fingerprint = current;
+                if (previous != null && !previous.equals(current)
+                        && (!store.objects.isEmpty() || !store.names.isEmpty())) {
+                    store.objects.clear();
+                    store.names.clear();
+                    scheduleSave(store);
+                    notifyChanged(store.profile, catalog, true);
+                } else if (previous == null) {
+                    scheduleSave(store);
+                }
+            } finally {
+                store.validating.set(false);
+            }
+        });
+    }
+
+    /**
+     * A value that changes whenever DDL changes the database's tables,
+     * columns, keys, indexes or routines, read from one cheap catalog query:
+     *
+     * <ul>
+     *   <li>PostgreSQL: count and newest xmin of the non-temporary pg_class
+     *       rows (a relation's row is rewritten by ALTER, an index or table
+     *       is a new row), plus the same over pg_proc and pg_constraint;</li>
+     *   <li>MySQL/MariaDB: information_schema table and routine counts with
+     *       the newest CREATE_TIME and LAST_ALTERED — not UPDATE_TIME, which
+     *       moves with every data write — plus counts and CRC32 sums of the
+     *       columns (name, type, nullability), index columns and foreign keys.
+     *       ALTER TABLE doesn't reliably move CREATE_TIME (InnoDB's in-place
+     *       changes keep it), so a changed column type or a renamed index
+     *       only shows in the sums;</li>
+     *   <li>SQL Server: user objects' count and newest sys.objects.modify_date,
+     *       plus the column count;</li>
+     *   <li>Oracle: the schema's object count and newest LAST_DDL_TIME;</li>
+     *   <li>SQLite: PRAGMA schema_version, bumped by every schema change.</li>
+     * </ul>
+     *
+     * @return null when it can't be determined
+     */
+    static String fingerprint(ConnectionProfile profile, String catalog) {
+        String mysqlSchema = "COALESCE(?, DATABASE())";
+        String sql = switch (profile.getType()) {
+            case POSTGRESQL -> "SELECT (SELECT count(*) || ':' || coalesce(max(xmin::text::bigint), 0) "
+                    + "FROM pg_class WHERE relpersistence <> 't'), "
+                    + "(SELECT count(*) || ':' || coalesce(max(xmin::text::bigint), 0) FROM pg_proc), "
+                    + "(SELECT count(*) || ':' || coalesce(max(xmin::text::bigint), 0) FROM pg_constraint)";
+            case MYSQL, MARIADB -> "SELECT (SELECT CONCAT(COUNT(*), ':', COALESCE(MAX(CREATE_TIME), '')) "
+                    + "FROM information_schema.TABLES WHERE TABLE_SCHEMA = " + mysqlSchema + "), "
+                    + "(SELECT CONCAT(COUNT(*), ':', COALESCE(SUM(CRC32(CONCAT_WS(':', TABLE_NAME, COLUMN_NAME, "
+                    + "COLUMN_TYPE, IS_NULLABLE))), 0)) "
+                    + "FROM information_schema.COLUMNS WHERE TABLE_SCHEMA = " + mysqlSchema + "), "
+                    + "(SELECT CONCAT(COUNT(*), ':', COALESCE(SUM(CRC32(CONCAT_WS(':', TABLE_NAME, INDEX_NAME, "
+                    + "COLUMN_NAME))), 0)) "
+                    + "FROM information_schema.STATISTICS WHERE TABLE_SCHEMA = " + mysqlSchema + "), "
+                    + "(SELECT CONCAT(COUNT(*), ':', COALESCE(SUM(CRC32(CONCAT_WS(':', TABLE_NAME, CONSTRAINT_NAME, "
+                    + "REFERENCED_TABLE_NAME))), 0)) "
+                    + "FROM information_schema.REFERENTIAL_CONSTRAINTS WHERE CONSTRAINT_SCHEMA = " + mysqlSchema + "), "
+                    + "(SELECT CONCAT(COUNT(*), ':', COALESCE(MAX(LAST_ALTERED), '')) "
+                    + "FROM information_schema.ROUTINES WHERE ROUTINE_SCHEMA = " + mysqlSchema + ")";
+            case SQLSERVER -> "SELECT CONCAT(COUNT(*), ':', CONVERT(varchar(30), MAX(modify_date), 126)), "
+                    + "(SELECT COUNT(*) FROM sys.columns c JOIN sys.objects o ON o.object_id = c.object_id "
+                    + "WHERE o.is_ms_shipped = 0) FROM sys.objects WHERE is_ms_shipped = 0";
+            case ORACLE -> "SELECT COUNT(*) || ':' || TO_CHAR(MAX(LAST_DDL_TIME), 'YYYYMMDDHH24MISS') "
+                    + "FROM ALL_OBJECTS WHERE OWNER = COALESCE(?, SYS_CONTEXT('USERENV', 'CURRENT_SCHEMA'))";
+            case SQLITE -> "PRAGMA schema_version";
+            default -> null;
+        };
+        if (sql == null) return null;
+        int parameters = switch (profile.getType()) {
+            case MYSQL, MARIADB -> 5;
+            case ORACLE -> 1;
+            default -> 0;
+        };
+        String scope = catalog == null || catalog.isBlank() ? null : catalog;
+        try (Connection conn = ClientRegistry.jdbc(profile, catalog).getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (int i = 1; i <= parameters; i++) stmt.setString(i, scope);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next()) return null;
+                ResultSetMetaData meta = rs.getMetaData();
+                List<String> parts = new ArrayList<>();
+                for (int i = 1; i <= meta.getColumnCount(); i++) parts.add(rs.getString(i));
+                return String.join("|", parts);
+            }
+        } catch (SQLException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static void notifyChanged(ConnectionProfile profile, String catalog, boolean detected) {
+        for (ChangeListener listener : listeners) {
+            try {
+                listener.changed(profile, catalog, detected);
+            } catch (RuntimeException ignored) {
+                // one listener's failure mustn't keep the others stale
+            }
+        }
+    }
+
+    // ------------------------------------------------------------- files
+
+    /**
+     * Profile ids and database names as file names: anything unusual becomes
+     * '_' for readability, and a hash of the raw name keeps names that
+     * sanitize alike ("a b" and "a_b") or differ only in case ("Sales" and
+     * "sales" on a case-insensitive filesystem) apart.
+     */
+    private static String fileName(String name) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(name.getBytes(StandardCharsets.UTF_8));
+            return name.replaceAll("[^A-Za-z0-9._-]", "_") + "-" + HexFormat.of().formatHex(digest, 0, 4);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignored) {
+            // a leftover file is re-validated on next load anyway
+        }
+    }
+
+    private static void deleteTree(Path dir) {
+        if (!Files.isDirectory(dir)) return;
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(dir)) {
+            for (Path entry : entries) {
+                if (Files.isDirectory(entry)) deleteTree(entry);
+                else deleteQuietly(entry);
+            }
+        } catch (IOException ignored) {
+            // best-effort, see deleteQuietly
+        }
+        deleteQuietly(dir);
+    }
+}
@@ -14,13 +14,20 @@ import java.util.List;
 import java.util.Map;
 import java.util.Locale;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /** Loads schema tree children lazily for both JDBC and MongoDB connections. */
 public final class MetadataService {
 
     private MetadataService() {}
 
-    private static final Set<String> PG_SYSTEM_SCHEMAS =
+    /** $collStats calls in flight at once when listing a database's collections. */
+    private static final int COLLECTION_STATS_PARALLELISM = 8;
+    /** How long the Collections folder waits for those stats before listing without them. */
+    private static final long COLLECTION_STATS_WAIT_MILLIS = 3_000;
+
+    static final Set<String> PG_SYSTEM_SCHEMAS =
             Set.of("pg_catalog", "information_schema", "pg_toast");
 
     // SQL Server creates these fixed database-role schemas in every database
@@ -40,7 +47,7 @@ public final class MetadataService {
     // used directly by many real users (this app's own SYSTEM user among
     // them). DataGrip's equivalent tucks this same noise away under its own
     // "Database Objects" node rather than listing it next to real schemas.
-    private static final Set<String> ORACLE_SYSTEM_SCHEMAS = Set.of(
+    static final Set<String> ORACLE_SYSTEM_SCHEMAS = Set.of(
             "anonymous", "appqossys", "audsys", "ctxsys", "dbsfwuser", "dbsnmp",
             "dip", "dvf", "dvsys", "ggsys", "gsmadmin_internal", "gsmcatuser",
             "gsmuser", "lbacsys", "mddata", "mdsys", "ojvmsys", "olapsys",
@@ -48,12 +55,12 @@ public final class MetadataService {
             "remote_scheduler_agent", "si_informtn_schema", "sys$umf",
             "sysbackup", "sysdg", "syskm", "sysrac", "wmsys", "xdb", "xs$null");
 
-    private static JdbcClient client(ConnectionProfile profile, String catalog) {
+    static JdbcClient client(ConnectionProfile profile, String catalog) {
         return ClientRegistry.jdbc(profile, catalog);
     }
 
     /** PostgreSQL's JDBC metadata calls ignore/reject foreign catalogs — pass null. */
-    private static String metaCatalog(ConnectionProfile profile, String catalog) {
+    static String metaCatalog(ConnectionProfile profile, String catalog) {
         // Oracle's JDBC driver never populates TABLE_CAT at all (it has no
         // catalog concept) — passing a real value here as a catalog filter
         // would match nothing. What looks like "catalog" for an Oracle
@@ -72,7 +79,7 @@ public final class MetadataService {
      * stays null for them — an explicit schema filter would only narrow
      * results they don't actually want narrowed.
      */
-    private static String metaSchema(ConnectionProfile profile, String catalog) {
+    static String metaSchema(ConnectionProfile profile, String catalog) {
         return profile.getType() == DatabaseType.ORACLE ? catalog : null;
     }
 
@@ -271,69 +278,187 @@ public final class MetadataService {
     /** Children of a folder node (Tables, Views, Collections, Columns, ...). */
     public static List<DbObject> loadFolderChildren(ConnectionProfile profile, DbObject dbFolder)
             throws Exception {
+        return loadFolderChildren(profile, dbFolder, null);
+    }
+
+    /**
+     * Children of a folder node whose name contains {@code nameFilter}
+     * (case-insensitively where the engine allows), or all of them when it's
+     * null or blank — the explorer's type-ahead filter.
+     *
+     * For tables, views, routines, sequences, partitions and collections the
+     * filter goes into the catalog query as a LIKE pattern (a regex for
+     * MongoDB), so a schema with tens of thousands of objects — or a table
+     * with thousands of partitions — only sends back the matches. Filtered
+     * answers skip the {@link MetadataCache}: they'd only ever be asked for
+     * again by someone typing the same text. The remaining per-table folders
+     * (columns, indexes, keys, ...) are loaded whole and cached, so those
+     * are filtered here instead.
+     */
+    public static List<DbObject> loadFolderChildren(ConnectionProfile profile, DbObject dbFolder,
+                                                    String nameFilter) throws Exception {
+        if (nameFilter == null || nameFilter.isBlank()) return loadAllFolderChildren(profile, dbFolder);
+        String filter = nameFilter.strip();
         String catalog = dbFolder.getCatalog();
         String schema = dbFolder.getSchema();
-
         return switch (dbFolder.getKind()) {
-            case COLLECTIONS_FOLDER -> {
-                List<DbObject> colls = new ArrayList<>();
-                for (String name : ClientRegistry.mongo(profile).listCollections(catalog)) {
-                    colls.add(new DbObject(name, Kind.COLLECTION, catalog, null));
-                }
-                yield colls;
+            case COLLECTIONS_FOLDER -> loadCollections(profile, catalog, filter);
+            case TABLES_FOLDER -> loadTablesOrViews(profile, catalog, schema, "TABLE", Kind.TABLE, filter);
+            case VIEWS_FOLDER  -> loadTablesOrViews(profile, catalog, schema, "VIEW", Kind.VIEW, filter);
+            case PROCEDURES_FOLDER -> loadRoutines(profile, catalog, schema, true, filter);
+            case FUNCTIONS_FOLDER  -> loadRoutines(profile, catalog, schema, false, filter);
+            case SEQUENCES_FOLDER  -> loadSequences(profile, catalog, schema, filter);
+            case PARTITIONS_FOLDER -> loadPartitions(profile, dbFolder, filter);
+            default -> {
+                String lowered = filter.toLowerCase(Locale.ROOT);
+                yield loadAllFolderChildren(profile, dbFolder).stream()
+                        .filter(o -> o.getName().toLowerCase(Locale.ROOT).contains(lowered))
+                        .toList();
             }
-            case TABLES_FOLDER -> loadTablesOrViews(profile, catalog, schema, "TABLE", Kind.TABLE);
-            case VIEWS_FOLDER  -> loadTablesOrViews(profile, catalog, schema, "VIEW", Kind.VIEW);
-            case PROCEDURES_FOLDER -> loadRoutines(profile, catalog, schema, true);
-            case FUNCTIONS_FOLDER  -> loadRoutines(profile, catalog, schema, false);
-            case SEQUENCES_FOLDER  -> loadSequences(profile, catalog, schema);
-            case COLUMNS_FOLDER    -> loadColumns(profile, dbFolder);
+        };
+    }
+
+    private static List<DbObject> loadAllFolderChildren(ConnectionProfile profile, DbObject dbFolder)
+            throws Exception {
+        String catalog = dbFolder.getCatalog();
+        String schema = dbFolder.getSchema();
+
+        return switch (dbFolder.getKind()) {
+            case COLLECTIONS_FOLDER -> loadCollections(profile, catalog, null);
+            case TABLES_FOLDER -> cached(profile, dbFolder,
+                    () -> loadTablesOrViews(profile, catalog, schema, "TABLE", Kind.TABLE, null));
+            case VIEWS_FOLDER  -> cached(profile, dbFolder,
+                    () -> loadTablesOrViews(profile, catalog, schema, "VIEW", Kind.VIEW, null));
+            case PROCEDURES_FOLDER -> cached(profile, dbFolder,
+                    () -> loadRoutines(profile, catalog, schema, true, null));
+            case FUNCTIONS_FOLDER  -> cached(profile, dbFolder,
+                    () -> loadRoutines(profile, catalog, schema, false, null));
+            case SEQUENCES_FOLDER  -> loadSequences(profile, catalog, schema, null);
+            case COLUMNS_FOLDER    -> cached(profile, dbFolder, () -> loadColumns(profile, dbFolder));
             case INDEXES_FOLDER    -> profile.getType() == DatabaseType.MONGODB
-                    ? loadMongoIndexes(profile, dbFolder) : loadIndexes(profile, dbFolder);
+                    ? loadMongoIndexes(profile, dbFolder)
+                    : cached(profile, dbFolder, () -> loadIndexes(profile, dbFolder));
             case FIELDS_FOLDER       -> loadMongoFields(profile, dbFolder);
-            case KEYS_FOLDER         -> loadKeys(profile, dbFolder);
-            case FOREIGN_KEYS_FOLDER -> loadForeignKeysFolder(profile, dbFolder);
-            case PARTITIONS_FOLDER -> loadPartitions(profile, dbFolder);
+            case KEYS_FOLDER         -> cached(profile, dbFolder, () -> loadKeys(profile, dbFolder));
+            case FOREIGN_KEYS_FOLDER -> cached(profile, dbFolder, () -> loadForeignKeysFolder(profile, dbFolder));
+            case PARTITIONS_FOLDER -> loadPartitions(profile, dbFolder, null);
             default -> List.of();
         };
     }
 
+    /** A database's collections (those whose name contains {@code nameFilter}, if given) with their stats. */
+    private static List<DbObject> loadCollections(ConnectionProfile profile, String catalog, String nameFilter) {
+        List<DbObject> colls = new ArrayList<>();
+        MongoDbClient mongo = ClientRegistry.mongo(profile);
+        List<String> names = nameFilter == null
+                ? mongo.listCollections(catalog)
+                : mongo.listCollections(catalog, nameFilter);
+        // Document count, size and index count for every collection at
+        // once on virtual threads; whatever hasn't answered within the
+        // wait just shows without detail rather than holding up the list.
+        Map<String, MongoDbClient.CollectionStats> stats = MongoAsync.fanOutWithin(mongo, names,
+                COLLECTION_STATS_PARALLELISM, name -> mongo.collectionStats(catalog, name),
+                COLLECTION_STATS_WAIT_MILLIS);
+        for (String name : names) {
+            DbObject coll = new DbObject(name, Kind.COLLECTION, catalog, null);
+            MongoDbClient.CollectionStats collStats = stats.get(name);
+            if (collStats != null) coll.setDetail(collStats.detail());
+            colls.add(coll);
+        }
+        // Sample every collection's schema in the background, a few at
+        // a time, so expanding them one after another is instant.
+        MongoSchemaSampler.prefetch(profile, catalog, names);
+        return colls;
+    }
+
+    /**
+     * A folder's children through the on-disk {@link MetadataCache}, keyed by
+     * the folder's kind, schema and table. Only loaders that throw on failure
+     * go through here — the ones that swallow errors into an empty list
+     * (sequences, partitions) would cache that empty list as the answer.
+     */
+    private static List<DbObject> cached(ConnectionProfile profile, DbObject folder,
+                                         MetadataCache.Loader<List<DbObject>> loader) throws Exception {
+        String key = folder.getKind() + "/" + folder.getSchema() + "/" + folder.getTableName();
+        return MetadataCache.objects(profile, folder.getCatalog(), key, loader);
+    }
+
     private static List<DbObject> loadTablesOrViews(ConnectionProfile profile, String catalog,
-                                                    String schema, String type, Kind kind)
+                                                    String schema, String type, Kind kind, String nameFilter)
             throws SQLException {
         // PostgreSQL: hide partition child tables from the Tables folder —
         // they appear under their parent table's "partitions" node instead
         if (profile.getType() == DatabaseType.POSTGRESQL && "TABLE".equals(type)) {
-            return loadPostgresTablesWithoutPartitions(profile, catalog, schema);
+            return loadPostgresTablesWithoutPartitions(profile, catalog, schema, nameFilter);
         }
 
         List<DbObject> result = new ArrayList<>();
-        try (Connection conn = client(profile, catalog).getConnection();
-             ResultSet rs = conn.getMetaData().getTables(
-                     metaCatalog(profile, catalog), schema, "%", new String[]{type})) {
-            while (rs.next()) {
-                result.add(new DbObject(rs.getString("TABLE_NAME"), kind, catalog, schema));
+        try (Connection conn = client(profile, catalog).getConnection()) {
+            DatabaseMetaData meta = conn.getMetaData();
+            try (ResultSet rs = meta.getTables(metaCatalog(profile, catalog), schema,
+                    namePattern(profile, meta, nameFilter), new String[]{type})) {
+                while (rs.next()) {
+                    String name = rs.getString("TABLE_NAME");
+                    if (matchesFilter(profile, name, nameFilter)) result.add(new DbObject(name, kind, catalog, schema));
+                }
             }
         }
         return result;
     }
 
+    /**
+     * A DatabaseMetaData name pattern matching names that contain
+     * {@code nameFilter} ("%" for no filter), with the filter's own '%' and
+     * '_' escaped. These patterns compare case-sensitively on PostgreSQL and
+     * Oracle, and folding the filter to how they store unquoted names would
+     * miss quoted mixed-case ones — so there the pattern asks for every name
+     * and {@link #matchesFilter} does the case-insensitive match instead, as
+     * ILIKE does for PostgreSQL tables.
+     */
+    private static String namePattern(ConnectionProfile profile, DatabaseMetaData meta, String nameFilter)
+            throws SQLException {
+        if (nameFilter == null || foldsNames(profile)) return "%";
+        String text = nameFilter;
+        String escape = meta.getSearchStringEscape();
+        if (escape != null && !escape.isEmpty()) {
+            text = text.replace(escape, escape + escape).replace("%", escape + "%").replace("_", escape + "_");
+        }
+        return "%" + text + "%";
+    }
+
+    /** Whether {@code name}, listed through {@link #namePattern}, passes the filter. */
+    private static boolean matchesFilter(ConnectionProfile profile, String name, String nameFilter) {
+        if (nameFilter == null || !foldsNames(profile)) return true;
+        return name != null && name.toLowerCase(Locale.ROOT).contains(nameFilter.toLowerCase(Locale.ROOT));
+    }
+
+    private static boolean foldsNames(ConnectionProfile profile) {
+        return profile.getType() == DatabaseType.POSTGRESQL || profile.getType() == DatabaseType.ORACLE;
+    }
+
+    /** A LIKE operand, for use with ESCAPE '\', matching values that contain {@code text} literally. */
+    private static String containsPattern(String text) {
+        return "%" + text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+    }
+
     /**
      * Regular + partitioned parent tables of a schema, excluding partition
      * children (anything that is a child in pg_inherits — this covers both
      * declarative partitions and old-style inheritance children).
      */
     private static List<DbObject> loadPostgresTablesWithoutPartitions(
-            ConnectionProfile profile, String catalog, String schema) throws SQLException {
+            ConnectionProfile profile, String catalog, String schema, String nameFilter) throws SQLException {
         String sql = "SELECT c.relname FROM pg_class c " +
                 "JOIN pg_namespace n ON n.oid = c.relnamespace " +
                 "WHERE n.nspname = ? AND c.relkind IN ('r', 'p', 'f') " +
+                (nameFilter == null ? "" : "AND c.relname ILIKE ? ESCAPE '\\' ") +
                 "AND NOT EXISTS (SELECT 1 FROM pg_inherits i WHERE i.inhrelid = c.oid) " +
                 "ORDER BY c.relname";
         List<DbObject> result = new ArrayList<>();
         try (Connection conn = client(profile, catalog).getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setString(1, schema);
+            if (nameFilter != null) stmt.setString(2, containsPattern(nameFilter));
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
                     result.add(new DbObject(rs.getString(1), Kind.TABLE, catalog, schema));
@@ -344,18 +469,20 @@ public final class MetadataService {
     }
 
     private static List<DbObject> loadRoutines(ConnectionProfile profile, String catalog,
-                                               String schema, boolean procedures) {
+                                               String schema, boolean procedures, String nameFilter) {
         List<DbObject> result = new ArrayList<>();
         try (Connection conn = client(profile, catalog).getConnection()) {
             DatabaseMetaData meta = conn.getMetaData();
+            String pattern = namePattern(profile, meta, nameFilter);
             ResultSet rs = procedures
-                    ? meta.getProcedures(metaCatalog(profile, catalog), schema, "%")
-                    : meta.getFunctions(metaCatalog(profile, catalog), schema, "%");
+                    ? meta.getProcedures(metaCatalog(profile, catalog), schema, pattern)
+                    : meta.getFunctions(metaCatalog(profile, catalog), schema, pattern);
             try (rs) {
                 String nameCol = procedures ? "PROCEDURE_NAME" : "FUNCTION_NAME";
                 while (rs.next()) {
-                    result.add(new DbObject(rs.getString(nameCol),
-                            procedures ? Kind.PROCEDURE : Kind.FUNCTION, catalog, schema));
+                    String name = rs.getString(nameCol);
+                    if (!matchesFilter(profile, name, nameFilter)) continue;
+                    result.add(new DbObject(name, procedures ? Kind.PROCEDURE : Kind.FUNCTION, catalog, schema));
                 }
             }
         } catch (SQLException e) {
@@ -430,22 +557,29 @@ public final class MetadataService {
         return params;
     }
 
-    private static List<DbObject> loadSequences(ConnectionProfile profile, String catalog, String schema) {
+    private static List<DbObject> loadSequences(ConnectionProfile profile, String catalog, String schema,
+                                                String nameFilter) {
         String sql = switch (profile.getType()) {
-            case POSTGRESQL -> "SELECT sequence_name FROM information_schema.sequences WHERE sequence_schema = '"
-                    + schema + "'";
-            case ORACLE -> "SELECT sequence_name FROM all_sequences WHERE sequence_owner = '" + schema + "'";
-            case SQLSERVER -> "SELECT name AS sequence_name FROM sys.sequences";
+            case POSTGRESQL -> "SELECT sequence_name FROM information_schema.sequences WHERE sequence_schema = ?"
+                    + (nameFilter == null ? "" : " AND sequence_name ILIKE ? ESCAPE '\\'");
+            case ORACLE -> "SELECT sequence_name FROM all_sequences WHERE sequence_owner = ?"
+                    + (nameFilter == null ? "" : " AND UPPER(sequence_name) LIKE UPPER(?) ESCAPE '\\'");
+            case SQLSERVER -> "SELECT name AS sequence_name FROM sys.sequences"
+                    + (nameFilter == null ? "" : " WHERE name LIKE ? ESCAPE '\\'");
             default -> null;
         };
         if (sql == null) return List.of();
 
         List<DbObject> result = new ArrayList<>();
         try (Connection conn = client(profile, catalog).getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-            while (rs.next()) {
-                result.add(new DbObject(rs.getString(1), Kind.SEQUENCE, catalog, schema));
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            int param = 1;
+            if (profile.getType() != DatabaseType.SQLSERVER) stmt.setString(param++, schema);
+            if (nameFilter != null) stmt.setString(param, containsPattern(nameFilter));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    result.add(new DbObject(rs.getString(1), Kind.SEQUENCE, catalog, schema));
+                }
             }
         } catch (SQLException ignored) {
             return List.of();
@@ -463,29 +597,43 @@ public final class MetadataService {
     public static List<DbObject> loadCollectionChildren(ConnectionProfile profile, DbObject collection)
             throws Exception {
         List<DbObject> result = new ArrayList<>();
+        MongoDbClient mongo = ClientRegistry.mongo(profile);
+
+        // Both round trips at once — the sample is usually already cached by
+        // the Collections folder's prefetch, the index list never is.
+        CompletableFuture<Integer> fieldCount = MongoAsync.supply(mongo,
+                () -> mongo.inferFields(collection.getCatalog(), collection.getName()).size());
+        CompletableFuture<Integer> indexCount = MongoAsync.supply(mongo,
+                () -> mongo.listIndexes(collection.getCatalog(), collection.getName()).size());
 
         DbObject fields = childFolder("fields", Kind.FIELDS_FOLDER, collection);
-        int fieldCount = ClientRegistry.mongo(profile)
-                .inferFields(collection.getCatalog(), collection.getName(), 100).size();
-        fields.setDetail(String.valueOf(fieldCount));
+        fields.setDetail(String.valueOf(join(fieldCount)));
         result.add(fields);
 
         DbObject indexes = childFolder("indexes", Kind.INDEXES_FOLDER, collection);
-        int indexCount = ClientRegistry.mongo(profile)
-                .listIndexes(collection.getCatalog(), collection.getName()).size();
-        indexes.setDetail(String.valueOf(indexCount));
+        indexes.setDetail(String.valueOf(join(indexCount)));
         result.add(indexes);
 
         return result;
     }
 
+    /** Waits for a {@link MongoAsync} result, rethrowing the call's own exception rather than its wrapper. */
+    private static <T> T join(CompletableFuture<T> future) throws Exception {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof Exception cause) throw cause;
+            throw e;
+        }
+    }
+
     private static List<DbObject> loadMongoFields(ConnectionProfile profile, DbObject folder) {
         List<DbObject> result = new ArrayList<>();
         for (MongoDbClient.FieldInfo field
-                : ClientRegistry.mongo(profile).inferFields(folder.getCatalog(), folder.getTableName(), 100)) {
+                : ClientRegistry.mongo(profile).inferFields(folder.getCatalog(), folder.getTableName())) {
             DbObject obj = new DbObject(field.name(), Kind.FIELD, folder.getCatalog(), null);
             obj.setTableName(folder.getTableName());
-            obj.setDetail(field.type());
+            obj.setDetail(field.detail());
             result.add(obj);
         }
         return result;
@@ -504,6 +652,12 @@ public final class MetadataService {
     }
 
     public static List<DbObject> loadTableChildren(ConnectionProfile profile, DbObject table)
+            throws Exception {
+        return MetadataCache.objects(profile, table.getCatalog(),
+                "TABLE/" + table.getSchema() + "/" + table.getName(), () -> fetchTableChildren(profile, table));
+    }
+
+    private static List<DbObject> fetchTableChildren(ConnectionProfile profile, DbObject table)
             throws SQLException {
         List<DbObject> result = new ArrayList<>();
 
@@ -685,7 +839,7 @@ public final class MetadataService {
      * own, which drops the precision/scale/length that's actually part of
      * the column's real declared type.
      */
-    private static String formatColumnType(String typeName, int columnSize, int decimalDigits) {
+    static String formatColumnType(String typeName, int columnSize, int decimalDigits) {
         String lower = typeName.toLowerCase(Locale.ROOT);
         if (CHAR_LENGTH_TYPES.contains(lower) && columnSize > 0) {
             return lower + "(" + columnSize + ")";
@@ -728,7 +882,8 @@ public final class MetadataService {
         return result;
     }
 
-    private static List<DbObject> loadPartitions(ConnectionProfile profile, DbObject folder) {
+    /** A table's partitions — those whose name contains {@code nameFilter}, if given. */
+    private static List<DbObject> loadPartitions(ConnectionProfile profile, DbObject folder, String nameFilter) {
         // Partitions ARE tables — fetch them with their own schema so they can be
         // opened, expanded to columns/indexes, and queried like any other table.
         String sql = "SELECT c.relname, cn.nspname FROM pg_inherits i " +
@@ -736,12 +891,15 @@ public final class MetadataService {
                 "JOIN pg_namespace cn ON cn.oid = c.relnamespace " +
                 "JOIN pg_class p ON p.oid = i.inhparent " +
                 "JOIN pg_namespace n ON n.oid = p.relnamespace " +
-                "WHERE n.nspname = ? AND p.relname = ? ORDER BY c.relname";
+                "WHERE n.nspname = ? AND p.relname = ? " +
+                (nameFilter == null ? "" : "AND c.relname ILIKE ? ESCAPE '\\' ") +
+                "ORDER BY c.relname";
         List<DbObject> result = new ArrayList<>();
         try (Connection conn = client(profile, folder.getCatalog()).getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setString(1, folder.getSchema());
             stmt.setString(2, folder.getTableName());
+            if (nameFilter != null) stmt.setString(3, containsPattern(nameFilter));
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
                     DbObject part = new DbObject(rs.getString(1), Kind.PARTITION,
@@ -892,42 +1050,6 @@ public final class MetadataService {
                              String toSchema, String toTable, String toColumn,
                              String constraintName) {}
 
-    /**
-     * FK relationships one hop from a table: both the FKs it declares (this
-     * table \u2192 parent tables) and the FKs other tables declare against it
-     * (child tables \u2192 this table). Powers the ER diagram.
-     */
-    public static List<ForeignKey> loadRelatedForeignKeys(ConnectionProfile profile, DbObject table)
-            throws SQLException {
-        List<ForeignKey> result = new ArrayList<>();
-        try (Connection conn = client(profile, table.getCatalog()).getConnection()) {
-            DatabaseMetaData meta = conn.getMetaData();
-            String cat = metaCatalog(profile, table.getCatalog());
-
-            // This table's own FK columns -> the tables they reference
-            try (ResultSet rs = meta.getImportedKeys(cat, table.getSchema(), table.getName())) {
-                while (rs.next()) {
-                    result.add(new ForeignKey(
-                            rs.getString("FKTABLE_SCHEM"), rs.getString("FKTABLE_NAME"), rs.getString("FKCOLUMN_NAME"),
-                            rs.getString("PKTABLE_SCHEM"), rs.getString("PKTABLE_NAME"), rs.getString("PKCOLUMN_NAME"),
-                            rs.getString("FK_NAME")));
-                }
-            }
-            // Other tables' FK columns that reference this table
-            try (ResultSet rs = meta.getExportedKeys(cat, table.getSchema(), table.getName())) {
-                while (rs.next()) {
-                    String fkTable = rs.getString("FKTABLE_NAME");
-                    if (fkTable.equalsIgnoreCase(table.getName())) continue;   // avoid duplicate self-ref
-                    result.add(new ForeignKey(
-                            rs.getString("FKTABLE_SCHEM"), fkTable, rs.getString("FKCOLUMN_NAME"),
-                            rs.getString("PKTABLE_SCHEM"), rs.getString("PKTABLE_NAME"), rs.getString("PKCOLUMN_NAME"),
-                            rs.getString("FK_NAME")));
-                }
-            }
-        }
-        return result;
-    }
-
     /** Primary key column names of a table (used by the editable data grid). */
     public static List<String> loadPrimaryKeys(ConnectionProfile profile, DbObject table)
             throws SQLException {
@@ -946,6 +1068,10 @@ public final class MetadataService {
      * (and regular tables/views) are suggested.
      */
     public static List<String> listAllTables(ConnectionProfile profile, String catalog) {
+        return cachedNames(profile, catalog, "tables", () -> fetchAllTables(profile, catalog));
+    }
+
+    private static List<String> fetchAllTables(ConnectionProfile profile, String catalog) throws SQLException {
         if (profile.getType() == DatabaseType.POSTGRESQL) {
             List<String> tables = new ArrayList<>();
             String sql = "SELECT c.relname FROM pg_class c " +
@@ -958,7 +1084,7 @@ public final class MetadataService {
                  Statement stmt = conn.createStatement();
                  ResultSet rs = stmt.executeQuery(sql)) {
                 while (rs.next()) tables.add(rs.getString(1));
-            } catch (SQLException ignored) {}
+            }
             return tables;
         }
 
@@ -972,12 +1098,16 @@ public final class MetadataService {
                 if (schema != null && PG_SYSTEM_SCHEMAS.contains(schema)) continue;
                 tables.add(rs.getString("TABLE_NAME"));
             }
-        } catch (SQLException ignored) {}
+        }
         return tables;
     }
 
     /** All user-defined sequence names visible in a database — used for autocomplete. */
     public static List<String> listAllSequences(ConnectionProfile profile, String catalog) {
+        return cachedNames(profile, catalog, "sequences", () -> fetchAllSequences(profile, catalog));
+    }
+
+    private static List<String> fetchAllSequences(ConnectionProfile profile, String catalog) throws SQLException {
         List<String> sequences = new ArrayList<>();
         if (profile.getType() == DatabaseType.POSTGRESQL) {
             String sql = "SELECT c.relname FROM pg_class c " +
@@ -989,7 +1119,7 @@ public final class MetadataService {
                  Statement stmt = conn.createStatement();
                  ResultSet rs = stmt.executeQuery(sql)) {
                 while (rs.next()) sequences.add(rs.getString(1));
-            } catch (SQLException ignored) {}
+            }
             return sequences;
         }
 
@@ -998,34 +1128,57 @@ public final class MetadataService {
                      metaCatalog(profile, catalog), metaSchema(profile, catalog), "%",
                      new String[]{"SEQUENCE"})) {
             while (rs.next()) sequences.add(rs.getString("TABLE_NAME"));
-        } catch (SQLException ignored) {}
+        }
         return sequences;
     }
 
     /** Distinct column names of every user table — global autocomplete pool. */
     public static List<String> listAllColumns(ConnectionProfile profile, String catalog) {
-        Set<String> columns = new LinkedHashSet<>();
-        try (Connection conn = client(profile, catalog).getConnection();
-             ResultSet rs = conn.getMetaData().getColumns(
-                     metaCatalog(profile, catalog), metaSchema(profile, catalog), "%", "%")) {
-            while (rs.next() && columns.size() < 4000) {
-                String schema = rs.getString("TABLE_SCHEM");
-                if (schema != null && PG_SYSTEM_SCHEMAS.contains(schema)) continue;
-                columns.add(rs.getString("COLUMN_NAME"));
-            }
-        } catch (SQLException ignored) {}
-        return new ArrayList<>(columns);
+        return cachedNames(profile, catalog, "columns", () -> fetchAllColumns(profile, catalog));
     }
 
-    /** Column names of one table — used for autocomplete after "table.". */
+    /**
+     * Every column name of the database from its {@link SchemaGraph} — no
+     * longer capped at the first 4,000 names the driver happened to return.
+     */
+    private static List<String> fetchAllColumns(ConnectionProfile profile, String catalog) throws SQLException {
+        return SchemaGraph.of(profile, catalog).columnNames();
+    }
+
+    /**
+     * Column names of one table — used for autocomplete after "table.".
+     * Unlike the other name lists this answers null, not an empty list, when
+     * they couldn't be read, so the caller can tell "no columns" from "ask
+     * again later".
+     */
     public static List<String> listColumns(ConnectionProfile profile, String catalog, String table) {
-        List<String> columns = new ArrayList<>();
-        try (Connection conn = client(profile, catalog).getConnection();
-             ResultSet rs = conn.getMetaData().getColumns(
-                     metaCatalog(profile, catalog), metaSchema(profile, catalog), table, "%")) {
-            while (rs.next()) columns.add(rs.getString("COLUMN_NAME"));
-        } catch (SQLException ignored) {}
-        return columns;
+        try {
+            return MetadataCache.names(profile, catalog, "columns/" + table, () -> {
+                List<String> columns = new ArrayList<>();
+                try (Connection conn = client(profile, catalog).getConnection();
+                     ResultSet rs = conn.getMetaData().getColumns(
+                             metaCatalog(profile, catalog), metaSchema(profile, catalog), table, "%")) {
+                    while (rs.next()) columns.add(rs.getString("COLUMN_NAME"));
+                }
+                return columns;
+            });
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * Completion name lists through the on-disk {@link MetadataCache}. A
+     * failed load answers an empty list as before, but isn't cached, so the
+     * next console asks the server again.
+     */
+    private static List<String> cachedNames(ConnectionProfile profile, String catalog, String key,
+                                            MetadataCache.Loader<List<String>> loader) {
+        try {
+            return MetadataCache.names(profile, catalog, key, loader);
+        } catch (Exception e) {
+            return List.of();
+        }
     }
 
     /**
@@ -1062,39 +1215,28 @@ public final class MetadataService {
     public static List<DbObject> loadDatabaseTables(ConnectionProfile profile, String catalog)
             throws SQLException {
         List<DbObject> result = new ArrayList<>();
-        try (Connection conn = client(profile, catalog).getConnection();
-             ResultSet rs = conn.getMetaData().getTables(
-                     metaCatalog(profile, catalog), null, "%", new String[]{"TABLE"})) {
-            while (rs.next()) {
-                String schema = rs.getString("TABLE_SCHEM");
-                if (schema != null && PG_SYSTEM_SCHEMAS.contains(schema)) continue;
-                result.add(new DbObject(rs.getString("TABLE_NAME"), Kind.TABLE, catalog, schema));
-            }
+        for (SchemaGraph.Table table : SchemaGraph.of(profile, catalog).tables()) {
+            if (!table.view()) result.add(new DbObject(table.name(), Kind.TABLE, catalog, table.schema()));
         }
         return result;
     }
 
-    /** Every FK relationship among the given tables — used by the database-wide ER diagram. */
+    /**
+     * Every FK relationship among the given tables — used by the database-wide
+     * ER diagram. Answered from the database's {@link SchemaGraph}: one catalog
+     * query for all of them instead of a getImportedKeys round trip per table.
+     */
     public static List<ForeignKey> loadForeignKeysForTables(ConnectionProfile profile, String catalog,
                                                             List<DbObject> tables) {
+        Set<String> wanted = new java.util.HashSet<>();
+        for (DbObject table : tables) wanted.add(table.getName().toLowerCase(Locale.ROOT));
         List<ForeignKey> result = new ArrayList<>();
-        try (Connection conn = client(profile, catalog).getConnection()) {
-            DatabaseMetaData meta = conn.getMetaData();
-            String cat = metaCatalog(profile, catalog);
-            for (DbObject table : tables) {
-                try (ResultSet rs = meta.getImportedKeys(cat, table.getSchema(), table.getName())) {
-                    while (rs.next()) {
-                        result.add(new ForeignKey(
-                                rs.getString("FKTABLE_SCHEM"), rs.getString("FKTABLE_NAME"), rs.getString("FKCOLUMN_NAME"),
-                                rs.getString("PKTABLE_SCHEM"), rs.getString("PKTABLE_NAME"), rs.getString("PKCOLUMN_NAME"),
-                                rs.getString("FK_NAME")));
-                    }
-                } catch (SQLException ignored) {
-                    // some drivers/tables can't report FKs — skip rather than fail the whole diagram
-                }
+        try {
+            for (ForeignKey fk : SchemaGraph.of(profile, catalog).foreignKeys()) {
+                if (wanted.contains(fk.fromTable().toLowerCase(Locale.ROOT))) result.add(fk);
             }
         } catch (SQLException ignored) {
-            return result;
+            // can't report FKs — the diagram shows its tables without connectors
         }
         return result;
     }
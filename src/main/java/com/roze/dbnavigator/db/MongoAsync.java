@@ -0,0 +1,149 @@
+package com.roze.dbnavigator.db;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Background execution for MongoDB work on virtual threads. The sync
+ * driver blocks its calling thread for every round trip; on the shared
+ * {@code db-worker} cached pool each of those blocked calls pinned a
+ * platform thread, so sampling or describing a database with hundreds of
+ * collections grew the pool by hundreds of threads. A parked virtual thread
+ * costs a few hundred bytes instead.
+ *
+ * Cheap threads don't make the server's side cheap, so every task first
+ * takes one of its client's {@link MongoDbClient#operationPermits() permits}
+ * — a cap on the server operations this app's background work has in flight
+ * per connection, well under the driver's pool size, so a fan-out never
+ * queues the user's own finds behind it for a pooled connection. A fan-out
+ * additionally limits itself ({@code parallelism}), so one big database
+ * can't hold every permit either.
+ */
+public final class MongoAsync {
+
+    private static final ExecutorService VIRTUAL = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("mongo-async-", 0).factory());
+
+    private MongoAsync() {}
+
+    /** Runs {@code work} on a virtual thread once the client has a free permit. */
+    public static <T> CompletableFuture<T> supply(MongoDbClient client, Supplier<T> work) {
+        return CompletableFuture.supplyAsync(() -> withPermit(client, work), VIRTUAL);
+    }
+
+    /**
+     * Like {@link #supply}, for fire-and-forget work that may need stopping:
+     * cancelling the returned Future interrupts the call, which makes the
+     * driver abandon the round trip.
+     */
+    public static Future<?> submit(MongoDbClient client, Runnable work) {
+        return VIRTUAL.submit(() -> withPermit(client, () -> {
+            work.run();
+            return null;
+        }));
+    }
+
+    /**
+     * Applies {@code work} to every key concurrently, at most
+     * {@code parallelism} at a time (and within the client's permits). Keys
+     * whose work fails or returns null are left out of the result rather
+     * than failing the rest — metadata for one odd collection (a view, a
+     * namespace dropped meanwhile) shouldn't blank out everything else.
+     *
+     * @return completes with the results, in {@code keys} order, once every key is done
+     */
+    public static <K, V> CompletableFuture<Map<K, V>> fanOut(MongoDbClient client, Collection<K> keys,
+                                                             int parallelism, Function<K, V> work) {
+        Map<K, V> results = new ConcurrentHashMap<>();
+        return start(client, keys, parallelism, work, results, new AtomicBoolean())
+                .thenApply(done -> ordered(keys, results));
+    }
+
+    /**
+     * {@link #fanOut}, waiting at most {@code maxWaitMillis}: returns
+     * whatever finished in time and abandons the rest (keys not started yet
+     * are skipped; calls already on the wire run to completion unobserved).
+     * For callers such as tree expansion that would rather show partial
+     * detail than hang on a slow server.
+     */
+    public static <K, V> Map<K, V> fanOutWithin(MongoDbClient client, Collection<K> keys, int parallelism,
+                                                Function<K, V> work, long maxWaitMillis) {
+        Map<K, V> results = new ConcurrentHashMap<>();
+        AtomicBoolean abandoned = new AtomicBoolean();
+        CompletableFuture<Void> all = start(client, keys, parallelism, work, results, abandoned);
+        try {
+            all.get(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException timedOut) {
+            abandoned.set(true);
+        } catch (InterruptedException e) {
+            abandoned.set(true);
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException ignored) {
+            // never — each key's failure is swallowed where it happens
+        }
+        return ordered(keys, results);
+    }
+
+    private static <K, V> CompletableFuture<Void> start(MongoDbClient client, Collection<K> keys, int parallelism,
+                                                        Function<K, V> work, Map<K, V> results,
+                                                        AtomicBoolean abandoned) {
+        Semaphore slots = new Semaphore(Math.max(1, parallelism));
+        CompletableFuture<?>[] tasks = keys.stream()
+                .map(key -> CompletableFuture.runAsync(() -> {
+                    try {
+                        slots.acquire();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    try {
+                        if (abandoned.get()) return;
+                        V value = withPermit(client, () -> work.apply(key));
+                        if (value != null) results.put(key, value);
+                    } catch (RuntimeException ignored) {
+                        // left out of the result — see fanOut
+                    } finally {
+                        slots.release();
+                    }
+                }, VIRTUAL))
+                .toArray(CompletableFuture[]::new);
+        return CompletableFuture.allOf(tasks);
+    }
+
+    private static <T> T withPermit(MongoDbClient client, Supplier<T> work) {
+        Semaphore permits = client.operationPermits();
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a MongoDB connection slot", e);
+        }
+        try {
+            return work.get();
+        } finally {
+            permits.release();
+        }
+    }
+
+    private static <K, V> Map<K, V> ordered(Collection<K> keys, Map<K, V> results) {
+        Map<K, V> ordered = new LinkedHashMap<>();
+        for (K key : keys) {
+            V value = results.get(key);
+            if (value != null) ordered.put(key, value);
+        }
+        return ordered;
+    }
+}
@@ -0,0 +1,74 @@
+package com.roze.dbnavigator.db;
+
+import com.mongodb.MongoExecutionTimeoutException;
+import com.roze.dbnavigator.util.AppExecutor;
+
+import java.util.UUID;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Document totals for the Mongo pagers, computed next to the first page
+ * instead of in front of it. A filtered countDocuments() is an aggregation
+ * over every matching document, so on a big collection it used to hold up
+ * the page display for as long as the scan took.
+ *
+ * An empty filter is answered from collection metadata
+ * (estimatedDocumentCount), which is instant. A filtered count runs on a
+ * virtual thread ({@link MongoAsync}) with a server-side maxTime; {@link #start} returns a cancel
+ * action that abandons it both locally and on the server (killOp), for when
+ * the user changes the filter or closes the tab before it finishes.
+ */
+public final class MongoCount {
+
+    /**
+     * @param value     the count, or -1 when it couldn't be determined
+     * @param estimated from metadata rather than counted
+     * @param failure   why there is no value (time limit hit, error), else null
+     */
+    public record Total(long value, boolean estimated, String failure) {}
+
+    private MongoCount() {}
+
+    /**
+     * Starts counting; {@code done} is called once on a background thread,
+     * unless cancelled first.
+     *
+     * @return cancel action — safe to call any number of times, from any thread
+     */
+    public static Runnable start(MongoDbClient client, String database, String collection,
+                                 String jsonFilter, long maxTimeMillis, Consumer<Total> done) {
+        AtomicBoolean cancelled = new AtomicBoolean();
+        String tag = "dbnavigator-count-" + UUID.randomUUID();
+        boolean estimate = MongoDbClient.isEmptyFilter(jsonFilter);
+
+        Future<?> future = MongoAsync.submit(client, () -> {
+            Total total;
+            try {
+                total = estimate
+                        ? new Total(client.estimatedDocumentCount(database, collection), true, null)
+                        : new Total(client.countDocuments(database, collection, jsonFilter, maxTimeMillis, tag),
+                                false, null);
+            } catch (MongoExecutionTimeoutException timedOut) {
+                total = new Total(-1, false, "count stopped after " + (maxTimeMillis / 1000) + " s");
+            } catch (RuntimeException ex) {
+                total = new Total(-1, false, ex.getMessage() == null ? ex.toString() : ex.getMessage());
+            }
+            if (!cancelled.get()) done.accept(total);
+        });
+
+        return () -> {
+            if (!cancelled.compareAndSet(false, true) || future.isDone()) return;
+            future.cancel(true);
+            if (!estimate) {
+                // Not through MongoAsync: a kill mustn't wait behind the very permits it frees.
+                AppExecutor.run(() -> {
+                    try { client.killOperation(tag); } catch (RuntimeException ignored) {
+                        // best-effort — maxTime stops it on the server regardless
+                    }
+                });
+            }
+        };
+    }
+}
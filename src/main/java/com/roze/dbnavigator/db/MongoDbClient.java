@@ -1,25 +1,37 @@
 package com.roze.dbnavigator.db;
 
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.MongoException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoClients;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.CountOptions;
+import com.mongodb.client.model.WriteModel;
 import com.roze.dbnavigator.model.ConnectionProfile;
 import com.roze.dbnavigator.model.QueryResult;
 import org.bson.Document;
+import org.bson.RawBsonDocument;
 
 import java.util.ArrayList;
-import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
 /** MongoDB client — browses databases/collections and runs JSON filter queries. */
 public class MongoDbClient implements AutoCloseable {
 
+    /** Server operations {@link MongoAsync} work may have in flight on this connection at once. */
+    private static final int MAX_ASYNC_OPERATIONS = 16;
+
     private final ConnectionProfile profile;
     private final MongoClient client;
+    private final Semaphore operationPermits = new Semaphore(MAX_ASYNC_OPERATIONS, true);
 
     public MongoDbClient(ConnectionProfile profile) {
         this.profile = profile;
@@ -28,6 +40,8 @@ public class MongoDbClient implements AutoCloseable {
 
     public ConnectionProfile getProfile() { return profile; }
 
+    Semaphore operationPermits() { return operationPermits; }
+
     public List<String> listDatabases() {
         List<String> names = new ArrayList<>();
         client.listDatabaseNames().forEach(names::add);
@@ -40,12 +54,76 @@ public class MongoDbClient implements AutoCloseable {
         return names;
     }
 
+    /** Collections whose name contains {@code nameFilter}, case-insensitively — filtered by the server. */
+    public List<String> listCollections(String database, String nameFilter) {
+        List<String> names = new ArrayList<>();
+        client.getDatabase(database).listCollectionNames()
+                .filter(new Document("name", new Document("$regex", java.util.regex.Pattern.quote(nameFilter))
+                        .append("$options", "i")))
+                .forEach(names::add);
+        return names;
+    }
+
     public long countDocuments(String database, String collection, String jsonFilter) {
         MongoCollection<Document> coll = client.getDatabase(database).getCollection(collection);
         Document filter = parseFilter(jsonFilter);
         return coll.countDocuments(filter);
     }
 
+    /**
+     * Document count from collection metadata — instant however large the
+     * collection, but it can't take a filter, and after an unclean shutdown
+     * (or on a sharded cluster with orphaned documents) it can be slightly off.
+     */
+    public long estimatedDocumentCount(String database, String collection) {
+        return client.getDatabase(database).getCollection(collection).estimatedDocumentCount();
+    }
+
+    /**
+     * Exact count for a filter, which the server abandons after
+     * {@code maxTimeMillis} (MongoExecutionTimeoutException). The operation
+     * carries {@code tag} as its comment so {@link #killOperation} can find
+     * it again.
+     */
+    public long countDocuments(String database, String collection, String jsonFilter,
+                               long maxTimeMillis, String tag) {
+        MongoCollection<Document> coll = client.getDatabase(database).getCollection(collection);
+        CountOptions options = new CountOptions().maxTime(maxTimeMillis, TimeUnit.MILLISECONDS).comment(tag);
+        return coll.countDocuments(parseFilter(jsonFilter), options);
+    }
+
+    /**
+     * Kills this user's server-side operations whose comment is {@code tag}.
+     * Abandoning the client call alone would leave the server scanning
+     * until maxTime. Listing and killing one's own operations needs no
+     * special role.
+     */
+    public void killOperation(String tag) {
+        MongoDatabase admin = client.getDatabase("admin");
+        List<Document> pipeline = List.of(
+                new Document("$currentOp", new Document()),
+                new Document("$match", new Document("command.comment", tag)));
+        for (Document op : admin.aggregate(pipeline)) {
+            admin.runCommand(new Document("killOp", 1).append("op", op.get("opid")));
+        }
+    }
+
+    /**
+     * Sends {@code killCursors} for one server cursor. Unlike closing the
+     * driver's cursor object, this is safe while another thread is blocked
+     * in a getMore on it — the server interrupts that getMore, which then
+     * fails on its own thread.
+     */
+    public void killCursor(String database, String collection, long cursorId) {
+        client.getDatabase(database).runCommand(new Document("killCursors", collection)
+                .append("cursors", List.of(cursorId)));
+    }
+
+    /** True for a blank or {@code {}} filter — one that matches every document. */
+    public static boolean isEmptyFilter(String jsonFilter) {
+        return parseFilter(jsonFilter).isEmpty();
+    }
+
     /**
      * Runs a find() with an optional JSON filter and returns documents flattened
      * into a table (union of top-level keys across the page).
@@ -75,6 +153,13 @@ public class MongoDbClient implements AutoCloseable {
         List<Document> docs = new ArrayList<>();
         cursor.skip(skip).limit(limit).forEach(docs::add);
 
+        QueryResult result = toQueryResult(docs);
+        result.setExecutionMillis(System.currentTimeMillis() - start);
+        return result;
+    }
+
+    /** Flattens documents into a table: the union of their top-level keys, _id first. */
+    static QueryResult toQueryResult(List<Document> docs) {
         QueryResult result = new QueryResult();
         Set<String> keys = new LinkedHashSet<>();
         keys.add("_id");
@@ -95,11 +180,14 @@ public class MongoDbClient implements AutoCloseable {
             }
             result.getRows().add(row);
         }
-
-        result.setExecutionMillis(System.currentTimeMillis() - start);
         return result;
     }
 
+    /** The collection read as raw BSON, for {@link MongoPagedCursor}. */
+    MongoCollection<RawBsonDocument> rawCollection(String database, String collection) {
+        return client.getDatabase(database).getCollection(collection, RawBsonDocument.class);
+    }
+
     /** Runs an arbitrary database command, e.g. {"dbStats": 1}. */
     public String runCommand(String database, String jsonCommand) {
         MongoDatabase db = client.getDatabase(database);
@@ -129,49 +217,31 @@ public class MongoDbClient implements AutoCloseable {
         client.getDatabase(database).createCollection(collection);
     }
 
-    /** One inferred field, from sampling documents — Mongo has no fixed schema, so this is a best effort. */
-    public record FieldInfo(String name, String type) {}
-
     /**
-     * Infers a collection's top-level fields and their types by sampling
-     * documents, since MongoDB collections have no fixed schema to read
-     * directly. The first type seen for each field name wins if documents
-     * disagree — good enough for the tree view's purposes; the actual data
-     * grid already shows each document's real values regardless.
+     * One inferred field, from sampling documents — Mongo has no fixed schema, so this is a best effort.
+     *
+     * @param type     "Int32", or "Int32 | String" when sampled documents disagree (most frequent first)
+     * @param presence share of sampled documents that have the field, 0..1
      */
-    public List<FieldInfo> inferFields(String database, String collection, int sampleSize) {
-        Map<String, String> typeByField = new LinkedHashMap<>();
-        typeByField.put("_id", "ObjectId");   // present on virtually every document; guarantee it's first
-
-        MongoCollection<Document> coll = client.getDatabase(database).getCollection(collection);
-        for (Document doc : coll.find().limit(sampleSize)) {
-            collectFields(doc, "", typeByField, 0);
-        }
-
-        List<FieldInfo> result = new ArrayList<>();
-        for (Map.Entry<String, String> entry : typeByField.entrySet()) {
-            result.add(new FieldInfo(entry.getKey(), entry.getValue()));
+    public record FieldInfo(String name, String type, double presence) {
+        /** Type plus, for optional fields, how often they occur — the tree's detail text. */
+        public String detail() {
+            return presence >= 0.995 ? type : type + "  " + Math.round(presence * 100) + "%";
         }
-        return result;
     }
 
     /**
-     * Recursively walks a document's fields, adding a dot-notation entry
-     * for each nested sub-field (e.g. "address.city") right alongside the
-     * parent object field itself ("address") — matching the reference
-     * IDE's own field tree exactly, which lists both. Capped at a modest
-     * depth purely as a safety net against unusually deep documents.
+     * Infers a collection's fields (dot notation for subdocument fields) and
+     * their types from a random {@code $sample} of its documents, via the
+     * shared {@link MongoSchemaSampler} cache.
      */
-    private static void collectFields(Document doc, String prefix, Map<String, String> typeByField, int depth) {
-        if (depth > 4) return;
-        for (String key : doc.keySet()) {
-            String fullKey = prefix.isEmpty() ? key : prefix + "." + key;
-            Object value = doc.get(key);
-            typeByField.putIfAbsent(fullKey, bsonTypeName(value));
-            if (value instanceof Document nested) {
-                collectFields(nested, fullKey, typeByField, depth + 1);
-            }
+    public List<FieldInfo> inferFields(String database, String collection) {
+        MongoSchemaSampler.CollectionSchema schema = MongoSchemaSampler.schema(profile, database, collection);
+        List<FieldInfo> result = new ArrayList<>();
+        for (MongoSchemaSampler.FieldStats field : schema.fields()) {
+            result.add(new FieldInfo(field.path(), field.typeSummary(), schema.presence(field)));
         }
+        return result;
     }
 
     /** One index, with a DataGrip-style "(keys) UNIQUE" detail string ready to display. */
@@ -190,6 +260,50 @@ public class MongoDbClient implements AutoCloseable {
         return result;
     }
 
+    /** Document count, data size and index count of one collection, from storage statistics. */
+    public record CollectionStats(long count, long sizeBytes, int indexes) {
+        /** "12,345 docs · 3 idx · 4.2 MB" — the tree's detail text for a collection. */
+        public String detail() {
+            return String.format("%,d docs \u00b7 %d idx \u00b7 %s", count, indexes, humanSize(sizeBytes));
+        }
+
+        private static String humanSize(long bytes) {
+            if (bytes < 1024) return bytes + " B";
+            String[] units = {"KB", "MB", "GB", "TB"};
+            double value = bytes;
+            int unit = -1;
+            while (value >= 1024 && unit < units.length - 1) {
+                value /= 1024;
+                unit++;
+            }
+            return String.format("%.1f %s", value, units[unit]);
+        }
+    }
+
+    /**
+     * Storage statistics via {@code $collStats} — read from metadata, no
+     * document scan. Summed across shards on a sharded collection (one
+     * result document per shard). Fails on views, which have no storage.
+     */
+    public CollectionStats collectionStats(String database, String collection) {
+        MongoCollection<Document> coll = client.getDatabase(database).getCollection(collection);
+        long count = 0, size = 0;
+        int indexes = 0;
+        for (Document shard : coll.aggregate(List.of(
+                new Document("$collStats", new Document("storageStats", new Document()))))) {
+            Document storage = shard.get("storageStats", Document.class);
+            if (storage == null) continue;
+            count += longValue(storage.get("count"));
+            size += longValue(storage.get("size"));
+            indexes = Math.max(indexes, (int) longValue(storage.get("nindexes")));
+        }
+        return new CollectionStats(count, size, indexes);
+    }
+
+    private static long longValue(Object value) {
+        return value instanceof Number n ? n.longValue() : 0;
+    }
+
     /** Same shape as find(), but for a single document — renders in the same grid as a one-row result. */
     public QueryResult findOne(String database, String collection, String jsonFilter) {
         return find(database, collection, jsonFilter, null, false, 0, 1);
@@ -219,6 +333,93 @@ public class MongoDbClient implements AutoCloseable {
                 + ", modified " + result.getModifiedCount() + " document(s)");
     }
 
+    /** One document bulkWrite rejected: its index in the submitted models, its label and the server's message. */
+    public record BulkWriteFailure(int index, String label, String message) {}
+
+    /**
+     * Outcome of {@link #bulkWrite}: totals, the documents that failed, how
+     * many were never sent because an ordered write stopped, and the write
+     * concern error if any (the writes it covers were applied, just not
+     * acknowledged as asked, so they are not counted as failures).
+     *
+     * The unsent models are always the last {@code unsent} of the list, so
+     * every model that is neither failed nor in that tail was applied.
+     * {@code error} is set when a chunk failed as a whole (connection lost,
+     * auth, ...): that chunk and everything after it count as unsent, while
+     * the totals still cover the chunks completed before it.
+     */
+    public record BulkWriteSummary(long matched, long modified, List<BulkWriteFailure> failures,
+                                   int unsent, List<String> writeConcernErrors, String error) {
+
+        /** Whether the model at {@code index} was applied (matched or not). */
+        public boolean applied(int index, int modelCount) {
+            if (index >= modelCount - unsent) return false;
+            for (BulkWriteFailure failure : failures) {
+                if (failure.index() == index) return false;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Applies write models with bulkWrite, {@code chunkSize} models per round
+     * trip. Unordered chunks carry on past a failing document; ordered ones
+     * stop at the first failure and nothing after it is sent. Each failure
+     * is reported against the index and label of the model it came from,
+     * using the index in the MongoBulkWriteException. Any other error stops
+     * the write; what earlier chunks applied is still reported.
+     *
+     * @param labels one human-readable label per model (e.g. its _id), for error messages
+     */
+    public BulkWriteSummary bulkWrite(String database, String collection,
+                                      List<? extends WriteModel<Document>> models, List<String> labels,
+                                      boolean ordered, int chunkSize) {
+        MongoCollection<Document> coll = client.getDatabase(database).getCollection(collection);
+        BulkWriteOptions options = new BulkWriteOptions().ordered(ordered);
+        int chunk = Math.max(1, chunkSize);
+        long matched = 0;
+        long modified = 0;
+        int unsent = 0;
+        String stopError = null;
+        List<BulkWriteFailure> failures = new ArrayList<>();
+        List<String> writeConcernErrors = new ArrayList<>();
+        for (int from = 0; from < models.size(); from += chunk) {
+            int to = Math.min(models.size(), from + chunk);
+            try {
+                BulkWriteResult result = coll.bulkWrite(models.subList(from, to), options);
+                if (result.wasAcknowledged()) {
+                    matched += result.getMatchedCount();
+                    modified += result.getModifiedCount();
+                }
+            } catch (MongoBulkWriteException e) {
+                if (e.getWriteResult().wasAcknowledged()) {
+                    matched += e.getWriteResult().getMatchedCount();
+                    modified += e.getWriteResult().getModifiedCount();
+                }
+                for (BulkWriteError error : e.getWriteErrors()) {
+                    int index = from + error.getIndex();
+                    failures.add(new BulkWriteFailure(index, labels.get(index), error.getMessage()));
+                }
+                if (e.getWriteConcernError() != null) {
+                    writeConcernErrors.add(e.getWriteConcernError().getMessage());
+                }
+                if (ordered && !e.getWriteErrors().isEmpty()) {
+                    // Models after the failing one, in this chunk and the rest.
+                    int failedAt = from + e.getWriteErrors().get(0).getIndex();
+                    unsent = models.size() - failedAt - 1;
+                    break;
+                }
+            } catch (MongoException e) {
+                // Nothing of this chunk can be assumed applied; an update
+                // re-sent later just sets the same values again.
+                stopError = e.getMessage() == null ? e.toString() : e.getMessage();
+                unsent = models.size() - from;
+                break;
+            }
+        }
+        return new BulkWriteSummary(matched, modified, failures, unsent, writeConcernErrors, stopError);
+    }
+
     public CommandResult updateMany(String database, String collection, String filterJson, String updateJson) {
         MongoCollection<Document> coll = client.getDatabase(database).getCollection(collection);
         var result = coll.updateMany(Document.parse(filterJson), Document.parse(updateJson));
@@ -240,12 +441,14 @@ public class MongoDbClient implements AutoCloseable {
 
     public CommandResult drop(String database, String collection) {
         client.getDatabase(database).getCollection(collection).drop();
+        MongoSchemaSampler.invalidate(profile, database, collection);
         return new CommandResult("Dropped collection \"" + collection + "\"");
     }
 
     public CommandResult renameCollection(String database, String oldName, String newName) {
         client.getDatabase(database).getCollection(oldName)
                 .renameCollection(new com.mongodb.MongoNamespace(database, newName));
+        MongoSchemaSampler.invalidate(profile, database, oldName);
         return new CommandResult("Renamed \"" + oldName + "\" to \"" + newName + "\"");
     }
 
@@ -263,22 +466,24 @@ public class MongoDbClient implements AutoCloseable {
         return new CommandResult("Dropped index \"" + indexName + "\"");
     }
 
-    private static String bsonTypeName(Object value) {
-        if (value == null) return "Null";
-        if (value instanceof org.bson.types.ObjectId) return "ObjectId";
-        if (value instanceof String) return "String";
-        if (value instanceof Integer) return "Int32";
-        if (value instanceof Long) return "Int64";
-        if (value instanceof Double) return "Double";
-        if (value instanceof Boolean) return "Boolean";
-        if (value instanceof java.util.Date || value instanceof java.time.Instant) return "ISODate";
-        if (value instanceof org.bson.types.Decimal128) return "Decimal128";
-        if (value instanceof List) return "Array";
-        if (value instanceof Document) return "Object";
-        return value.getClass().getSimpleName();
+    /**
+     * Runs a pipeline ending in {@code $out}/{@code $merge} to completion.
+     * Its output goes to a collection rather than back to the client, so
+     * there is nothing to page through.
+     */
+    public CommandResult aggregateToCollection(String database, String collection, List<Document> pipeline,
+                                               boolean allowDiskUse) {
+        client.getDatabase(database).getCollection(collection).aggregate(pipeline)
+                .allowDiskUse(allowDiskUse).toCollection();
+        Document last = pipeline.get(pipeline.size() - 1);
+        // {$out: "name"}, {$out: {db, coll}}, {$merge: "name"} or {$merge: {into: "name" | {db, coll}, ...}}
+        Object target = last.containsKey("$out") ? last.get("$out") : last.get("$merge");
+        if (last.containsKey("$merge") && target instanceof Document merge) target = merge.get("into");
+        if (target instanceof Document namespace) target = namespace.get("coll");
+        return new CommandResult("Pipeline output written to \"" + target + "\"");
     }
 
-    private static Document parseFilter(String jsonFilter) {
+    static Document parseFilter(String jsonFilter) {
         if (jsonFilter == null || jsonFilter.isBlank()) return new Document();
         return Document.parse(jsonFilter);
     }
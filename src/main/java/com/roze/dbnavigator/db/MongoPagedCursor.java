@@ -0,0 +1,521 @@
+package com.roze.dbnavigator.db;
+
+import com.mongodb.MongoCursorNotFoundException;
+import com.mongodb.ServerCursor;
+import com.mongodb.client.AggregateIterable;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.Sorts;
+import com.roze.dbnavigator.model.QueryResult;
+import com.roze.dbnavigator.util.AppExecutor;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonNull;
+import org.bson.BsonValue;
+import org.bson.RawBsonDocument;
+import org.bson.conversions.Bson;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A find()'s live server cursor, kept open across pager clicks — the
+ * MongoDB counterpart of {@link PagedResultCursor}. Paging forward reads
+ * the next batch from the open cursor instead of re-running the query with
+ * {@code skip(page * size)}, which made the server walk and discard every
+ * earlier document on each click; and since it is one query, documents no
+ * longer shift between pages under concurrent writes.
+ *
+ * Documents are cached as raw BSON (one byte array each, rendered a cell
+ * at a time by {@link MongoRows}), so paging back is free. Fields the user
+ * hid in the grid are projected away on the server ({@link #exclude}). The cache is bounded by bytes:
+ * once over budget the oldest documents are dropped, and paging back to
+ * them reopens the query at that page.
+ *
+ * Reopening — for an evicted page, for {@link #refresh} after edits, or
+ * when the server has timed out the idle cursor — uses range paging when
+ * the result is sorted: every sort gets _id as a tiebreak, the (sort value,
+ * _id) of the last document of every page is kept as a bookmark, and the
+ * query is reissued with {@code (sortKey, _id) > bookmark}, so it costs one
+ * page however deep it is. A descending reopen also takes the documents
+ * with the field null or missing, which sort last there but never match
+ * $lt; a bookmark on such a document itself is unusable and falls back to
+ * skip(). Range paging assumes the sort field holds one BSON type across
+ * the matching documents (comparison operators don't cross type
+ * brackets); it can be turned off in Settings, and natural-order results
+ * always fall back to skip() when they have to reopen.
+ *
+ * The same cursor pages an aggregate() pipeline ({@link #openAggregate}):
+ * results stream in batch by batch as the grid pages forward, rather than
+ * being collected whole before anything shows. Sorting and hidden columns
+ * become {@code $sort}/{@code $project} stages appended to the pipeline,
+ * and a reopen appends {@code $skip} — a pipeline's output has no key to
+ * range on.
+ *
+ * After serving a page, the following one is read in the background
+ * ({@link MongoAsync}), so Next is usually answered from memory. Reading
+ * stays driven by what the grid asks for: never more than one page ahead,
+ * with cursor batches sized to a page, so a result nobody pages through
+ * pulls nothing more from the server.
+ *
+ * {@link #cancel} stops a fetch from another thread while it is blocked on
+ * the server: killCursors for an open cursor (interrupting its getMore),
+ * killOp for an initial find/aggregate that hasn't returned a cursor yet.
+ *
+ * State is guarded by a ReentrantLock rather than the object's monitor:
+ * page() and the read-ahead hold it across blocking driver I/O, and the
+ * read-ahead runs on a virtual thread, which a monitor would pin to its
+ * carrier for the whole round trip on JDK 21.
+ */
+public class MongoPagedCursor implements AutoCloseable {
+
+    /** Raw BSON kept in memory before the oldest documents are dropped. */
+    private static final long CACHE_BUDGET_BYTES = 64L * 1024 * 1024;
+    /** Resume point after one document: its sort value and its _id, the tiebreak. */
+    private record Bookmark(BsonValue value, BsonValue id) {}
+
+    private final int pageSize;
+    private final boolean rangePaging;
+
+    private MongoCollection<RawBsonDocument> collection;
+    /** Stages of an aggregate(), or null for a find(). */
+    private List<Bson> pipeline;
+    private boolean allowDiskUse;
+    private int aggregateBatchSize;
+    private String jsonFilter;
+    private Bson filter;
+    private String sortField;
+    private boolean descending;
+    /** Fields left out by the server-side projection — columns hidden in the grid. */
+    private List<String> excluded = List.of();
+    private MongoCursor<RawBsonDocument> cursor;
+
+    private final ArrayList<RawBsonDocument> cache = new ArrayList<>();
+    private long cacheBytes;
+    /** Absolute index of cache.get(0). */
+    private int cacheStart;
+    private boolean exhausted;
+
+    /** bookmarks.get(p): resume point after the last document of page p (null if unusable). */
+    private final List<Bookmark> bookmarks = new ArrayList<>();
+    /** Sort value and _id of the latest document read, and whether a bookmark can resume after it. */
+    private BsonValue runValue;
+    private BsonValue runId;
+    private boolean runUsable;
+    /** Bumped by every page request and close, retiring read-aheads scheduled before it. */
+    private int readAheadToken;
+    /** Guards everything above; see the class comment for why it isn't a monitor. */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // Read by cancel() without the lock, while page() holds it.
+    private volatile MongoDbClient client;
+    private volatile String database;
+    private volatile String collectionName;
+    /** Comment on every command this cursor sends, so killOp can find an in-flight one. */
+    private volatile String tag;
+    /** Server id of the open cursor, 0 while there is none. */
+    private volatile long serverCursorId;
+    private volatile boolean cancelRequested;
+    /** A page() is waiting for or running its fetch — the only time cancel() has anything to stop. */
+    private volatile boolean fetching;
+
+    public MongoPagedCursor(int pageSize, boolean rangePaging) {
+        this.pageSize = Math.max(1, pageSize);
+        this.rangePaging = rangePaging;
+    }
+
+    /**
+     * Sets up the query without touching the server — the find is only sent
+     * (and the filter only parsed) by the first {@link #page} call, so this
+     * is safe on the FX thread and a page request queued right behind it on
+     * another thread can't overtake it.
+     */
+    public void open(MongoDbClient client, String database, String collectionName,
+                     String jsonFilter, String sortField, boolean descending) {
+        lock.lock();
+        try {
+            target(client, database, collectionName);
+            this.pipeline = null;
+            this.jsonFilter = jsonFilter;
+            this.filter = null;
+            this.sortField = sortField == null || sortField.isBlank() ? null : sortField;
+            this.descending = descending;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Sets up an aggregate() over the collection, lazily like {@link #open}.
+     *
+     * @param batchSize documents per cursor batch — the first one and every getMore
+     */
+    public void openAggregate(MongoDbClient client, String database, String collectionName,
+                              List<? extends Bson> pipeline, boolean allowDiskUse, int batchSize,
+                              String sortField, boolean descending) {
+        lock.lock();
+        try {
+            target(client, database, collectionName);
+            this.pipeline = List.copyOf(pipeline);
+            this.allowDiskUse = allowDiskUse;
+            this.aggregateBatchSize = Math.max(1, batchSize);
+            this.jsonFilter = null;
+            this.filter = null;
+            this.sortField = sortField == null || sortField.isBlank() ? null : sortField;
+            this.descending = descending;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void target(MongoDbClient client, String database, String collectionName) {
+        close();
+        this.collection = client.rawCollection(database, collectionName);
+        this.client = client;
+        this.database = database;
+        this.collectionName = collectionName;
+        this.tag = "dbnavigator-cursor-" + UUID.randomUUID();
+    }
+
+    /**
+     * Documents of page {@code page} (0-based), flattened into a grid result.
+     *
+     * @throws CancellationException when {@link #cancel} stopped it; the
+     *         next call re-runs the query from the requested page
+     */
+    public QueryResult page(int page) {
+        // A cancel that came in while nothing was fetching has nothing to stop.
+        cancelRequested = false;
+        fetching = true;
+        lock.lock();
+        try {
+            long started = System.currentTimeMillis();
+            int from = page * pageSize;
+            readAheadToken++;
+            try {
+                // Cancelled while waiting for a read-ahead to release the cursor.
+                if (cancelRequested) throw new CancellationException("Cancelled");
+                if (cursor == null || from < cacheStart) openAt(from);
+                fetchThrough(from, from + pageSize + 1);
+            } catch (RuntimeException ex) {
+                if (!cancelRequested) throw ex;
+                closeCursor();
+                throw new CancellationException("Cancelled after " + Math.max(0, cacheEnd() - from) + " document(s)");
+            } finally {
+                cancelRequested = false;
+            }
+            QueryResult result = flatten(from, Math.min(from + pageSize, cacheEnd()));
+            result.setExecutionMillis(System.currentTimeMillis() - started);
+            if (!exhausted) scheduleReadAhead(page);
+            return result;
+        } finally {
+            fetching = false;
+            lock.unlock();
+        }
+    }
+
+    /** Fetches page {@code page + 1} in the background, unless another request or a close comes first. */
+    private void scheduleReadAhead(int page) {
+        int token = readAheadToken;
+        MongoAsync.submit(client, () -> {
+            lock.lock();
+            try {
+                if (token != readAheadToken || cursor == null || exhausted) return;
+                fetchThrough(page * pageSize, (page + 2) * pageSize + 1);
+            } catch (RuntimeException ex) {
+                // Left for the next page() to run into and report itself.
+                closeCursor();
+            } finally {
+                lock.unlock();
+            }
+        });
+    }
+
+    /**
+     * Stops a {@link #page}/{@link #refresh} running on another thread: the
+     * server kills the cursor or operation and the blocked call fails with a
+     * CancellationException. Returns immediately; the kill commands go out
+     * on a worker thread. Does nothing when no fetch is running, so a late
+     * click can't fail the next page.
+     */
+    public void cancel() {
+        if (!fetching) return;
+        cancelRequested = true;
+        MongoDbClient owner = client;
+        if (owner == null) return;
+        String db = database, coll = collectionName, comment = tag;
+        long cursorId = serverCursorId;
+        AppExecutor.run(() -> {
+            try {
+                if (cursorId != 0) owner.killCursor(db, coll, cursorId);
+                owner.killOperation(comment);
+            } catch (RuntimeException ignored) {
+                // best-effort — the fetch then just runs to the end of its batch
+            }
+        });
+    }
+
+    /**
+     * Leaves these fields out of the documents fetched from now on (an
+     * exclusion projection), cutting wire bytes for columns the user hid.
+     * _id and the sort field are always kept — edits and range paging need
+     * them. Takes effect from the next {@link #page} call, which re-reads
+     * that page with the new projection.
+     */
+    public void exclude(Collection<String> fields) {
+        lock.lock();
+        try {
+            List<String> next = new ArrayList<>();
+            for (String field : fields) {
+                if (!"_id".equals(field) && !field.equals(sortField)) next.add(field);
+            }
+            if (next.equals(excluded)) return;
+            excluded = List.copyOf(next);
+            closeCursor();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Re-reads page {@code page} from the server, e.g. after its documents were edited. */
+    public QueryResult refresh(int page) {
+        lock.lock();
+        try {
+            closeCursor();   // page() reopens at this page, inside its cancellation handling
+            return page(page);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Whether at least one document follows page {@code page}. Valid after {@link #page}. */
+    public boolean hasMoreAfter(int page) {
+        lock.lock();
+        try {
+            return cacheEnd() > (page + 1) * pageSize;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Total number of matching documents, or -1 while the cursor hasn't reached the end. */
+    public long knownTotal() {
+        lock.lock();
+        try {
+            return exhausted ? cacheEnd() : -1;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getPageSize() { return pageSize; }
+
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            readAheadToken++;
+            closeCursor();
+            cache.clear();
+            cacheBytes = 0;
+            cacheStart = 0;
+            exhausted = false;
+            bookmarks.clear();
+            runValue = null;
+            runId = null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ------------------------------------------------------------ reading
+
+    private int cacheEnd() { return cacheStart + cache.size(); }
+
+    /** Reads until {@code end} documents exist or the cursor is exhausted, never evicting below {@code keepFrom}. */
+    private void fetchThrough(int keepFrom, int end) {
+        boolean resumed = false;
+        while (!exhausted && cacheEnd() < end) {
+            RawBsonDocument doc;
+            try {
+                if (!cursor.hasNext()) {
+                    exhausted = true;
+                    serverCursorId = 0;
+                    break;
+                }
+                doc = cursor.next();
+                ServerCursor server = cursor.getServerCursor();
+                serverCursorId = server == null ? 0 : server.getId();
+            } catch (MongoCursorNotFoundException lost) {
+                // The server reaps cursors idle for ~10 minutes; pick up
+                // right after the last document read. Only once per call, so
+                // a cursor that keeps dying surfaces as an error instead.
+                if (resumed || cancelRequested) throw lost;   // killed by cancel(), not reaped
+                resumed = true;
+                resume();
+                continue;
+            }
+            append(doc);
+            if (cacheBytes > CACHE_BUDGET_BYTES) evictBefore(keepFrom);
+        }
+    }
+
+    private void append(RawBsonDocument doc) {
+        int index = cacheEnd();
+        cache.add(doc);
+        cacheBytes += doc.getByteBuffer().remaining();
+        if (sortField == null) return;
+
+        runValue = sortValue(doc);
+        runId = doc.get("_id");
+        runUsable = isRangeable(runValue) && runId != null;
+        if (index % pageSize == pageSize - 1) {
+            int page = index / pageSize;
+            while (bookmarks.size() <= page) bookmarks.add(null);
+            bookmarks.set(page, currentBookmark());
+        }
+    }
+
+    private void evictBefore(int keepFrom) {
+        int drop = 0;
+        long freed = 0;
+        while (drop < cache.size() && cacheStart + drop < keepFrom && cacheBytes - freed > CACHE_BUDGET_BYTES) {
+            freed += cache.get(drop).getByteBuffer().remaining();
+            drop++;
+        }
+        if (drop == 0) return;
+        cache.subList(0, drop).clear();
+        cacheStart += drop;
+        cacheBytes -= freed;
+    }
+
+    // ---------------------------------------------------------- reopening
+
+    /** Discards the cache and reissues the query so that it starts at absolute index {@code start}. */
+    private void openAt(int start) {
+        cache.clear();
+        cacheBytes = 0;
+        cacheStart = start;
+        exhausted = false;
+        Bookmark bookmark = start > 0 && start % pageSize == 0 && start / pageSize - 1 < bookmarks.size()
+                ? bookmarks.get(start / pageSize - 1) : null;
+        startCursor(bookmark, start);
+    }
+
+    /** Reopens after the last document read, keeping the cache — the server lost the cursor. */
+    private void resume() {
+        startCursor(sortField == null ? null : currentBookmark(), cacheEnd());
+    }
+
+    private void startCursor(Bookmark bookmark, int skip) {
+        closeCursor();
+        if (pipeline != null) {
+            startAggregate(skip);
+            return;
+        }
+        if (filter == null) filter = MongoDbClient.parseFilter(jsonFilter);
+        FindIterable<RawBsonDocument> find;
+        if (skip == 0) {
+            find = collection.find(filter);
+        } else if (bookmark != null) {
+            find = collection.find(Filters.and(filter, after(bookmark)));
+        } else {
+            find = collection.find(filter).skip(skip);
+        }
+        if (!excluded.isEmpty()) find = find.projection(Projections.exclude(excluded));
+        if (sortField != null) find = find.sort(sort());
+        // First batch covers a page plus the one-document look-ahead, so
+        // page 0 is a single round trip; later getMores fetch a page each.
+        cursor = find.batchSize(pageSize + 1).comment(tag).iterator();
+        ServerCursor server = cursor.getServerCursor();
+        serverCursorId = server == null ? 0 : server.getId();
+
+        runValue = bookmark == null ? null : bookmark.value();
+        runId = bookmark == null ? null : bookmark.id();
+        runUsable = bookmark != null;
+    }
+
+    /** The user's pipeline, then the grid's sort, the reopen offset and the hidden-column projection. */
+    private void startAggregate(int skip) {
+        List<Bson> stages = new ArrayList<>(pipeline);
+        if (sortField != null) stages.add(Aggregates.sort(sort()));
+        if (skip > 0) stages.add(Aggregates.skip(skip));
+        if (!excluded.isEmpty()) stages.add(Aggregates.project(Projections.exclude(excluded)));
+        AggregateIterable<RawBsonDocument> aggregate = collection.aggregate(stages)
+                .allowDiskUse(allowDiskUse)
+                .batchSize(aggregateBatchSize)
+                .comment(tag);
+        cursor = aggregate.iterator();
+        ServerCursor server = cursor.getServerCursor();
+        serverCursorId = server == null ? 0 : server.getId();
+        runValue = null;
+        runId = null;
+        runUsable = false;
+    }
+
+    private Bookmark currentBookmark() {
+        if (!rangePaging || pipeline != null || sortField == null || !runUsable) return null;
+        return new Bookmark(runValue, runId);
+    }
+
+    /** The grid's sort plus _id in the same direction, so ties have a fixed order to resume in. */
+    private Bson sort() {
+        if ("_id".equals(sortField)) return descending ? Sorts.descending("_id") : Sorts.ascending("_id");
+        return descending ? Sorts.descending(sortField, "_id") : Sorts.ascending(sortField, "_id");
+    }
+
+    /** Filter for the documents that sort after the bookmark in {@link #sort} order. */
+    private Bson after(Bookmark bookmark) {
+        if ("_id".equals(sortField)) {
+            return descending ? Filters.lt("_id", bookmark.id()) : Filters.gt("_id", bookmark.id());
+        }
+        Bson beyond = descending ? Filters.lt(sortField, bookmark.value()) : Filters.gt(sortField, bookmark.value());
+        Bson tied = Filters.and(Filters.eq(sortField, bookmark.value()),
+                descending ? Filters.lt("_id", bookmark.id()) : Filters.gt("_id", bookmark.id()));
+        if (!descending) return Filters.or(beyond, tied);
+        // Null and missing sort below every value, so last when descending — and $lt never matches them.
+        return Filters.or(beyond, tied, Filters.eq(sortField, null));
+    }
+
+    /** The document's value at the (possibly dotted) sort path, or null when missing. */
+    private BsonValue sortValue(BsonDocument doc) {
+        BsonValue value = doc;
+        for (String part : sortField.split("\\.")) {
+            if (!(value instanceof BsonDocument nested)) return null;
+            value = nested.get(part);
+        }
+        return value;
+    }
+
+    /**
+     * Missing/null values and arrays don't compare with $gt/$lt the way
+     * they sort (null matches missing fields; arrays sort by an element),
+     * so a bookmark on one can't be resumed by range.
+     */
+    private static boolean isRangeable(BsonValue value) {
+        return value != null && !(value instanceof BsonNull) && !(value instanceof BsonArray);
+    }
+
+    private void closeCursor() {
+        serverCursorId = 0;
+        if (cursor != null) {
+            try { cursor.close(); } catch (RuntimeException ignored) {
+                // best-effort — the server reaps it on its own anyway
+            }
+            cursor = null;
+        }
+    }
+
+    private QueryResult flatten(int from, int to) {
+        List<RawBsonDocument> docs = to <= from ? List.of() : cache.subList(from - cacheStart, to - cacheStart);
+        return MongoRows.toQueryResult(List.copyOf(docs), excluded);
+    }
+}
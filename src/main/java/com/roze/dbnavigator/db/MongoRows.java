@@ -0,0 +1,137 @@
+package com.roze.dbnavigator.db;
+
+import com.roze.dbnavigator.model.QueryResult;
+import org.bson.BsonBinaryReader;
+import org.bson.BsonBoolean;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentReader;
+import org.bson.BsonDouble;
+import org.bson.BsonInt32;
+import org.bson.BsonInt64;
+import org.bson.BsonNull;
+import org.bson.BsonObjectId;
+import org.bson.BsonString;
+import org.bson.BsonType;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.DocumentCodec;
+
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Grid rows over raw BSON documents, rendered one cell at a time. Building
+ * a page only walks each document's field names (values are skipped, not
+ * decoded) to get the column union; a cell's value is decoded and turned
+ * into display text the first time the grid asks for it, then cached. So a
+ * wide document with large subdocuments costs nothing for the columns the
+ * user never scrolls to — previously every nested document on the page was
+ * serialized with toJson() up front.
+ *
+ * Text is identical to what the decoded-Document path produced:
+ * String.valueOf() of the driver's Java value, and JSON for subdocuments.
+ */
+final class MongoRows {
+
+    private static final DocumentCodec DOCUMENT_CODEC = new DocumentCodec();
+    /** Marks a cell rendered to null, distinct from "not rendered yet". */
+    private static final String NULL = new String("null");
+
+    private MongoRows() {}
+
+    /**
+     * @param alwaysListed columns to include even when no document on the page
+     *                     has them — fields projected away because the user hid
+     *                     them, so they stay in the grid (hidden) and can be
+     *                     shown again
+     */
+    static QueryResult toQueryResult(List<RawBsonDocument> docs, Collection<String> alwaysListed) {
+        Set<String> keys = new LinkedHashSet<>();
+        keys.add("_id");
+        for (RawBsonDocument doc : docs) addKeys(doc, keys);
+        keys.addAll(alwaysListed);
+
+        QueryResult result = new QueryResult();
+        result.getColumns().addAll(keys);
+        String[] columns = keys.toArray(new String[0]);
+        for (RawBsonDocument doc : docs) result.getRows().add(new RowView(doc, columns));
+        return result;
+    }
+
+    /** Top-level field names, read straight off the bytes without decoding any value. */
+    private static void addKeys(RawBsonDocument doc, Set<String> keys) {
+        try (BsonBinaryReader reader = new BsonBinaryReader(doc.getByteBuffer().asNIO())) {
+            reader.readStartDocument();
+            while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+                keys.add(reader.readName());
+                reader.skipValue();
+            }
+        }
+    }
+
+    static String render(String key, BsonValue value) {
+        if (value == null || value instanceof BsonNull) return null;
+        if (value instanceof BsonString s) return s.getValue();
+        if (value instanceof BsonObjectId id) return id.getValue().toString();
+        if (value instanceof BsonInt32 i) return String.valueOf(i.getValue());
+        if (value instanceof BsonInt64 l) return String.valueOf(l.getValue());
+        if (value instanceof BsonDouble d) return String.valueOf(d.getValue());
+        if (value instanceof BsonBoolean b) return String.valueOf(b.getValue());
+        if (value instanceof BsonDocument nested) return nested.toJson();
+        // Dates, arrays, decimals, binaries, ...: decode just this field the
+        // way the Document codec would, so the text matches String.valueOf()
+        // on the driver's own Java value exactly.
+        Document single = DOCUMENT_CODEC.decode(new BsonDocumentReader(new BsonDocument(key, value)),
+                DecoderContext.builder().build());
+        Object decoded = single.get(key);
+        return decoded == null ? null : String.valueOf(decoded);
+    }
+
+    /**
+     * One document as a lazily rendered grid row; set() holds an inline edit.
+     * Identity-equal like ColumnarRows' rows: two documents showing the same
+     * text are still different rows, and comparing by value would render
+     * every cell of both.
+     */
+    private static final class RowView extends AbstractList<String> {
+        private final RawBsonDocument doc;
+        private final String[] columns;
+        private String[] rendered;
+
+        RowView(RawBsonDocument doc, String[] columns) {
+            this.doc = doc;
+            this.columns = columns;
+        }
+
+        @Override
+        public String get(int index) {
+            if (index < 0 || index >= columns.length) throw new IndexOutOfBoundsException(index);
+            if (rendered == null) rendered = new String[columns.length];
+            String text = rendered[index];
+            if (text == null) {
+                String value = render(columns[index], doc.get(columns[index]));
+                text = value == null ? NULL : value;
+                rendered[index] = text;
+            }
+            return text == NULL ? null : text;
+        }
+
+        @Override
+        public String set(int index, String value) {
+            String old = get(index);
+            rendered[index] = value == null ? NULL : value;
+            return old;
+        }
+
+        @Override
+        public int size() { return columns.length; }
+
+        @Override public boolean equals(Object o) { return this == o; }
+        @Override public int hashCode() { return System.identityHashCode(this); }
+    }
+}
@@ -0,0 +1,207 @@
+package com.roze.dbnavigator.db;
+
+import com.mongodb.client.MongoCollection;
+import com.roze.dbnavigator.model.ConnectionProfile;
+import org.bson.BsonDocument;
+import org.bson.BsonType;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Schema inference for MongoDB collections, which have no fixed schema to
+ * read. Documents come from a {@code $sample} stage — random across the
+ * whole collection, unlike the first N in natural order, which mostly
+ * reflected whatever shape the oldest documents had. Every field path
+ * keeps a full type histogram and how many sampled documents had it, so
+ * type drift ("Int32 | String") and optional fields show up instead of
+ * the first type seen silently winning.
+ *
+ * Results are cached per collection for {@link #TTL_MILLIS}; concurrent
+ * requests for the same collection share one sample. Listing a database's
+ * collections warms the cache for all of them a few at a time on virtual
+ * threads ({@link #prefetch}, via {@link MongoAsync}), so expanding collection after collection in the
+ * tree doesn't sample each one on the spot.
+ */
+public final class MongoSchemaSampler {
+
+    public static final int DEFAULT_SAMPLE_SIZE = 500;
+    private static final long TTL_MILLIS = 5 * 60_000;
+    /** Sampling aggregations in flight at once per prefetch — enough overlap without flooding the server. */
+    private static final int PREFETCH_PARALLELISM = 6;
+    private static final int MAX_DEPTH = 4;
+
+    /**
+     * One field path across the sample.
+     *
+     * @param present number of sampled documents that had it
+     * @param types   BSON type name to count, most frequent first
+     */
+    public record FieldStats(String path, long present, Map<String, Long> types) {
+        /** "Int32", or "Int32 | String" when documents disagree, most frequent first. */
+        public String typeSummary() {
+            return String.join(" | ", types.keySet());
+        }
+    }
+
+    /** @param sampled documents actually sampled (fewer than asked for on a small collection) */
+    public record CollectionSchema(int sampled, List<FieldStats> fields, long sampledAt) {
+        public double presence(FieldStats field) {
+            return sampled == 0 ? 0 : (double) field.present() / sampled;
+        }
+    }
+
+    private record Entry(CompletableFuture<CollectionSchema> schema, long createdAt) {}
+
+    private static final Map<String, Entry> cache = new ConcurrentHashMap<>();
+
+    private MongoSchemaSampler() {}
+
+    /** The collection's inferred schema, from the cache when fresh. Blocks while sampling; call off the FX thread. */
+    public static CollectionSchema schema(ConnectionProfile profile, String database, String collection) {
+        try {
+            return entry(profile, database, collection).schema().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while sampling " + collection, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) throw runtime;
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Starts sampling every listed collection that isn't cached yet, a few
+     * at a time, and returns immediately. Failures are left for the
+     * eventual {@link #schema} call to report (and retry).
+     */
+    public static void prefetch(ConnectionProfile profile, String database, List<String> collections) {
+        List<String> missing = collections.stream()
+                .filter(name -> !isFresh(cache.get(key(profile, database, name))))
+                .toList();
+        if (missing.isEmpty()) return;
+        // Failed samples are simply left out of the fan-out's result.
+        MongoAsync.fanOut(ClientRegistry.mongo(profile), missing, PREFETCH_PARALLELISM,
+                name -> entry(profile, database, name).schema().join());
+    }
+
+    public static void invalidate(ConnectionProfile profile, String database, String collection) {
+        cache.remove(key(profile, database, collection));
+    }
+
+    /** Forgets every sample of a profile, e.g. on disconnect. */
+    public static void invalidate(ConnectionProfile profile) {
+        cache.keySet().removeIf(k -> k.startsWith(profile.getId() + "|"));
+    }
+
+    public static void clearAll() {
+        cache.clear();
+    }
+
+    private static Entry entry(ConnectionProfile profile, String database, String collection) {
+        String key = key(profile, database, collection);
+        boolean[] created = {false};
+        Entry entry = cache.compute(key, (k, existing) -> {
+            if (isFresh(existing)) return existing;
+            created[0] = true;
+            return new Entry(new CompletableFuture<>(), System.currentTimeMillis());
+        });
+        // The caller that created the entry samples on its own thread; any
+        // others asking meanwhile just wait on the same future.
+        if (created[0]) {
+            try {
+                entry.schema().complete(sample(ClientRegistry.mongo(profile), database, collection,
+                        DEFAULT_SAMPLE_SIZE));
+            } catch (RuntimeException e) {
+                entry.schema().completeExceptionally(e);
+                cache.remove(key, entry);   // retry on the next request rather than caching the failure
+            }
+        }
+        return entry;
+    }
+
+    private static boolean isFresh(Entry entry) {
+        return entry != null && System.currentTimeMillis() - entry.createdAt() < TTL_MILLIS;
+    }
+
+    private static String key(ConnectionProfile profile, String database, String collection) {
+        return profile.getId() + "|" + database + "|" + collection;
+    }
+
+    /** Samples up to {@code size} random documents and builds their field statistics. */
+    static CollectionSchema sample(MongoDbClient client, String database, String collection, int size) {
+        MongoCollection<RawBsonDocument> coll = client.rawCollection(database, collection);
+        Map<String, long[]> present = new LinkedHashMap<>();
+        Map<String, Map<String, long[]>> types = new LinkedHashMap<>();
+        present.put("_id", new long[1]);   // present on virtually every document; guarantee it's first
+        types.put("_id", new LinkedHashMap<>());
+
+        int sampled = 0;
+        List<Document> pipeline = List.of(new Document("$sample", new Document("size", size)));
+        for (RawBsonDocument doc : coll.aggregate(pipeline).batchSize(size)) {
+            collect(doc, "", present, types, 0);
+            sampled++;
+        }
+
+        List<FieldStats> fields = new ArrayList<>();
+        for (Map.Entry<String, long[]> field : present.entrySet()) {
+            if (field.getValue()[0] == 0) continue;   // the _id placeholder on an empty collection
+            Map<String, Long> histogram = new LinkedHashMap<>();
+            types.get(field.getKey()).entrySet().stream()
+                    .sorted(Comparator.comparingLong((Map.Entry<String, long[]> t) -> t.getValue()[0]).reversed())
+                    .forEach(t -> histogram.put(t.getKey(), t.getValue()[0]));
+            fields.add(new FieldStats(field.getKey(), field.getValue()[0], histogram));
+        }
+        return new CollectionSchema(sampled, List.copyOf(fields), System.currentTimeMillis());
+    }
+
+    /**
+     * Walks one document, counting each field path (dot notation for
+     * subdocument fields, listed right after their parent) and the type it
+     * had. Depth is capped as a safety net against unusually deep documents.
+     */
+    private static void collect(BsonDocument doc, String prefix, Map<String, long[]> present,
+                                Map<String, Map<String, long[]>> types, int depth) {
+        if (depth > MAX_DEPTH) return;
+        for (Map.Entry<String, BsonValue> field : doc.entrySet()) {
+            String path = prefix.isEmpty() ? field.getKey() : prefix + "." + field.getKey();
+            BsonValue value = field.getValue();
+            present.computeIfAbsent(path, p -> new long[1])[0]++;
+            types.computeIfAbsent(path, p -> new LinkedHashMap<>())
+                    .computeIfAbsent(typeName(value.getBsonType()), t -> new long[1])[0]++;
+            if (value.isDocument()) {
+                collect(value.asDocument(), path, present, types, depth + 1);
+            }
+        }
+    }
+
+    /** Same names the tree has always shown (see MongoDbClient's Java-value mapping). */
+    static String typeName(BsonType type) {
+        return switch (type) {
+            case NULL -> "Null";
+            case OBJECT_ID -> "ObjectId";
+            case STRING -> "String";
+            case INT32 -> "Int32";
+            case INT64 -> "Int64";
+            case DOUBLE -> "Double";
+            case BOOLEAN -> "Boolean";
+            case DATE_TIME -> "ISODate";
+            case DECIMAL128 -> "Decimal128";
+            case ARRAY -> "Array";
+            case DOCUMENT -> "Object";
+            case BINARY -> "Binary";
+            case TIMESTAMP -> "Timestamp";
+            case REGULAR_EXPRESSION -> "Regex";
+            default -> type.name();
+        };
+    }
+}
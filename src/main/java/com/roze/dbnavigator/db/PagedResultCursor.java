@@ -1,14 +1,19 @@
 package com.roze.dbnavigator.db;
 
+import com.roze.dbnavigator.model.ColumnarRows;
 import com.roze.dbnavigator.model.ConnectionProfile;
+import org.postgresql.core.BaseConnection;
+import org.postgresql.core.TransactionState;
 
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 
 /**
  * A query's live, forward-only JDBC cursor, kept open across pager clicks so
@@ -16,14 +21,18 @@ import java.util.List;
  * unsafe without a stable ORDER BY, since a plain SELECT's row order across
  * separate executions isn't guaranteed) and never needs a separate COUNT(*).
  *
- * Rows already read are cached in memory, so paging backward ("Previous",
- * "First") is always instant; paging forward past what's cached reads a new
- * batch from the still-open ResultSet. A safety cap bounds total memory use
- * for pathologically large result sets.
+ * Rows already read are cached, so paging backward ("Previous", "First")
+ * never touches the database; paging forward past what's cached reads a new
+ * batch from the still-open ResultSet. Each batch is stored column-wise
+ * ({@link ColumnarRows}) in a {@link TieredRowStore}, which keeps recent
+ * batches on the heap and spills older ones to a temp file, so heap use stays
+ * bounded however far forward the user pages. A row cap only guards against
+ * filling the disk with a runaway result; hitting it is reported through
+ * {@link #isTruncated()} rather than passed off as the end of the result.
  */
 public class PagedResultCursor implements AutoCloseable {
 
-    private static final int SAFETY_CAP = 50_000;
+    private static final int SAFETY_CAP = 10_000_000;
     private static final int DEFAULT_QUERY_TIMEOUT_SECONDS = 120;
 
     private final int pageSize;
@@ -34,8 +43,10 @@ public class PagedResultCursor implements AutoCloseable {
 
     private final List<String> columns = new ArrayList<>();
     private final List<String> columnTypes = new ArrayList<>();
-    private final List<List<String>> cachedRows = new ArrayList<>();
+    private final TieredRowStore cachedRows = new TieredRowStore();
+    private ColumnarRows.Kind[] columnKinds;
     private boolean exhausted = false;
+    private boolean truncated = false;
     private boolean isQueryResult = false;
     private int updateCount = -1;
     private String message;
@@ -58,10 +69,36 @@ public class PagedResultCursor implements AutoCloseable {
      */
     public void open(ConnectionProfile profile, String catalog, String sql,
                      java.util.concurrent.atomic.AtomicReference<Statement> statementHolder) throws SQLException {
+        open(ClientRegistry.jdbc(profile, catalog), sql, List.of(), statementHolder);
+    }
+
+    /**
+     * Runs the statement on {@code client} — a console session's own
+     * connection (see {@link ClientRegistry#openSession}) or a shared pool.
+     * On a session it runs as a PreparedStatement with {@code parameters}
+     * bound to its {@code ?} placeholders, so re-running it reuses the
+     * server's parse; elsewhere there must be no parameters.
+     *
+     * A failed open releases its connection right away — a session has only
+     * the one, and the caller's retry (or next statement) needs it back.
+     */
+    public void open(JdbcClient client, String sql, List<String> parameters,
+                     java.util.concurrent.atomic.AtomicReference<Statement> statementHolder) throws SQLException {
         close();
+        try {
+            run(client, sql, parameters, statementHolder);
+        } catch (SQLException | RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    private void run(JdbcClient client, String sql, List<String> parameters,
+                     java.util.concurrent.atomic.AtomicReference<Statement> statementHolder) throws SQLException {
         long start = System.currentTimeMillis();
+        ConnectionProfile profile = client.getProfile();
 
-        connection = ClientRegistry.jdbc(profile, catalog).getConnection();
+        connection = client.getConnection();
         // Critical for PostgreSQL: its JDBC driver only honors setFetchSize()
         // (i.e. uses a real server-side cursor, streaming small batches) when
         // the connection is NOT in autocommit mode. In the default autocommit
@@ -73,9 +110,13 @@ public class PagedResultCursor implements AutoCloseable {
         // exactly what was freezing/crashing the app: the resulting GC
         // pressure stalls the whole JVM, including the UI thread, not just
         // whatever background thread issued the query.
-        boolean supportsCursor = trySetAutoCommitFalse(connection);
+        //
+        // On a console session the transaction belongs to the user, though:
+        // see sessionCursorAllowed for when a cursor may still be used there.
+        boolean supportsCursor = (!client.isSession() || sessionCursorAllowed(profile, connection, sql))
+                && trySetAutoCommitFalse(connection);
         autoCommitDisabled = supportsCursor;
-        statement = connection.createStatement();
+        statement = newStatement(client, sql, parameters);
         if (supportsCursor) {
             statement.setFetchSize(pageSize + 1);
         }
@@ -86,9 +127,16 @@ public class PagedResultCursor implements AutoCloseable {
         }
         if (statementHolder != null) statementHolder.set(statement);
         try {
-            isQueryResult = statement.execute(sql);
+            isQueryResult = JdbcClient.run(statement, sql);
         } catch (SQLException ex) {
-            if (autoCommitDisabled && isTransactionBlockError(ex)) {
+            if (statement instanceof PreparedStatement && parameters.isEmpty() && JdbcClient.isUnpreparable(ex)) {
+                // A command MySQL can't server-prepare: same connection, plain statement.
+                try { statement.close(); } catch (SQLException ignored) {}
+                statement = connection.createStatement();
+                if (supportsCursor) statement.setFetchSize(pageSize + 1);
+                if (statementHolder != null) statementHolder.set(statement);
+                isQueryResult = statement.execute(sql);
+            } else if (autoCommitDisabled && isTransactionBlockError(ex)) {
                 // Some statements — CREATE DATABASE, DROP DATABASE, VACUUM,
                 // ALTER SYSTEM, CREATE INDEX CONCURRENTLY, and a few others
                 // are only valid outside any transaction; PostgreSQL
@@ -96,7 +144,7 @@ public class PagedResultCursor implements AutoCloseable {
                 // the restriction. The autocommit(false) used above for
                 // cursor-based fetching puts every statement inside an
                 // implicit transaction, which is exactly what trips this.
-                reopenWithoutCursor(profile, catalog, sql, statementHolder);
+                reopenWithoutCursor(client, sql, parameters, statementHolder);
             } else {
                 throw ex;
             }
@@ -112,6 +160,8 @@ public class PagedResultCursor implements AutoCloseable {
                 columns.add(meta.getColumnLabel(i));
                 columnTypes.add(safeTypeName(meta, i));
             }
+            columnKinds = ColumnarReader.kinds(meta,
+                    profile.getType() != ConnectionProfile.DatabaseType.SQLITE);
             fetchMore(pageSize + 1);
         } else {
             int count = statement.getUpdateCount();
@@ -154,7 +204,7 @@ public class PagedResultCursor implements AutoCloseable {
      * closed cleanly) and retries the same statement on a fresh connection
      * with default autocommit — no transaction, no fetchSize tuning.
      */
-    private void reopenWithoutCursor(ConnectionProfile profile, String catalog, String sql,
+    private void reopenWithoutCursor(JdbcClient client, String sql, List<String> parameters,
                                      java.util.concurrent.atomic.AtomicReference<Statement> statementHolder)
             throws SQLException {
         try { if (statement != null) statement.close(); } catch (SQLException ignored) {}
@@ -168,11 +218,22 @@ public class PagedResultCursor implements AutoCloseable {
         }
         try { if (connection != null) connection.close(); } catch (SQLException ignored) {}
 
-        connection = ClientRegistry.jdbc(profile, catalog).getConnection();
+        // On a session this is the same physical connection again — the
+        // session's pool holds exactly one.
+        connection = client.getConnection();
         autoCommitDisabled = false;
-        statement = connection.createStatement();
+        statement = newStatement(client, sql, parameters);
         if (statementHolder != null) statementHolder.set(statement);
-        isQueryResult = statement.execute(sql);
+        isQueryResult = JdbcClient.run(statement, sql);
+    }
+
+    private Statement newStatement(JdbcClient client, String sql, List<String> parameters) throws SQLException {
+        if (!parameters.isEmpty() && !client.isSession()) {
+            throw new IllegalArgumentException("Bound parameters need a console session");
+        }
+        Statement stmt = JdbcClient.newStatement(connection, sql, client.isSession(), !parameters.isEmpty());
+        if (stmt instanceof PreparedStatement prepared) JdbcClient.bind(prepared, parameters);
+        return stmt;
     }
 
     private static boolean isTransactionBlockError(SQLException ex) {
@@ -189,6 +250,29 @@ public class PagedResultCursor implements AutoCloseable {
         }
     }
 
+    /**
+     * Whether a console session may wrap this statement in the cursor
+     * transaction. After the user's own BEGIN, turning autocommit off here
+     * and committing in close() would commit their transaction behind their
+     * back — and a BEGIN run inside ours would be committed right away. So
+     * only a PostgreSQL query (the one engine that needs the transaction to
+     * stream) run while no transaction is open gets a cursor; inside the
+     * user's transaction the result is fetched whole, as it would be
+     * anyway. Other engines stream or fetch the same way without it.
+     */
+    private static boolean sessionCursorAllowed(ConnectionProfile profile, Connection conn, String sql) {
+        if (profile.getType() != ConnectionProfile.DatabaseType.POSTGRESQL) return false;
+        String head = sql.stripLeading();
+        while (head.startsWith("(")) head = head.substring(1).stripLeading();
+        String keyword = head.split("\\s", 2)[0].toUpperCase(Locale.ROOT);
+        if (!List.of("SELECT", "WITH", "VALUES", "TABLE").contains(keyword)) return false;
+        try {
+            return conn.unwrap(BaseConnection.class).getTransactionState() == TransactionState.IDLE;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
     /**
      * Best-effort: not every engine/driver needs or supports this the same
      * way, and some environments (e.g. a connection already mid-transaction)
@@ -207,17 +291,23 @@ public class PagedResultCursor implements AutoCloseable {
     /** Reads up to n more rows from the still-open ResultSet into the cache; returns how many were actually read. */
     public int fetchMore(int n) throws SQLException {
         if (resultSet == null || exhausted) return 0;
+        ColumnarRows batch = new ColumnarRows(columnKinds, Math.min(n, SAFETY_CAP - cachedRows.size()));
         int read = 0;
-        while (read < n && cachedRows.size() < SAFETY_CAP && resultSet.next()) {
-            List<String> row = new ArrayList<>(columns.size());
-            for (int i = 1; i <= columns.size(); i++) {
-                Object value = resultSet.getObject(i);
-                row.add(value == null ? null : String.valueOf(value));
+        while (read < n && cachedRows.size() + read < SAFETY_CAP) {
+            if (!resultSet.next()) {
+                exhausted = true;
+                break;
             }
-            cachedRows.add(row);
+            ColumnarReader.readRow(resultSet, batch);
             read++;
         }
-        if (read < n || cachedRows.size() >= SAFETY_CAP) exhausted = true;
+        cachedRows.append(batch);
+        if (!exhausted && cachedRows.size() >= SAFETY_CAP) {
+            // Only truncated if there really is a row beyond the cap — a
+            // result that ends exactly there is complete.
+            exhausted = true;
+            truncated = resultSet.next();
+        }
         return read;
     }
 
@@ -232,8 +322,12 @@ public class PagedResultCursor implements AutoCloseable {
     public boolean isQueryResult() { return isQueryResult; }
     public List<String> getColumns() { return columns; }
     public List<String> getColumnTypes() { return columnTypes; }
-    public List<List<String>> getCachedRows() { return cachedRows; }
+    public int getCachedRowCount() { return cachedRows.size(); }
+    /** Cached rows [from, to) — spilled batches are read back from disk transparently. */
+    public List<List<String>> getCachedRows(int from, int to) { return cachedRows.rows(from, to); }
     public boolean isExhausted() { return exhausted; }
+    /** True when the cursor stopped at its row cap with more rows still unread. */
+    public boolean isTruncated() { return truncated; }
     public int getPageSize() { return pageSize; }
     public int getUpdateCount() { return updateCount; }
     public String getMessage() { return message; }
@@ -262,8 +356,10 @@ public class PagedResultCursor implements AutoCloseable {
         autoCommitDisabled = false;
         columns.clear();
         columnTypes.clear();
-        cachedRows.clear();
+        cachedRows.close();
+        columnKinds = null;
         exhausted = false;
+        truncated = false;
         isQueryResult = false;
         updateCount = -1;
         message = null;
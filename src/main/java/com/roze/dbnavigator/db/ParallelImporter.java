@@ -0,0 +1,384 @@
+package com.roze.dbnavigator.db;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.roze.dbnavigator.model.ConnectionProfile;
+import com.roze.dbnavigator.model.ConnectionProfile.DatabaseType;
+import com.roze.dbnavigator.model.DbObject;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * Imports one large delimited file over several pooled connections at once.
+ * The file is cut into byte ranges that each start on a record boundary
+ * (a newline outside double quotes — or any newline when the parser doesn't
+ * quote — found in one cheap byte scan, no decoding), and every range is parsed and loaded by its own worker on its
+ * own connection, in its own transaction, through BatchImporter (or
+ * BulkLoader in bulk mode).
+ *
+ * Finished chunks are recorded in a small journal under
+ * ~/.dbnavigator/imports, so re-running the same import after a failure or a
+ * stop skips what is already in. Two modes:
+ * - best effort: chunks commit straight into the target; bad rows are
+ *   skipped and reported as in a single-connection import.
+ * - all-or-nothing: chunks load into a staging table holding just the mapped
+ *   columns; only if every row made it are they moved into the target with
+ *   one INSERT ... SELECT in a single transaction, and the staging table is
+ *   dropped. Any bad row leaves the target untouched. MySQL/MariaDB's
+ *   LOAD DATA LOCAL only turns bad rows into warnings, so that mode loads
+ *   through batched INSERTs there even when bulk loading was asked for.
+ */
+public final class ParallelImporter {
+
+    public enum Mode { BEST_EFFORT, ALL_OR_NOTHING }
+
+    /** Opens a row source over bytes [start, end) of the file, which begin at line {@code firstLine}. */
+    public interface ChunkReader {
+        BatchImporter.RowSource open(Path file, long start, long end, long firstLine) throws IOException;
+    }
+
+    /** One byte range of the input: [start, end), starting at line {@code firstLine}. */
+    public record Chunk(int index, long start, long end, long firstLine) {}
+
+    /** What is persisted between runs of the same import. */
+    public record Journal(String file, long size, long modified, String table, List<String> columns,
+                          String mode, String stagingTable, List<Chunk> chunks, Set<Integer> done) {}
+
+    /** Aim for chunks of about this size — small enough that redoing one after a failure is cheap. */
+    private static final long TARGET_CHUNK_BYTES = 16L * 1024 * 1024;
+    private static final int SCAN_BUFFER_BYTES = 1 << 20;
+    private static final Path JOURNAL_DIR =
+            Path.of(System.getProperty("user.home"), ".dbnavigator", "imports");
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final ConnectionProfile profile;
+    private final DbObject table;
+    private final List<String> targetColumns;
+    private final int[] sourceIndexes;
+    private final int batchSize;
+    private final int connections;
+    private final Mode mode;
+    private final boolean bulk;
+    /** Bulk loading was asked for but can't be used with all-or-nothing here. */
+    private final boolean bulkRefused;
+
+    /**
+     * @param connections worker count; each holds one pooled connection while it loads a chunk
+     * @param bulk        load each chunk through {@link BulkLoader} instead of batched INSERTs
+     */
+    public ParallelImporter(ConnectionProfile profile, DbObject table, List<String> targetColumns,
+                            int[] sourceIndexes, int batchSize, int connections, Mode mode, boolean bulk) {
+        this.profile = profile;
+        this.table = table;
+        this.targetColumns = List.copyOf(targetColumns);
+        this.sourceIndexes = sourceIndexes.clone();
+        this.batchSize = batchSize;
+        this.connections = Math.max(1, Math.min(connections, maxConnections(profile)));
+        this.mode = mode;
+        this.bulkRefused = bulk && mode == Mode.ALL_OR_NOTHING
+                && (profile.getType() == DatabaseType.MYSQL || profile.getType() == DatabaseType.MARIADB);
+        this.bulk = bulk && !bulkRefused;
+    }
+
+    /**
+     * Workers this profile can usefully run: a few under the pool size, and
+     * just one for SQLite — it has a single writer, and a chunk's long write
+     * transaction would keep every other worker waiting past busy_timeout
+     * until it failed with SQLITE_BUSY.
+     */
+    public static int maxConnections(ConnectionProfile profile) {
+        if (profile.getType() == DatabaseType.SQLITE) return 1;
+        return Math.max(1, Math.min(8, profile.getPoolMaxSize() - 2));
+    }
+
+    /**
+     * @param quoted whether the chunk parser treats '"' as a quote; the
+     *               splitter has to agree or it cuts records in the wrong place
+     */
+    public BatchImporter.Result run(Path file, boolean skipHeader, boolean quoted, ChunkReader reader,
+                                    Consumer<String> log, BooleanSupplier cancelled)
+            throws SQLException, IOException, InterruptedException {
+        Path journalFile = JOURNAL_DIR.resolve(journalKey(file, quoted) + ".json");
+        Journal journal = readJournal(journalFile);
+        if (journal == null) {
+            List<Chunk> chunks = split(file, skipHeader, quoted);
+            String staging = mode == Mode.ALL_OR_NOTHING
+                    ? "dbnav_imp_" + journalFile.getFileName().toString().substring(0, 8) : null;
+            journal = new Journal(file.toAbsolutePath().toString(), Files.size(file),
+                    Files.getLastModifiedTime(file).toMillis(), table.qualifiedName(), targetColumns,
+                    mode.name(), staging, chunks, ConcurrentHashMap.newKeySet());
+            if (staging != null) createStaging(staging);
+            writeJournal(journalFile, journal);
+        } else {
+            log.accept("Resuming: " + journal.done().size() + " of " + journal.chunks().size()
+                    + " chunk(s) were already imported by an earlier run.");
+        }
+
+        DbObject target = journal.stagingTable() == null ? table
+                : new DbObject(journal.stagingTable(), DbObject.Kind.TABLE, table.getCatalog(), table.getSchema());
+        Map<String, Integer> types = MetadataService.loadColumnTypes(profile, table);
+        if (bulkRefused) {
+            log.accept("All-or-nothing: LOAD DATA only reports bad rows as warnings, so using batched INSERTs instead of bulk load.");
+        }
+        log.accept(journal.chunks().size() + " chunk(s) over " + connections + " connection(s)"
+                + (target != table ? ", staged in " + target.qualifiedName() : ""));
+
+        AtomicLong imported = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+        AtomicInteger finished = new AtomicInteger(journal.done().size());
+        AtomicBoolean stopped = new AtomicBoolean();
+        BooleanSupplier stop = () -> stopped.get() || cancelled.getAsBoolean();
+        Journal state = journal;
+
+        ExecutorService workers = Executors.newFixedThreadPool(connections, r -> {
+            Thread t = new Thread(r, "import-worker");
+            t.setDaemon(true);
+            return t;
+        });
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (Chunk chunk : journal.chunks()) {
+                if (journal.done().contains(chunk.index())) continue;
+                futures.add(workers.submit(() -> {
+                    if (stop.getAsBoolean()) return null;
+                    try {
+                        Consumer<String> chunkLog = line -> log.accept("[chunk " + (chunk.index() + 1) + "] " + line.strip());
+                        BatchImporter.Result result;
+                        try (BatchImporter.RowSource rows = reader.open(file, chunk.start(), chunk.end(), chunk.firstLine())) {
+                            result = bulk
+                                    ? new BulkLoader(profile, target, targetColumns, sourceIndexes, batchSize, Integer.MAX_VALUE)
+                                            .run(rows, chunkLog, stop)
+                                    : new BatchImporter(profile, target, targetColumns, sourceIndexes, batchSize, Integer.MAX_VALUE)
+                                            .run(types, rows, chunkLog, stop);
+                        }
+                        if (result.cancelled()) return null;
+                        imported.addAndGet(result.imported());
+                        failed.addAndGet(result.failed());
+                        if (result.failed() > 0 && mode == Mode.ALL_OR_NOTHING) {
+                            // No point loading the rest: the target won't be touched anyway.
+                            stopped.set(true);
+                            return null;
+                        }
+                        state.done().add(chunk.index());
+                        writeJournal(journalFile, state);
+                        log.accept(String.format("%d of %d chunk(s) done — %,d row(s) so far",
+                                finished.incrementAndGet(), state.chunks().size(), imported.get()));
+                        return null;
+                    } catch (Exception e) {
+                        stopped.set(true);   // the others wind down; their chunks are redone on resume
+                        throw e;
+                    }
+                }));
+            }
+            Exception firstFailure = null;
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    stopped.set(true);
+                    if (firstFailure == null && e.getCause() instanceof Exception cause) firstFailure = cause;
+                }
+            }
+            if (firstFailure instanceof SQLException sql) throw sql;
+            if (firstFailure instanceof IOException io) throw io;
+            if (firstFailure != null) throw new SQLException(firstFailure.getMessage(), firstFailure);
+        } finally {
+            workers.shutdownNow();
+        }
+
+        if (mode == Mode.ALL_OR_NOTHING && failed.get() > 0) {
+            log.accept("All-or-nothing: " + String.format("%,d", failed.get())
+                    + " row(s) failed, so nothing was imported into " + table.qualifiedName());
+            dropStaging(target);
+            Files.deleteIfExists(journalFile);
+            return new BatchImporter.Result(0, failed.get(), false);
+        }
+        if (cancelled.getAsBoolean() || journal.done().size() < journal.chunks().size()) {
+            log.accept("Run the same import again to resume the remaining chunk(s).");
+            return new BatchImporter.Result(imported.get(), failed.get(), true);
+        }
+        long total = imported.get();
+        if (target != table) total = moveFromStaging(target, log);
+        Files.deleteIfExists(journalFile);
+        return new BatchImporter.Result(total, failed.get(), false);
+    }
+
+    /**
+     * Cuts the file into ranges of roughly TARGET_CHUNK_BYTES (and at least
+     * one per connection) at record boundaries. Only '"' and '\n' matter for
+     * that, and neither byte can occur inside a multi-byte UTF-8 sequence, so
+     * the scan works on raw bytes. Without quoting ({@code quoted} false, as
+     * for TSV) every newline ends a record.
+     */
+    private List<Chunk> split(Path file, boolean skipHeader, boolean quoted) throws IOException {
+        long size = Files.size(file);
+        long target = Math.max(1, Math.min(TARGET_CHUNK_BYTES, size / connections + 1));
+        List<Chunk> chunks = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_BYTES);
+            boolean inQuotes = false;
+            boolean inHeader = skipHeader;
+            long chunkStart = 0;
+            long chunkLine = 1;
+            long line = 1;
+            long position = 0;
+            while (channel.read(buffer, position) > 0) {
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    byte b = buffer.get();
+                    position++;
+                    if (b == '"' && quoted) {
+                        inQuotes = !inQuotes;
+                    } else if (b == '\n') {
+                        line++;
+                        if (inQuotes) continue;
+                        if (inHeader) {
+                            inHeader = false;
+                            chunkStart = position;
+                            chunkLine = line;
+                        } else if (position - chunkStart >= target) {
+                            chunks.add(new Chunk(chunks.size(), chunkStart, position, chunkLine));
+                            chunkStart = position;
+                            chunkLine = line;
+                        }
+                    }
+                }
+                buffer.clear();
+            }
+            if (!inHeader && position > chunkStart) {
+                chunks.add(new Chunk(chunks.size(), chunkStart, position, chunkLine));
+            }
+        }
+        return chunks;
+    }
+
+    // ---- staging (all-or-nothing) -----------------------------------------
+
+    private void createStaging(String name) throws SQLException {
+        DbObject staging = new DbObject(name, DbObject.Kind.TABLE, table.getCatalog(), table.getSchema());
+        String columns = String.join(", ", targetColumns.stream().map(DbObject::quote).toList());
+        String source = " FROM " + table.qualifiedName() + " WHERE 1 = 0";
+        String sql = switch (profile.getType()) {
+            // Unlogged: the staging copy is throwaway, so skip WAL for it.
+            case POSTGRESQL -> "CREATE UNLOGGED TABLE " + staging.qualifiedName() + " AS SELECT " + columns + source;
+            case SQLSERVER -> "SELECT " + columns + " INTO " + staging.qualifiedName() + source;
+            default -> "CREATE TABLE " + staging.qualifiedName() + " AS SELECT " + columns + source;
+        };
+        execute(sql, true);
+    }
+
+    private long moveFromStaging(DbObject staging, Consumer<String> log) throws SQLException {
+        String columns = String.join(", ", targetColumns.stream().map(DbObject::quote).toList());
+        long moved;
+        try (Connection conn = ClientRegistry.jdbc(profile, table.getCatalog()).getConnection();
+             Statement stmt = conn.createStatement()) {
+            conn.setAutoCommit(false);
+            try {
+                moved = stmt.executeLargeUpdate("INSERT INTO " + table.qualifiedName() + " (" + columns + ") SELECT "
+                        + columns + " FROM " + staging.qualifiedName());
+                conn.commit();
+            } catch (SQLException e) {
+                try { conn.rollback(); } catch (SQLException ignored) {}
+                log.accept("Moving rows out of " + staging.qualifiedName() + " failed; it is kept for inspection.");
+                throw e;
+            }
+        }
+        log.accept(String.format("Moved %,d row(s) from the staging table in one transaction", moved));
+        dropStaging(staging);
+        return moved;
+    }
+
+    private void dropStaging(DbObject staging) {
+        try {
+            execute("DROP TABLE " + staging.qualifiedName(), false);
+        } catch (SQLException ignored) {
+            // Leftover staging tables are harmless and clearly named.
+        }
+    }
+
+    private void execute(String sql, boolean inTransaction) throws SQLException {
+        try (Connection conn = ClientRegistry.jdbc(profile, table.getCatalog()).getConnection();
+             Statement stmt = conn.createStatement()) {
+            // MySQL/Oracle DDL commits implicitly anyway; elsewhere keep it atomic.
+            conn.setAutoCommit(!inTransaction || profile.getType() == DatabaseType.MYSQL
+                    || profile.getType() == DatabaseType.MARIADB || profile.getType() == DatabaseType.ORACLE);
+            stmt.execute(sql);
+            if (!conn.getAutoCommit()) conn.commit();
+        }
+    }
+
+    // ---- journal ----------------------------------------------------------
+
+    /** Same file (path, size, mtime), quoting, table, mapping and mode → same journal. */
+    private String journalKey(Path file, boolean quoted) throws IOException {
+        String identity = file.toAbsolutePath() + "|" + Files.size(file) + "|" + Files.getLastModifiedTime(file).toMillis()
+                + "|" + profile.getId() + "|" + table.qualifiedName() + "|" + targetColumns
+                + "|" + java.util.Arrays.toString(sourceIndexes) + "|" + mode + "|" + bulk + "|" + quoted;
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(identity.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 12);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Journal readJournal(Path journalFile) {
+        if (!Files.exists(journalFile)) return null;
+        try {
+            Journal saved = MAPPER.readValue(journalFile.toFile(), Journal.class);
+            Set<Integer> done = ConcurrentHashMap.newKeySet();
+            done.addAll(saved.done());
+            Journal journal = new Journal(saved.file(), saved.size(), saved.modified(), saved.table(), saved.columns(),
+                    saved.mode(), saved.stagingTable(), saved.chunks(), done);
+            if (journal.stagingTable() != null && !stagingExists(journal.stagingTable())) return null;
+            return journal;
+        } catch (IOException e) {
+            System.err.println("Ignoring unreadable import journal " + journalFile + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private boolean stagingExists(String name) {
+        DbObject staging = new DbObject(name, DbObject.Kind.TABLE, table.getCatalog(), table.getSchema());
+        try (Connection conn = ClientRegistry.jdbc(profile, table.getCatalog()).getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.executeQuery("SELECT COUNT(*) FROM " + staging.qualifiedName() + " WHERE 1 = 0").close();
+            return true;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private static synchronized void writeJournal(Path journalFile, Journal journal) throws IOException {
+        Files.createDirectories(journalFile.getParent());
+        Path tmp = journalFile.resolveSibling(journalFile.getFileName() + ".tmp");
+        MAPPER.writeValue(tmp.toFile(), journal);
+        Files.move(tmp, journalFile, java.nio.file.StandardCopyOption.REPLACE_EXISTING,
+                java.nio.file.StandardCopyOption.ATOMIC_MOVE);
+    }
+}
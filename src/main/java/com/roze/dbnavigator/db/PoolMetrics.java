@@ -0,0 +1,112 @@
+package com.roze.dbnavigator.db;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Live statistics of one Hikari pool, collected through Hikari's own
+ * {@link MetricsTrackerFactory} hook — no Dropwizard/Micrometer dependency,
+ * just what the pool-stats panel shows: the connection gauges (active,
+ * idle, threads waiting) and latency histograms for acquiring a connection,
+ * holding one, and opening a new one.
+ */
+public final class PoolMetrics implements MetricsTrackerFactory {
+
+    /** Upper bounds (exclusive) of the histogram buckets, in milliseconds; the last bucket is open-ended. */
+    public static final double[] BUCKET_BOUNDS_MILLIS = {0.1, 1, 5, 10, 50, 100, 500, 1_000, 5_000};
+
+    /**
+     * @param counts one per {@link #BUCKET_BOUNDS_MILLIS} entry plus the open-ended last bucket
+     */
+    public record Histogram(long[] counts, long total, double meanMillis, double maxMillis) {
+        /** Smallest bucket bound below which at least {@code fraction} of the samples fall (∞ for the last bucket). */
+        public double percentileBoundMillis(double fraction) {
+            if (total == 0) return 0;
+            long needed = (long) Math.ceil(total * fraction);
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= needed) return i < BUCKET_BOUNDS_MILLIS.length ? BUCKET_BOUNDS_MILLIS[i] : Double.POSITIVE_INFINITY;
+            }
+            return Double.POSITIVE_INFINITY;
+        }
+    }
+
+    /** Point-in-time view for display. */
+    public record Snapshot(String poolName, int active, int idle, int pending, int total, int max,
+                           Histogram acquire, Histogram usage, Histogram creation, long timeouts) {}
+
+    private final Recorder acquire = new Recorder();
+    private final Recorder usage = new Recorder();
+    private final Recorder creation = new Recorder();
+    private final AtomicLong timeouts = new AtomicLong();
+    private volatile String poolName = "";
+    private volatile PoolStats stats;
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        this.poolName = poolName;
+        this.stats = poolStats;
+        return new IMetricsTracker() {
+            @Override
+            public void recordConnectionCreatedMillis(long connectionCreatedMillis) {
+                creation.record(connectionCreatedMillis);
+            }
+
+            @Override
+            public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                acquire.record(elapsedAcquiredNanos / 1_000_000.0);
+            }
+
+            @Override
+            public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+                usage.record(elapsedBorrowedMillis);
+            }
+
+            @Override
+            public void recordConnectionTimeout() {
+                timeouts.incrementAndGet();
+            }
+        };
+    }
+
+    public Snapshot snapshot() {
+        PoolStats current = stats;
+        return new Snapshot(poolName,
+                current == null ? 0 : current.getActiveConnections(),
+                current == null ? 0 : current.getIdleConnections(),
+                current == null ? 0 : current.getPendingThreads(),
+                current == null ? 0 : current.getTotalConnections(),
+                current == null ? 0 : current.getMaxConnections(),
+                acquire.snapshot(), usage.snapshot(), creation.snapshot(), timeouts.get());
+    }
+
+    /** Lock-free bucket counts; sum and max are kept in microseconds to stay integral. */
+    private static final class Recorder {
+        private final AtomicLongArray counts = new AtomicLongArray(BUCKET_BOUNDS_MILLIS.length + 1);
+        private final AtomicLong total = new AtomicLong();
+        private final AtomicLong sumMicros = new AtomicLong();
+        private final AtomicLong maxMicros = new AtomicLong();
+
+        void record(double millis) {
+            int bucket = 0;
+            while (bucket < BUCKET_BOUNDS_MILLIS.length && millis >= BUCKET_BOUNDS_MILLIS[bucket]) bucket++;
+            counts.incrementAndGet(bucket);
+            total.incrementAndGet();
+            long micros = Math.round(millis * 1000);
+            sumMicros.addAndGet(micros);
+            maxMicros.accumulateAndGet(micros, Math::max);
+        }
+
+        Histogram snapshot() {
+            long[] copy = new long[counts.length()];
+            for (int i = 0; i < copy.length; i++) copy[i] = counts.get(i);
+            long n = total.get();
+            return new Histogram(copy, n, n == 0 ? 0 : sumMicros.get() / 1000.0 / n, maxMicros.get() / 1000.0);
+        }
+    }
+}
@@ -9,9 +9,13 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * Persists executed SQL per connection to ~/.dbnavigator/history.json, most
@@ -26,10 +30,13 @@ public final class QueryHistoryStore {
             Path.of(System.getProperty("user.home"), ".dbnavigator", "history.json");
     private static final ObjectMapper MAPPER =
             new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private static final Pattern IDENTIFIER = Pattern.compile("[A-Za-z_][A-Za-z0-9_$]*");
 
     /** connectionId -> entries, newest first */
     private static final Map<String, List<Entry>> history = new LinkedHashMap<>();
     private static boolean loaded = false;
+    /** connectionId -> identifier usage counts, rebuilt after the connection's history changes */
+    private static final Map<String, Map<String, Integer>> identifierCounts = new LinkedHashMap<>();
 
     private QueryHistoryStore() {}
 
@@ -56,6 +63,7 @@ public final class QueryHistoryStore {
         if (!entries.isEmpty() && entries.get(0).sql().equals(trimmed)) return;   // skip immediate repeat
         entries.add(0, new Entry(trimmed, Instant.now().toEpochMilli()));
         while (entries.size() > MAX_PER_CONNECTION) entries.remove(entries.size() - 1);
+        identifierCounts.remove(connectionId);
         persist();
     }
 
@@ -65,9 +73,27 @@ public final class QueryHistoryStore {
         return new ArrayList<>(history.getOrDefault(connectionId, List.of()));
     }
 
+    /**
+     * How many times each identifier (lower-cased) occurs in the connection's
+     * history — completion ranks names the user actually works with first.
+     * Counted once per change of the history, not per keystroke.
+     */
+    public static synchronized Map<String, Integer> identifierCounts(String connectionId) {
+        ensureLoaded();
+        return identifierCounts.computeIfAbsent(connectionId, id -> {
+            Map<String, Integer> counts = new HashMap<>();
+            for (Entry entry : history.getOrDefault(id, List.of())) {
+                Matcher m = IDENTIFIER.matcher(entry.sql());
+                while (m.find()) counts.merge(m.group().toLowerCase(Locale.ROOT), 1, Integer::sum);
+            }
+            return Map.copyOf(counts);
+        });
+    }
+
     public static synchronized void clear(String connectionId) {
         ensureLoaded();
         history.remove(connectionId);
+        identifierCounts.remove(connectionId);
         persist();
     }
 
@@ -0,0 +1,481 @@
+package com.roze.dbnavigator.db;
+
+import com.roze.dbnavigator.db.MetadataService.ColumnInfo;
+import com.roze.dbnavigator.db.MetadataService.ForeignKey;
+import com.roze.dbnavigator.model.ConnectionProfile;
+import com.roze.dbnavigator.model.ConnectionProfile.DatabaseType;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Every table, column and foreign key of one database, read in a handful of
+ * catalog queries and then answered from memory. The ER diagrams and the
+ * completion column list used to ask DatabaseMetaData table by table —
+ * getImportedKeys per table for a whole-database diagram, getPrimaryKeys and
+ * getColumns per related table for a single-table one — which on a remote
+ * server with hundreds of tables meant hundreds of round trips, each a
+ * catalog query of its own on the server side.
+ *
+ * PostgreSQL reads pg_attribute/pg_constraint directly (its
+ * information_schema views re-check privileges row by row and are slow on
+ * big catalogs), MySQL/MariaDB read information_schema, SQL Server reads
+ * sys.columns/sys.foreign_keys. Other engines fall back to DatabaseMetaData
+ * with one getTables and one getColumns call for the whole database; keys
+ * come from bulk catalog queries on Oracle and SQLite, and per-table lookups
+ * only where nothing else is known.
+ *
+ * A graph is built once per connection and database and shared; it is
+ * dropped together with the database's {@link MetadataCache} entries, i.e.
+ * on an explicit refresh or when change detection notices DDL.
+ */
+public final class SchemaGraph {
+
+    /** A table or view; schema is null where the engine has none (MySQL, SQLite). */
+    public record Table(String schema, String name, boolean view) {}
+
+    private static final Map<String, CompletableFuture<SchemaGraph>> graphs = new ConcurrentHashMap<>();
+
+    static {
+        // Coarser than the cache's own keys on purpose: a rebuild is a
+        // handful of queries, cheaper than matching catalog spellings.
+        MetadataCache.addChangeListener((profile, catalog, detected) -> {
+            String prefix = profile.getId() + "|";
+            graphs.keySet().removeIf(k -> k.startsWith(prefix));
+        });
+    }
+
+    private final List<Table> tables;
+    /** Keyed by {@link #key}. */
+    private final Map<String, List<ColumnInfo>> columns;
+    /** Lower-cased table name → the tables of that name, for lookups that don't know the schema. */
+    private final Map<String, List<Table>> byName = new HashMap<>();
+    private final List<ForeignKey> foreignKeys;
+
+    private SchemaGraph(List<Table> tables, Map<String, List<ColumnInfo>> columns, List<ForeignKey> foreignKeys) {
+        this.tables = List.copyOf(tables);
+        this.columns = columns;
+        this.foreignKeys = List.copyOf(foreignKeys);
+        for (Table table : this.tables) {
+            byName.computeIfAbsent(table.name().toLowerCase(Locale.ROOT), n -> new ArrayList<>()).add(table);
+        }
+    }
+
+    /**
+     * The database's graph, built on first use. Concurrent callers for the
+     * same database share one build rather than each running the queries.
+     */
+    public static SchemaGraph of(ConnectionProfile profile, String catalog) throws SQLException {
+        String key = profile.getId() + "|" + (catalog == null ? "" : catalog);
+        MetadataCache.revalidate(profile, catalog);
+        CompletableFuture<SchemaGraph> mine = new CompletableFuture<>();
+        CompletableFuture<SchemaGraph> existing = graphs.putIfAbsent(key, mine);
+        if (existing == null) {
+            try {
+                mine.complete(load(profile, catalog));
+            } catch (SQLException | RuntimeException e) {
+                graphs.remove(key, mine);   // let the next caller try again
+                mine.completeExceptionally(e);
+            }
+        }
+        try {
+            return (existing != null ? existing : mine).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof SQLException sql) throw sql;
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw e;
+        }
+    }
+
+    private static String key(String schema, String table) {
+        return (schema == null ? "" : schema) + "\u0000" + table;
+    }
+
+    public List<Table> tables() {
+        return tables;
+    }
+
+    /**
+     * Columns of a table in declaration order, or an empty list if unknown.
+     * With a null schema, the first table of that name (case-insensitive).
+     */
+    public List<ColumnInfo> columns(String schema, String table) {
+        List<ColumnInfo> exact = columns.get(key(schema, table));
+        if (exact != null) return exact;
+        Table match = find(schema, table);
+        return match == null ? List.of() : columns.getOrDefault(key(match.schema(), match.name()), List.of());
+    }
+
+    private Table find(String schema, String table) {
+        List<Table> candidates = byName.getOrDefault(table.toLowerCase(Locale.ROOT), List.of());
+        for (Table t : candidates) {
+            if (schema == null || schema.equalsIgnoreCase(Objects.requireNonNullElse(t.schema(), schema))) return t;
+        }
+        return null;
+    }
+
+    /** Distinct column names across the database — the completion pool. */
+    public List<String> columnNames() {
+        Set<String> names = new LinkedHashSet<>();
+        for (List<ColumnInfo> cols : columns.values()) {
+            for (ColumnInfo col : cols) names.add(col.name());
+        }
+        return new ArrayList<>(names);
+    }
+
+    /** Every foreign-key column pair of the database, grouped by constraint. */
+    public List<ForeignKey> foreignKeys() {
+        return foreignKeys;
+    }
+
+    /**
+     * FK relationships one hop from a table — the ones it declares and the
+     * ones other tables declare against it. Powers the single-table ER diagram.
+     */
+    public List<ForeignKey> foreignKeysOf(String schema, String table) {
+        List<ForeignKey> result = new ArrayList<>();
+        for (ForeignKey fk : foreignKeys) {
+            if (same(schema, table, fk.fromSchema(), fk.fromTable())
+                    || same(schema, table, fk.toSchema(), fk.toTable())) {
+                result.add(fk);
+            }
+        }
+        return result;
+    }
+
+    private static boolean same(String schema, String table, String otherSchema, String otherTable) {
+        return table.equalsIgnoreCase(otherTable)
+                && (schema == null || otherSchema == null || schema.equalsIgnoreCase(otherSchema));
+    }
+
+    // ------------------------------------------------------------- loading
+
+    private static SchemaGraph load(ConnectionProfile profile, String catalog) throws SQLException {
+        try (Connection conn = MetadataService.client(profile, catalog).getConnection()) {
+            return switch (profile.getType()) {
+                case POSTGRESQL -> postgres(conn);
+                case MYSQL, MARIADB -> mysql(conn, scope(profile, catalog));
+                case SQLSERVER -> sqlServer(conn);
+                default -> generic(conn, profile, catalog);
+            };
+        }
+    }
+
+    private static final String PG_USER_NAMESPACE =
+            "n.nspname NOT IN ('pg_catalog', 'information_schema') "
+            + "AND n.nspname NOT LIKE 'pg\\_toast%' AND n.nspname NOT LIKE 'pg\\_temp%'";
+
+    /**
+     * Sizes are derived from atttypmod the way the PostgreSQL driver's own
+     * getColumns does, so the formatted types match what loadColumnInfo shows.
+     */
+    private static SchemaGraph postgres(Connection conn) throws SQLException {
+        List<Table> tables = new ArrayList<>();
+        query(conn, "SELECT n.nspname, c.relname, c.relkind FROM pg_class c "
+                + "JOIN pg_namespace n ON n.oid = c.relnamespace "
+                + "WHERE c.relkind IN ('r', 'p', 'f', 'v', 'm') AND " + PG_USER_NAMESPACE
+                + " ORDER BY 1, 2", List.of(), rs -> tables.add(new Table(rs.getString(1), rs.getString(2),
+                "vm".contains(rs.getString(3)))));
+
+        Map<String, List<ColumnInfo>> columns = new HashMap<>();
+        query(conn, "SELECT n.nspname, c.relname, a.attname, t.typname, "
+                + "CASE WHEN t.typname IN ('varchar', 'bpchar') AND a.atttypmod > 4 THEN a.atttypmod - 4 "
+                + "     WHEN t.typname = 'numeric' AND a.atttypmod > 4 THEN ((a.atttypmod - 4) >> 16) & 65535 "
+                + "     ELSE 0 END, "
+                + "CASE WHEN t.typname = 'numeric' AND a.atttypmod > 4 THEN (a.atttypmod - 4) & 65535 "
+                + "     WHEN t.typname IN ('timestamp', 'timestamptz', 'time', 'timetz') "
+                + "          THEN CASE WHEN a.atttypmod >= 0 THEN a.atttypmod ELSE 6 END "
+                + "     ELSE -1 END, "
+                + "NOT a.attnotnull, pg_get_expr(d.adbin, d.adrelid), "
+                + "EXISTS (SELECT 1 FROM pg_constraint k WHERE k.conrelid = c.oid AND k.contype = 'p' "
+                + "        AND a.attnum = ANY (k.conkey)) "
+                + "FROM pg_attribute a "
+                + "JOIN pg_class c ON c.oid = a.attrelid "
+                + "JOIN pg_namespace n ON n.oid = c.relnamespace "
+                + "JOIN pg_type t ON t.oid = a.atttypid "
+                + "LEFT JOIN pg_attrdef d ON d.adrelid = a.attrelid AND d.adnum = a.attnum "
+                + "WHERE a.attnum > 0 AND NOT a.attisdropped AND c.relkind IN ('r', 'p', 'f', 'v', 'm') AND "
+                + PG_USER_NAMESPACE + " ORDER BY n.nspname, c.relname, a.attnum", List.of(),
+                rs -> addColumn(columns, rs));
+
+        List<ForeignKey> foreignKeys = new ArrayList<>();
+        query(conn, "SELECT fn.nspname, fc.relname, fa.attname, pn.nspname, pc.relname, pa.attname, k.conname "
+                + "FROM pg_constraint k "
+                + "CROSS JOIN LATERAL unnest(k.conkey, k.confkey) WITH ORDINALITY AS u(fk, pk, ord) "
+                + "JOIN pg_class fc ON fc.oid = k.conrelid "
+                + "JOIN pg_namespace fn ON fn.oid = fc.relnamespace "
+                + "JOIN pg_attribute fa ON fa.attrelid = k.conrelid AND fa.attnum = u.fk "
+                + "JOIN pg_class pc ON pc.oid = k.confrelid "
+                + "JOIN pg_namespace pn ON pn.oid = pc.relnamespace "
+                + "JOIN pg_attribute pa ON pa.attrelid = k.confrelid AND pa.attnum = u.pk "
+                + "WHERE k.contype = 'f' AND " + PG_USER_NAMESPACE.replace("n.nspname", "fn.nspname")
+                + " ORDER BY 1, 2, 7, u.ord", List.of(), rs -> foreignKeys.add(foreignKey(rs)));
+        return new SchemaGraph(tables, columns, foreignKeys);
+    }
+
+    /** The database a MySQL/MariaDB graph covers, or null for "every user database". */
+    private static String scope(ConnectionProfile profile, String catalog) {
+        if (catalog != null && !catalog.isBlank()) return catalog;
+        String database = profile.getDatabase();
+        return database == null || database.isBlank() ? null : database;
+    }
+
+    /**
+     * Within one database the schema comes back null, as the MySQL drivers
+     * report databases as catalogs — the tree's and getImportedKeys' table
+     * identities agree. Unscoped, the graph spans every user database, so
+     * the database name is the schema there: same-named tables in two
+     * databases must not share one column and key list.
+     */
+    private static SchemaGraph mysql(Connection conn, String scope) throws SQLException {
+        String where = scope != null ? "TABLE_SCHEMA = ?"
+                : "TABLE_SCHEMA NOT IN ('mysql', 'information_schema', 'performance_schema', 'sys')";
+        List<Object> args = scope != null ? List.of(scope) : List.of();
+        String schema = scope != null ? "NULL" : "TABLE_SCHEMA";
+        String referencedSchema = scope != null ? "NULL" : "REFERENCED_TABLE_SCHEMA";
+
+        List<Table> tables = new ArrayList<>();
+        query(conn, "SELECT " + schema + ", TABLE_NAME, TABLE_TYPE FROM information_schema.TABLES WHERE " + where
+                + " ORDER BY TABLE_SCHEMA, TABLE_NAME", args,
+                rs -> tables.add(new Table(rs.getString(1), rs.getString(2), rs.getString(3).contains("VIEW"))));
+
+        Map<String, List<ColumnInfo>> columns = new HashMap<>();
+        query(conn, "SELECT " + schema + ", TABLE_NAME, COLUMN_NAME, DATA_TYPE, "
+                + "COALESCE(CHARACTER_MAXIMUM_LENGTH, NUMERIC_PRECISION, 0), "
+                + "COALESCE(NUMERIC_SCALE, DATETIME_PRECISION, -1), "
+                + "IS_NULLABLE = 'YES', COLUMN_DEFAULT, COLUMN_KEY = 'PRI' "
+                + "FROM information_schema.COLUMNS WHERE " + where
+                + " ORDER BY TABLE_SCHEMA, TABLE_NAME, ORDINAL_POSITION", args, rs -> addColumn(columns, rs));
+
+        List<ForeignKey> foreignKeys = new ArrayList<>();
+        query(conn, "SELECT " + schema + ", TABLE_NAME, COLUMN_NAME, " + referencedSchema
+                + ", REFERENCED_TABLE_NAME, REFERENCED_COLUMN_NAME, CONSTRAINT_NAME FROM information_schema.KEY_COLUMN_USAGE "
+                + "WHERE REFERENCED_TABLE_NAME IS NOT NULL AND " + where
+                + " ORDER BY TABLE_SCHEMA, TABLE_NAME, CONSTRAINT_NAME, ORDINAL_POSITION", args,
+                rs -> foreignKeys.add(foreignKey(rs)));
+        return new SchemaGraph(tables, columns, foreignKeys);
+    }
+
+    /** The connection is already in the right database; sys.* views are per database. */
+    private static SchemaGraph sqlServer(Connection conn) throws SQLException {
+        List<Table> tables = new ArrayList<>();
+        query(conn, "SELECT s.name, o.name, o.type FROM sys.objects o "
+                + "JOIN sys.schemas s ON s.schema_id = o.schema_id "
+                + "WHERE o.type IN ('U', 'V') AND o.is_ms_shipped = 0 ORDER BY s.name, o.name", List.of(),
+                rs -> tables.add(new Table(rs.getString(1), rs.getString(2), "V".equals(rs.getString(3).trim()))));
+
+        Map<String, List<ColumnInfo>> columns = new HashMap<>();
+        query(conn, "SELECT s.name, o.name, c.name, t.name, "
+                + "CASE WHEN c.max_length = -1 THEN 0 "
+                + "     WHEN t.name IN ('nvarchar', 'nchar') THEN c.max_length / 2 "
+                + "     WHEN t.name IN ('decimal', 'numeric') THEN c.precision "
+                + "     ELSE c.max_length END, "
+                + "CASE WHEN t.name IN ('decimal', 'numeric', 'datetime', 'datetime2', 'datetimeoffset', 'time') "
+                + "     THEN c.scale ELSE -1 END, "
+                + "c.is_nullable, dc.definition, CASE WHEN pk.column_id IS NULL THEN 0 ELSE 1 END "
+                + "FROM sys.columns c "
+                + "JOIN sys.objects o ON o.object_id = c.object_id "
+                + "JOIN sys.schemas s ON s.schema_id = o.schema_id "
+                + "JOIN sys.types t ON t.user_type_id = c.user_type_id "
+                + "LEFT JOIN sys.default_constraints dc ON dc.object_id = c.default_object_id "
+                + "LEFT JOIN (SELECT ic.object_id, ic.column_id FROM sys.index_columns ic "
+                + "           JOIN sys.indexes i ON i.object_id = ic.object_id AND i.index_id = ic.index_id "
+                + "           WHERE i.is_primary_key = 1) pk "
+                + "       ON pk.object_id = c.object_id AND pk.column_id = c.column_id "
+                + "WHERE o.type IN ('U', 'V') AND o.is_ms_shipped = 0 "
+                + "ORDER BY s.name, o.name, c.column_id", List.of(), rs -> addColumn(columns, rs));
+
+        List<ForeignKey> foreignKeys = new ArrayList<>();
+        query(conn, "SELECT fs.name, fo.name, fc.name, ps.name, po.name, pc.name, fk.name "
+                + "FROM sys.foreign_key_columns k "
+                + "JOIN sys.foreign_keys fk ON fk.object_id = k.constraint_object_id "
+                + "JOIN sys.objects fo ON fo.object_id = k.parent_object_id "
+                + "JOIN sys.schemas fs ON fs.schema_id = fo.schema_id "
+                + "JOIN sys.columns fc ON fc.object_id = k.parent_object_id AND fc.column_id = k.parent_column_id "
+                + "JOIN sys.objects po ON po.object_id = k.referenced_object_id "
+                + "JOIN sys.schemas ps ON ps.schema_id = po.schema_id "
+                + "JOIN sys.columns pc ON pc.object_id = k.referenced_object_id "
+                + "     AND pc.column_id = k.referenced_column_id "
+                + "ORDER BY fs.name, fo.name, fk.name, k.constraint_column_id", List.of(),
+                rs -> foreignKeys.add(foreignKey(rs)));
+        return new SchemaGraph(tables, columns, foreignKeys);
+    }
+
+    /**
+     * Oracle, SQLite and anything else: one getTables and one getColumns for
+     * the whole database. Keys come from one catalog query each on Oracle
+     * (ALL_CONSTRAINTS/ALL_CONS_COLUMNS) and SQLite (the pragma table-valued
+     * functions joined over sqlite_master); other engines still ask JDBC per
+     * table, it having no bulk form. (Oracle's ALL_TAB_COLUMNS would do the
+     * columns in one query too, but its DATA_DEFAULT is a LONG, which can't
+     * be read in bulk reliably.)
+     */
+    private static SchemaGraph generic(Connection conn, ConnectionProfile profile, String catalog)
+            throws SQLException {
+        DatabaseMetaData meta = conn.getMetaData();
+        String cat = MetadataService.metaCatalog(profile, catalog);
+        String schemaFilter = MetadataService.metaSchema(profile, catalog);
+
+        List<Table> tables = new ArrayList<>();
+        try (ResultSet rs = meta.getTables(cat, schemaFilter, "%", new String[]{"TABLE", "VIEW"})) {
+            while (rs.next()) {
+                String schema = rs.getString("TABLE_SCHEM");
+                if (isSystemSchema(profile, schema)) continue;
+                tables.add(new Table(schema, rs.getString("TABLE_NAME"), "VIEW".equals(rs.getString("TABLE_TYPE"))));
+            }
+        }
+        Set<String> known = new HashSet<>();
+        for (Table table : tables) known.add(key(table.schema(), table.name()));
+
+        Map<String, Set<String>> primaryKeys = new HashMap<>();
+        List<ForeignKey> foreignKeys = new ArrayList<>();
+        switch (profile.getType()) {
+            case ORACLE -> oracleKeys(conn, schemaFilter, primaryKeys, foreignKeys);
+            case SQLITE -> sqliteKeys(conn, primaryKeys, foreignKeys);
+            default -> {
+                for (Table table : tables) {
+                    if (!table.view()) jdbcKeys(meta, cat, table, primaryKeys, foreignKeys);
+                }
+            }
+        }
+
+        Map<String, List<ColumnInfo>> columns = new HashMap<>();
+        try (ResultSet rs = meta.getColumns(cat, schemaFilter, "%", "%")) {
+            while (rs.next()) {
+                String schema = rs.getString("TABLE_SCHEM");
+                if (isSystemSchema(profile, schema)) continue;
+                String table = rs.getString("TABLE_NAME");
+                String key = key(schema, table);
+                if (!known.contains(key)) continue;   // e.g. SQLite's sqlite_master
+                String name = rs.getString("COLUMN_NAME");
+                int columnSize = rs.getInt("COLUMN_SIZE");
+                String type = MetadataService.formatColumnType(rs.getString("TYPE_NAME"),
+                        columnSize, rs.getInt("DECIMAL_DIGITS"));
+                // COLUMN_DEF before IS_NULLABLE — see loadColumnInfo (Oracle's LONG column).
+                String defaultValue = rs.getString("COLUMN_DEF");
+                boolean nullable = "YES".equalsIgnoreCase(rs.getString("IS_NULLABLE"));
+                boolean pk = primaryKeys.getOrDefault(key, Set.of()).contains(name);
+                columns.computeIfAbsent(key, k -> new ArrayList<>())
+                        .add(new ColumnInfo(name, type, columnSize, nullable, defaultValue, pk));
+            }
+        }
+        return new SchemaGraph(tables, columns, foreignKeys);
+    }
+
+    /** One schema's keys (or every user schema's, for a null owner) in two queries. */
+    private static void oracleKeys(Connection conn, String owner, Map<String, Set<String>> primaryKeys,
+                                   List<ForeignKey> foreignKeys) throws SQLException {
+        String scope = owner != null ? "c.OWNER = ?"
+                : "c.OWNER NOT IN (" + String.join(", ", MetadataService.ORACLE_SYSTEM_SCHEMAS.stream()
+                        .map(s -> "'" + s.toUpperCase(Locale.ROOT) + "'").toList()) + ")";
+        List<Object> args = owner != null ? List.of(owner) : List.of();
+        query(conn, "SELECT c.OWNER, c.TABLE_NAME, cc.COLUMN_NAME FROM ALL_CONSTRAINTS c "
+                + "JOIN ALL_CONS_COLUMNS cc ON cc.OWNER = c.OWNER AND cc.CONSTRAINT_NAME = c.CONSTRAINT_NAME "
+                + "WHERE c.CONSTRAINT_TYPE = 'P' AND " + scope
+                + " ORDER BY c.OWNER, c.TABLE_NAME, cc.POSITION", args,
+                rs -> primaryKeys.computeIfAbsent(key(rs.getString(1), rs.getString(2)), k -> new LinkedHashSet<>())
+                        .add(rs.getString(3)));
+        query(conn, "SELECT c.OWNER, c.TABLE_NAME, fc.COLUMN_NAME, r.OWNER, r.TABLE_NAME, rc.COLUMN_NAME, "
+                + "c.CONSTRAINT_NAME FROM ALL_CONSTRAINTS c "
+                + "JOIN ALL_CONS_COLUMNS fc ON fc.OWNER = c.OWNER AND fc.CONSTRAINT_NAME = c.CONSTRAINT_NAME "
+                + "JOIN ALL_CONSTRAINTS r ON r.OWNER = c.R_OWNER AND r.CONSTRAINT_NAME = c.R_CONSTRAINT_NAME "
+                + "JOIN ALL_CONS_COLUMNS rc ON rc.OWNER = r.OWNER AND rc.CONSTRAINT_NAME = r.CONSTRAINT_NAME "
+                + "     AND rc.POSITION = fc.POSITION "
+                + "WHERE c.CONSTRAINT_TYPE = 'R' AND " + scope
+                + " ORDER BY c.OWNER, c.TABLE_NAME, c.CONSTRAINT_NAME, fc.POSITION", args,
+                rs -> foreignKeys.add(foreignKey(rs)));
+    }
+
+    /**
+     * Every table's keys through pragma_table_info/pragma_foreign_key_list.
+     * A foreign key naming no target column references the target's primary
+     * key; SQLite keeps no constraint names, so the pragma's per-table id
+     * stands in for one.
+     */
+    private static void sqliteKeys(Connection conn, Map<String, Set<String>> primaryKeys,
+                                   List<ForeignKey> foreignKeys) throws SQLException {
+        query(conn, "SELECT m.name, p.name FROM sqlite_master m JOIN pragma_table_info(m.name) p "
+                + "WHERE m.type = 'table' AND p.pk > 0 ORDER BY m.name, p.pk", List.of(),
+                rs -> primaryKeys.computeIfAbsent(key(null, rs.getString(1)), k -> new LinkedHashSet<>())
+                        .add(rs.getString(2)));
+        query(conn, "SELECT NULL, m.name, f.\"from\", NULL, f.\"table\", "
+                + "COALESCE(f.\"to\", (SELECT t.name FROM pragma_table_info(f.\"table\") t WHERE t.pk = f.seq + 1)), "
+                + "'fk_' || m.name || '_' || f.id "
+                + "FROM sqlite_master m JOIN pragma_foreign_key_list(m.name) f "
+                + "WHERE m.type = 'table' ORDER BY m.name, f.id, f.seq", List.of(),
+                rs -> foreignKeys.add(foreignKey(rs)));
+    }
+
+    /** One table's keys through DatabaseMetaData — two round trips. */
+    private static void jdbcKeys(DatabaseMetaData meta, String cat, Table table,
+                                 Map<String, Set<String>> primaryKeys, List<ForeignKey> foreignKeys) {
+        Set<String> pk = new LinkedHashSet<>();
+        try (ResultSet rs = meta.getPrimaryKeys(cat, table.schema(), table.name())) {
+            while (rs.next()) pk.add(rs.getString("COLUMN_NAME"));
+        } catch (SQLException ignored) { /* some drivers can't */ }
+        primaryKeys.put(key(table.schema(), table.name()), pk);
+        try (ResultSet rs = meta.getImportedKeys(cat, table.schema(), table.name())) {
+            while (rs.next()) {
+                foreignKeys.add(new ForeignKey(
+                        rs.getString("FKTABLE_SCHEM"), rs.getString("FKTABLE_NAME"), rs.getString("FKCOLUMN_NAME"),
+                        rs.getString("PKTABLE_SCHEM"), rs.getString("PKTABLE_NAME"), rs.getString("PKCOLUMN_NAME"),
+                        rs.getString("FK_NAME")));
+            }
+        } catch (SQLException ignored) { /* some drivers can't */ }
+    }
+
+    private static boolean isSystemSchema(ConnectionProfile profile, String schema) {
+        if (schema == null) return false;
+        return profile.getType() == DatabaseType.ORACLE
+                ? MetadataService.ORACLE_SYSTEM_SCHEMAS.contains(schema.toLowerCase(Locale.ROOT))
+                : MetadataService.PG_SYSTEM_SCHEMAS.contains(schema);
+    }
+
+    // ------------------------------------------------------------- rows
+
+    @FunctionalInterface
+    private interface RowHandler {
+        void accept(ResultSet rs) throws SQLException;
+    }
+
+    private static void query(Connection conn, String sql, List<Object> args, RowHandler handler)
+            throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (int i = 0; i < args.size(); i++) stmt.setObject(i + 1, args.get(i));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) handler.accept(rs);
+            }
+        }
+    }
+
+    /** Columns: schema, table, column, type name, size, decimal digits, nullable, default, primary key. */
+    private static void addColumn(Map<String, List<ColumnInfo>> columns, ResultSet rs) throws SQLException {
+        // Sizes can exceed int (MySQL LONGTEXT is 4 GB), which only matters for display.
+        int size = (int) Math.min(Integer.MAX_VALUE, rs.getLong(5));
+        String type = MetadataService.formatColumnType(rs.getString(4), size, rs.getInt(6));
+        columns.computeIfAbsent(key(rs.getString(1), rs.getString(2)), k -> new ArrayList<>())
+                .add(new ColumnInfo(rs.getString(3), type, size, rs.getBoolean(7), rs.getString(8), rs.getBoolean(9)));
+    }
+
+    /** Foreign keys: from schema, table, column; to schema, table, column; constraint name. */
+    private static ForeignKey foreignKey(ResultSet rs) throws SQLException {
+        return new ForeignKey(rs.getString(1), rs.getString(2), rs.getString(3),
+                rs.getString(4), rs.getString(5), rs.getString(6), rs.getString(7));
+    }
+
+}
@@ -39,35 +39,63 @@ public final class SqlValueBinder {
             stmt.setNull(index, jdbcType == null ? Types.VARCHAR : jdbcType);
             return;
         }
-        if (jdbcType == null) {
-            stmt.setString(index, text);
-            return;
+        // One conversion for both this and bulk copy; the setter follows
+        // the converted value's type, so text that didn't convert (or has
+        // no known type) is bound as a string — the database rejects it
+        // with a clear error if it's truly wrong.
+        switch (convert(jdbcType, text)) {
+            case Boolean value -> stmt.setBoolean(index, value);
+            case Short value -> stmt.setShort(index, value);
+            case Integer value -> stmt.setInt(index, value);
+            case Long value -> stmt.setLong(index, value);
+            case Float value -> stmt.setFloat(index, value);
+            case Double value -> stmt.setDouble(index, value);
+            case BigDecimal value -> stmt.setBigDecimal(index, value);
+            case java.sql.Date value -> stmt.setDate(index, value);
+            case Timestamp value -> stmt.setTimestamp(index, value);
+            case byte[] value -> stmt.setBytes(index, value);
+            default -> stmt.setString(index, text);
         }
+    }
 
+    /**
+     * The typed Java value for a grid's text: what {@link #bind} sends, and
+     * what APIs taking objects rather than a PreparedStatement (SQL Server's
+     * bulk copy) are given. Text that doesn't convert is returned as-is.
+     */
+    public static Object convert(Integer jdbcType, String text) {
+        if (text == null || text.equals("NULL")) return null;
+        if (jdbcType == null) return text;
         try {
-            switch (jdbcType) {
-                case Types.BIT, Types.BOOLEAN -> stmt.setBoolean(index, parseBoolean(text));
-                case Types.TINYINT, Types.SMALLINT -> stmt.setShort(index, Short.parseShort(text.trim()));
-                case Types.INTEGER -> stmt.setInt(index, Integer.parseInt(text.trim()));
-                case Types.BIGINT -> stmt.setLong(index, Long.parseLong(text.trim()));
-                case Types.FLOAT, Types.REAL -> stmt.setFloat(index, Float.parseFloat(text.trim()));
-                case Types.DOUBLE -> stmt.setDouble(index, Double.parseDouble(text.trim()));
-                case Types.DECIMAL, Types.NUMERIC -> stmt.setBigDecimal(index, new BigDecimal(text.trim()));
-                case Types.DATE -> stmt.setDate(index, java.sql.Date.valueOf(parseDatePart(text)));
-                case Types.TIMESTAMP, Types.TIMESTAMP_WITH_TIMEZONE ->
-                        stmt.setTimestamp(index, parseTimestamp(text));
-                case Types.BINARY, Types.VARBINARY, Types.LONGVARBINARY ->
-                        stmt.setBytes(index, hexOrRawBytes(text));
-                default -> stmt.setString(index, text);
-            }
+            return switch (jdbcType) {
+                case Types.BIT, Types.BOOLEAN -> parseBoolean(text);
+                case Types.TINYINT, Types.SMALLINT -> Short.parseShort(text.trim());
+                case Types.INTEGER -> Integer.parseInt(text.trim());
+                case Types.BIGINT -> Long.parseLong(text.trim());
+                case Types.FLOAT, Types.REAL -> Float.parseFloat(text.trim());
+                case Types.DOUBLE -> Double.parseDouble(text.trim());
+                case Types.DECIMAL, Types.NUMERIC -> new BigDecimal(text.trim());
+                case Types.DATE -> java.sql.Date.valueOf(parseDatePart(text));
+                case Types.TIMESTAMP, Types.TIMESTAMP_WITH_TIMEZONE -> parseTimestamp(text);
+                case Types.BINARY, Types.VARBINARY, Types.LONGVARBINARY -> hexOrRawBytes(text);
+                default -> text;
+            };
         } catch (RuntimeException conversionFailure) {
-            // If the typed conversion fails (bad input, unexpected format),
-            // fall back to a plain string rather than losing the edit entirely —
-            // the database will reject it with a clear error if it's truly wrong.
-            stmt.setString(index, text);
+            return text;
         }
     }
 
+    /** Whether {@link #convert} turns text into something other than a String for this type. */
+    public static boolean hasConversion(int jdbcType) {
+        return switch (jdbcType) {
+            case Types.BIT, Types.BOOLEAN, Types.TINYINT, Types.SMALLINT, Types.INTEGER, Types.BIGINT,
+                 Types.FLOAT, Types.REAL, Types.DOUBLE, Types.DECIMAL, Types.NUMERIC, Types.DATE,
+                 Types.TIMESTAMP, Types.TIMESTAMP_WITH_TIMEZONE,
+                 Types.BINARY, Types.VARBINARY, Types.LONGVARBINARY -> true;
+            default -> false;
+        };
+    }
+
     private static boolean parseBoolean(String text) {
         String t = text.trim().toLowerCase(Locale.ROOT);
         return t.equals("true") || t.equals("t") || t.equals("1") || t.equals("yes");
@@ -0,0 +1,179 @@
+package com.roze.dbnavigator.db;
+
+import com.roze.dbnavigator.model.ColumnarRows;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Row cache behind {@link PagedResultCursor}: the most recently fetched
+ * batches stay on the heap, and once they exceed a fixed row budget the
+ * oldest batches are written to a temp file in {@link ColumnarRows}'s binary
+ * form and dropped from the heap. Reading a spilled batch back reads just its
+ * region of the file into a heap buffer and decodes it — not a mapping, which
+ * is only released by GC and on Windows keeps the file from being deleted. A
+ * few recently decoded batches are kept so flipping back and forth between
+ * neighbouring pages doesn't re-decode.
+ * A decoded batch holding inline edits is never dropped — the file has the
+ * rows as fetched, so re-decoding would quietly undo the edit.
+ *
+ * The temp file is created on first spill only (small results never touch
+ * disk) and deleted on {@link #close}.
+ */
+final class TieredRowStore implements AutoCloseable {
+
+    /** Rows kept on the heap before the oldest batches start spilling. */
+    private static final int HEAP_ROW_BUDGET = 20_000;
+    /** Spilled batches kept decoded for quick back-and-forth paging. */
+    private static final int DECODED_CACHE_SIZE = 4;
+
+    /** One fetched batch: on the heap ({@code rows != null}) or at a file region. */
+    private static final class Batch {
+        final int firstRow;
+        final int rowCount;
+        ColumnarRows rows;
+        long fileOffset;
+        int fileLength;
+
+        Batch(int firstRow, ColumnarRows rows) {
+            this.firstRow = firstRow;
+            this.rowCount = rows.size();
+            this.rows = rows;
+        }
+    }
+
+    private final List<Batch> batches = new ArrayList<>();
+    private final Map<Batch, ColumnarRows> decoded = new LinkedHashMap<>(8, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Batch, ColumnarRows> eldest) {
+            if (size() <= DECODED_CACHE_SIZE) return false;
+            if (eldest.getValue().hasEdits()) edited.put(eldest.getKey(), eldest.getValue());
+            return true;
+        }
+    };
+    /** Decoded spilled batches with inline edits, kept for as long as the store lives. */
+    private final Map<Batch, ColumnarRows> edited = new HashMap<>();
+    private int size;
+    private int heapRows;
+    private int firstHeapBatch;
+    private Path spillFile;
+    private FileChannel spillChannel;
+    /** Set after a failed write: everything from then on stays on the heap. */
+    private boolean spillFailed;
+
+    synchronized int size() { return size; }
+
+    synchronized boolean hasSpilled() { return spillFile != null; }
+
+    synchronized void append(ColumnarRows rows) {
+        if (rows.size() == 0) return;
+        batches.add(new Batch(size, rows));
+        size += rows.size();
+        heapRows += rows.size();
+        while (heapRows > HEAP_ROW_BUDGET && firstHeapBatch < batches.size() - 1 && !spillFailed) {
+            if (spill(batches.get(firstHeapBatch))) firstHeapBatch++;
+        }
+    }
+
+    /** Row views for [from, to), read back from disk where necessary. */
+    synchronized List<List<String>> rows(int from, int to) {
+        List<List<String>> out = new ArrayList<>(Math.max(0, to - from));
+        int index = batchIndexOf(from);
+        int row = from;
+        while (row < to && index < batches.size()) {
+            Batch batch = batches.get(index++);
+            ColumnarRows rows = load(batch);
+            int end = Math.min(to, batch.firstRow + batch.rowCount);
+            for (; row < end; row++) out.add(rows.row(row - batch.firstRow));
+        }
+        return out;
+    }
+
+    private int batchIndexOf(int row) {
+        int lo = 0;
+        int hi = batches.size() - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (batches.get(mid).firstRow <= row) lo = mid; else hi = mid - 1;
+        }
+        return lo;
+    }
+
+    private ColumnarRows load(Batch batch) {
+        if (batch.rows != null) return batch.rows;
+        ColumnarRows rows = decoded.get(batch);
+        if (rows == null) rows = edited.get(batch);
+        if (rows != null) return rows;
+        try {
+            ByteBuffer region = ByteBuffer.allocate(batch.fileLength);
+            while (region.hasRemaining()) {
+                if (spillChannel.read(region, batch.fileOffset + region.position()) < 0) {
+                    throw new IOException("Spill file ends before the batch does");
+                }
+            }
+            rows = ColumnarRows.readFrom(region.flip());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read spilled result rows", e);
+        }
+        decoded.put(batch, rows);
+        return rows;
+    }
+
+    /** Moves the batch to the spill file; false (and no more spilling) if that fails. */
+    private boolean spill(Batch batch) {
+        try {
+            if (spillChannel == null) {
+                spillFile = Files.createTempFile("dbnav-result-", ".bin");
+                spillChannel = FileChannel.open(spillFile, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            }
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 * 1024);
+            try (DataOutputStream out = new DataOutputStream(bytes)) {
+                batch.rows.writeTo(out);
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+            long offset = spillChannel.size();
+            while (buffer.hasRemaining()) {
+                offset += spillChannel.write(buffer, offset);
+            }
+            batch.fileOffset = offset - bytes.size();
+            batch.fileLength = bytes.size();
+            batch.rows = null;
+            heapRows -= batch.rowCount;
+            return true;
+        } catch (IOException e) {
+            // Out of disk or no temp dir: keep this and later batches on the
+            // heap rather than lose rows — the cursor's own safety cap still
+            // bounds them.
+            System.err.println("Could not spill result rows to disk: " + e.getMessage());
+            spillFailed = true;
+            return false;
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        batches.clear();
+        decoded.clear();
+        edited.clear();
+        spillFailed = false;
+        size = 0;
+        heapRows = 0;
+        firstHeapBatch = 0;
+        try { if (spillChannel != null) spillChannel.close(); } catch (IOException ignored) {}
+        try { if (spillFile != null) Files.deleteIfExists(spillFile); } catch (IOException ignored) {}
+        spillChannel = null;
+        spillFile = null;
+    }
+}
@@ -0,0 +1,295 @@
+package com.roze.dbnavigator.model;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Column-oriented storage for a block of result rows. Numeric, boolean and
+ * temporal columns live in primitive long[] arrays (doubles as raw bits,
+ * timestamps as epoch millis + a separate nanos array) with a per-column null
+ * bitmap, so a cell costs 8-12 bytes instead of a boxed driver object plus a
+ * String. Only text-like columns keep String references — the same String the
+ * driver already returned, never a copy.
+ *
+ * Cells are turned into display text only when something actually asks for
+ * them (ResultGrid's cell value factory, an export, a pk snapshot) via the
+ * {@link #row} views, and the text is exactly what String.valueOf() on the
+ * driver's own object would have produced, so nothing downstream can tell the
+ * difference from the old List-of-Strings rows.
+ */
+public final class ColumnarRows {
+
+    /** Physical storage kind of one column, picked from its JDBC class name. */
+    public enum Kind { LONG, DOUBLE, FLOAT, BOOLEAN, TIMESTAMP, DATE, LOCAL_DATE_TIME, LOCAL_DATE, TEXT }
+
+    private final Kind[] kinds;
+    private final long[][] longs;      // every non-TEXT kind
+    private final int[][] nanos;       // TIMESTAMP and LOCAL_DATE_TIME only
+    private final String[][] texts;    // TEXT only
+    private final long[][] nulls;      // one bit per row, non-TEXT kinds only
+    private int capacity;
+    private int size;
+
+    /** Cell overrides from inline grid edits, keyed by row * columnCount + column. */
+    private Map<Long, String> edits;
+
+    public ColumnarRows(Kind[] kinds, int initialCapacity) {
+        this.kinds = kinds.clone();
+        this.capacity = Math.max(1, initialCapacity);
+        int cols = kinds.length;
+        longs = new long[cols][];
+        nanos = new int[cols][];
+        texts = new String[cols][];
+        nulls = new long[cols][];
+        for (int c = 0; c < cols; c++) {
+            if (kinds[c] == Kind.TEXT) {
+                texts[c] = new String[capacity];
+            } else {
+                longs[c] = new long[capacity];
+                nulls[c] = new long[words(capacity)];
+                if (kinds[c] == Kind.TIMESTAMP || kinds[c] == Kind.LOCAL_DATE_TIME) {
+                    nanos[c] = new int[capacity];
+                }
+            }
+        }
+    }
+
+    public int size() { return size; }
+    public int columnCount() { return kinds.length; }
+    public Kind kind(int column) { return kinds[column]; }
+
+    /**
+     * Appends a row and returns its index; fill in every cell with the set*
+     * methods. A text cell starts out null, but any other cell starts out as
+     * zero, and only reads as null once {@link #setNull} marks it.
+     */
+    public int addRow() {
+        if (size == capacity) grow();
+        return size++;
+    }
+
+    public void setNull(int row, int column) {
+        if (kinds[column] == Kind.TEXT) {
+            texts[column][row] = null;
+        } else {
+            nulls[column][row >>> 6] |= 1L << row;
+        }
+    }
+
+    public void setLong(int row, int column, long value) {
+        longs[column][row] = value;
+    }
+
+    public void setDouble(int row, int column, double value) {
+        longs[column][row] = Double.doubleToRawLongBits(value);
+    }
+
+    public void setBoolean(int row, int column, boolean value) {
+        longs[column][row] = value ? 1 : 0;
+    }
+
+    /** TIMESTAMP: epoch millis + nanos; LOCAL_DATE_TIME: UTC epoch second + nanos. */
+    public void setTemporal(int row, int column, long value, int nano) {
+        longs[column][row] = value;
+        nanos[column][row] = nano;
+    }
+
+    public void setText(int row, int column, String value) {
+        texts[column][row] = value;
+    }
+
+    public boolean isNull(int row, int column) {
+        if (kinds[column] == Kind.TEXT) return texts[column][row] == null;
+        return (nulls[column][row >>> 6] & (1L << row)) != 0;
+    }
+
+    /** Display text of one cell, or null for SQL NULL. */
+    public String format(int row, int column) {
+        if (edits != null) {
+            Long key = (long) row * kinds.length + column;
+            if (edits.containsKey(key)) return edits.get(key);
+        }
+        if (isNull(row, column)) return null;
+        long v = kinds[column] == Kind.TEXT ? 0 : longs[column][row];
+        return switch (kinds[column]) {
+            case LONG -> Long.toString(v);
+            case DOUBLE -> Double.toString(Double.longBitsToDouble(v));
+            case FLOAT -> Float.toString((float) Double.longBitsToDouble(v));
+            case BOOLEAN -> v != 0 ? "true" : "false";
+            case TIMESTAMP -> {
+                Timestamp ts = new Timestamp(v);
+                ts.setNanos(nanos[column][row]);
+                yield ts.toString();
+            }
+            case DATE -> new java.sql.Date(v).toString();
+            case LOCAL_DATE_TIME -> LocalDateTime.ofEpochSecond(v, nanos[column][row], ZoneOffset.UTC).toString();
+            case LOCAL_DATE -> LocalDate.ofEpochDay(v).toString();
+            case TEXT -> texts[column][row];
+        };
+    }
+
+    /** Whether any cell has been overridden by {@link #setFormatted}. */
+    public boolean hasEdits() {
+        return edits != null && !edits.isEmpty();
+    }
+
+    /** Replaces a cell's display value, as an inline grid edit does. */
+    public void setFormatted(int row, int column, String value) {
+        if (edits == null) edits = new HashMap<>();
+        edits.put((long) row * kinds.length + column, value);
+    }
+
+    /** A live, lazily formatting List view of one row. */
+    public List<String> row(int row) {
+        return new RowView(row);
+    }
+
+    /** Row views for every row currently stored, in order. */
+    public List<List<String>> rows() {
+        List<List<String>> views = new ArrayList<>(size);
+        for (int r = 0; r < size; r++) views.add(new RowView(r));
+        return views;
+    }
+
+    /** Rough heap footprint of the stored cells, for cache budgeting. */
+    public long estimatedBytes() {
+        long bytes = 0;
+        for (int c = 0; c < kinds.length; c++) {
+            if (kinds[c] == Kind.TEXT) {
+                bytes += 4L * capacity;
+                for (int r = 0; r < size; r++) {
+                    String s = texts[c][r];
+                    if (s != null) bytes += 40 + s.length();
+                }
+            } else {
+                bytes += 8L * capacity + capacity / 8;
+                if (nanos[c] != null) bytes += 4L * capacity;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Compact binary form used when a cursor spills older batches to disk:
+     * the primitive arrays and null bitmaps are written as-is, text cells as
+     * length-prefixed UTF-8, followed by any inline-edit overrides.
+     */
+    public void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(size);
+        out.writeInt(kinds.length);
+        for (Kind kind : kinds) out.writeByte(kind.ordinal());
+        for (int c = 0; c < kinds.length; c++) {
+            if (kinds[c] == Kind.TEXT) {
+                for (int r = 0; r < size; r++) writeString(out, texts[c][r]);
+                continue;
+            }
+            for (int w = 0; w < words(size); w++) out.writeLong(nulls[c][w]);
+            for (int r = 0; r < size; r++) out.writeLong(longs[c][r]);
+            if (nanos[c] != null) {
+                for (int r = 0; r < size; r++) out.writeInt(nanos[c][r]);
+            }
+        }
+        out.writeInt(edits == null ? 0 : edits.size());
+        if (edits != null) {
+            for (Map.Entry<Long, String> edit : edits.entrySet()) {
+                out.writeLong(edit.getKey());
+                writeString(out, edit.getValue());
+            }
+        }
+    }
+
+    /** Reverses {@link #writeTo}, reading from the buffer's current position. */
+    public static ColumnarRows readFrom(ByteBuffer in) {
+        int size = in.getInt();
+        Kind[] kinds = new Kind[in.getInt()];
+        for (int c = 0; c < kinds.length; c++) kinds[c] = Kind.values()[in.get()];
+        ColumnarRows rows = new ColumnarRows(kinds, size);
+        rows.size = size;
+        for (int c = 0; c < kinds.length; c++) {
+            if (kinds[c] == Kind.TEXT) {
+                for (int r = 0; r < size; r++) rows.texts[c][r] = readString(in);
+                continue;
+            }
+            for (int w = 0; w < words(size); w++) rows.nulls[c][w] = in.getLong();
+            for (int r = 0; r < size; r++) rows.longs[c][r] = in.getLong();
+            if (rows.nanos[c] != null) {
+                for (int r = 0; r < size; r++) rows.nanos[c][r] = in.getInt();
+            }
+        }
+        int editCount = in.getInt();
+        if (editCount > 0) {
+            rows.edits = new HashMap<>();
+            for (int i = 0; i < editCount; i++) rows.edits.put(in.getLong(), readString(in));
+        }
+        return rows;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) return null;
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void grow() {
+        int newCapacity = capacity + Math.max(16, capacity >> 1);
+        for (int c = 0; c < kinds.length; c++) {
+            if (texts[c] != null) texts[c] = Arrays.copyOf(texts[c], newCapacity);
+            if (longs[c] != null) longs[c] = Arrays.copyOf(longs[c], newCapacity);
+            if (nanos[c] != null) nanos[c] = Arrays.copyOf(nanos[c], newCapacity);
+            if (nulls[c] != null) nulls[c] = Arrays.copyOf(nulls[c], words(newCapacity));
+        }
+        capacity = newCapacity;
+    }
+
+    private static int words(int bits) {
+        return (bits + 63) >>> 6;
+    }
+
+    /**
+     * Identity-equal on purpose: a grid row is "this row of the result", not
+     * "any row with the same values" — duplicate rows must stay distinct for
+     * selection, and comparing by value would format every cell.
+     */
+    private final class RowView extends AbstractList<String> {
+        private final int row;
+
+        RowView(int row) { this.row = row; }
+
+        @Override public String get(int index) { return format(row, index); }
+        @Override public int size() { return kinds.length; }
+
+        @Override
+        public String set(int index, String value) {
+            String old = format(row, index);
+            setFormatted(row, index, value);
+            return old;
+        }
+
+        @Override public boolean equals(Object o) { return this == o; }
+        @Override public int hashCode() { return System.identityHashCode(this); }
+    }
+}
@@ -84,6 +84,21 @@ public class ConnectionProfile {
     private OracleConnectionType oracleConnectionType = OracleConnectionType.SERVICE_NAME;
     private String oracleSid = "";
     private String oracleConnectString = "";
+    // Connection pooling (relational engines). Every database browsed under
+    // one connection gets its own pool — see ClientRegistry.jdbc — so these
+    // are per pool, except the budget, which caps all of them together.
+    /** Largest size of any one pool. */
+    private int poolMaxSize = 10;
+    /** Idle connections the connection's own (default-database) pool keeps ready. */
+    private int poolMinIdle = 2;
+    /** Physical connections across all of this connection's pools; 0 = unlimited. */
+    private int poolConnectionBudget = 30;
+    /** Open the pools of the databases shown in the tree as soon as the connection opens. */
+    private boolean poolPrewarm;
+    /** Other-database pools left unused this long are closed (reopened on next use); 0 = never. */
+    private int poolIdleCloseMinutes = 5;
+    /** Other-database pools kept open at once; the least recently used idle one closes beyond it. */
+    private int poolMaxDatabasePools = 8;
 
     public ConnectionProfile() {}
 
@@ -304,6 +319,12 @@ public class ConnectionProfile {
         c.oracleConnectionType = oracleConnectionType;
         c.oracleSid = oracleSid;
         c.oracleConnectString = oracleConnectString;
+        c.poolMaxSize = poolMaxSize;
+        c.poolMinIdle = poolMinIdle;
+        c.poolConnectionBudget = poolConnectionBudget;
+        c.poolPrewarm = poolPrewarm;
+        c.poolIdleCloseMinutes = poolIdleCloseMinutes;
+        c.poolMaxDatabasePools = poolMaxDatabasePools;
         return c;
     }
 
@@ -360,5 +381,24 @@ public class ConnectionProfile {
         this.oracleConnectString = oracleConnectString == null ? "" : oracleConnectString;
     }
 
+    public int getPoolMaxSize() { return poolMaxSize; }
+    public void setPoolMaxSize(int poolMaxSize) { this.poolMaxSize = Math.max(1, poolMaxSize); }
+    public int getPoolMinIdle() { return poolMinIdle; }
+    public void setPoolMinIdle(int poolMinIdle) { this.poolMinIdle = Math.max(0, poolMinIdle); }
+    public int getPoolConnectionBudget() { return poolConnectionBudget; }
+    public void setPoolConnectionBudget(int poolConnectionBudget) {
+        this.poolConnectionBudget = Math.max(0, poolConnectionBudget);
+    }
+    public boolean isPoolPrewarm() { return poolPrewarm; }
+    public void setPoolPrewarm(boolean poolPrewarm) { this.poolPrewarm = poolPrewarm; }
+    public int getPoolIdleCloseMinutes() { return poolIdleCloseMinutes; }
+    public void setPoolIdleCloseMinutes(int poolIdleCloseMinutes) {
+        this.poolIdleCloseMinutes = Math.max(0, poolIdleCloseMinutes);
+    }
+    public int getPoolMaxDatabasePools() { return poolMaxDatabasePools; }
+    public void setPoolMaxDatabasePools(int poolMaxDatabasePools) {
+        this.poolMaxDatabasePools = Math.max(1, poolMaxDatabasePools);
+    }
+
     @Override public String toString() { return name; }
 }
@@ -10,7 +10,7 @@ public class DbObject {
         COLUMNS_FOLDER, INDEXES_FOLDER, PARTITIONS_FOLDER, KEYS_FOLDER, FOREIGN_KEYS_FOLDER, FIELDS_FOLDER,
         TABLE, VIEW, PROCEDURE, FUNCTION, SEQUENCE, COLLECTION,
         COLUMN, INDEX, PARTITION, KEY, FOREIGN_KEY, FIELD,
-        MESSAGE
+        MESSAGE, LOAD_MORE
     }
 
     private final String name;
@@ -20,6 +20,7 @@ public class DbObject {
     private String tableName;       // owning table for COLUMN/INDEX/folder nodes (nullable)
     private String detail;          // e.g. column type, child count
     private boolean loaded;
+    private String filter;          // folder nodes: the explorer's type-ahead name filter (nullable)
 
     public DbObject(String name, Kind kind) {
         this(name, kind, null, null);
@@ -42,6 +43,8 @@ public class DbObject {
     public void setDetail(String detail) { this.detail = detail; }
     public boolean isLoaded()  { return loaded; }
     public void setLoaded(boolean loaded) { this.loaded = loaded; }
+    public String getFilter()  { return filter; }
+    public void setFilter(String filter) { this.filter = filter; }
 
     /** Fully qualified name for use in SQL. */
     public String qualifiedName() {
@@ -8,7 +8,7 @@ public class QueryResult {
 
     private final List<String> columns = new ArrayList<>();
     private final List<String> columnTypes = new ArrayList<>();   // e.g. varchar, timestamp
-    private final List<List<String>> rows = new ArrayList<>();
+    private final List<List<String>> rows = new ArrayList<>();   // JDBC rows are ColumnarRows views
     private long executionMillis;
     private int updateCount = -1;   // >= 0 when the statement was an UPDATE/INSERT/DELETE/DDL
     private String message;
@@ -0,0 +1,279 @@
+package com.roze.dbnavigator.ui;
+
+import com.roze.dbnavigator.ui.CompletionService.Kind;
+import com.roze.dbnavigator.ui.CompletionService.Suggestion;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An immutable, prebuilt dictionary of completion candidates for one
+ * console scope (a connection's database, or one table's columns).
+ *
+ * Completion used to walk every table, column and sequence list per
+ * keystroke, lower-casing each name as it went — on a schema with tens of
+ * thousands of columns that made the popup visibly lag. Here every name is
+ * lower-cased once, at build time, and the entries are sorted by kind and
+ * then by that lower-cased name, so:
+ * <ul>
+ *   <li>prefix matches are a binary search plus a walk over exactly the
+ *       matching run of each kind;</li>
+ *   <li>camel-hump/word-initial matches ("coi" → customer_order_id,
+ *       "cusOrd" → customerOrderDate) are checked only within the run of
+ *       names sharing the token's first letter;</li>
+ *   <li>substring matches ("order" → sales_order_line) come from a trigram
+ *       index: only the names containing the token's rarest trigram are
+ *       checked.</li>
+ * </ul>
+ * Matches are ranked as they are found into a fixed-size top list (see
+ * {@link Ranker}), so a lookup allocates nothing per candidate.
+ */
+final class CompletionIndex {
+
+    /** Match quality, best first — the most significant part of a ranking score. */
+    static final int EXACT = 4, PREFIX = 3, HUMP = 2, SUBSTRING = 1;
+
+    /**
+     * Scores a match; higher is better, negative means "not in this context".
+     * {@code lowered} is the candidate's lower-cased name, for lookups such
+     * as usage counts without building a copy.
+     */
+    @FunctionalInterface
+    interface Ranker {
+        long score(Suggestion candidate, String lowered, int matchQuality);
+    }
+
+    private static final Kind[] KINDS = Kind.values();
+
+    private final Suggestion[] entries;
+    private final String[] lowered;
+    /** Bit i set when a word starts at character i (see {@link #wordStarts}); words past 64 chars aren't split. */
+    private final long[] words;
+    /** Per kind ordinal: [start, end) of that kind's entries. */
+    private final int[] kindStart = new int[KINDS.length];
+    private final int[] kindEnd = new int[KINDS.length];
+    /** Packed trigram → ids of the entries whose lower-cased name contains it, ascending. */
+    private final Map<Long, int[]> trigrams;
+
+    CompletionIndex(List<Suggestion> candidates) {
+        int n = candidates.size();
+        Suggestion[] all = candidates.toArray(new Suggestion[0]);
+        String[] lower = new String[n];
+        for (int i = 0; i < n; i++) lower[i] = all[i].text().toLowerCase(Locale.ROOT);
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) order[i] = i;
+        Arrays.sort(order, Comparator.<Integer>comparingInt(i -> all[i].kind().ordinal())
+                .thenComparing(i -> lower[i]));
+
+        entries = new Suggestion[n];
+        lowered = new String[n];
+        words = new long[n];
+        for (int i = 0; i < n; i++) {
+            entries[i] = all[order[i]];
+            lowered[i] = lower[order[i]];
+            words[i] = wordStarts(entries[i].text());
+        }
+        for (Kind kind : KINDS) {
+            kindStart[kind.ordinal()] = lowerBound(0, n, kind.ordinal(), "");
+            kindEnd[kind.ordinal()] = lowerBound(0, n, kind.ordinal() + 1, "");
+        }
+        trigrams = buildTrigrams();
+    }
+
+    boolean isEmpty() {
+        return entries.length == 0;
+    }
+
+    private Map<Long, int[]> buildTrigrams() {
+        Map<Long, Postings> building = new HashMap<>();
+        for (int id = 0; id < lowered.length; id++) {
+            String name = lowered[id];
+            for (int i = 0; i + 3 <= name.length(); i++) {
+                building.computeIfAbsent(pack(name, i), g -> new Postings()).add(id);
+            }
+        }
+        Map<Long, int[]> result = new HashMap<>(building.size() * 4 / 3 + 1);
+        building.forEach((gram, postings) -> result.put(gram, Arrays.copyOf(postings.ids, postings.size)));
+        return result;
+    }
+
+    /** A growable id list; ids arrive ascending, so a repeat is always the last one. */
+    private static final class Postings {
+        int[] ids = new int[4];
+        int size;
+
+        void add(int id) {
+            if (size > 0 && ids[size - 1] == id) return;
+            if (size == ids.length) ids = Arrays.copyOf(ids, size * 2);
+            ids[size++] = id;
+        }
+    }
+
+    private static long pack(String s, int i) {
+        return ((long) s.charAt(i) << 32) | ((long) s.charAt(i + 1) << 16) | s.charAt(i + 2);
+    }
+
+    /** First index in [from, to) whose (kind, lowered name) is not less than (kind, prefix). */
+    private int lowerBound(int from, int to, int kind, String prefix) {
+        int lo = from, hi = to;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            int k = entries[mid].kind().ordinal();
+            int cmp = k != kind ? Integer.compare(k, kind) : lowered[mid].compareTo(prefix);
+            if (cmp < 0) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    /**
+     * Offers every entry of the given kinds matching {@code token} (already
+     * lower-cased) to {@code top}, scored by {@code ranker}. An empty token
+     * matches every entry as a prefix match.
+     */
+    void search(String token, Set<Kind> kinds, Ranker ranker, Top top) {
+        if (entries.length == 0) return;
+        String first = token.isEmpty() ? "" : token.substring(0, 1);
+        for (Kind kind : kinds) {
+            int start = kindStart[kind.ordinal()];
+            int end = kindEnd[kind.ordinal()];
+            if (start == end) continue;
+            // The run of names sharing the token's first letter holds every
+            // prefix and camel-hump match of this kind.
+            for (int i = lowerBound(start, end, kind.ordinal(), first); i < end; i++) {
+                String name = lowered[i];
+                if (!name.startsWith(first)) break;
+                int quality = runQuality(i, token);
+                if (quality > 0) offer(i, quality, ranker, top);
+            }
+        }
+        if (token.length() >= 3) searchSubstrings(token, kinds, ranker, top);
+    }
+
+    /** Prefix or camel-hump quality of entry {@code id}, or 0 — what the first-letter run scores it. */
+    private int runQuality(int id, String token) {
+        String name = lowered[id];
+        if (name.startsWith(token)) return name.length() == token.length() ? EXACT : PREFIX;
+        return humpMatch(name, words[id], token) ? HUMP : 0;
+    }
+
+    private void searchSubstrings(String token, Set<Kind> kinds, Ranker ranker, Top top) {
+        int[] rarest = null;
+        for (int i = 0; i + 3 <= token.length(); i++) {
+            int[] postings = trigrams.get(pack(token, i));
+            if (postings == null) return;                       // some trigram occurs nowhere
+            if (rarest == null || postings.length < rarest.length) rarest = postings;
+        }
+        char first = token.charAt(0);
+        for (int id : rarest) {
+            String name = lowered[id];
+            if (!kinds.contains(entries[id].kind()) || !name.contains(token)) continue;
+            // Already offered by the first-letter run; "o_order" wasn't, though it starts with 'o'.
+            if (name.charAt(0) == first && runQuality(id, token) > 0) continue;
+            offer(id, SUBSTRING, ranker, top);
+        }
+    }
+
+    private void offer(int id, int quality, Ranker ranker, Top top) {
+        long score = ranker.score(entries[id], lowered[id], quality);
+        if (score >= 0) top.offer(entries[id], score);
+    }
+
+    /**
+     * Where the name's words start, as a bit mask: at its first character,
+     * after '_' or '$', at a lower-to-upper case change and where digits
+     * begin ("customer_order_id", "customerOrderId" and "order2" all split).
+     */
+    static long wordStarts(String name) {
+        long mask = name.isEmpty() ? 0 : 1;
+        for (int i = 1; i < Math.min(name.length(), 64); i++) {
+            char c = name.charAt(i);
+            char p = name.charAt(i - 1);
+            if (c == '_' || c == '$') continue;
+            if (p == '_' || p == '$'
+                    || (Character.isLowerCase(p) && Character.isUpperCase(c))
+                    || (!Character.isDigit(p) && Character.isDigit(c))) {
+                mask |= 1L << i;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Whether {@code token} can be read as prefixes of the name's words in
+     * order, starting with the first word. Later words may be skipped: "cid"
+     * matches customer_order_id.
+     */
+    static boolean humpMatch(String lowered, long wordStarts, String token) {
+        return humpFrom(lowered, wordStarts, token, 0, 0);
+    }
+
+    private static boolean humpFrom(String lowered, long wordStarts, String token, int t, int word) {
+        // Longest run of token characters matching from this word's start, then shorter ones.
+        int max = 0;
+        while (t + max < token.length() && word + max < lowered.length()
+                && lowered.charAt(word + max) == token.charAt(t + max)) {
+            max++;
+        }
+        if (t + max == token.length()) return true;
+        for (int k = max; k >= 1; k--) {
+            char wanted = token.charAt(t + k);
+            // Word starts after this one (a shift by 64 would wrap to 0).
+            long later = word == 63 ? 0 : wordStarts & (-1L << (word + 1));
+            for (long rest = later; rest != 0; rest &= rest - 1) {
+                int next = Long.numberOfTrailingZeros(rest);
+                if (lowered.charAt(next) == wanted && humpFrom(lowered, wordStarts, token, t + k, next)) return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The best {@code limit} suggestions offered so far, one per name
+     * (case-insensitively — the better-scored spelling wins), best first;
+     * equal scores keep the order they were offered in.
+     */
+    static final class Top {
+        private final Suggestion[] items;
+        private final long[] scores;
+        private int size;
+
+        Top(int limit) {
+            items = new Suggestion[limit];
+            scores = new long[limit];
+        }
+
+        void offer(Suggestion suggestion, long score) {
+            if (size == items.length && score <= scores[size - 1]) return;
+            for (int i = 0; i < size; i++) {
+                if (items[i].text().equalsIgnoreCase(suggestion.text())) {
+                    if (scores[i] >= score) return;
+                    System.arraycopy(items, i + 1, items, i, size - i - 1);
+                    System.arraycopy(scores, i + 1, scores, i, size - i - 1);
+                    size--;
+                    break;
+                }
+            }
+            int at = size == items.length ? size - 1 : size++;
+            while (at > 0 && scores[at - 1] < score) {
+                items[at] = items[at - 1];
+                scores[at] = scores[at - 1];
+                at--;
+            }
+            items[at] = suggestion;
+            scores[at] = score;
+        }
+
+        List<Suggestion> toList() {
+            List<Suggestion> result = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) result.add(items[i]);
+            return result;
+        }
+    }
+}
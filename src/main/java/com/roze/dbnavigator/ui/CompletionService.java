@@ -1,16 +1,21 @@
 package com.roze.dbnavigator.ui;
 
+import com.roze.dbnavigator.db.MetadataCache;
 import com.roze.dbnavigator.db.MetadataService;
+import com.roze.dbnavigator.db.QueryHistoryStore;
 import com.roze.dbnavigator.model.ConnectionProfile;
 import com.roze.dbnavigator.util.AppExecutor;
+import javafx.application.Platform;
 
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 /**
  * DataGrip-style contextual completion:
@@ -19,10 +24,16 @@ import java.util.concurrent.ConcurrentHashMap;
  *   after SELECT / WHERE / ON / SET …  → columns first
  *   "tableName."                       → that table's columns
  * Each suggestion carries a kind + description so the popup can color it.
+ *
+ * suggest() runs on the FX thread while the user types, so it never waits
+ * for the database: a table's columns it doesn't have yet are fetched in the
+ * background and a {@link Kind#LOADING} row stands in for them until the
+ * caller's callback asks it to suggest again.
  */
 public final class CompletionService {
 
-    public enum Kind { KEYWORD, TABLE, COLUMN, SEQUENCE }
+    /** LOADING marks a placeholder row shown while columns are fetched — not something to insert. */
+    public enum Kind { KEYWORD, TABLE, COLUMN, SEQUENCE, LOADING }
 
     /** What the previous word tells us the user is about to type. */
     public enum Context { ANY, TABLES, COLUMNS, SEQUENCES }
@@ -89,15 +100,53 @@ public final class CompletionService {
 
     private static final int MAX_SUGGESTIONS = 20;
 
-    /** cacheKey = profileId::catalog */
-    private static final Map<String, List<String>> tableCache = new ConcurrentHashMap<>();
-    private static final Map<String, List<String>> allColumnsCache = new ConcurrentHashMap<>();
-    private static final Map<String, List<String>> sequenceCache = new ConcurrentHashMap<>();
+    /**
+     * cacheKey = profileId::catalog → that database's tables, columns,
+     * sequences and the dialect's keywords. Holds just the keywords while
+     * the names are still loading.
+     */
+    private static final Map<String, CompletionIndex> indexes = new ConcurrentHashMap<>();
     /** cacheKey = profileId::catalog::table */
-    private static final Map<String, List<String>> columnCache = new ConcurrentHashMap<>();
+    private static final Map<String, CompletionIndex> columnCache = new ConcurrentHashMap<>();
+    /**
+     * cacheKey = profileId::catalog::table → the callbacks to run once its
+     * columns arrive. Present exactly while that table's fetch is running,
+     * which makes it the single-flight guard: a second ask while it runs
+     * only adds its callback.
+     */
+    private static final Map<String, Set<Runnable>> columnFetches = new ConcurrentHashMap<>();
+    /**
+     * cacheKey → System.nanoTime() of its last failed fetch. Failures aren't
+     * cached as "no columns"; for a short while the table just offers none
+     * instead of "loading…", so a waiter re-asking right away doesn't spin on
+     * a server that is down, and after that the next ask tries again.
+     */
+    private static final Map<String, Long> failedColumnFetches = new ConcurrentHashMap<>();
+    private static final long RETRY_FAILED_NANOS = TimeUnit.SECONDS.toNanos(10);
+    private static final CompletionIndex NO_COLUMNS = new CompletionIndex(List.of());
+    private static final Map<ConnectionProfile.DatabaseType, CompletionIndex> keywordIndexes =
+            new ConcurrentHashMap<>();
+
+    static {
+        // When the on-disk metadata of any of a connection's databases is
+        // dropped (DDL detected, or a Refresh), drop the connection's copies
+        // here too; the next suggest() rebuilds them from MetadataCache's fresh
+        // answers, so it's cheaper than working out which keys were affected.
+        MetadataCache.addChangeListener((profile, catalog, detected) -> forget(profile));
+    }
 
     private CompletionService() {}
 
+    private static void forget(ConnectionProfile profile) {
+        String prefix = profile.getId() + "::";
+        indexes.keySet().removeIf(k -> k.startsWith(prefix));
+        columnCache.keySet().removeIf(k -> k.startsWith(prefix));
+        // A fetch still running was asked before the change; dropping its
+        // entry keeps its answer out of the cache (see fetchColumns).
+        columnFetches.keySet().removeIf(k -> k.startsWith(prefix));
+        failedColumnFetches.keySet().removeIf(k -> k.startsWith(prefix));
+    }
+
     private static String key(ConnectionProfile profile, String catalog) {
         return profile.getId() + "::" + (catalog == null ? "" : catalog);
     }
@@ -105,23 +154,46 @@ public final class CompletionService {
     /** Kick off background loading of table, column, and sequence names for a console. */
     public static void preload(ConnectionProfile profile, String catalog) {
         String key = key(profile, catalog);
-        if (tableCache.containsKey(key)) return;
-        tableCache.put(key, List.of());        // marker so we only load once
-        allColumnsCache.put(key, List.of());
-        sequenceCache.put(key, List.of());
+        CompletionIndex keywordsOnly = keywordIndex(profile.getType());
+        if (indexes.putIfAbsent(key, keywordsOnly) != null) return;   // loaded, or loading
         AppExecutor.run(() -> {
-            tableCache.put(key, MetadataService.listAllTables(profile, catalog));
-            allColumnsCache.put(key, MetadataService.listAllColumns(profile, catalog));
-            sequenceCache.put(key, MetadataService.listAllSequences(profile, catalog));
+            List<Suggestion> candidates = new ArrayList<>(keywordSuggestions(profile.getType()));
+            for (String table : MetadataService.listAllTables(profile, catalog)) {
+                candidates.add(new Suggestion(table, Kind.TABLE, "table"));
+            }
+            for (String column : MetadataService.listAllColumns(profile, catalog)) {
+                candidates.add(new Suggestion(column, Kind.COLUMN, "column"));
+            }
+            for (String sequence : MetadataService.listAllSequences(profile, catalog)) {
+                candidates.add(new Suggestion(sequence, Kind.SEQUENCE, "sequence"));
+            }
+            // Only if nobody forgot this key meanwhile — else these names may be stale.
+            indexes.replace(key, keywordsOnly, new CompletionIndex(candidates));
         });
     }
 
     /** Used by "Invalidate Caches" — forces every table/column cache to reload on next use. */
     public static void clearAllCaches() {
-        tableCache.clear();
-        allColumnsCache.clear();
-        sequenceCache.clear();
+        indexes.clear();
         columnCache.clear();
+        columnFetches.clear();
+        failedColumnFetches.clear();
+    }
+
+    private static CompletionIndex keywordIndex(ConnectionProfile.DatabaseType type) {
+        return keywordIndexes.computeIfAbsent(type, t -> new CompletionIndex(keywordSuggestions(t)));
+    }
+
+    private static List<Suggestion> keywordSuggestions(ConnectionProfile.DatabaseType type) {
+        List<Suggestion> keywords = new ArrayList<>();
+        for (String keyword : KEYWORDS) keywords.add(new Suggestion(keyword, Kind.KEYWORD, "keyword"));
+        if (type == ConnectionProfile.DatabaseType.SQLSERVER) {
+            for (String keyword : SQLSERVER_KEYWORDS) keywords.add(new Suggestion(keyword, Kind.KEYWORD, "T-SQL"));
+        }
+        if (type == ConnectionProfile.DatabaseType.ORACLE) {
+            for (String keyword : ORACLE_KEYWORDS) keywords.add(new Suggestion(keyword, Kind.KEYWORD, "PL/SQL"));
+        }
+        return keywords;
     }
 
     /**
@@ -129,13 +201,28 @@ public final class CompletionService {
      * Empty tokens are allowed when the context already narrows the answer
      * (e.g. right after "FROM " every table is a valid suggestion).
      *
-     * @param fullText the console's entire SQL text, used to resolve a table
+     * Ranking, most significant first: how well the name matches (exact,
+     * prefix, camel-hump, substring), whether it belongs to a table the
+     * statement already references, its kind's relevance in this context,
+     * how often it appears in the connection's query history, and shorter
+     * names before longer ones.
+     *
+     * @param fullText the SQL statement being edited, used to resolve a table
      *                 alias (e.g. "b." after "FROM bcharge b") to its real
-     *                 table's columns — not just a literal table name.
+     *                 table's columns — not just a literal table name. Every
+     *                 table it references has its columns fetched ahead, so
+     *                 they're ready by the time "alias." is typed.
+     * @param onColumnsLoaded run on the FX thread when columns this answer
+     *                 had to leave out (showing a LOADING row instead) have
+     *                 arrived; the caller should ask again.
      */
-    public static List<Suggestion> suggest(ConnectionProfile profile, String catalog,
-                                           String fullText, String token, Context context) {
+    public static List<Suggestion> suggest(ConnectionProfile profile, String catalog, String fullText,
+                                           String token, Context context, Runnable onColumnsLoaded) {
         if (token == null) token = "";
+        Map<String, Integer> usage = QueryHistoryStore.identifierCounts(profile.getId());
+
+        List<String> referenced = com.roze.dbnavigator.util.SqlAliases.referencedTables(fullText);
+        for (String table : referenced) columnsOf(profile, catalog, table, null);   // prefetch only
 
         // "users.na" or "b.na" (alias) → columns of the real table
         int dot = token.lastIndexOf('.');
@@ -145,12 +232,14 @@ public final class CompletionService {
             String resolvedTable = com.roze.dbnavigator.util.SqlAliases.resolve(fullText)
                     .getOrDefault(aliasOrTable.toLowerCase(Locale.ROOT), aliasOrTable);
 
+            CompletionIndex columns = columnsOf(profile, catalog, resolvedTable, onColumnsLoaded);
+            if (columns == null) return List.of(loading(resolvedTable));
+            CompletionIndex.Top top = new CompletionIndex.Top(MAX_SUGGESTIONS);
+            columns.search(prefix, EnumSet.of(Kind.COLUMN),
+                    (s, lowered, quality) -> score(quality, 1, 1, usage, lowered), top);
             List<Suggestion> matches = new ArrayList<>();
-            for (String col : columnsOf(profile, catalog, resolvedTable)) {
-                if (col.toLowerCase(Locale.ROOT).startsWith(prefix)) {
-                    matches.add(new Suggestion(aliasOrTable + "." + col, Kind.COLUMN, "column of " + resolvedTable));
-                    if (matches.size() >= MAX_SUGGESTIONS) break;
-                }
+            for (Suggestion column : top.toList()) {
+                matches.add(new Suggestion(aliasOrTable + "." + column.text(), Kind.COLUMN, column.detail()));
             }
             return matches;
         }
@@ -158,118 +247,122 @@ public final class CompletionService {
         if (token.isBlank() && context == Context.ANY) return List.of();
 
         String prefix = token.toLowerCase(Locale.ROOT);
-        List<Suggestion> matches = new ArrayList<>();
+        boolean blank = prefix.isBlank();
+        Set<Kind> kinds = switch (context) {
+            case TABLES -> EnumSet.of(Kind.TABLE, Kind.KEYWORD);          // e.g. FROM (SELECT …
+            case COLUMNS -> EnumSet.of(Kind.COLUMN, Kind.KEYWORD);
+            case SEQUENCES -> EnumSet.of(Kind.SEQUENCE, Kind.KEYWORD);
+            case ANY -> EnumSet.allOf(Kind.class);
+        };
+        if (blank) kinds.remove(Kind.KEYWORD);                              // don't flood with all keywords
 
-        switch (context) {
-            case TABLES -> {
-                addTables(profile, catalog, prefix, matches);
-                addKeywords(profile, prefix, matches);      // e.g. FROM (SELECT …
-            }
-            case COLUMNS -> {
-                addScopedColumns(profile, catalog, fullText, prefix, matches);
-                addKeywords(profile, prefix, matches);
-            }
-            case SEQUENCES -> {
-                addSequences(profile, catalog, prefix, matches);
-                addKeywords(profile, prefix, matches);
-            }
-            case ANY -> {
-                addTables(profile, catalog, prefix, matches);
-                addScopedColumns(profile, catalog, fullText, prefix, matches);
-                addSequences(profile, catalog, prefix, matches);
-                addKeywords(profile, prefix, matches);
-            }
-        }
-        return matches;
-    }
+        Set<String> inScope = new HashSet<>();
+        for (String table : referenced) inScope.add(table.toLowerCase(Locale.ROOT));
 
-    private static void addTables(ConnectionProfile profile, String catalog,
-                                  String prefix, List<Suggestion> matches) {
-        for (String table : tableCache.getOrDefault(key(profile, catalog), List.of())) {
-            if (matches.size() >= MAX_SUGGESTIONS) return;
-            if (table.toLowerCase(Locale.ROOT).startsWith(prefix) && notPresent(matches, table)) {
-                matches.add(new Suggestion(table, Kind.TABLE, "table"));
-            }
+        CompletionIndex.Top top = new CompletionIndex.Top(MAX_SUGGESTIONS);
+        CompletionIndex index = indexes.get(key(profile, catalog));
+        if (index == null) {
+            preload(profile, catalog);                                      // forgotten after a schema change
+            index = keywordIndex(profile.getType());
         }
-    }
+        index.search(prefix, kinds, (s, lowered, quality) -> score(quality,
+                s.kind() == Kind.TABLE && inScope.contains(lowered) ? 1 : 0,
+                kindWeight(context, s.kind()), usage, lowered), top);
 
-    private static void addScopedColumns(ConnectionProfile profile, String catalog,
-                                         String fullText, String prefix, List<Suggestion> matches) {
-        Set<String> seenColumns = new HashSet<>();
-        List<String> tables = com.roze.dbnavigator.util.SqlAliases.referencedTables(fullText);
-        if (!tables.isEmpty()) {
-            // Prefer columns from tables already referenced in the query.
-            for (String table : tables) {
-                for (String col : columnsOf(profile, catalog, table)) {
-                    if (matches.size() >= MAX_SUGGESTIONS) return;
-                    if (col.toLowerCase(Locale.ROOT).startsWith(prefix)) {
-                        String text = col;
-                        if (notPresent(matches, text) && seenColumns.add(text.toLowerCase(Locale.ROOT))) {
-                            matches.add(new Suggestion(text, Kind.COLUMN, "column of " + table));
-                        }
-                    }
+        String pending = null;
+        if (kinds.contains(Kind.COLUMN)) {
+            // Columns of tables the statement already references outrank
+            // same-named columns elsewhere; the top list keeps the better one.
+            for (String table : referenced) {
+                CompletionIndex columns = columnsOf(profile, catalog, table, onColumnsLoaded);
+                if (columns == null) {
+                    if (pending == null) pending = table;
+                    continue;
                 }
+                columns.search(prefix, EnumSet.of(Kind.COLUMN),
+                        (s, lowered, quality) -> score(quality, 1, kindWeight(context, Kind.COLUMN), usage, lowered),
+                        top);
             }
         }
-        addColumns(profile, catalog, prefix, matches);
+        List<Suggestion> result = top.toList();
+        if (pending != null) result.add(loading(pending));
+        return result;
     }
 
-    private static void addColumns(ConnectionProfile profile, String catalog,
-                                   String prefix, List<Suggestion> matches) {
-        for (String column : allColumnsCache.getOrDefault(key(profile, catalog), List.of())) {
-            if (matches.size() >= MAX_SUGGESTIONS) return;
-            if (column.toLowerCase(Locale.ROOT).startsWith(prefix) && notPresent(matches, column)) {
-                matches.add(new Suggestion(column, Kind.COLUMN, "column"));
-            }
-        }
+    private static Suggestion loading(String table) {
+        return new Suggestion("loading…", Kind.LOADING, "columns of " + table);
     }
 
-    private static void addSequences(ConnectionProfile profile, String catalog,
-                                     String prefix, List<Suggestion> matches) {
-        for (String sequence : sequenceCache.getOrDefault(key(profile, catalog), List.of())) {
-            if (matches.size() >= MAX_SUGGESTIONS) return;
-            if (sequence.toLowerCase(Locale.ROOT).startsWith(prefix) && notPresent(matches, sequence)) {
-                matches.add(new Suggestion(sequence, Kind.SEQUENCE, "sequence"));
-            }
-        }
-    }
-
-    private static void addKeywords(ConnectionProfile profile, String prefix, List<Suggestion> matches) {
-        if (prefix.isBlank()) return;              // don't flood with all keywords
-        for (String keyword : KEYWORDS) {
-            if (matches.size() >= MAX_SUGGESTIONS) return;
-            if (keyword.toLowerCase(Locale.ROOT).startsWith(prefix) && notPresent(matches, keyword)) {
-                matches.add(new Suggestion(keyword, Kind.KEYWORD, "keyword"));
-            }
-        }
-        if (profile.getType() == ConnectionProfile.DatabaseType.SQLSERVER) {
-            for (String keyword : SQLSERVER_KEYWORDS) {
-                if (matches.size() >= MAX_SUGGESTIONS) return;
-                if (keyword.toLowerCase(Locale.ROOT).startsWith(prefix) && notPresent(matches, keyword)) {
-                    matches.add(new Suggestion(keyword, Kind.KEYWORD, "T-SQL"));
-                }
-            }
-        }
-        if (profile.getType() == ConnectionProfile.DatabaseType.ORACLE) {
-            for (String keyword : ORACLE_KEYWORDS) {
-                if (matches.size() >= MAX_SUGGESTIONS) return;
-                if (keyword.toLowerCase(Locale.ROOT).startsWith(prefix) && notPresent(matches, keyword)) {
-                    matches.add(new Suggestion(keyword, Kind.KEYWORD, "PL/SQL"));
-                }
-            }
-        }
+    private static int kindWeight(Context context, Kind kind) {
+        return switch (kind) {
+            case TABLE -> context == Context.ANY ? 4 : 3;
+            case COLUMN -> 3;
+            case SEQUENCE -> context == Context.ANY ? 2 : 3;
+            case KEYWORD, LOADING -> 1;
+        };
     }
 
-    private static boolean notPresent(List<Suggestion> matches, String text) {
-        return matches.stream().noneMatch(s -> s.text().equalsIgnoreCase(text));
+    /** Packs the ranking criteria, most significant first, into one comparable number. */
+    private static long score(int quality, int inScope, int kindWeight, Map<String, Integer> usage, String lowered) {
+        long used = Math.min(usage.getOrDefault(lowered, 0), 0xFFFF);
+        long shortness = 0xFFFF - Math.min(lowered.length(), 0xFFFF);
+        return ((long) quality << 40) | ((long) inScope << 36) | ((long) kindWeight << 32) | (used << 16) | shortness;
     }
 
-    private static List<String> columnsOf(ConnectionProfile profile, String catalog, String table) {
+    /**
+     * The table's columns if they're here; otherwise null, after making sure
+     * they're being fetched and that {@code onLoaded} (if any) runs when they
+     * arrive.
+     */
+    private static CompletionIndex columnsOf(ConnectionProfile profile, String catalog, String table,
+                                             Runnable onLoaded) {
         String cacheKey = key(profile, catalog) + "::" + table.toLowerCase(Locale.ROOT);
-        List<String> cached = columnCache.get(cacheKey);
+        CompletionIndex cached = columnCache.get(cacheKey);
         if (cached != null) return cached;
-        List<String> columns = MetadataService.listColumns(profile, catalog, table);
-        columnCache.put(cacheKey, columns);
-        return columns;
+        Long failedAt = failedColumnFetches.get(cacheKey);
+        if (failedAt != null && System.nanoTime() - failedAt < RETRY_FAILED_NANOS) return NO_COLUMNS;
+        Set<Runnable> fresh = new HashSet<>();
+        // Checked again under the entry's lock: a fetch finishing in between
+        // publishes its columns and removes the entry under that same lock.
+        Set<Runnable> waiting = columnFetches.compute(cacheKey, (k, callbacks) -> {
+            if (columnCache.containsKey(k)) return callbacks;
+            if (callbacks == null) callbacks = fresh;
+            if (onLoaded != null) callbacks.add(onLoaded);
+            return callbacks;
+        });
+        if (waiting == null) return columnCache.get(cacheKey);
+        if (waiting == fresh) AppExecutor.run(() -> fetchColumns(profile, catalog, table, cacheKey, fresh));
+        return null;
+    }
+
+    private static void fetchColumns(ConnectionProfile profile, String catalog, String table,
+                                     String cacheKey, Set<Runnable> fetch) {
+        CompletionIndex index = null;
+        try {
+            List<String> names = MetadataService.listColumns(profile, catalog, table);
+            if (names != null) {
+                List<Suggestion> columns = new ArrayList<>();
+                for (String column : names) columns.add(new Suggestion(column, Kind.COLUMN, "column of " + table));
+                index = new CompletionIndex(columns);
+            }
+        } finally {
+            // Even if the fetch threw: a leftover entry would make every later
+            // ask just wait on it, showing "loading…" for good.
+            CompletionIndex loaded = index;
+            columnFetches.computeIfPresent(cacheKey, (k, current) -> {
+                if (current != fetch) return current;   // forgotten meanwhile, and maybe asked for again
+                if (loaded != null) {
+                    columnCache.put(k, loaded);
+                    failedColumnFetches.remove(k);
+                } else {
+                    failedColumnFetches.put(k, System.nanoTime());
+                }
+                return null;
+            });
+            // Out of the map either way now, so nobody adds to it any more. If it
+            // was forgotten, its waiters asking again start a fresh fetch.
+            List<Runnable> callbacks = List.copyOf(fetch);
+            if (!callbacks.isEmpty()) Platform.runLater(() -> callbacks.forEach(Runnable::run));
+        }
     }
 }
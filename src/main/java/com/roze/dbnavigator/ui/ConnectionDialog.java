@@ -72,6 +72,15 @@ public class ConnectionDialog extends Dialog<ConnectionProfile> {
     private final Label oracleConnectStringLabel = fieldLabel("TNS Descriptor:");
     private java.util.List<javafx.scene.Node> oracleOnlyNodes;
 
+    // Connection pool — relational engines only (MongoDB's driver pools on its own).
+    private final Spinner<Integer> poolMaxSpinner = new Spinner<>(1, 200, 10);
+    private final Spinner<Integer> poolMinIdleSpinner = new Spinner<>(0, 200, 2);
+    private final Spinner<Integer> poolBudgetSpinner = new Spinner<>(0, 10_000, 30, 5);
+    private final Spinner<Integer> poolIdleCloseSpinner = new Spinner<>(0, 1_440, 5);
+    private final Spinner<Integer> poolMaxDatabasePoolsSpinner = new Spinner<>(1, 500, 8);
+    private final CheckBox poolPrewarmCheck = new CheckBox("Pre-warm pools of the databases shown in the tree");
+    private java.util.List<javafx.scene.Node> poolNodes;
+
     public ConnectionDialog(ConnectionProfile existing) {
         this.profile = existing != null ? existing.copy() : new ConnectionProfile();
         DialogTheme.apply(this);
@@ -100,6 +109,17 @@ public class ConnectionDialog extends Dialog<ConnectionProfile> {
         passwordField.setText(profile.getPassword());
         savePasswordCheck.setSelected(profile.isSavePassword());
         sslCheck.setSelected(profile.isUseSsl());
+        poolMaxSpinner.getValueFactory().setValue(profile.getPoolMaxSize());
+        poolMinIdleSpinner.getValueFactory().setValue(profile.getPoolMinIdle());
+        poolBudgetSpinner.getValueFactory().setValue(profile.getPoolConnectionBudget());
+        poolIdleCloseSpinner.getValueFactory().setValue(profile.getPoolIdleCloseMinutes());
+        poolMaxDatabasePoolsSpinner.getValueFactory().setValue(profile.getPoolMaxDatabasePools());
+        poolPrewarmCheck.setSelected(profile.isPoolPrewarm());
+        for (Spinner<Integer> spinner : java.util.List.of(poolMaxSpinner, poolMinIdleSpinner, poolBudgetSpinner,
+                poolIdleCloseSpinner, poolMaxDatabasePoolsSpinner)) {
+            spinner.setEditable(true);
+            spinner.setPrefWidth(100);
+        }
 
         // ---- MongoDB-only fields ----
         mongoDefaultToggle.setToggleGroup(mongoConnTypeGroup);
@@ -288,6 +308,33 @@ public class ConnectionDialog extends Dialog<ConnectionProfile> {
         oracleOnlyNodes = java.util.List.of(oracleConnTypeLabel, oracleConnTypeBox,
                 oracleSidLabel, oracleSidField, oracleConnectStringLabel, oracleConnectStringField);
 
+        // ---- "Connection pool" section ----
+        GridPane poolGrid = sectionGrid();
+        row = 0;
+        poolGrid.add(fieldLabel("Max per database:"), 0, row);
+        poolGrid.add(poolMaxSpinner, 1, row++);
+        poolGrid.add(fieldLabel("Min idle:"), 0, row);
+        poolGrid.add(poolMinIdleSpinner, 1, row++);
+        poolGrid.add(fieldLabel("Total budget:"), 0, row);
+        poolGrid.add(poolBudgetSpinner, 1, row++);
+        poolGrid.add(fieldLabel("Open database pools:"), 0, row);
+        poolGrid.add(poolMaxDatabasePoolsSpinner, 1, row++);
+        poolGrid.add(fieldLabel("Close unused after (min):"), 0, row);
+        poolGrid.add(poolIdleCloseSpinner, 1, row++);
+        poolGrid.add(poolPrewarmCheck, 1, row++, 2, 1);
+        Label poolHint = new Label("Each database browsed under this connection gets its own pool of up to "
+                + "\"Max per database\" connections; \"Total budget\" caps all of them together (0 = no cap). "
+                + "Min idle applies to the connection's own database. Pools of other databases close when "
+                + "unused for the given minutes (0 = never) or when more than \"Open database pools\" are open, "
+                + "and reopen on next use.");
+        poolHint.getStyleClass().add("console-status");
+        poolHint.setWrapText(true);
+        poolHint.setMinWidth(0);
+        poolGrid.add(poolHint, 0, row, 3, 1);
+        Separator poolSeparator = new Separator();
+        Label poolSectionLabel = sectionLabel("Connection pool");
+        poolNodes = java.util.List.of(poolSeparator, poolSectionLabel, poolGrid);
+
         Button testButton = new Button("Test Connection");
         testButton.getStyleClass().add("run-button");
         testButton.setGraphic(Icons.of(FontAwesomeSolid.PLUG, "#57965c", 12));
@@ -302,6 +349,7 @@ public class ConnectionDialog extends Dialog<ConnectionProfile> {
         VBox body = new VBox(4,
                 sectionLabel("General"), generalGrid,
                 new Separator(), sectionLabel("Connection"), connGrid,
+                poolSeparator, poolSectionLabel, poolGrid,
                 testBox);
         body.setPadding(new Insets(4, 20, 16, 20));
 
@@ -410,6 +458,12 @@ public class ConnectionDialog extends Dialog<ConnectionProfile> {
         updateSqlitePathHint();
         updateMongoFieldsVisibility();
         updateOracleFieldsVisibility();
+        if (poolNodes != null) {
+            for (javafx.scene.Node node : poolNodes) {
+                node.setVisible(!mongo);
+                node.setManaged(!mongo);
+            }
+        }
 
         // Only overwrite the port if the user hasn't customized it
         try {
@@ -539,6 +593,12 @@ public class ConnectionDialog extends Dialog<ConnectionProfile> {
         p.setPassword(passwordField.getText());
         p.setSavePassword(savePasswordCheck.isSelected());
         p.setUseSsl(sslCheck.isSelected());
+        p.setPoolMaxSize(poolMaxSpinner.getValue());
+        p.setPoolMinIdle(poolMinIdleSpinner.getValue());
+        p.setPoolConnectionBudget(poolBudgetSpinner.getValue());
+        p.setPoolIdleCloseMinutes(poolIdleCloseSpinner.getValue());
+        p.setPoolMaxDatabasePools(poolMaxDatabasePoolsSpinner.getValue());
+        p.setPoolPrewarm(poolPrewarmCheck.isSelected());
         if (typeCombo.getValue() == DatabaseType.MONGODB) {
             Toggle selected = mongoConnTypeGroup.getSelectedToggle();
             p.setMongoConnectionType(selected == null
@@ -1,6 +1,7 @@
 package com.roze.dbnavigator.ui;
 
 import com.roze.dbnavigator.db.MetadataService;
+import com.roze.dbnavigator.db.SchemaGraph;
 import com.roze.dbnavigator.model.ConnectionProfile;
 import com.roze.dbnavigator.model.DbObject;
 import com.roze.dbnavigator.util.AppExecutor;
@@ -143,13 +144,11 @@ public class DatabaseDiagramTab extends Tab {
                     return an.compareToIgnoreCase(bn);
                 });
 
+                // Same graph loadDatabaseTables just built: no query per table.
+                SchemaGraph graph = SchemaGraph.of(profile, catalog);
                 Map<DbObject, List<MetadataService.ColumnInfo>> columnsByTable = new LinkedHashMap<>();
                 for (DbObject table : tables) {
-                    try {
-                        columnsByTable.put(table, MetadataService.loadColumnInfo(profile, table));
-                    } catch (Exception ignored) {
-                        columnsByTable.put(table, List.of());
-                    }
+                    columnsByTable.put(table, graph.columns(table.getSchema(), table.getName()));
                 }
 
                 List<MetadataService.ForeignKey> relationships =
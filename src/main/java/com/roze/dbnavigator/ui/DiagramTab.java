@@ -1,6 +1,7 @@
 package com.roze.dbnavigator.ui;
 
 import com.roze.dbnavigator.db.MetadataService;
+import com.roze.dbnavigator.db.SchemaGraph;
 import com.roze.dbnavigator.model.ConnectionProfile;
 import com.roze.dbnavigator.model.DbObject;
 import com.roze.dbnavigator.util.AppExecutor;
@@ -23,6 +24,7 @@ import javafx.scene.transform.Scale;
 import org.kordamp.ikonli.fontawesome5.FontAwesomeSolid;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -136,27 +138,40 @@ public class DiagramTab extends Tab {
 
         AppExecutor.run(() -> {
             try {
-                List<MetadataService.ColumnInfo> rootColumns = MetadataService.loadColumnInfo(profile, rootTable);
+                // Columns and keys of every table involved come from the
+                // database's schema graph rather than a metadata round trip
+                // per related table; a later diagram on the same database
+                // costs no queries at all.
+                SchemaGraph graph = SchemaGraph.of(profile, rootTable.getCatalog());
+                List<MetadataService.ColumnInfo> rootColumns =
+                        graph.columns(rootTable.getSchema(), rootTable.getName());
                 List<MetadataService.ForeignKey> relationships =
-                        MetadataService.loadRelatedForeignKeys(profile, rootTable);
+                        graph.foreignKeysOf(rootTable.getSchema(), rootTable.getName());
 
                 // Split into "parents" (tables this one references) and
                 // "children" (tables that reference this one), each capped.
                 Set<String> parentNames = new LinkedHashSet<>();
                 Set<String> childNames = new LinkedHashSet<>();
+                Map<String, String> schemaOf = new HashMap<>();
                 for (MetadataService.ForeignKey fk : relationships) {
                     if (fk.fromTable().equalsIgnoreCase(rootTable.getName())) {
                         parentNames.add(fk.toTable());
+                        schemaOf.putIfAbsent(fk.toTable(), fk.toSchema());
                     } else {
                         childNames.add(fk.fromTable());
+                        schemaOf.putIfAbsent(fk.fromTable(), fk.fromSchema());
                     }
                 }
                 trimTo(parentNames, MAX_RELATED_TABLES / 2 + 1);
                 trimTo(childNames, MAX_RELATED_TABLES / 2 + 1);
 
                 Map<String, List<MetadataService.ColumnInfo>> relatedColumns = new LinkedHashMap<>();
-                for (String name : parentNames) loadIfAbsent(relatedColumns, name);
-                for (String name : childNames) loadIfAbsent(relatedColumns, name);
+                for (String name : parentNames) {
+                    relatedColumns.putIfAbsent(name, graph.columns(schemaOf.get(name), name));
+                }
+                for (String name : childNames) {
+                    relatedColumns.putIfAbsent(name, graph.columns(schemaOf.get(name), name));
+                }
 
                 Platform.runLater(() -> render(rootColumns, relatedColumns, parentNames, childNames, relationships));
             } catch (Exception ex) {
@@ -166,16 +181,6 @@ public class DiagramTab extends Tab {
         });
     }
 
-    private void loadIfAbsent(Map<String, List<MetadataService.ColumnInfo>> map, String tableName) {
-        if (map.containsKey(tableName)) return;
-        try {
-            DbObject ref = new DbObject(tableName, DbObject.Kind.TABLE, rootTable.getCatalog(), rootTable.getSchema());
-            map.put(tableName, MetadataService.loadColumnInfo(profile, ref));
-        } catch (Exception ignored) {
-            map.put(tableName, List.of());
-        }
-    }
-
     private static void trimTo(Set<String> set, int max) {
         if (set.size() <= max) return;
         List<String> asList = new ArrayList<>(set);
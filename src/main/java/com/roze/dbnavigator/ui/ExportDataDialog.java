@@ -1,11 +1,12 @@
 package com.roze.dbnavigator.ui;
 
+import com.roze.dbnavigator.db.ClientRegistry;
 import com.roze.dbnavigator.model.ConnectionProfile;
 import com.roze.dbnavigator.model.DbObject;
 import com.roze.dbnavigator.model.QueryResult;
 import com.roze.dbnavigator.util.AppExecutor;
 import com.roze.dbnavigator.util.DataExporters;
-import com.roze.dbnavigator.util.XlsxWriter;
+import com.roze.dbnavigator.util.RowSink;
 import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
@@ -20,6 +21,7 @@ import javafx.stage.Stage;
 import javafx.stage.Window;
 
 import java.io.File;
+import java.io.OutputStream;
 
 /**
  * DataGrip-style "Export Data" dialog: pick an extractor format, see a live
@@ -127,13 +129,17 @@ public final class ExportDataDialog {
         DataExporters.Format format = extractorCombo.getValue();
         if (DataExporters.isBinary(format)) {
             previewArea.setText("(binary format — no text preview; use Export to File)");
-            rowCountLabel.setText(result.getRows().size() + " row(s) will be exported");
+            rowCountLabel.setText(streamsWholeTable()
+                    ? "All rows of the table will be exported"
+                    : result.getRows().size() + " row(s) will be exported");
             return;
         }
         String qualifiedTable = table != null ? table.qualifiedName() : "table";
         int previewLimit = Math.min(50, result.getRows().size());
         previewArea.setText(DataExporters.render(format, sliced(previewLimit), qualifiedTable, previewLimit));
-        rowCountLabel.setText(result.getRows().size() + " row(s) total"
+        rowCountLabel.setText((streamsWholeTable()
+                ? "Export to File streams all rows of the table"
+                : result.getRows().size() + " row(s) total")
                 + (result.getRows().size() > previewLimit ? " — preview shows first " + previewLimit : ""));
     }
 
@@ -170,17 +176,22 @@ public final class ExportDataDialog {
         if (file == null) return;
 
         stage.close();
+        String qualifiedTable = table != null ? table.qualifiedName() : "table";
         AppExecutor.run(() -> {
-            try {
-                if (format == DataExporters.Format.EXCEL) {
-                    XlsxWriter.write(file, result.getColumns(), result.getRows());
+            try (OutputStream out = java.nio.file.Files.newOutputStream(file.toPath())) {
+                RowSink sink = DataExporters.sink(format, out, qualifiedTable);
+                long exported;
+                if (streamsWholeTable()) {
+                    // The preview result is capped (see SchemaTreePane), but a
+                    // file export streams the complete table off a live cursor.
+                    exported = ClientRegistry.jdbc(profile, table.getCatalog())
+                            .stream("SELECT * FROM " + qualifiedTable, null, sink);
                 } else {
-                    String qualifiedTable = table != null ? table.qualifiedName() : "table";
-                    String text = DataExporters.render(format, result, qualifiedTable, result.getRows().size());
-                    java.nio.file.Files.writeString(file.toPath(), text, java.nio.charset.StandardCharsets.UTF_8);
+                    DataExporters.feed(sink, result, 0);
+                    exported = result.getRows().size();
                 }
                 Platform.runLater(() -> DialogTheme.apply(new Alert(Alert.AlertType.INFORMATION,
-                        "Exported " + result.getRows().size() + " row(s) to " + file.getName())).showAndWait());
+                        "Exported " + exported + " row(s) to " + file.getName())).showAndWait());
             } catch (Exception ex) {
                 Platform.runLater(() -> DialogTheme.apply(new Alert(Alert.AlertType.ERROR,
                         "Export failed: " + ex.getMessage())).showAndWait());
@@ -188,6 +199,10 @@ public final class ExportDataDialog {
         });
     }
 
+    private boolean streamsWholeTable() {
+        return table != null && profile.getType() != ConnectionProfile.DatabaseType.MONGODB;
+    }
+
     private static String defaultExtension(DataExporters.Format format) {
         return switch (format) {
             case EXCEL -> ".xlsx";
@@ -195,6 +210,7 @@ public final class ExportDataDialog {
             case TSV -> ".tsv";
             case PIPE, SEMICOLON -> ".txt";
             case SQL_INSERTS, SQL_UPDATES, WHERE_CLAUSE -> ".sql";
+            case JSON -> ".json";
         };
     }
 }
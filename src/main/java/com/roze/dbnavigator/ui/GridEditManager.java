@@ -11,7 +11,9 @@ import javafx.scene.control.Button;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -26,11 +28,29 @@ import java.util.function.Consumer;
  * Values are bound as typed PreparedStatement parameters (via SqlValueBinder)
  * rather than pasted into SQL text, so dates, booleans, numerics, binary data
  * and quoting-hostile strings all round-trip correctly.
+ *
+ * Submit sends changes by shape rather than one statement each: edits are
+ * merged per row, rows with the same set of edited columns share one
+ * prepared UPDATE run as a JDBC batch, and deletes go out as
+ * DELETE ... WHERE pk IN (...) in chunks — so pasting into 5,000 cells or
+ * deleting 10,000 rows is a handful of round trips.
  */
 public class GridEditManager {
 
     private record Update(Map<String, String> pkValues, String column, String newValue) {}
 
+    /** Edited columns of one row, merged from its pending Updates. */
+    private record RowUpdate(Map<String, String> pkValues, Map<String, String> values) {}
+
+    /** One UPDATE statement shape (its SET columns) and the rows it is run for. */
+    private record UpdateBatch(List<String> columns, List<RowUpdate> rows) {}
+
+    /**
+     * Bound parameters per DELETE ... IN (...) statement: under both SQL
+     * Server's 2,100-parameter limit and Oracle's 1,000-item IN-list limit.
+     */
+    private static final int DELETE_CHUNK_PARAMETERS = 1_000;
+
     /** Sentinel JDBC types for PostgreSQL's physical row identity columns. */
     private static final int CTID_PSEUDO_TYPE = Integer.MIN_VALUE;
     private static final int TABLEOID_PSEUDO_TYPE = Integer.MIN_VALUE + 1;
@@ -190,30 +210,23 @@ public class GridEditManager {
         AppExecutor.run(() -> {
             try (Connection conn = ClientRegistry.jdbc(profile, catalog).getConnection()) {
                 conn.setAutoCommit(false);
+                long[] updated;
+                long[] deleted;
                 try {
-                    for (Update update : updatesToApply) {
-                        try (PreparedStatement stmt = conn.prepareStatement(buildUpdateSql(update))) {
-                            int index = 1;
-                            index = bindValue(stmt, index, update.column(), update.newValue());
-                            bindWhereClause(stmt, index, update.pkValues());
-                            stmt.executeUpdate();
-                        }
-                    }
-                    for (Map<String, String> pkValues : deletesToApply) {
-                        try (PreparedStatement stmt = conn.prepareStatement(buildDeleteSql(pkValues))) {
-                            bindWhereClause(stmt, 1, pkValues);
-                            stmt.executeUpdate();
-                        }
-                    }
+                    updated = applyUpdates(conn, updatesToApply);
+                    deleted = applyDeletes(conn, deletesToApply);
                     conn.commit();
                 } catch (Exception inner) {
                     conn.rollback();
                     throw inner;
                 }
+                long unmatched = updated[1] + deleted[1];
                 Platform.runLater(() -> {
                     clearPending();
                     status.accept("✓ " + updatesToApply.size() + " update(s), "
-                            + deletesToApply.size() + " delete(s) committed");
+                            + deletesToApply.size() + " delete(s) committed — "
+                            + (updated[0] + deleted[0]) + " row(s) affected"
+                            + (unmatched > 0 ? "; " + unmatched + " change(s) matched no row" : ""));
                     reloader.run();
                 });
             } catch (Exception ex) {
@@ -226,43 +239,159 @@ public class GridEditManager {
         });
     }
 
+    /** Runs every UPDATE batch; returns {rows affected, row updates that matched nothing}. */
+    private long[] applyUpdates(Connection conn, List<Update> updates) throws SQLException {
+        long affected = 0;
+        long unmatched = 0;
+        for (UpdateBatch batch : planUpdates(updates)) {
+            String sql = buildUpdateSql(batch.columns(), batch.rows().get(0).pkValues());
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                for (RowUpdate row : batch.rows()) {
+                    int index = 1;
+                    for (String column : batch.columns()) {
+                        index = bindValue(stmt, index, column, row.values().get(column));
+                    }
+                    bindWhereClause(stmt, index, row.pkValues());
+                    stmt.addBatch();
+                }
+                for (int count : stmt.executeBatch()) {
+                    if (count > 0) affected += count;
+                    else if (count == 0) unmatched++;
+                    // SUCCESS_NO_INFO: the driver didn't say — count as done
+                }
+            }
+        }
+        return new long[]{affected, unmatched};
+    }
+
+    /**
+     * Groups pending edits into UPDATE batches. Normally every row's edits
+     * are merged (last value per column wins) and rows are grouped by their
+     * set of edited columns. If a primary-key column itself was edited, later
+     * edits of that row were recorded against its new key, so submission
+     * order matters: then only consecutive edits of the same column share a
+     * batch.
+     */
+    private List<UpdateBatch> planUpdates(List<Update> updates) {
+        List<UpdateBatch> batches = new ArrayList<>();
+        boolean pkEdited = updates.stream()
+                .anyMatch(u -> pkColumns.stream().anyMatch(pk -> pk.equalsIgnoreCase(u.column())));
+        if (pkEdited) {
+            for (Update update : updates) {
+                UpdateBatch last = batches.isEmpty() ? null : batches.get(batches.size() - 1);
+                if (last == null || !last.columns().get(0).equals(update.column())) {
+                    last = new UpdateBatch(List.of(update.column()), new ArrayList<>());
+                    batches.add(last);
+                }
+                last.rows().add(new RowUpdate(update.pkValues(),
+                        Collections.singletonMap(update.column(), update.newValue())));
+            }
+            return batches;
+        }
+
+        Map<Map<String, String>, Map<String, String>> byRow = new LinkedHashMap<>();
+        for (Update update : updates) {
+            byRow.computeIfAbsent(update.pkValues(), k -> new LinkedHashMap<>())
+                    .put(update.column(), update.newValue());
+        }
+        Map<List<String>, UpdateBatch> byShape = new LinkedHashMap<>();
+        for (var row : byRow.entrySet()) {
+            List<String> columns = new ArrayList<>(row.getValue().keySet());
+            Collections.sort(columns);
+            byShape.computeIfAbsent(columns, c -> new UpdateBatch(c, new ArrayList<>()))
+                    .rows().add(new RowUpdate(row.getKey(), row.getValue()));
+        }
+        batches.addAll(byShape.values());
+        return batches;
+    }
+
+    /**
+     * Deletes in chunks of DELETE ... WHERE pk IN (...), reusing one prepared
+     * statement for every full chunk. Returns {rows deleted, rows not found}.
+     */
+    private long[] applyDeletes(Connection conn, List<Map<String, String>> deletes) throws SQLException {
+        if (deletes.isEmpty()) return new long[2];
+        List<String> keys = new ArrayList<>(deletes.get(0).keySet());
+        int chunk = Math.max(1, DELETE_CHUNK_PARAMETERS / keys.size());
+        long affected = 0;
+        long unmatched = 0;
+        PreparedStatement fullChunk = null;
+        try {
+            for (int from = 0; from < deletes.size(); from += chunk) {
+                List<Map<String, String>> rows = deletes.subList(from, Math.min(deletes.size(), from + chunk));
+                boolean full = rows.size() == chunk;
+                if (full && fullChunk == null) fullChunk = conn.prepareStatement(buildDeleteSql(keys, chunk));
+                PreparedStatement stmt = full ? fullChunk : conn.prepareStatement(buildDeleteSql(keys, rows.size()));
+                try {
+                    int index = 1;
+                    for (Map<String, String> pkValues : rows) index = bindWhereClause(stmt, index, pkValues);
+                    int count = stmt.executeUpdate();
+                    affected += count;
+                    unmatched += Math.max(0, rows.size() - count);
+                } finally {
+                    if (!full) stmt.close();
+                }
+            }
+        } finally {
+            if (fullChunk != null) fullChunk.close();
+        }
+        return new long[]{affected, unmatched};
+    }
+
     // ------------------------------------------------------ SQL + binding
 
-    private String buildUpdateSql(Update update) {
+    private String buildUpdateSql(List<String> columns, Map<String, String> pkValues) {
         return "UPDATE " + qualifiedTable
-                + " SET " + DbObject.quote(update.column()) + " = ?"
-                + " WHERE " + whereSql(update.pkValues());
+                + " SET " + String.join(", ", columns.stream().map(c -> DbObject.quote(c) + " = ?").toList())
+                + " WHERE " + whereSql(pkValues.keySet());
     }
 
-    private String buildDeleteSql(Map<String, String> pkValues) {
-        return "DELETE FROM " + qualifiedTable + " WHERE " + whereSql(pkValues);
+    /**
+     * DELETE for {@code rows} rows at once: {@code pk IN (?, ?, ...)} for a
+     * single-column key, OR-ed per-row conditions for a composite one (row
+     * value IN lists aren't available on SQL Server).
+     */
+    private String buildDeleteSql(List<String> keys, int rows) {
+        StringBuilder sb = new StringBuilder("DELETE FROM ").append(qualifiedTable).append(" WHERE ");
+        if (keys.size() == 1) {
+            String placeholder = placeholder(keys.get(0));
+            sb.append(DbObject.quote(keys.get(0))).append(" IN (");
+            for (int i = 0; i < rows; i++) sb.append(i == 0 ? "" : ", ").append(placeholder);
+            return sb.append(')').toString();
+        }
+        String condition = "(" + whereSql(keys) + ")";
+        for (int i = 0; i < rows; i++) sb.append(i == 0 ? "" : " OR ").append(condition);
+        return sb.toString();
     }
 
-    private String whereSql(Map<String, String> pkValues) {
+    private String whereSql(Iterable<String> pkColumns) {
         StringBuilder sb = new StringBuilder();
         boolean first = true;
-        for (String column : pkValues.keySet()) {
+        for (String column : pkColumns) {
             if (!first) sb.append(" AND ");
-            sb.append(DbObject.quote(column));
-            int type = typeOf(column);
-            sb.append(type == CTID_PSEUDO_TYPE ? " = ?::tid"
-                    : type == TABLEOID_PSEUDO_TYPE ? " = ?::oid" : " = ?");
+            sb.append(DbObject.quote(column)).append(" = ").append(placeholder(column));
             first = false;
         }
         return sb.toString();
     }
 
+    /** Parameter marker for a pk column — PostgreSQL's row identity columns need a cast. */
+    private String placeholder(String column) {
+        int type = typeOf(column);
+        return type == CTID_PSEUDO_TYPE ? "?::tid" : type == TABLEOID_PSEUDO_TYPE ? "?::oid" : "?";
+    }
+
     /** Binds the SET value for an UPDATE; returns the next free parameter index. */
     private int bindValue(PreparedStatement stmt, int index, String column, String value)
-            throws java.sql.SQLException {
+            throws SQLException {
         Integer type = columnTypes.get(column);
         SqlValueBinder.bind(stmt, index, type, value);
         return index + 1;
     }
 
-    /** Binds every pk parameter of a WHERE clause built by {@link #whereSql}. */
-    private void bindWhereClause(PreparedStatement stmt, int startIndex, Map<String, String> pkValues)
-            throws java.sql.SQLException {
+    /** Binds every pk parameter of one row's WHERE condition; returns the next free parameter index. */
+    private int bindWhereClause(PreparedStatement stmt, int startIndex, Map<String, String> pkValues)
+            throws SQLException {
         int index = startIndex;
         for (var pk : pkValues.entrySet()) {
             int type = typeOf(pk.getKey());
@@ -273,6 +402,7 @@ public class GridEditManager {
             }
             index++;
         }
+        return index;
     }
 
     private int typeOf(String column) {
@@ -45,6 +45,7 @@ public final class Icons {
                     ? of(FontAwesomeSolid.KEY, "#e0a44c", 11)
                     : of(FontAwesomeSolid.CODE, "#6897bb", 11);
             case MESSAGE    -> of(FontAwesomeSolid.INFO_CIRCLE, "#868a91", 11);
+            case LOAD_MORE  -> of(FontAwesomeSolid.ELLIPSIS_H, "#6897bb", 11);
         };
     }
 }
@@ -1,6 +1,8 @@
 package com.roze.dbnavigator.ui;
 
 import com.roze.dbnavigator.db.LocalHistoryStore;
+import com.roze.dbnavigator.db.MetadataCache;
+import com.roze.dbnavigator.db.MongoSchemaSampler;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
@@ -51,6 +53,9 @@ public final class InvalidateCachesDialog {
         optionalLabel.getStyleClass().add("panel-header");
 
         CheckBox clearFsCache = new CheckBox("Clear file system cache and Local History");
+        CheckBox clearMetadata = new CheckBox("Clear cached database metadata");
+        clearMetadata.setTooltip(new Tooltip("Tables, columns, keys, indexes and routines kept on disk "
+                + "between runs — reloaded from each server on next use"));
         CheckBox clearVcsLog = new CheckBox("Clear VCS Log caches and indexes");
         clearVcsLog.setDisable(true);
         clearVcsLog.setTooltip(new Tooltip("Not applicable — this app has no VCS integration"));
@@ -62,7 +67,7 @@ public final class InvalidateCachesDialog {
         browserHint.getStyleClass().add("console-status");
         browserHint.setWrapText(true);
 
-        VBox checks = new VBox(8, clearFsCache, clearVcsLog, clearBrowserCache, browserHint);
+        VBox checks = new VBox(8, clearFsCache, clearMetadata, clearVcsLog, clearBrowserCache, browserHint);
         checks.setPadding(new Insets(4, 0, 0, 0));
 
         VBox content = new VBox(14, message, optionalLabel, checks);
@@ -87,8 +92,14 @@ public final class InvalidateCachesDialog {
             if (clearFsCache.isSelected()) {
                 LocalHistoryStore.clearAll();
                 CompletionService.clearAllCaches();
+                MongoSchemaSampler.clearAll();
                 cleared.add("file system cache and Local History");
             }
+            if (clearMetadata.isSelected()) {
+                MetadataCache.clearAll();
+                CompletionService.clearAllCaches();
+                cleared.add("cached database metadata");
+            }
             tellPersonToRestart(owner, cleared);
         });
 
@@ -100,7 +111,7 @@ public final class InvalidateCachesDialog {
 
         VBox root = new VBox(content, buttons);
         root.getStyleClass().add("app-root");
-        Scene scene = new Scene(root, 560, 320);
+        Scene scene = new Scene(root, 560, 350);
         if (owner != null && owner.getScene() != null) {
             scene.getStylesheets().addAll(owner.getScene().getStylesheets());
         }
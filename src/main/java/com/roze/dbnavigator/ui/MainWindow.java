@@ -3,6 +3,7 @@ package com.roze.dbnavigator.ui;
 import com.roze.dbnavigator.db.ClientRegistry;
 import com.roze.dbnavigator.db.ConnectionStore;
 import com.roze.dbnavigator.db.LocalHistoryStore;
+import com.roze.dbnavigator.db.MetadataCache;
 import com.roze.dbnavigator.db.MetadataService;
 import com.roze.dbnavigator.db.SessionStore;
 import com.roze.dbnavigator.model.ConnectionProfile;
@@ -113,7 +114,7 @@ public class MainWindow {
 
     /** Lets dialogs outside SchemaTreePane (e.g. after modifying a database) trigger a reload. */
     public void refreshSchemaExplorer() {
-        schemaPane.reload();
+        schemaPane.refreshAll();
     }
 
     /**
@@ -231,7 +232,7 @@ public class MainWindow {
 
         // ---- View ----
         MenuItem refreshExplorer = new MenuItem("Refresh Database Explorer");
-        refreshExplorer.setOnAction(e -> schemaPane.reload());
+        refreshExplorer.setOnAction(e -> schemaPane.refreshAll());
         MenuItem toggleRunPanel = new MenuItem("Run Tool Window");
         toggleRunPanel.setOnAction(e -> {
             if (runPanelVisible) hideRunPanel(); else showRunPanel();
@@ -415,7 +416,7 @@ public class MainWindow {
         MenuItem dataSources = new MenuItem("Data Sources…");
         dataSources.setOnAction(e -> showNewConnectionDialog());
         MenuItem refresh = new MenuItem("Refresh Database Explorer");
-        refresh.setOnAction(e -> schemaPane.reload());
+        refresh.setOnAction(e -> schemaPane.refreshAll());
         settingsMenu.getItems().addAll(openSettings, openPlugins, new SeparatorMenuItem(),
                 themeMenu, new SeparatorMenuItem(), dataSources, refresh);
         settingsButton.setOnAction(e ->
@@ -504,6 +505,7 @@ public class MainWindow {
     public void showEditConnectionDialog(ConnectionProfile existing) {
         new ConnectionDialog(existing).showAndWait().ifPresent(profile -> {
             ClientRegistry.disconnect(profile);   // force reconnect with new settings
+            MetadataCache.invalidate(profile);    // may now point at another server
             connectAndSave(profile);
         });
     }
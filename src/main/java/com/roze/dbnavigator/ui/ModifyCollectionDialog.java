@@ -194,13 +194,13 @@ public final class ModifyCollectionDialog {
         AppExecutor.run(() -> {
             try {
                 List<MongoDbClient.FieldInfo> fields = ClientRegistry.mongo(profile)
-                        .inferFields(collection.getCatalog(), collection.getName(), 100);
+                        .inferFields(collection.getCatalog(), collection.getName());
                 Platform.runLater(() -> {
                     fieldsBox.getChildren().clear();
                     for (MongoDbClient.FieldInfo field : fields) {
                         Label name = new Label(field.name());
                         name.setPrefWidth(220);
-                        Label type = new Label(field.type());
+                        Label type = new Label(field.detail());
                         type.getStyleClass().add("console-status");
                         HBox row = new HBox(10, name, type);
                         row.setAlignment(Pos.CENTER_LEFT);
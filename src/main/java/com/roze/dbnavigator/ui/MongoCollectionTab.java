@@ -1,6 +1,9 @@
 package com.roze.dbnavigator.ui;
 
+import com.roze.dbnavigator.db.AppSettingsStore;
 import com.roze.dbnavigator.db.ClientRegistry;
+import com.roze.dbnavigator.db.MongoCount;
+import com.roze.dbnavigator.db.MongoPagedCursor;
 import com.roze.dbnavigator.model.ConnectionProfile;
 import com.roze.dbnavigator.model.DbObject;
 import com.roze.dbnavigator.model.QueryResult;
@@ -42,8 +45,14 @@ public class MongoCollectionTab extends Tab {
 
     private int page = 0;
     private long totalDocs = -1;
+    private boolean totalEstimated;
+    /** Rows on the page currently shown, for redrawing the pager label when the count lands. */
+    private int shownRows = -1;
+    private Runnable cancelCount = () -> {};
     private String sortField;
     private String sortDirection;   // "ASC", "DESC", or null
+    /** The current filter/sort's open server cursor; replaced whenever either changes. */
+    private MongoPagedCursor cursor;
 
     public MongoCollectionTab(ConnectionProfile profile, DbObject collection) {
         this.profile = profile;
@@ -59,11 +68,17 @@ public class MongoCollectionTab extends Tab {
             reloadFromStart();
         });
 
+        grid.setColumnVisibilityListener(hidden -> {
+            if (cursor == null) return;
+            cursor.exclude(hidden);
+            loadPage(false);
+        });
+
         submitButton.getStyleClass().add("run-button");
         submitButton.setGraphic(Icons.of(FontAwesomeSolid.CHECK, "#ffffff", 11));
         revertButton.setGraphic(Icons.of(FontAwesomeSolid.UNDO, "#a9b7c6", 11));
         editManager = new MongoGridEditManager(profile, grid,
-                submitButton, revertButton, this::loadPage, statusLabel::setText);
+                submitButton, revertButton, () -> loadPage(true), statusLabel::setText);
 
         filterField.setPromptText("Filter JSON, e.g. {\"status\": \"active\", \"age\": {\"$gt\": 21}}");
         HBox.setHgrow(filterField, Priority.ALWAYS);
@@ -83,9 +98,9 @@ public class MongoCollectionTab extends Tab {
         exportButton.getItems().addAll(exportCsv, exportJson);
 
         prevButton.setGraphic(Icons.of(FontAwesomeSolid.CHEVRON_LEFT, "#a9b7c6", 11));
-        prevButton.setOnAction(e -> { if (page > 0) { page--; loadPage(); } });
+        prevButton.setOnAction(e -> { if (page > 0) { page--; loadPage(false); } });
         nextButton.setGraphic(Icons.of(FontAwesomeSolid.CHEVRON_RIGHT, "#a9b7c6", 11));
-        nextButton.setOnAction(e -> { page++; loadPage(); });
+        nextButton.setOnAction(e -> { page++; loadPage(false); });
 
         Region spacer = new Region();
         HBox toolbar = new HBox(8, submitButton, revertButton, new Separator(),
@@ -103,46 +118,97 @@ public class MongoCollectionTab extends Tab {
         VBox root = new VBox(toolbar, grid, statusBar);
         VBox.setVgrow(grid, Priority.ALWAYS);
         setContent(root);
+        setOnClosed(e -> {
+            cancelCount.run();
+            closeCursor();
+        });
 
-        loadPage();
+        reloadFromStart();
     }
 
+    /** New filter or sort: a fresh server cursor, starting over at page 1. */
     private void reloadFromStart() {
         page = 0;
         totalDocs = -1;
-        loadPage();
+        shownRows = -1;
+        closeCursor();
+        AppSettingsStore.Settings settings = AppSettingsStore.load();
+        String filter = filterField.getText().trim();
+        var client = ClientRegistry.mongo(profile);
+        cursor = new MongoPagedCursor(PAGE_SIZE, settings.isMongoRangePaging());
+        cursor.open(client, collection.getCatalog(), collection.getName(),
+                filter, sortField, "DESC".equals(sortDirection));
+        cursor.exclude(grid.getHiddenColumns());
+        loadPage(false);
+        startCount(filter, settings.getMongoCountMaxTimeSeconds() * 1000L);
+    }
+
+    /** Counts next to the first page, filling in "of N" whenever it finishes; sorting doesn't recount. */
+    private void startCount(String filter, long maxTimeMillis) {
+        cancelCount.run();
+        MongoPagedCursor counted = cursor;
+        cancelCount = MongoCount.start(ClientRegistry.mongo(profile), collection.getCatalog(),
+                collection.getName(), filter, maxTimeMillis, total -> Platform.runLater(() -> {
+                    if (counted != cursor || totalDocs >= 0 && !totalEstimated) return;
+                    if (total.value() >= 0) {
+                        totalDocs = total.value();
+                        totalEstimated = total.estimated();
+                        updatePageLabel();
+                    } else if (total.failure() != null) {
+                        statusLabel.setText(statusLabel.getText() + "  (total unknown: " + total.failure() + ")");
+                    }
+                }));
     }
 
-    private void loadPage() {
+    private void updatePageLabel() {
+        if (shownRows < 0) return;
+        long from = (long) page * PAGE_SIZE + 1;
+        long to = from + shownRows - 1;
+        String of = totalDocs < 0 ? "" : totalEstimated ? " of ~" + totalDocs : " of " + totalDocs;
+        pageLabel.setText(shownRows == 0 ? "0 docs" : from + "–" + to + of);
+    }
+
+    private void closeCursor() {
+        if (cursor == null) return;
+        cancelCount.run();
+        MongoPagedCursor old = cursor;
+        cursor = null;
+        AppExecutor.run(old::close);
+    }
+
+    /**
+     * Shows the current page from the open cursor — cached or read on from
+     * where the cursor stands, never re-queried with skip().
+     *
+     * @param refresh re-read the page from the server (after Submit/Revert)
+     */
+    private void loadPage(boolean refresh) {
+        if (cursor == null) return;
         statusLabel.setText("Loading…");
-        String filter = filterField.getText().trim();
         int currentPage = page;
+        MongoPagedCursor pager = cursor;
 
         AppExecutor.run(() -> {
             try {
-                var client = ClientRegistry.mongo(profile);
-                QueryResult result = client.find(collection.getCatalog(), collection.getName(),
-                        filter, sortField, "DESC".equals(sortDirection), currentPage * PAGE_SIZE, PAGE_SIZE);
-                if (totalDocs < 0) {
-                    try {
-                        totalDocs = client.countDocuments(
-                                collection.getCatalog(), collection.getName(), filter);
-                    } catch (Exception ignore) {
-                        totalDocs = -1;
-                    }
-                }
+                QueryResult result = refresh ? pager.refresh(currentPage) : pager.page(currentPage);
+                boolean hasMore = pager.hasMoreAfter(currentPage);
+                long knownTotal = pager.knownTotal();
                 Platform.runLater(() -> {
+                    if (pager != cursor || currentPage != page) return;   // superseded while this page loaded
+                    if (knownTotal >= 0 && (totalDocs < 0 || totalEstimated)) {
+                        // The cursor reached the end: that's the exact total, no count needed.
+                        cancelCount.run();
+                        totalDocs = knownTotal;
+                        totalEstimated = false;
+                    }
                     editManager.configure(collection.getCatalog(), collection.getName(), result);
                     grid.showResult(result);
-                    long from = (long) currentPage * PAGE_SIZE + 1;
-                    long to = from + result.getRows().size() - 1;
-                    pageLabel.setText(result.getRows().isEmpty()
-                            ? "0 docs"
-                            : from + "–" + to + (totalDocs >= 0 ? " of " + totalDocs : ""));
+                    shownRows = result.getRows().size();
+                    updatePageLabel();
                     statusLabel.setText(result.getRows().size() + " document(s) in "
                             + result.getExecutionMillis() + " ms");
                     prevButton.setDisable(currentPage == 0);
-                    nextButton.setDisable(result.getRows().size() < PAGE_SIZE);
+                    nextButton.setDisable(!hasMore);
                 });
             } catch (Exception ex) {
                 String msg = ex.getMessage() == null ? ex.toString() : ex.getMessage();
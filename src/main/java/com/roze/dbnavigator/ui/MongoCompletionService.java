@@ -49,6 +49,7 @@ public final class MongoCompletionService {
             new Suggestion("deleteOne", Kind.METHOD, "db.collection.deleteOne(filter)"),
             new Suggestion("deleteMany", Kind.METHOD, "db.collection.deleteMany(filter)"),
             new Suggestion("countDocuments", Kind.METHOD, "db.collection.countDocuments(filter)"),
+            new Suggestion("aggregate", Kind.METHOD, "db.collection.aggregate([stages], options)"),
             new Suggestion("drop", Kind.METHOD, "db.collection.drop()")
     );
 
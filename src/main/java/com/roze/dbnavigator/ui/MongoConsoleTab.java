@@ -1,7 +1,10 @@
 package com.roze.dbnavigator.ui;
 
+import com.roze.dbnavigator.db.AppSettingsStore;
 import com.roze.dbnavigator.db.ClientRegistry;
+import com.roze.dbnavigator.db.MongoCount;
 import com.roze.dbnavigator.db.MongoDbClient;
+import com.roze.dbnavigator.db.MongoPagedCursor;
 import com.roze.dbnavigator.model.ConnectionProfile;
 import com.roze.dbnavigator.model.QueryResult;
 import com.roze.dbnavigator.util.AppExecutor;
@@ -32,6 +35,9 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * A real MongoDB shell console: {@code use dbname;} and
@@ -47,7 +53,7 @@ import java.util.Optional;
  * semicolon insertion) treats them.
  *
  * Supported methods: findOne, insertOne, insertMany, find, updateOne,
- * updateMany, deleteOne, deleteMany, countDocuments, drop. Arguments are
+ * updateMany, deleteOne, deleteMany, countDocuments, drop, aggregate. Arguments are
  * written the way the real Mongo shell accepts them (unquoted keys, single
  * or double quoted strings) via {@link MongoShellParser}, not strict JSON.
  *
@@ -57,9 +63,16 @@ import java.util.Optional;
  * whichever collection/filter the most recent query used. Running one also
  * switches to the Result tab automatically.
  *
+ * {@code aggregate([stages], options)} streams its output into the same
+ * paged grid from a live cursor, with allowDiskUse and the batch size taken
+ * from Settings unless the options document sets them. Its results are
+ * read-only (a pipeline's documents needn't map back to stored ones), and
+ * Cancel kills the cursor on the server mid-run. A pipeline ending in
+ * {@code $out}/{@code $merge} is just run to completion.
+ *
  * Honest scope note: this covers the common CRUD operations, not the full
  * shell language — no variables, no JS expressions/functions beyond a
- * literal document/array argument, no aggregation pipeline helpers. That
+ * literal document/array argument, no cursor helper chains. That
  * covers what "insert/update/delete/query data" actually needs without
  * building a full JavaScript engine.
  */
@@ -74,6 +87,7 @@ public class MongoConsoleTab extends Tab {
     private final DateTimeFormatter timeFormat = DateTimeFormatter.ofPattern("HH:mm:ss");
     private final Button submitButton = new Button("Submit");
     private final Button revertButton = new Button("Revert");
+    private final Button cancelButton = new Button("Cancel");
     private final TabPane bottomTabs;
     private final Tab resultTab;
 
@@ -82,13 +96,29 @@ public class MongoConsoleTab extends Tab {
     private String lastFindCollection;
     private String lastFindFilter = "{}";
     private boolean lastFindWasSingle;
+    /** Stages of the last aggregate(), or null when the last query was a find()/findOne(). */
+    private List<Document> lastFindPipeline;
+    private boolean lastAggregateAllowDiskUse;
+    private int lastAggregateBatchSize;
     private String sortField;
     private String sortDirection;   // "ASC", "DESC", or null
 
     // ---- find() pagination ----
     private static final int FIND_PAGE_SIZE = 200;
     private int findPage = 0;
-    private long findTotalDocs = -1;
+    private volatile long findTotalDocs = -1;
+    private volatile boolean findTotalEstimated;
+    /** Rows on the find() page currently shown, for redrawing the pager label when the count lands. */
+    private int findShownRows = -1;
+    /** Page the grid is showing, to fall back to when fetching another one is cancelled. */
+    private int findShownPage = 0;
+    /** Bumped by every find() statement, so a count for an earlier one can't land on a newer result. */
+    private final AtomicInteger findGeneration = new AtomicInteger();
+    private volatile Runnable cancelFindCount = () -> {};
+    /** Open server cursor of the last find(); pager clicks read from it instead of re-querying. */
+    private volatile MongoPagedCursor findCursor;
+    /** Grid columns the user hid — projected away server-side (read off the FX thread). */
+    private volatile Set<String> hiddenColumns = Set.of();
     private final Label findPageLabel = new Label();
     private final Button findPrevButton = new Button();
     private final Button findNextButton = new Button();
@@ -118,11 +148,17 @@ public class MongoConsoleTab extends Tab {
         runButton.getStyleClass().add("run-button");
         runButton.setOnAction(e -> runCurrentStatement());
 
+        cancelButton.setGraphic(Icons.of(FontAwesomeSolid.STOP_CIRCLE, "#e05555", 11));
+        cancelButton.setTooltip(new Tooltip("Cancel the running query"));
+        cancelButton.setVisible(false);
+        cancelButton.setManaged(false);
+        cancelButton.setOnAction(e -> cancelRunningQuery());
+
         submitButton.getStyleClass().add("run-button");
         submitButton.setGraphic(Icons.of(FontAwesomeSolid.CHECK, "#ffffff", 11));
         revertButton.setGraphic(Icons.of(FontAwesomeSolid.UNDO, "#a9b7c6", 11));
         editManager = new MongoGridEditManager(profile, resultGrid,
-                submitButton, revertButton, this::rerunLastFind, this::log);
+                submitButton, revertButton, () -> rerunLastFind(false, true), this::log);
 
         MenuButton exportButton = new MenuButton();
         exportButton.setGraphic(Icons.of(FontAwesomeSolid.DOWNLOAD, "#e0a44c", 11));
@@ -133,12 +169,20 @@ public class MongoConsoleTab extends Tab {
         exportJson.setOnAction(e -> resultGrid.exportJson());
         exportButton.getItems().addAll(exportCsv, exportJson);
 
+        resultGrid.setColumnVisibilityListener(hidden -> {
+            hiddenColumns = hidden;
+            MongoPagedCursor pager = findCursor;
+            if (pager == null || lastFindWasSingle) return;
+            pager.exclude(hidden);
+            rerunLastFind(false, false);
+        });
+
         resultGrid.setSortRequestListener((columnName, direction) -> {
             sortField = direction == null ? null : columnName;
             sortDirection = direction;
             resultGrid.setCurrentSort(columnName, direction);
             findPage = 0;
-            rerunLastFind();
+            rerunLastFind(true, false);
         });
 
         dbLabel.getStyleClass().add("console-connection-label");
@@ -146,7 +190,7 @@ public class MongoConsoleTab extends Tab {
 
         Region spacer = new Region();
         HBox.setHgrow(spacer, Priority.ALWAYS);
-        HBox toolbar = new HBox(8, runButton, new Separator(), submitButton, revertButton,
+        HBox toolbar = new HBox(8, runButton, cancelButton, new Separator(), submitButton, revertButton,
                 exportButton, spacer, dbLabel);
         toolbar.setAlignment(Pos.CENTER_LEFT);
         toolbar.setPadding(new Insets(6, 10, 6, 10));
@@ -155,9 +199,9 @@ public class MongoConsoleTab extends Tab {
         outputArea.setEditable(false);
         outputArea.getStyleClass().add("process-output");
         findPrevButton.setGraphic(Icons.of(FontAwesomeSolid.CHEVRON_LEFT, "#a9b7c6", 11));
-        findPrevButton.setOnAction(e -> { if (findPage > 0) { findPage--; rerunLastFind(); } });
+        findPrevButton.setOnAction(e -> { if (findPage > 0) { findPage--; rerunLastFind(false, false); } });
         findNextButton.setGraphic(Icons.of(FontAwesomeSolid.CHEVRON_RIGHT, "#a9b7c6", 11));
-        findNextButton.setOnAction(e -> { findPage++; rerunLastFind(); });
+        findNextButton.setOnAction(e -> { findPage++; rerunLastFind(false, false); });
         findPrevButton.setDisable(true);
         findNextButton.setDisable(true);
         Region resultSpacer = new Region();
@@ -193,6 +237,12 @@ public class MongoConsoleTab extends Tab {
 
         setupStatementHighlighting();
         setupCompletion();
+        setOnClosed(e -> {
+            cancelFindCount.run();
+            MongoPagedCursor running = findCursor;
+            if (running != null) running.cancel();
+            AppExecutor.run(this::closeFindCursor);
+        });
     }
 
     private void updateDbLabel() {
@@ -504,6 +554,7 @@ public class MongoConsoleTab extends Tab {
                     reportCommand(stmt, result.message(), start);
                 }
                 case "find" -> {
+                    lastFindPipeline = null;
                     lastFindDatabase = currentDatabase;
                     lastFindCollection = collection;
                     lastFindFilter = args.isEmpty() ? "{}" : toJson(args, 0);
@@ -511,10 +562,11 @@ public class MongoConsoleTab extends Tab {
                     sortField = null;
                     sortDirection = null;
                     findPage = 0;
-                    findTotalDocs = -1;
-                    showFindResult(start);
+                    startFindCount();
+                    showFindResult(start, true, false);
                 }
                 case "findOne" -> {
+                    lastFindPipeline = null;
                     lastFindDatabase = currentDatabase;
                     lastFindCollection = collection;
                     lastFindFilter = args.isEmpty() ? "{}" : toJson(args, 0);
@@ -522,12 +574,15 @@ public class MongoConsoleTab extends Tab {
                     sortField = null;
                     sortDirection = null;
                     findPage = 0;
+                    findGeneration.incrementAndGet();
+                    cancelFindCount.run();
                     findTotalDocs = -1;
-                    showFindResult(start);
+                    showFindResult(start, true, false);
                 }
+                case "aggregate" -> runAggregate(stmt, client, collection, args, start);
                 default -> Platform.runLater(() -> log("Unsupported method: " + stmt.method()
                         + "  (supported: findOne, insertOne, insertMany, find, updateOne, updateMany, "
-                        + "deleteOne, deleteMany, countDocuments, drop)"));
+                        + "deleteOne, deleteMany, countDocuments, drop, aggregate)"));
             }
         } catch (Exception ex) {
             String msg = ex.getMessage() == null ? ex.toString() : ex.getMessage();
@@ -535,60 +590,191 @@ public class MongoConsoleTab extends Tab {
         }
     }
 
-    /** Re-runs the most recent find()/findOne() — used by both the sort icon and Revert, so both act on fresh data. */
-    private void rerunLastFind() {
+    /**
+     * {@code aggregate([stages], options)}, or the older variadic
+     * {@code aggregate(stage, stage, ...)}. The options document may set
+     * {@code allowDiskUse} and {@code batchSize} (or {@code cursor.batchSize},
+     * as the shell spells it); anything else in it is ignored.
+     */
+    private void runAggregate(MongoShellParser.Statement stmt, MongoDbClient client, String collection,
+                              List<Document> args, long start) {
+        boolean arrayForm = !args.isEmpty() && args.get(0).get("__array__") != null;
+        List<Document> pipeline = arrayForm ? castList(args.get(0).get("__array__")) : args;
+        Document options = arrayForm && args.size() > 1 ? args.get(1) : new Document();
+
+        AppSettingsStore.Settings settings = AppSettingsStore.load();
+        boolean allowDiskUse = options.get("allowDiskUse") instanceof Boolean b ? b : settings.isMongoAggregateAllowDiskUse();
+        int batchSize = settings.getMongoAggregateBatchSize();
+        Object batchOption = options.get("cursor") instanceof Document cursorOptions
+                ? cursorOptions.get("batchSize") : options.get("batchSize");
+        if (batchOption instanceof Number n && n.intValue() > 0) batchSize = n.intValue();
+
+        if (!pipeline.isEmpty()) {
+            Document last = pipeline.get(pipeline.size() - 1);
+            if (last.containsKey("$out") || last.containsKey("$merge")) {
+                var result = client.aggregateToCollection(currentDatabase, collection, pipeline, allowDiskUse);
+                reportCommand(stmt, result.message(), start);
+                return;
+            }
+        }
+
+        lastFindPipeline = pipeline;
+        lastAggregateAllowDiskUse = allowDiskUse;
+        lastAggregateBatchSize = batchSize;
+        lastFindDatabase = currentDatabase;
+        lastFindCollection = collection;
+        lastFindFilter = "{}";
+        lastFindWasSingle = false;
+        sortField = null;
+        sortDirection = null;
+        findPage = 0;
+        // No count: the total is whatever the pipeline yields, known once the cursor reaches the end.
+        findGeneration.incrementAndGet();
+        cancelFindCount.run();
+        findTotalDocs = -1;
+        findTotalEstimated = false;
+        showFindResult(start, true, false);
+    }
+
+    /**
+     * Shows the most recent find()/findOne()/aggregate() again — used by the pager, the
+     * sort icon and Submit/Revert.
+     *
+     * @param reopen  start a new server cursor (the sort changed)
+     * @param refresh re-read the current page from the server (after edits)
+     */
+    private void rerunLastFind(boolean reopen, boolean refresh) {
         if (lastFindCollection == null) return;
-        AppExecutor.run(() -> showFindResult(System.currentTimeMillis()));
+        AppExecutor.run(() -> showFindResult(System.currentTimeMillis(), reopen, refresh));
     }
 
-    private void showFindResult(long start) {
+    private void showFindResult(long start, boolean reopen, boolean refresh) {
         MongoDbClient client = ClientRegistry.mongo(profile);
+        List<Document> pipeline = lastFindPipeline;
+        String method = lastFindWasSingle ? "findOne" : pipeline != null ? "aggregate" : "find";
+        if (!lastFindWasSingle) Platform.runLater(() -> setRunningState(true));   // findOne has no cursor to cancel
         try {
             QueryResult result;
+            boolean hasMore = false;
             if (lastFindWasSingle) {
+                closeFindCursor();
                 result = client.findOne(lastFindDatabase, lastFindCollection, lastFindFilter);
             } else {
-                result = client.find(lastFindDatabase, lastFindCollection, lastFindFilter,
-                        sortField, "DESC".equals(sortDirection), findPage * FIND_PAGE_SIZE, FIND_PAGE_SIZE);
-                if (findTotalDocs < 0) {
-                    try {
-                        findTotalDocs = client.countDocuments(lastFindDatabase, lastFindCollection, lastFindFilter);
-                    } catch (Exception ignore) {
-                        findTotalDocs = -1;
+                MongoPagedCursor pager = findCursor;
+                if (reopen || pager == null) {
+                    closeFindCursor();
+                    pager = new MongoPagedCursor(FIND_PAGE_SIZE, AppSettingsStore.load().isMongoRangePaging());
+                    if (pipeline != null) {
+                        pager.openAggregate(client, lastFindDatabase, lastFindCollection, pipeline,
+                                lastAggregateAllowDiskUse, lastAggregateBatchSize,
+                                sortField, "DESC".equals(sortDirection));
+                    } else {
+                        pager.open(client, lastFindDatabase, lastFindCollection, lastFindFilter,
+                                sortField, "DESC".equals(sortDirection));
                     }
+                    pager.exclude(hiddenColumns);
+                    findCursor = pager;
+                }
+                result = refresh ? pager.refresh(findPage) : pager.page(findPage);
+                hasMore = pager.hasMoreAfter(findPage);
+                if (pager.knownTotal() >= 0 && (findTotalDocs < 0 || findTotalEstimated)) {
+                    // The cursor reached the end: that's the exact total, no count needed.
+                    cancelFindCount.run();
+                    findTotalDocs = pager.knownTotal();
+                    findTotalEstimated = false;
                 }
             }
             QueryResult finalResult = result;
+            boolean finalHasMore = hasMore;
             Platform.runLater(() -> {
                 resultGrid.setCurrentSort(sortField, sortDirection);
-                editManager.configure(lastFindDatabase, lastFindCollection, finalResult);
+                // Aggregation output is read-only: its documents needn't exist in the collection.
+                editManager.configure(pipeline == null ? lastFindDatabase : null, lastFindCollection, finalResult);
                 resultGrid.showResult(finalResult);
                 bottomTabs.getSelectionModel().select(resultTab);
-                updateFindPagingUi(finalResult);
-                log("db." + lastFindCollection + "." + (lastFindWasSingle ? "findOne" : "find")
+                updateFindPagingUi(finalResult, finalHasMore);
+                log("db." + lastFindCollection + "." + method
                         + "(...) \u2192 " + finalResult.getRows().size()
                         + " document(s) in " + (System.currentTimeMillis() - start) + " ms");
             });
+        } catch (CancellationException cancelled) {
+            Platform.runLater(() -> {
+                findPage = findShownPage;   // the grid still shows the page from before
+                log("db." + lastFindCollection + "." + method + "(...) cancelled");
+            });
         } catch (Exception ex) {
             String msg = ex.getMessage() == null ? ex.toString() : ex.getMessage();
-            Platform.runLater(() -> log("Error running find(): " + msg));
+            Platform.runLater(() -> log("Error running " + method + "(): " + msg));
+        } finally {
+            Platform.runLater(() -> setRunningState(false));
         }
     }
 
-    private void updateFindPagingUi(QueryResult result) {
+    private void cancelRunningQuery() {
+        MongoPagedCursor pager = findCursor;
+        if (pager == null) return;
+        log("Cancelling\u2026");
+        pager.cancel();
+    }
+
+    private void setRunningState(boolean running) {
+        cancelButton.setVisible(running);
+        cancelButton.setManaged(running);
+    }
+
+    /**
+     * Counts the new find()'s matches next to its first page rather than in
+     * front of it — estimated from metadata for an empty filter, otherwise a
+     * time-limited background count — and fills in "of N" when it lands.
+     * Sorting and paging reuse the total; only a new find() recounts.
+     */
+    private void startFindCount() {
+        cancelFindCount.run();
+        int generation = findGeneration.incrementAndGet();
+        findTotalDocs = -1;
+        findTotalEstimated = false;
+        long maxTimeMillis = AppSettingsStore.load().getMongoCountMaxTimeSeconds() * 1000L;
+        String collection = lastFindCollection;
+        cancelFindCount = MongoCount.start(ClientRegistry.mongo(profile), lastFindDatabase, collection,
+                lastFindFilter, maxTimeMillis, total -> Platform.runLater(() -> {
+                    if (generation != findGeneration.get()) return;
+                    if (findTotalDocs >= 0 && !findTotalEstimated) return;   // the cursor got there first
+                    if (total.value() >= 0) {
+                        findTotalDocs = total.value();
+                        findTotalEstimated = total.estimated();
+                        updateFindPageLabel();
+                    } else if (total.failure() != null) {
+                        log("db." + collection + ".find(...): total unknown \u2014 " + total.failure());
+                    }
+                }));
+    }
+
+    private void closeFindCursor() {
+        MongoPagedCursor open = findCursor;
+        findCursor = null;
+        if (open != null) open.close();
+    }
+
+    private void updateFindPagingUi(QueryResult result, boolean hasMore) {
         if (lastFindWasSingle) {
             findPageLabel.setText("");
             findPrevButton.setDisable(true);
             findNextButton.setDisable(true);
             return;
         }
-        int rows = result.getRows().size();
-        long from = rows == 0 ? 0 : (long) findPage * FIND_PAGE_SIZE + 1;
-        long to = from + rows - 1;
-        findPageLabel.setText(rows == 0 ? "0 docs"
-                : from + "\u2013" + to + (findTotalDocs >= 0 ? " of " + findTotalDocs : ""));
+        findShownRows = result.getRows().size();
+        findShownPage = findPage;
+        updateFindPageLabel();
         findPrevButton.setDisable(findPage == 0);
-        findNextButton.setDisable(rows < FIND_PAGE_SIZE);
+        findNextButton.setDisable(!hasMore);
+    }
+
+    private void updateFindPageLabel() {
+        if (lastFindWasSingle || findShownRows < 0) return;
+        long from = findShownRows == 0 ? 0 : (long) findPage * FIND_PAGE_SIZE + 1;
+        long to = from + findShownRows - 1;
+        String of = findTotalDocs < 0 ? "" : findTotalEstimated ? " of ~" + findTotalDocs : " of " + findTotalDocs;
+        findPageLabel.setText(findShownRows == 0 ? "0 docs" : from + "\u2013" + to + of);
     }
 
     private void reportCommand(MongoShellParser.Statement stmt, String message, long start) {
@@ -1,5 +1,8 @@
 package com.roze.dbnavigator.ui;
 
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.UpdateOneModel;
+import com.roze.dbnavigator.db.AppSettingsStore;
 import com.roze.dbnavigator.db.ClientRegistry;
 import com.roze.dbnavigator.db.MongoDbClient;
 import com.roze.dbnavigator.model.ConnectionProfile;
@@ -7,11 +10,13 @@ import com.roze.dbnavigator.model.QueryResult;
 import com.roze.dbnavigator.util.AppExecutor;
 import javafx.application.Platform;
 import javafx.scene.control.Button;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
 
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
 import java.util.function.Consumer;
 
@@ -20,8 +25,9 @@ import java.util.function.Consumer;
  * documents — same Submit/Revert pattern as {@link GridEditManager} for SQL
  * grids: edits are collected as pending (grouped by document {@code _id}, so
  * several field edits on the same document collapse into a single
- * {@code updateOne($set)}) rather than written immediately, and only
- * actually saved when Submit is pressed. {@code _id} itself can't be edited
+ * {@code $set}) rather than written immediately, and only actually saved
+ * when Submit is pressed — as one bulkWrite of UpdateOneModels (chunked per
+ * the MongoDB settings) instead of a round trip per document. {@code _id} itself can't be edited
  * this way (MongoDB doesn't support changing a document's {@code _id} via
  * update — that needs a delete + re-insert instead).
  */
@@ -114,50 +120,90 @@ public class MongoGridEditManager {
 
     // -------------------------------------------------------------- submit
 
+    /**
+     * Sends the pending edits as of now; edits typed while it runs stay
+     * pending. Only what was applied leaves the pending set: failed, unsent
+     * and never-attempted documents stay, with the grid left as it is, so
+     * Submit can simply be pressed again.
+     */
     private void submit() {
         if (!hasPending()) return;
-        Map<String, Map<String, String>> toApply = new LinkedHashMap<>(pendingByDoc);
+        Map<String, Map<String, String>> toApply = new LinkedHashMap<>();
+        pendingByDoc.forEach((id, fields) -> toApply.put(id, new LinkedHashMap<>(fields)));
         submitButton.setDisable(true);
         status.accept("Submitting\u2026");
 
+        AppSettingsStore.Settings settings = AppSettingsStore.load();
+        int chunkSize = settings.getMongoBulkWriteChunkSize();
+        boolean ordered = settings.isMongoBulkWriteOrdered();
+
         AppExecutor.run(() -> {
-            int succeeded = 0;
-            List<String> failures = new ArrayList<>();
-            MongoDbClient client = ClientRegistry.mongo(profile);
+            List<UpdateOneModel<Document>> models = new ArrayList<>(toApply.size());
+            List<String> labels = new ArrayList<>(toApply.size());
             for (Map.Entry<String, Map<String, String>> entry : toApply.entrySet()) {
-                try {
-                    client.updateOne(database, collection,
-                            idFilterJson(entry.getKey()), buildSetJson(entry.getValue()));
-                    succeeded++;
-                } catch (Exception ex) {
-                    String msg = ex.getMessage() == null ? ex.toString() : ex.getMessage();
-                    failures.add(entry.getKey() + ": " + msg);
-                }
+                models.add(new UpdateOneModel<>(idFilter(entry.getKey()), buildSet(entry.getValue())));
+                labels.add(entry.getKey());
             }
-            int finalSucceeded = succeeded;
-            Platform.runLater(() -> {
-                clearPending();
-                status.accept(failures.isEmpty()
-                        ? "\u2713 " + finalSucceeded + " document(s) updated"
-                        : "\u2713 " + finalSucceeded + " updated, " + failures.size()
-                                + " failed: " + String.join("; ", failures));
-                reloader.run();
-            });
+            MongoDbClient.BulkWriteSummary summary;
+            try {
+                summary = ClientRegistry.mongo(profile)
+                        .bulkWrite(database, collection, models, labels, ordered, chunkSize);
+            } catch (Exception ex) {
+                // Failed before any chunk went out (no client, ...): nothing applied.
+                summary = new MongoDbClient.BulkWriteSummary(0, 0, List.of(), models.size(), List.of(),
+                        ex.getMessage() == null ? ex.toString() : ex.getMessage());
+            }
+            MongoDbClient.BulkWriteSummary result = summary;
+            Platform.runLater(() -> finishSubmit(toApply, labels, result));
         });
     }
 
-    // ---------------------------------------------------------- JSON build
+    private void finishSubmit(Map<String, Map<String, String>> applied, List<String> labels,
+                              MongoDbClient.BulkWriteSummary summary) {
+        for (int i = 0; i < labels.size(); i++) {
+            if (!summary.applied(i, labels.size())) continue;
+            String id = labels.get(i);
+            Map<String, String> pending = pendingByDoc.get(id);
+            if (pending == null) continue;
+            // Fields re-edited since the submit keep their newer value pending.
+            applied.get(id).forEach(pending::remove);
+            if (pending.isEmpty()) pendingByDoc.remove(id);
+        }
+        updateButtons();
 
-    private static String buildSetJson(Map<String, String> fieldEdits) {
-        StringBuilder sb = new StringBuilder("{\"$set\": {");
-        boolean first = true;
+        int failed = summary.failures().size();
+        long unmatched = Math.max(0, labels.size() - summary.matched() - failed - summary.unsent());
+        StringBuilder msg = new StringBuilder("\u2713 " + summary.matched() + " document(s) updated");
+        if (unmatched > 0) msg.append(", ").append(unmatched).append(" no longer found");
+        if (failed > 0) {
+            msg.append(", ").append(failed).append(" failed: ").append(String.join("; ",
+                    summary.failures().stream().map(f -> f.label() + ": " + f.message()).toList()));
+        }
+        if (summary.unsent() > 0) {
+            msg.append(", ").append(summary.unsent()).append(summary.error() != null
+                    ? " not sent (" + summary.error() + ")" : " not sent (ordered write stopped)");
+        }
+        if (!summary.writeConcernErrors().isEmpty()) {
+            msg.append(" (write concern: ").append(String.join("; ", summary.writeConcernErrors())).append(")");
+        }
+        if (hasPending()) {
+            // A reload would reconfigure the grid and drop what is still pending.
+            msg.append(" \u2014 ").append(pendingByDoc.size()).append(" document(s) still pending, Submit to retry");
+            status.accept(msg.toString());
+        } else {
+            status.accept(msg.toString());
+            reloader.run();
+        }
+    }
+
+    // ---------------------------------------------------------- BSON build
+
+    private static Document buildSet(Map<String, String> fieldEdits) {
+        Document set = new Document();
         for (Map.Entry<String, String> e : fieldEdits.entrySet()) {
-            if (!first) sb.append(", ");
-            sb.append('"').append(e.getKey().replace("\"", "\\\"")).append("\": ")
-                    .append(toJsonValue(e.getValue()));
-            first = false;
+            set.append(e.getKey(), toBsonValue(e.getValue()));
         }
-        return sb.append("}}").toString();
+        return new Document("$set", set);
     }
 
     /**
@@ -167,28 +213,42 @@ public class MongoGridEditManager {
      * ObjectId — and falls back to a plain number or string otherwise,
      * covering collections with their own natural-key {@code _id}.
      */
-    static String idFilterJson(String idValue) {
+    static Bson idFilter(String idValue) {
         if (idValue.matches("[0-9a-fA-F]{24}")) {
-            return "{\"_id\": ObjectId(\"" + idValue + "\")}";
+            return Filters.eq("_id", new ObjectId(idValue));
         }
-        if (idValue.matches("-?\\d+(\\.\\d+)?")) {
-            return "{\"_id\": " + idValue + "}";
-        }
-        return "{\"_id\": \"" + idValue.replace("\\", "\\\\").replace("\"", "\\\"") + "\"}";
+        Object number = parseNumber(idValue);
+        return Filters.eq("_id", number != null ? number : idValue);
     }
 
     /**
-     * Best-effort typed encoding of a typed-in cell value: recognizable
-     * numbers and booleans are stored as such, "null" clears the field,
-     * everything else is stored as a string.
+     * Best-effort typed value for a typed-in cell: recognizable numbers and
+     * booleans are stored as such, "null" clears the field, everything else
+     * is stored as a string. Built straight into BSON values rather than a
+     * JSON string, so there is no quoting to get wrong and no parse step.
      */
-    static String toJsonValue(String newValue) {
-        if (newValue == null || newValue.equalsIgnoreCase("null")) return "null";
-        if (newValue.equalsIgnoreCase("true") || newValue.equalsIgnoreCase("false")) {
-            return newValue.toLowerCase(Locale.ROOT);
-        }
-        if (newValue.matches("-?\\d+")) return newValue;
-        if (newValue.matches("-?\\d+\\.\\d+")) return newValue;
-        return "\"" + newValue.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    static Object toBsonValue(String newValue) {
+        if (newValue == null || newValue.equalsIgnoreCase("null")) return null;
+        if (newValue.equalsIgnoreCase("true")) return Boolean.TRUE;
+        if (newValue.equalsIgnoreCase("false")) return Boolean.FALSE;
+        Object number = parseNumber(newValue);
+        return number != null ? number : newValue;
+    }
+
+    /**
+     * The number a plain integer/decimal literal denotes, typed the way the
+     * shell's JSON parser would (int32 when it fits, else int64; doubles for
+     * decimals), or null when the text isn't one. Integers too large for
+     * int64 stay strings rather than silently losing precision.
+     */
+    private static Object parseNumber(String text) {
+        try {
+            if (text.matches("-?\\d+")) {
+                long value = Long.parseLong(text);
+                return value == (int) value ? (Object) (int) value : (Object) value;
+            }
+            if (text.matches("-?\\d+\\.\\d+")) return Double.parseDouble(text);
+        } catch (NumberFormatException ignored) {}
+        return null;
     }
 }
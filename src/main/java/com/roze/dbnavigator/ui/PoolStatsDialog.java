@@ -0,0 +1,193 @@
+package com.roze.dbnavigator.ui;
+
+import com.roze.dbnavigator.db.ClientRegistry;
+import com.roze.dbnavigator.db.ConnectionBudget;
+import com.roze.dbnavigator.db.PoolMetrics;
+import com.roze.dbnavigator.model.ConnectionProfile;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.beans.property.ReadOnlyStringWrapper;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Scene;
+import javafx.scene.control.*;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.Region;
+import javafx.scene.layout.StackPane;
+import javafx.scene.layout.VBox;
+import javafx.stage.Stage;
+import javafx.stage.Window;
+import javafx.util.Duration;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+
+/**
+ * Live view of a connection's JDBC pools: one row per open pool (the
+ * connection's own database and every other database browsed under it)
+ * with Hikari's gauges, the shared connection budget, and latency
+ * histograms for the selected pool. Refreshes once a second while open.
+ */
+public final class PoolStatsDialog {
+
+    private static final double BAR_WIDTH = 160;
+
+    private PoolStatsDialog() {}
+
+    public static void show(Window owner, ConnectionProfile profile) {
+        Stage stage = new Stage();
+        stage.initOwner(owner);
+        stage.setTitle("Connection Pools — " + profile.getName());
+
+        Label budgetLabel = new Label();
+        budgetLabel.getStyleClass().add("panel-header");
+
+        TableView<ClientRegistry.PoolStatus> pools = new TableView<>();
+        pools.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY_FLEX_LAST_COLUMN);
+        pools.setPlaceholder(new Label("No pool is open — expand the connection or open a console first"));
+        pools.getColumns().add(textColumn("Database", 160,
+                s -> s.database() == null ? "(connection default)" : s.database()));
+        pools.getColumns().add(numberColumn("Active", s -> s.stats().active()));
+        pools.getColumns().add(numberColumn("Idle", s -> s.stats().idle()));
+        pools.getColumns().add(numberColumn("Waiting", s -> s.stats().pending()));
+        pools.getColumns().add(textColumn("Open / Max", 90, s -> s.stats().total() + " / " + s.stats().max()));
+        pools.getColumns().add(textColumn("Acquire mean / p95 / max", 190, s -> latency(s.stats().acquire())));
+        pools.getColumns().add(numberColumn("Timeouts", s -> (int) s.stats().timeouts()));
+
+        Label histogramTitle = new Label("Select a pool to see its latency histograms");
+        histogramTitle.getStyleClass().add("console-status");
+        VBox histograms = new VBox(4);
+
+        pools.getSelectionModel().selectedItemProperty().addListener((obs, old, selected) ->
+                showHistograms(selected, histogramTitle, histograms));
+
+        Runnable refresh = () -> {
+            ConnectionBudget budget = ClientRegistry.budget(profile);
+            budgetLabel.setText(budget == null ? "Not connected"
+                    : budget.limit() == 0 ? budget.inUse() + " connection(s) open — no budget"
+                    : budget.inUse() + " of " + budget.limit() + " budgeted connections open");
+            String selectedDb = selectedDatabase(pools);
+            List<ClientRegistry.PoolStatus> status = ClientRegistry.poolStats(profile);
+            pools.getItems().setAll(status);
+            for (ClientRegistry.PoolStatus s : status) {
+                if (java.util.Objects.equals(s.database(), selectedDb)) {
+                    pools.getSelectionModel().select(s);
+                    break;
+                }
+            }
+        };
+        refresh.run();
+        Timeline ticker = new Timeline(new KeyFrame(Duration.seconds(1), e -> refresh.run()));
+        ticker.setCycleCount(Timeline.INDEFINITE);
+        ticker.play();
+        stage.setOnHidden(e -> ticker.stop());
+
+        Button close = new Button("Close");
+        close.setOnAction(e -> stage.close());
+        Region spacer = new Region();
+        HBox.setHgrow(spacer, Priority.ALWAYS);
+        HBox buttons = new HBox(10, spacer, close);
+
+        VBox root = new VBox(12, budgetLabel, pools, histogramTitle, histograms, buttons);
+        VBox.setVgrow(pools, Priority.ALWAYS);
+        root.setPadding(new Insets(16));
+        root.getStyleClass().add("app-root");
+        Scene scene = new Scene(root, 860, 560);
+        if (owner != null && owner.getScene() != null) {
+            scene.getStylesheets().addAll(owner.getScene().getStylesheets());
+        }
+        stage.setScene(scene);
+        stage.show();
+    }
+
+    private static String selectedDatabase(TableView<ClientRegistry.PoolStatus> pools) {
+        ClientRegistry.PoolStatus selected = pools.getSelectionModel().getSelectedItem();
+        return selected == null ? null : selected.database();
+    }
+
+    /** Acquire, hold and connection-open time, one bar row per bucket. */
+    private static void showHistograms(ClientRegistry.PoolStatus selected, Label title, VBox target) {
+        target.getChildren().clear();
+        if (selected == null) return;
+        PoolMetrics.Snapshot stats = selected.stats();
+        title.setText("Latency — " + (selected.database() == null ? "connection default" : selected.database()));
+
+        HBox header = new HBox(12, cell("", 80), cell("Acquire", BAR_WIDTH + 60),
+                cell("Held", BAR_WIDTH + 60), cell("Connect", BAR_WIDTH + 60));
+        target.getChildren().add(header);
+        double[] bounds = PoolMetrics.BUCKET_BOUNDS_MILLIS;
+        long maxCount = Math.max(1, Math.max(max(stats.acquire()), Math.max(max(stats.usage()), max(stats.creation()))));
+        for (int i = 0; i <= bounds.length; i++) {
+            String bucket = i < bounds.length ? "< " + millis(bounds[i]) : "≥ " + millis(bounds[bounds.length - 1]);
+            HBox row = new HBox(12, cell(bucket, 80),
+                    bar(stats.acquire().counts()[i], maxCount),
+                    bar(stats.usage().counts()[i], maxCount),
+                    bar(stats.creation().counts()[i], maxCount));
+            row.setAlignment(Pos.CENTER_LEFT);
+            target.getChildren().add(row);
+        }
+    }
+
+    private static long max(PoolMetrics.Histogram histogram) {
+        long max = 0;
+        for (long count : histogram.counts()) max = Math.max(max, count);
+        return max;
+    }
+
+    private static HBox bar(long count, long maxCount) {
+        Region fill = new Region();
+        fill.setMinHeight(10);
+        fill.setPrefWidth(count == 0 ? 0 : Math.max(2, BAR_WIDTH * count / maxCount));
+        fill.setStyle("-fx-background-color: #4a88c7;");
+        StackPane track = new StackPane(fill);
+        StackPane.setAlignment(fill, Pos.CENTER_LEFT);
+        track.setPrefWidth(BAR_WIDTH);
+        track.setMinWidth(BAR_WIDTH);
+        Label value = new Label(String.valueOf(count));
+        value.getStyleClass().add("console-status");
+        value.setMinWidth(48);
+        HBox box = new HBox(6, track, value);
+        box.setAlignment(Pos.CENTER_LEFT);
+        return box;
+    }
+
+    private static Label cell(String text, double width) {
+        Label label = new Label(text);
+        label.setMinWidth(width);
+        label.setPrefWidth(width);
+        return label;
+    }
+
+    private static String latency(PoolMetrics.Histogram h) {
+        if (h.total() == 0) return "—";
+        double p95 = h.percentileBoundMillis(0.95);
+        String p95Text = Double.isInfinite(p95) ? "≥ " + millis(PoolMetrics.BUCKET_BOUNDS_MILLIS[
+                PoolMetrics.BUCKET_BOUNDS_MILLIS.length - 1]) : "< " + millis(p95);
+        return millis(h.meanMillis()) + " / " + p95Text + " / " + millis(h.maxMillis());
+    }
+
+    private static String millis(double ms) {
+        if (ms >= 1000) return String.format(Locale.ROOT, "%.1f s", ms / 1000);
+        if (ms >= 10) return String.format(Locale.ROOT, "%.0f ms", ms);
+        return String.format(Locale.ROOT, "%.1f ms", ms);
+    }
+
+    private static TableColumn<ClientRegistry.PoolStatus, String> textColumn(
+            String title, double width, Function<ClientRegistry.PoolStatus, String> value) {
+        TableColumn<ClientRegistry.PoolStatus, String> column = new TableColumn<>(title);
+        column.setPrefWidth(width);
+        column.setCellValueFactory(c -> new ReadOnlyStringWrapper(value.apply(c.getValue())));
+        return column;
+    }
+
+    private static TableColumn<ClientRegistry.PoolStatus, Integer> numberColumn(
+            String title, Function<ClientRegistry.PoolStatus, Integer> value) {
+        TableColumn<ClientRegistry.PoolStatus, Integer> column = new TableColumn<>(title);
+        column.setPrefWidth(70);
+        column.setCellValueFactory(c -> new ReadOnlyObjectWrapper<>(value.apply(c.getValue())));
+        return column;
+    }
+}
@@ -1,6 +1,7 @@
 package com.roze.dbnavigator.ui;
 
 import com.roze.dbnavigator.db.ClientRegistry;
+import com.roze.dbnavigator.db.JdbcClient;
 import com.roze.dbnavigator.db.LocalHistoryStore;
 import com.roze.dbnavigator.db.MetadataService;
 import com.roze.dbnavigator.db.QueryHistoryStore;
@@ -9,6 +10,9 @@ import com.roze.dbnavigator.model.ConnectionProfile.DatabaseType;
 import com.roze.dbnavigator.model.DbObject;
 import com.roze.dbnavigator.model.QueryResult;
 import com.roze.dbnavigator.util.AppExecutor;
+import com.roze.dbnavigator.util.DataExporters;
+import com.roze.dbnavigator.util.ExportFileWriter;
+import com.roze.dbnavigator.util.RowSink;
 import com.roze.dbnavigator.util.SqlReformatter;
 import com.roze.dbnavigator.util.SqlStatementSplitter;
 import javafx.application.Platform;
@@ -46,6 +50,8 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -71,17 +77,28 @@ public class QueryTab extends Tab {
     private final Button statementsButton = new Button();
     private final Button submitButton = new Button("Submit");
     private final Button revertButton = new Button("Revert");
+    private final ToggleButton sessionToggle = new ToggleButton("Session");
     private final GridEditManager editManager;
 
     private final AtomicReference<java.sql.Statement> runningStatement = new AtomicReference<>();
+    /** Checked between rows by streamed exports, which can outlive the statement's own cancel. */
+    private final AtomicBoolean cancelRequested = new AtomicBoolean();
+    private static final long EXPORT_PROGRESS_INTERVAL_MS = 1_000;
     private final Popup historyPopup = new Popup();
     private final ListView<QueryHistoryStore.Entry> historyList = new ListView<>();
     private String lastExecutedSql;
+    private List<String> lastExecutedParameters = List.of();
+    /**
+     * Non-null while the console is in session mode: its own connection,
+     * pinned for the console's lifetime (see {@link #setSessionMode}).
+     */
+    private volatile JdbcClient session;
     // The true original statement a result grid's rows came from — kept
     // separate from lastExecutedSql so re-sorting always wraps the real
     // base query, never an already-sort-wrapped one (which would otherwise
     // nest deeper on every click).
     private String baseSqlForSort;
+    private List<String> baseParametersForSort = List.of();
     private String currentSortColumn;
     private String currentSortDirection;
     private double currentEditorFontSize;
@@ -108,6 +125,10 @@ public class QueryTab extends Tab {
     private final ListView<CompletionService.Suggestion> completionList = new ListView<>();
     private int tokenStart = -1;
     private boolean suppressCompletion = false;
+    /** Re-asks once columns the open popup was waiting for have been fetched. */
+    private final Runnable refreshCompletions = () -> {
+        if (completionPopup.isShowing()) showCompletions();
+    };
 
     public QueryTab(MainWindow mainWindow, ConnectionProfile profile, String catalog, String title) {
         this.mainWindow = mainWindow;
@@ -136,6 +157,12 @@ public class QueryTab extends Tab {
         statementsButton.setGraphic(Icons.of(FontAwesomeSolid.LIST_UL, "#a9b7c6", 11));
         statementsButton.setTooltip(new Tooltip("Choose Statement to Run"));
         statementsButton.setOnAction(e -> showStatementsPopup());
+        sessionToggle.setGraphic(Icons.of(FontAwesomeSolid.LINK, "#a9b7c6", 11));
+        sessionToggle.setTooltip(new Tooltip("Session mode: run every statement on one dedicated connection.\n"
+                + "Temp tables and SET values persist between runs, statements are prepared and cached\n"
+                + "by the server, and :parameters are bound rather than pasted into the SQL.\n"
+                + "Only one result can stay open for paging at a time."));
+        sessionToggle.setOnAction(e -> setSessionMode(sessionToggle.isSelected()));
 
         submitButton.setGraphic(Icons.of(FontAwesomeSolid.CHECK, "#57965c", 11));
         submitButton.setTooltip(new Tooltip("Commit pending result edits/deletes"));
@@ -160,7 +187,7 @@ public class QueryTab extends Tab {
         Region spacer = new Region();
         HBox.setHgrow(spacer, Priority.ALWAYS);
         HBox toolbar = new HBox(8, runButton, cancelButton, historyButton, statementsButton,
-                submitButton, revertButton, exportButton,
+                submitButton, revertButton, exportButton, sessionToggle,
                 new Label("Limit:"), limitSpinner, spacer, connLabel);
         toolbar.setAlignment(Pos.CENTER_LEFT);
         toolbar.setPadding(new Insets(6, 10, 6, 10));
@@ -184,6 +211,7 @@ public class QueryTab extends Tab {
         setOnClosed(e -> {
             LocalHistoryStore.record(fileId, editor.getText());
             closeActiveCursor();
+            closeSession();
         });
 
         pager.setOnFirst(() -> { currentPageStart = 0; displayCurrentPage(); });
@@ -311,8 +339,12 @@ public class QueryTab extends Tab {
             completionPopup.hide();
             return;
         }
-        List<CompletionService.Suggestion> suggestions =
-                CompletionService.suggest(profile, catalog, editor.getText(), token, context);
+        // The statement at the caret, so aliases and prefetched columns come
+        // from the query being written rather than every query in the console.
+        SqlStatementSplitter.Statement statement = currentStatement();
+        String sql = statement != null ? statement.text() : editor.getText();
+        List<CompletionService.Suggestion> suggestions = CompletionService.suggest(profile, catalog, sql, token,
+                context, refreshCompletions);
         // Nothing useful, or the token is already the only completion → hide
         if (suggestions.isEmpty()
                 || (suggestions.size() == 1 && suggestions.get(0).text().equalsIgnoreCase(token))) {
@@ -320,7 +352,11 @@ public class QueryTab extends Tab {
             return;
         }
         completionList.getItems().setAll(suggestions);
-        completionList.getSelectionModel().selectFirst();
+        if (suggestions.get(0).kind() == CompletionService.Kind.LOADING) {
+            completionList.getSelectionModel().clearSelection();   // nothing to insert yet
+        } else {
+            completionList.getSelectionModel().selectFirst();
+        }
 
         Optional<Bounds> caret = editor.getCaretBounds();
         if (caret.isPresent()) {
@@ -367,7 +403,7 @@ public class QueryTab extends Tab {
     private void insertSelectedCompletion() {
         CompletionService.Suggestion selected =
                 completionList.getSelectionModel().getSelectedItem();
-        if (selected == null || tokenStart < 0) {
+        if (selected == null || selected.kind() == CompletionService.Kind.LOADING || tokenStart < 0) {
             completionPopup.hide();
             return;
         }
@@ -830,25 +866,80 @@ public class QueryTab extends Tab {
         File file = chooser.showSaveDialog(editor.getScene() == null ? null : editor.getScene().getWindow());
         if (file == null) return;
 
+        setRunningState(true);
+        cancelRequested.set(false);
         statusLabel.setText("Executing to file\u2026");
+        RunPanel.RunHandle output = openRunOutput(sql);
+        output.appendLine("Writing CSV to " + file.getAbsolutePath());
+        output.setCancelAction(this::cancelRunningQuery);
+        JdbcClient client = consoleClient();
         AppExecutor.run(() -> {
-            try {
-                QueryResult result = ClientRegistry.jdbc(profile, catalog).execute(sql, 0);
-                StringBuilder csv = new StringBuilder();
-                csv.append(String.join(",", result.getColumns())).append('\n');
-                for (List<String> row : result.getRows()) {
-                    csv.append(String.join(",", row.stream().map(v -> v == null ? "" : v).toList())).append('\n');
-                }
-                java.nio.file.Files.writeString(file.toPath(), csv.toString(), StandardCharsets.UTF_8);
-                Platform.runLater(() -> statusLabel.setText(
-                        "\u2713 Wrote " + result.getRows().size() + " row(s) to " + file.getName()));
+            long start = System.currentTimeMillis();
+            long[] rows = {0};
+            try (ExportFileWriter out = new ExportFileWriter(file.toPath())) {
+                RowSink csv = DataExporters.sink(DataExporters.Format.CSV, out, null);
+                client.stream(sql, runningStatement, new RowSink() {
+                    private long lastReport = start;
+
+                    @Override
+                    public void begin(List<String> columns, List<String> types) throws java.io.IOException {
+                        csv.begin(columns, types);
+                    }
+
+                    @Override
+                    public void accept(List<String> row) throws java.io.IOException {
+                        if (cancelRequested.get()) throw new CancellationException();
+                        csv.accept(row);
+                        rows[0]++;
+                        long now = System.currentTimeMillis();
+                        if (now - lastReport >= EXPORT_PROGRESS_INTERVAL_MS) {
+                            lastReport = now;
+                            String progress = exportProgress(rows[0], out.bytesWritten(), now - start);
+                            output.appendLine(progress);
+                            Platform.runLater(() -> statusLabel.setText(progress));
+                        }
+                    }
+
+                    @Override
+                    public void end() throws java.io.IOException {
+                        csv.end();
+                    }
+                });
+                out.flush();
+                String summary = "\u2713 Wrote "
+                        + exportProgress(rows[0], out.bytesWritten(), System.currentTimeMillis() - start)
+                        + " to " + file.getName();
+                output.appendLine(summary);
+                output.markFinished(0);
+                Platform.runLater(() -> {
+                    statusLabel.setText(summary);
+                    setRunningState(false);
+                });
             } catch (Exception ex) {
-                String msg = ex.getMessage() == null ? ex.toString() : ex.getMessage();
-                Platform.runLater(() -> statusLabel.setText("Execute to File failed: " + msg));
+                boolean cancelled = ex instanceof CancellationException || isCancellation(ex)
+                        || cancelRequested.get();
+                String msg = cancelled
+                        ? "cancelled after " + rows[0] + " row(s) \u2014 partial file kept"
+                        : ex.getMessage() == null ? ex.toString() : ex.getMessage();
+                output.markFailed("Execute to File " + msg);
+                Platform.runLater(() -> {
+                    statusLabel.setText("Execute to File " + (cancelled ? "" : "failed: ") + msg);
+                    setRunningState(false);
+                });
+            } finally {
+                output.setCancelAction(null);
             }
         });
     }
 
+    /** e.g. "1,200,000 row(s), 350.2 MB in 41 s (8.5 MB/s)". */
+    private static String exportProgress(long rows, long bytes, long elapsedMillis) {
+        double mb = bytes / (1024.0 * 1024.0);
+        double seconds = Math.max(elapsedMillis, 1) / 1000.0;
+        return String.format(Locale.ROOT, "%,d row(s), %.1f MB in %.0f s (%.1f MB/s)",
+                rows, mb, seconds, mb / seconds);
+    }
+
     /** Runs EXPLAIN on the current statement and shows the plan in the result grid. */
     private void showExecutionPlan() {
         String sql = selectedOrEditorText();
@@ -1055,7 +1146,7 @@ public class QueryTab extends Tab {
         editor.moveTo(Math.min(chosen.start(), editor.getLength()));
         editor.requestFollowCaret();
         String text = chosen.plsqlBlock() ? chosen.text() : stripTrailingSemicolon(chosen.text());
-        resolveParametersThenRun(text, this::executeSql);
+        resolveParametersThenExecute(text);
     }
 
     private static String previewOf(String sql) {
@@ -1066,6 +1157,7 @@ public class QueryTab extends Tab {
     // ------------------------------------------------------------- cancel
 
     private void cancelRunningQuery() {
+        cancelRequested.set(true);
         java.sql.Statement stmt = runningStatement.get();
         if (stmt == null) return;
         statusLabel.setText("Cancelling…");
@@ -1080,6 +1172,7 @@ public class QueryTab extends Tab {
 
     private void setRunningState(boolean running) {
         runButton.setDisable(running);
+        sessionToggle.setDisable(running);
         cancelButton.setVisible(running);
         cancelButton.setManaged(running);
     }
@@ -1090,6 +1183,15 @@ public class QueryTab extends Tab {
         completionPopup.hide();
         String sql = selectedOrEditorText();
         if (sql.isBlank()) return;
+        if (session != null) {
+            List<SqlStatementSplitter.Statement> split = SqlStatementSplitter.split(sql);
+            if (split.size() == 1) {
+                SqlStatementSplitter.Statement only = split.get(0);
+                resolveParametersThenExecute(
+                        (only.plsqlBlock() ? only.text() : stripTrailingSemicolon(only.text())).strip());
+                return;
+            }
+        }
         resolveParametersThenRun(sql, resolved -> {
             List<String> statements = SqlStatementSplitter.split(resolved).stream()
                     // A PL/SQL block's own trailing ";" (right after its final
@@ -1129,6 +1231,7 @@ public class QueryTab extends Tab {
         RunPanel.RunHandle output = mainWindow.getRunPanel().openConsoleOutput(fileId, getText());
         mainWindow.showRunPanel();
         statusLabel.setText("Executing " + statements.size() + " statements\u2026");
+        JdbcClient client = consoleClient();
 
         AppExecutor.run(() -> {
             int completed = 0;
@@ -1137,7 +1240,7 @@ public class QueryTab extends Tab {
                 for (String stmt : statements) {
                     output.appendLine(connectionLabel() + "> " + compactSql(stmt));
                     QueryHistoryStore.record(profile.getId(), stmt);
-                    QueryResult result = ClientRegistry.jdbc(profile, catalog).execute(stmt, 0);
+                    QueryResult result = client.execute(stmt, 0);
                     completed++;
                     String line = result.isResultSet()
                             ? "Completed successfully: " + result.getRows().size()
@@ -1195,31 +1298,120 @@ public class QueryTab extends Tab {
         });
     }
 
+    /**
+     * {@link #resolveParametersThenRun} then {@link #executeSql} — except in
+     * session mode, where the parameters are bound instead of substituted:
+     * the SQL text stays the same across values, so the server's parse of
+     * it is reused. History keeps the {@code :name} form, which asks for the
+     * values again when re-run from there.
+     */
+    private void resolveParametersThenExecute(String sql) {
+        List<com.roze.dbnavigator.util.SqlParameters.Parameter> params =
+                com.roze.dbnavigator.util.SqlParameters.detect(sql);
+        if (session == null || params.isEmpty()) {
+            resolveParametersThenRun(sql, this::executeSql);
+            return;
+        }
+        ParametersDialog.show(mainWindow.getOwnerWindow(), params).ifPresent(values -> {
+            var bound = com.roze.dbnavigator.util.SqlParameters.bind(sql, values);
+            executeSql(bound.sql(), true, bound.values(), sql);
+        });
+    }
+
     private void rerunLastSql() {
-        if (lastExecutedSql != null) executeSql(lastExecutedSql);
+        if (lastExecutedSql != null) executeSql(lastExecutedSql, true, lastExecutedParameters, null);
     }
 
     private void executeSql(String sql) {
         executeSql(sql, true);
     }
 
+    private void executeSql(String sql, boolean isNewBaseQuery) {
+        executeSql(sql, isNewBaseQuery, List.of(), null);
+    }
+
+    // ------------------------------------------------------------- session mode
+
+    /** The client statements run on: the console's session, or the profile's shared pool. */
+    private JdbcClient consoleClient() {
+        JdbcClient pinned = session;
+        if (pinned == null) return ClientRegistry.jdbc(profile, catalog);
+        // The session's one connection is about to be needed; a result still
+        // open for paging holds it.
+        closeActiveCursor();
+        return pinned;
+    }
+
+    private void setSessionMode(boolean on) {
+        if (!on) {
+            closeSession();
+            statusLabel.setText("Session closed \u2014 statements use the shared pool again");
+            return;
+        }
+        sessionToggle.setDisable(true);
+        statusLabel.setText("Opening session\u2026");
+        AppExecutor.run(() -> {
+            try {
+                JdbcClient opened = ClientRegistry.openSession(profile, catalog);
+                Platform.runLater(() -> {
+                    if (!sessionToggle.isSelected() || getTabPane() == null) {
+                        AppExecutor.run(() -> ClientRegistry.closeSession(opened));   // closed meanwhile
+                        return;
+                    }
+                    closeActiveCursor();
+                    session = opened;
+                    sessionToggle.setDisable(false);
+                    statusLabel.setText("Session open \u2014 statements share one connection");
+                });
+            } catch (Exception ex) {
+                String msg = ex.getMessage() == null ? ex.toString() : ex.getMessage();
+                Platform.runLater(() -> {
+                    sessionToggle.setSelected(false);
+                    sessionToggle.setDisable(false);
+                    statusLabel.setText("Could not open a session: " + msg);
+                });
+            }
+        });
+    }
+
+    private void closeSession() {
+        JdbcClient pinned = session;
+        session = null;
+        if (pinned == null) return;
+        closeActiveCursor();   // its connection is the session's
+        AppExecutor.run(() -> ClientRegistry.closeSession(pinned));
+    }
+
     /**
      * @param isNewBaseQuery false for internal re-executions (sort-by-column,
      *                        EXPLAIN) that shouldn't become the "base" the
      *                        next sort click wraps — only a genuinely new
      *                        statement the user ran should reset that.
+     * @param parameters     values for the {@code ?} placeholders; only in session mode
+     * @param historyText    what Query History records, when not {@code sql} itself
      */
-    private void executeSql(String sql, boolean isNewBaseQuery) {
+    private void executeSql(String sql, boolean isNewBaseQuery, List<String> parameters, String historyText) {
+        JdbcClient pinned = session;
+        if (pinned == null && !parameters.isEmpty()) {
+            // Bound on a session that has since been closed (a re-run or re-sort).
+            statusLabel.setText("The session was closed \u2014 run the statement again to enter its parameters");
+            return;
+        }
         lastExecutedSql = sql;
+        lastExecutedParameters = parameters;
         if (isNewBaseQuery) {
             baseSqlForSort = sql;
+            baseParametersForSort = parameters;
             currentSortColumn = null;
             currentSortDirection = null;
         }
         setRunningState(true);
         statusLabel.setText("Executing…");
         int pageSize = limitSpinner.getValue();
-        QueryHistoryStore.record(profile.getId(), sql);
+        if (historyText != null || parameters.isEmpty()) {
+            QueryHistoryStore.record(profile.getId(), historyText != null ? historyText : sql);
+        }
+        if (pinned != null) closeActiveCursor();   // frees the session's connection for this statement
         boolean likelyDataQuery = isLikelyDataQuery(sql);
         RunPanel.RunHandle output = likelyDataQuery ? null : openRunOutput(sql);
         if (likelyDataQuery) mainWindow.hideRunPanel();
@@ -1268,15 +1460,16 @@ public class QueryTab extends Tab {
                     }
                 }
 
+                JdbcClient client = pinned != null ? pinned : ClientRegistry.jdbc(profile, catalog);
                 com.roze.dbnavigator.db.PagedResultCursor cursor =
                         new com.roze.dbnavigator.db.PagedResultCursor(pageSize);
                 try {
-                    cursor.open(profile, catalog, sqlToRun, runningStatement);
+                    cursor.open(client, sqlToRun, parameters, runningStatement);
                 } catch (Exception rewriteFailure) {
                     if (!viaCtid) throw rewriteFailure;
                     // views have no ctid — run the original query, read-only
                     cursor = new com.roze.dbnavigator.db.PagedResultCursor(pageSize);
-                    cursor.open(profile, catalog, sql, runningStatement);
+                    cursor.open(client, sql, parameters, runningStatement);
                     pkColumns = List.of();
                 }
 
@@ -1474,22 +1667,22 @@ public class QueryTab extends Tab {
         currentSortDirection = direction;
 
         if (direction == null) {
-            executeSql(baseSqlForSort, false);
+            executeSql(baseSqlForSort, false, baseParametersForSort, null);
             return;
         }
         String trimmedBase = baseSqlForSort.strip().replaceAll(";\\s*$", "");
         String wrapped = "SELECT * FROM (" + trimmedBase + ") AS sort_wrapper ORDER BY "
                 + DbObject.quote(columnName) + " " + direction;
-        executeSql(wrapped, false);
+        executeSql(wrapped, false, baseParametersForSort, null);
     }
 
     private void displayCurrentPage() {
         if (activeCursor == null) return;
-        List<List<String>> cached = activeCursor.getCachedRows();
+        int cachedCount = activeCursor.getCachedRowCount();
         int pageSize = activeCursor.getPageSize();
-        int from = Math.min(currentPageStart, cached.size());
-        int to = Math.min(from + pageSize, cached.size());
-        List<List<String>> pageRows = new ArrayList<>(cached.subList(from, to));
+        int from = Math.min(currentPageStart, cachedCount);
+        int to = Math.min(from + pageSize, cachedCount);
+        List<List<String>> pageRows = activeCursor.getCachedRows(from, to);
 
         QueryResult pageResult = new QueryResult();
         pageResult.getColumns().addAll(activeCursor.getColumns());
@@ -1508,8 +1701,8 @@ public class QueryTab extends Tab {
 
         long fromDisplay = pageRows.isEmpty() ? 0 : currentPageStart + 1L;
         long toDisplay = currentPageStart + pageRows.size();
-        long total = cached.size();
-        boolean exact = activeCursor.isExhausted();
+        long total = cachedCount;
+        boolean exact = activeCursor.isExhausted() && !activeCursor.isTruncated();
         pager.update(fromDisplay, toDisplay, total, exact);
 
         statusLabel.setText(pageRows.size() + " row(s) in " + activeCursor.getExecutionMillis() + " ms"
@@ -1535,17 +1728,25 @@ public class QueryTab extends Tab {
         });
     }
 
-    /** Reads all remaining rows (bounded by the cursor's own safety cap) then jumps to the final page. */
+    /**
+     * Reads all remaining rows then jumps to the final page. Older rows spill
+     * to disk as they're read (see PagedResultCursor), so this is bounded by
+     * the cursor's row cap, not by heap size.
+     */
     private void pageToLast() {
         if (activeCursor == null) return;
         statusLabel.setText("Fetching remaining rows\u2026");
         AppExecutor.run(() -> {
             try {
+                int batch = Math.max(activeCursor.getPageSize(), 5_000);
                 while (!activeCursor.isExhausted()) {
-                    activeCursor.fetchMore(activeCursor.getPageSize());
+                    activeCursor.fetchMore(batch);
+                    int fetched = activeCursor.getCachedRowCount();
+                    Platform.runLater(() -> statusLabel.setText(
+                            "Fetching remaining rows\u2026 " + fetched + " so far"));
                 }
                 Platform.runLater(() -> {
-                    int total = activeCursor.getCachedRows().size();
+                    int total = activeCursor.getCachedRowCount();
                     int pageSize = activeCursor.getPageSize();
                     currentPageStart = total == 0 ? 0 : ((total - 1) / pageSize) * pageSize;
                     displayCurrentPage();
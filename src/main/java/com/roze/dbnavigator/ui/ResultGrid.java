@@ -1,6 +1,8 @@
 package com.roze.dbnavigator.ui;
 
 import com.roze.dbnavigator.model.QueryResult;
+import com.roze.dbnavigator.util.DataExporters;
+import com.roze.dbnavigator.util.RowSink;
 import javafx.beans.property.ReadOnlyStringWrapper;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -18,12 +20,15 @@ import org.kordamp.ikonli.javafx.FontIcon;
 
 import java.io.File;
 import java.io.IOException;
-import java.io.PrintWriter;
-import java.nio.charset.StandardCharsets;
+import java.io.OutputStream;
+import java.nio.file.Files;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Spreadsheet-like grid used everywhere results are shown.
@@ -50,6 +55,9 @@ public class ResultGrid extends TableView<List<String>> {
     private Runnable deleteRowsAction;
     private List<String> columnTypes = List.of();
     private List<String> columnNames = List.of();
+    /** Columns the user hid; kept across showResult() so they stay hidden from page to page. */
+    private final Set<String> hiddenColumns = new LinkedHashSet<>();
+    private Consumer<Set<String>> columnVisibilityListener;
 
     public ResultGrid() {
         getStyleClass().add("result-grid");
@@ -67,7 +75,11 @@ public class ResultGrid extends TableView<List<String>> {
         copyRow.setOnAction(e -> copySelectedRow());
         MenuItem deleteRows = new MenuItem("Delete Selected Row(s)");
         deleteRows.setOnAction(e -> { if (deleteRowsAction != null) deleteRowsAction.run(); });
-        setContextMenu(new ContextMenu(copyCell, copyRow, new SeparatorMenuItem(), deleteRows));
+        MenuItem showHidden = new MenuItem("Show Hidden Columns");
+        showHidden.setOnAction(e -> showHiddenColumns());
+        ContextMenu menu = new ContextMenu(copyCell, copyRow, new SeparatorMenuItem(), deleteRows, showHidden);
+        menu.setOnShowing(e -> showHidden.setVisible(!hiddenColumns.isEmpty()));
+        setContextMenu(menu);
 
         setOnKeyPressed(e -> {
             if (e.getCode() == KeyCode.DELETE && deleteRowsAction != null && !isEditingCell()) {
@@ -136,6 +148,32 @@ public class ResultGrid extends TableView<List<String>> {
         this.currentSortDirection = direction;
     }
 
+    /**
+     * Turns on "Hide Column" (right-click a column header) and "Show Hidden
+     * Columns". The listener receives the whole hidden set after every
+     * change, so an owner that fetches its own data (the Mongo views) can
+     * stop fetching those fields at all.
+     */
+    public void setColumnVisibilityListener(Consumer<Set<String>> listener) {
+        this.columnVisibilityListener = listener;
+    }
+
+    public Set<String> getHiddenColumns() { return Set.copyOf(hiddenColumns); }
+
+    private void hideColumn(String columnName) {
+        if (!hiddenColumns.add(columnName)) return;
+        int index = columnNames.indexOf(columnName);
+        if (index >= 0) getColumns().get(index + 1).setVisible(false);   // +1: serial column
+        columnVisibilityListener.accept(Set.copyOf(hiddenColumns));
+    }
+
+    private void showHiddenColumns() {
+        if (hiddenColumns.isEmpty()) return;
+        hiddenColumns.clear();
+        for (int i = 1; i < getColumns().size(); i++) getColumns().get(i).setVisible(true);
+        if (columnVisibilityListener != null) columnVisibilityListener.accept(Set.of());
+    }
+
     private int rowNumberOffset = 0;
 
     /** Lets a paginated view show true overall row numbers (e.g. page 2 starts at 501, not 1). */
@@ -179,6 +217,7 @@ public class ResultGrid extends TableView<List<String>> {
             col.setPrefWidth(Math.max(90, Math.min(280, columnNames.get(i).length() * 12 + 40)));
             if (columnNames.get(i).equalsIgnoreCase("ctid")
                     || columnNames.get(i).equalsIgnoreCase("tableoid")) col.setVisible(false);
+            if (hiddenColumns.contains(columnName)) col.setVisible(false);
 
             // JavaFX's own click-to-sort only reorders whatever rows are
             // currently loaded in memory (a page, or whatever's been fetched
@@ -238,10 +277,19 @@ public class ResultGrid extends TableView<List<String>> {
         HBox box = new HBox(6, nameLabel, sortIcon);
         box.setAlignment(Pos.CENTER_LEFT);
         box.setOnMouseClicked(e -> {
-            if (sortRequestListener == null) return;
+            if (sortRequestListener == null || e.getButton() != MouseButton.PRIMARY) return;
             String next = "ASC".equals(activeDirection) ? "DESC" : isActive ? null : "ASC";
             sortRequestListener.onSortRequested(columnName, next);
         });
+        if (columnVisibilityListener != null) {
+            MenuItem hide = new MenuItem("Hide Column");
+            hide.setOnAction(e -> hideColumn(columnName));
+            ContextMenu headerMenu = new ContextMenu(hide);
+            box.setOnContextMenuRequested(e -> {
+                headerMenu.show(box, e.getScreenX(), e.getScreenY());
+                e.consume();
+            });
+        }
         return box;
     }
 
@@ -394,86 +442,37 @@ public class ResultGrid extends TableView<List<String>> {
 
     /** Exports the currently displayed data to CSV. */
     public void exportCsv() {
-        if (getItems().isEmpty()) return;
-        FileChooser chooser = new FileChooser();
-        chooser.setTitle("Export CSV");
-        chooser.setInitialFileName("export.csv");
-        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV files", "*.csv"));
-        File file = chooser.showSaveDialog(getScene().getWindow());
-        if (file == null) return;
-
-        try (PrintWriter out = new PrintWriter(file, StandardCharsets.UTF_8)) {
-            out.println(columnNames.stream()
-                    .map(ResultGrid::csvEscape)
-                    .reduce((a, b) -> a + "," + b).orElse(""));
-            for (List<String> row : getItems()) {
-                out.println(row.stream()
-                        .map(v -> csvEscape(v == null ? "" : v))
-                        .reduce((a, b) -> a + "," + b).orElse(""));
-            }
-        } catch (IOException e) {
-            DialogTheme.apply(new Alert(Alert.AlertType.ERROR, "Export failed: " + e.getMessage())).showAndWait();
-        }
+        exportTo(DataExporters.Format.CSV, "Export CSV", "export.csv",
+                new FileChooser.ExtensionFilter("CSV files", "*.csv"));
     }
 
     /**
      * Exports the current rows as a JSON array of objects, keyed by column
-     * name. Any cell whose text already looks like a JSON object or array —
-     * which is how nested documents/arrays are rendered for display, since
-     * the grid only ever holds flattened strings — is embedded as real
-     * nested JSON rather than a doubly-escaped string, so the output stays
-     * structurally faithful to the original document shape.
+     * name — see {@link DataExporters.Format#JSON} for how nested
+     * documents/arrays are embedded.
      */
     public void exportJson() {
+        exportTo(DataExporters.Format.JSON, "Export JSON", "export.json",
+                new FileChooser.ExtensionFilter("JSON files", "*.json"));
+    }
+
+    private void exportTo(DataExporters.Format format, String title, String fileName,
+                          FileChooser.ExtensionFilter filter) {
         if (getItems().isEmpty()) return;
         FileChooser chooser = new FileChooser();
-        chooser.setTitle("Export JSON");
-        chooser.setInitialFileName("export.json");
-        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("JSON files", "*.json"));
+        chooser.setTitle(title);
+        chooser.setInitialFileName(fileName);
+        chooser.getExtensionFilters().add(filter);
         File file = chooser.showSaveDialog(getScene().getWindow());
         if (file == null) return;
 
-        try (PrintWriter out = new PrintWriter(file, StandardCharsets.UTF_8)) {
-            out.println("[");
-            List<List<String>> rows = getItems();
-            for (int r = 0; r < rows.size(); r++) {
-                List<String> row = rows.get(r);
-                StringBuilder obj = new StringBuilder("  {");
-                for (int c = 0; c < columnNames.size(); c++) {
-                    if (c > 0) obj.append(", ");
-                    String value = c < row.size() ? row.get(c) : null;
-                    obj.append('"').append(jsonEscape(columnNames.get(c))).append("\": ")
-                            .append(jsonValue(value));
-                }
-                obj.append('}');
-                if (r < rows.size() - 1) obj.append(',');
-                out.println(obj);
-            }
-            out.println("]");
+        try (OutputStream out = Files.newOutputStream(file.toPath())) {
+            RowSink sink = DataExporters.sink(format, out, null);
+            sink.begin(columnNames, columnTypes);
+            for (List<String> row : getItems()) sink.accept(row);
+            sink.end();
         } catch (IOException e) {
             DialogTheme.apply(new Alert(Alert.AlertType.ERROR, "Export failed: " + e.getMessage())).showAndWait();
         }
     }
-
-    private static String jsonValue(String value) {
-        if (value == null || value.equals("NULL")) return "null";
-        String trimmed = value.strip();
-        if ((trimmed.startsWith("{") && trimmed.endsWith("}"))
-                || (trimmed.startsWith("[") && trimmed.endsWith("]"))) {
-            return trimmed;   // already-serialized nested document/array — embed as-is
-        }
-        return '"' + jsonEscape(value) + '"';
-    }
-
-    private static String jsonEscape(String value) {
-        return value.replace("\\", "\\\\").replace("\"", "\\\"")
-                .replace("\n", "\\n").replace("\r", "\\r").replace("\t", "\\t");
-    }
-
-    private static String csvEscape(String value) {
-        if (value.contains(",") || value.contains("\"") || value.contains("\n")) {
-            return '"' + value.replace("\"", "\"\"") + '"';
-        }
-        return value;
-    }
 }
@@ -37,6 +37,8 @@ public class RunPanel extends BorderPane {
     public interface RunHandle {
         void appendLine(String line);
         void setProcess(Process process);
+        /** Makes the Stop button run {@code cancel} (for in-process work with no Process to kill); null disables it. */
+        void setCancelAction(Runnable cancel);
         void setRerunAction(Runnable rerun);
         void markFinished(int exitCode);
         void markFailed(String message);
@@ -149,6 +151,7 @@ public class RunPanel extends BorderPane {
         private boolean autoScroll = true;
         private boolean pinned = false;
         private Process liveProcess;
+        private Runnable cancelAction;
         private Runnable rerunAction;
         private Tab owningTab;
 
@@ -177,6 +180,9 @@ public class RunPanel extends BorderPane {
                 if (liveProcess != null && liveProcess.isAlive()) {
                     liveProcess.destroy();
                     appendLine("[cancelled by user]");
+                } else if (cancelAction != null) {
+                    cancelAction.run();
+                    appendLine("[cancelled by user]");
                 }
             });
 
@@ -259,6 +265,14 @@ public class RunPanel extends BorderPane {
             });
         }
 
+        @Override
+        public void setCancelAction(Runnable cancel) {
+            Platform.runLater(() -> {
+                this.cancelAction = cancel;
+                stopButton.setDisable(cancel == null && (liveProcess == null || !liveProcess.isAlive()));
+            });
+        }
+
         @Override
         public void setRerunAction(Runnable rerun) {
             this.rerunAction = rerun;
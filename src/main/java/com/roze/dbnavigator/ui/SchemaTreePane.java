@@ -3,30 +3,44 @@ package com.roze.dbnavigator.ui;
 import com.roze.dbnavigator.db.ClientRegistry;
 import com.roze.dbnavigator.db.ConnectionStore;
 import com.roze.dbnavigator.db.DatabaseAdminService;
+import com.roze.dbnavigator.db.MetadataCache;
 import com.roze.dbnavigator.db.MetadataService;
 import com.roze.dbnavigator.model.ConnectionProfile;
 import com.roze.dbnavigator.model.DbObject;
 import com.roze.dbnavigator.model.DbObject.Kind;
 import com.roze.dbnavigator.util.AppExecutor;
+import javafx.animation.Animation;
+import javafx.animation.PauseTransition;
 import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.scene.control.*;
+import javafx.scene.input.KeyCode;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.Priority;
 import javafx.scene.layout.VBox;
+import javafx.util.Duration;
 import org.kordamp.ikonli.fontawesome5.FontAwesomeSolid;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 
 /**
  * The DataGrip-style "Database Explorer": all connections in one lazy tree.
  * Double-click a table/collection to open it; right-click for actions.
+ *
+ * Big folders stay cheap: children are added a page at a time (see
+ * {@link #addPage}), and the filter box above the tree narrows the selected
+ * folder by name on the server rather than by hiding rows already fetched.
  */
 public class SchemaTreePane extends VBox {
 
+    /** Children added per page — a screenful many times over, yet instant to build. */
+    private static final int PAGE_SIZE = 300;
+
     private final TreeView<DbObject> tree = new TreeView<>();
     private final TreeItem<DbObject> root = new TreeItem<>(new DbObject("root", Kind.MESSAGE));
     /** Maps every connection tree item to its profile. */
@@ -34,6 +48,13 @@ public class SchemaTreePane extends VBox {
 
     private final MainWindow mainWindow;
 
+    private final TextField filterField = new TextField();
+    /** Waits for a pause in typing so each keystroke doesn't become a catalog query. */
+    private final PauseTransition filterDelay = new PauseTransition(Duration.millis(300));
+    /** The folder the filter box applies to: the selected folder, or the one holding the selected node. */
+    private TreeItem<DbObject> filterTarget;
+    private boolean showingTargetFilter;
+
     public SchemaTreePane(MainWindow mainWindow) {
         this.mainWindow = mainWindow;
         getStyleClass().add("schema-pane");
@@ -49,7 +70,7 @@ public class SchemaTreePane extends VBox {
         Button refreshButton = new Button();
         refreshButton.setGraphic(Icons.of(FontAwesomeSolid.SYNC_ALT, "#6897bb", 11));
         refreshButton.setTooltip(new Tooltip("Reload connections"));
-        refreshButton.setOnAction(e -> reload());
+        refreshButton.setOnAction(e -> refreshAll());
 
         javafx.scene.layout.Region spacer = new javafx.scene.layout.Region();
         HBox.setHgrow(spacer, Priority.ALWAYS);
@@ -64,13 +85,59 @@ public class SchemaTreePane extends VBox {
         VBox.setVgrow(tree, Priority.ALWAYS);
 
         tree.setOnMouseClicked(e -> {
-            if (e.getClickCount() == 2) {
-                TreeItem<DbObject> item = tree.getSelectionModel().getSelectedItem();
-                if (item != null) openObject(item);
+            TreeItem<DbObject> item = tree.getSelectionModel().getSelectedItem();
+            if (item instanceof MoreItem more) {
+                more.showNextPage();
+            } else if (e.getClickCount() == 2 && item != null) {
+                openObject(item);
+            }
+        });
+        tree.setOnKeyPressed(e -> {
+            if (e.getCode() == KeyCode.ENTER && tree.getSelectionModel().getSelectedItem() instanceof MoreItem more) {
+                more.showNextPage();
+                e.consume();
+            }
+        });
+
+        filterField.getStyleClass().add("tree-filter");
+        filterField.setPromptText("Select a folder to filter");
+        filterField.setDisable(true);
+        VBox.setMargin(filterField, new Insets(6, 8, 6, 8));
+        filterField.textProperty().addListener((observable, old, text) -> {
+            if (!showingTargetFilter) filterDelay.playFromStart();
+        });
+        filterField.setOnKeyPressed(e -> {
+            switch (e.getCode()) {
+                case ENTER -> { filterDelay.stop(); applyFilter(); e.consume(); }
+                case ESCAPE -> { filterField.clear(); e.consume(); }
+                default -> {}
             }
         });
+        filterDelay.setOnFinished(e -> applyFilter());
+        tree.getSelectionModel().selectedItemProperty().addListener((observable, old, selected) -> {
+            // Null while a filtered folder swaps its children — keep the target then.
+            if (selected != null) retargetFilter(selected);
+        });
+
+        getChildren().addAll(headerBox, filterField, tree);
+        reload();
+
+        // What the tree shows may have come from the on-disk metadata cache;
+        // when its background check finds the schema changed since, re-fetch.
+        MetadataCache.addChangeListener((profile, catalog, detected) -> {
+            if (detected) Platform.runLater(() -> reloadConnection(profile));
+        });
+    }
 
-        getChildren().addAll(headerBox, tree);
+    /**
+     * An explicit "Refresh" of the whole explorer: forgets every connection's
+     * cached metadata (see {@link MetadataCache}) before rebuilding, so what
+     * shows next comes from the servers rather than from disk.
+     */
+    public void refreshAll() {
+        for (ConnectionProfile profile : ConnectionStore.load()) {
+            MetadataCache.invalidate(profile);
+        }
         reload();
     }
 
@@ -179,6 +246,16 @@ public class SchemaTreePane extends VBox {
      * it the way a full reload would.
      */
     public void refreshConnection(ConnectionProfile profile) {
+        MetadataCache.invalidate(profile);
+        reloadConnection(profile);
+    }
+
+    /**
+     * Re-fetches an expanded connection's subtree without touching the
+     * metadata cache — for when MetadataCache itself has noticed DDL made
+     * elsewhere and already dropped what the tree was showing from disk.
+     */
+    private void reloadConnection(ConnectionProfile profile) {
         connectionItems.entrySet().stream()
                 .filter(e -> e.getValue().getId().equals(profile.getId()))
                 .findFirst()
@@ -226,34 +303,24 @@ public class SchemaTreePane extends VBox {
 
     private void loadChildrenAsync(TreeItem<DbObject> parent, ConnectionProfile profile,
                                    ThrowingSupplier<List<DbObject>> loader) {
+        String filter = parent.getValue().getFilter();
         AppExecutor.run(() -> {
             try {
                 List<DbObject> children = loader.get();
                 Platform.runLater(() -> {
+                    if (!Objects.equals(filter, parent.getValue().getFilter())) return;   // a newer filter's load is coming
                     parent.getChildren().clear();
                     if (children.isEmpty()) {
-                        parent.getChildren().add(new TreeItem<>(
-                                new DbObject("(empty)", Kind.MESSAGE)));
+                        parent.getChildren().add(new TreeItem<>(new DbObject(
+                                filter == null ? "(empty)" : "(no names containing \"" + filter + "\")", Kind.MESSAGE)));
                         return;
                     }
-                    for (DbObject child : children) {
-                        TreeItem<DbObject> childItem = new TreeItem<>(child);
-                        if (isExpandable(child.getKind())) {
-                            childItem.getChildren().add(loadingNode());
-                            childItem.expandedProperty().addListener((observable, was, expanded) -> {
-                                if (expanded && !child.isLoaded()) {
-                                    child.setLoaded(true);
-                                    loadChildrenAsync(childItem, profile,
-                                            () -> childrenLoader(profile, child));
-                                }
-                            });
-                        }
-                        parent.getChildren().add(childItem);
-                    }
+                    addPage(parent, profile, children, 0);
                 });
             } catch (Exception ex) {
                 String msg = ex.getMessage() == null ? ex.toString() : ex.getMessage();
                 Platform.runLater(() -> {
+                    if (!Objects.equals(filter, parent.getValue().getFilter())) return;
                     parent.getChildren().clear();
                     parent.getChildren().add(new TreeItem<>(
                             new DbObject("Error: " + msg, Kind.MESSAGE)));
@@ -263,6 +330,114 @@ public class SchemaTreePane extends VBox {
         });
     }
 
+    /**
+     * Adds {@code children[from, from + PAGE_SIZE)} under {@code parent},
+     * then — if any are left — a "load more" row that adds the next page
+     * when clicked. A schema with tens of thousands of tables would
+     * otherwise build a TreeItem and an expansion listener for every one of
+     * them at once, seconds on the FX thread for rows nobody scrolls to. The
+     * names themselves are still one catalog query (cached on disk by
+     * MetadataCache); it's the tree nodes that are paged.
+     */
+    private void addPage(TreeItem<DbObject> parent, ConnectionProfile profile, List<DbObject> children, int from) {
+        int to = Math.min(children.size(), from + PAGE_SIZE);
+        List<TreeItem<DbObject>> page = new ArrayList<>(to - from + 1);
+        for (int i = from; i < to; i++) page.add(childItem(profile, children.get(i)));
+        if (to < children.size()) page.add(new MoreItem(profile, children, to));
+        parent.getChildren().addAll(page);   // one change event for the whole page
+    }
+
+    private TreeItem<DbObject> childItem(ConnectionProfile profile, DbObject child) {
+        TreeItem<DbObject> childItem = new TreeItem<>(child);
+        if (isExpandable(child.getKind())) {
+            childItem.getChildren().add(loadingNode());
+            childItem.expandedProperty().addListener((observable, was, expanded) -> {
+                if (expanded && !child.isLoaded()) {
+                    child.setLoaded(true);
+                    loadChildrenAsync(childItem, profile,
+                            () -> childrenLoader(profile, child));
+                }
+            });
+        }
+        return childItem;
+    }
+
+    /** The "load more" row ending a paged node's children; see {@link #addPage}. */
+    private final class MoreItem extends TreeItem<DbObject> {
+        private final ConnectionProfile profile;
+        private final List<DbObject> children;
+        private final int from;
+
+        MoreItem(ConnectionProfile profile, List<DbObject> children, int from) {
+            super(new DbObject("Load " + Math.min(PAGE_SIZE, children.size() - from) + " more…", Kind.LOAD_MORE));
+            getValue().setDetail(String.format("%,d of %,d shown", from, children.size()));
+            this.profile = profile;
+            this.children = children;
+            this.from = from;
+        }
+
+        void showNextPage() {
+            TreeItem<DbObject> parent = getParent();
+            if (parent == null) return;   // already replaced by a reload
+            parent.getChildren().remove(this);
+            addPage(parent, profile, children, from);
+        }
+    }
+
+    // ------------------------------------------------------------ filter
+
+    private static boolean isFolder(Kind kind) {
+        return switch (kind) {
+            case TABLES_FOLDER, VIEWS_FOLDER, PROCEDURES_FOLDER, FUNCTIONS_FOLDER, SEQUENCES_FOLDER,
+                 COLLECTIONS_FOLDER, COLUMNS_FOLDER, INDEXES_FOLDER, PARTITIONS_FOLDER, KEYS_FOLDER,
+                 FOREIGN_KEYS_FOLDER, FIELDS_FOLDER -> true;
+            default -> false;
+        };
+    }
+
+    /** Points the filter box at the folder of the newly selected node and shows that folder's filter. */
+    private void retargetFilter(TreeItem<DbObject> selected) {
+        TreeItem<DbObject> folder = selected;
+        while (folder != null && !isFolder(folder.getValue().getKind())) {
+            folder = folder.getParent();
+        }
+        if (folder == filterTarget) return;
+        if (filterDelay.getStatus() == Animation.Status.RUNNING) {
+            filterDelay.stop();
+            applyFilter();   // what was typed still belongs to the previous folder
+        }
+        filterTarget = folder;
+        String current = folder == null ? null : folder.getValue().getFilter();
+        showingTargetFilter = true;
+        filterField.setText(current == null ? "" : current);
+        showingTargetFilter = false;
+        filterField.setDisable(folder == null);
+        filterField.setPromptText(folder == null ? "Select a folder to filter"
+                : "Filter " + folder.getValue().getName() + "…");
+    }
+
+    /**
+     * Re-fetches the target folder's children with the typed text as a name
+     * filter, which MetadataService turns into a LIKE predicate on the
+     * catalog query — an empty box brings back the whole (paged) list.
+     */
+    private void applyFilter() {
+        TreeItem<DbObject> folder = filterTarget;
+        if (folder == null) return;
+        String text = filterField.getText().strip();
+        String filter = text.isEmpty() ? null : text;
+        DbObject obj = folder.getValue();
+        if (Objects.equals(filter, obj.getFilter())) return;
+        ConnectionProfile profile = profileFor(folder);
+        if (profile == null) return;
+        obj.setFilter(filter);
+        obj.setLoaded(true);
+        folder.getChildren().setAll(loadingNode());
+        folder.setExpanded(true);
+        tree.refresh();   // the folder row shows its filter
+        loadChildrenAsync(folder, profile, () -> childrenLoader(profile, obj));
+    }
+
     private static List<DbObject> childrenLoader(ConnectionProfile profile, DbObject obj)
             throws Exception {
         return switch (obj.getKind()) {
@@ -273,7 +448,7 @@ public class SchemaTreePane extends VBox {
             case TABLES_FOLDER, VIEWS_FOLDER, PROCEDURES_FOLDER, FUNCTIONS_FOLDER,
                  SEQUENCES_FOLDER, COLLECTIONS_FOLDER,
                  COLUMNS_FOLDER, INDEXES_FOLDER, PARTITIONS_FOLDER, KEYS_FOLDER, FOREIGN_KEYS_FOLDER, FIELDS_FOLDER
-                          -> MetadataService.loadFolderChildren(profile, obj);
+                          -> MetadataService.loadFolderChildren(profile, obj, obj.getFilter());
             default -> List.of();
         };
     }
@@ -320,8 +495,8 @@ public class SchemaTreePane extends VBox {
      * Fetches up to {@link #EXPORT_ROW_CAP} rows fresh from the table and opens
      * the Export Data dialog on the result. Capped rather than unbounded so a
      * quick "export this table" click can't accidentally try to pull millions
-     * of rows into memory — for anything larger, open the data view and export
-     * from a filtered/paged query instead.
+     * of rows into memory — the cap only bounds the preview and Copy to
+     * Clipboard; Export to File streams the whole table off its own cursor.
      */
     private void exportTableData(ConnectionProfile profile, DbObject table) {
         mainWindow.setStatus("Preparing export for " + table.getName() + "\u2026");
@@ -372,6 +547,7 @@ public class SchemaTreePane extends VBox {
             AppExecutor.run(() -> {
                 try {
                     DatabaseAdminService.renameDatabase(profile, currentName, trimmed);
+                    MetadataCache.invalidate(profile, currentName);
                     Platform.runLater(() -> {
                         mainWindow.setStatus("Renamed " + currentName + " to " + trimmed);
                         reload();
@@ -418,6 +594,7 @@ public class SchemaTreePane extends VBox {
         AppExecutor.run(() -> {
             try {
                 DatabaseAdminService.dropDatabase(profile, databaseName);
+                MetadataCache.invalidate(profile, databaseName);
                 Platform.runLater(() -> {
                     mainWindow.setStatus("Deleted database " + databaseName);
                     reload();
@@ -509,6 +686,11 @@ public class SchemaTreePane extends VBox {
                 detailLabel.getStyleClass().add("tree-detail");
                 box.getChildren().add(detailLabel);
             }
+            if (obj.getFilter() != null) {
+                Label filterLabel = new Label("filter: " + obj.getFilter());
+                filterLabel.getStyleClass().add("tree-detail");
+                box.getChildren().add(filterLabel);
+            }
             setText(null);
             setGraphic(box);
             setContextMenu(buildMenu(obj, profile));
@@ -527,6 +709,7 @@ public class SchemaTreePane extends VBox {
 
                     MenuItem refreshConnection = new MenuItem("Refresh");
                     refreshConnection.setOnAction(e -> {
+                        MetadataCache.invalidate(profile);
                         obj.setLoaded(false);
                         getTreeItem().setExpanded(false);
                         mainWindow.setStatus("Refreshed " + profile.getName());
@@ -540,6 +723,8 @@ public class SchemaTreePane extends VBox {
                     MenuItem filterDbs = new MenuItem(profile.getType() == ConnectionProfile.DatabaseType.ORACLE
                             ? "Show / Hide Schemas…" : "Show / Hide Databases…");
                     filterDbs.setOnAction(e -> showDatabaseFilterDialog(getTreeItem(), profile));
+                    MenuItem poolStats = new MenuItem("Connection Pool Statistics…");
+                    poolStats.setOnAction(e -> PoolStatsDialog.show(getScene().getWindow(), profile));
                     MenuItem edit = new MenuItem("Edit Connection…");
                     edit.setOnAction(e -> mainWindow.showEditConnectionDialog(profile));
                     MenuItem disconnect = new MenuItem("Disconnect");
@@ -555,6 +740,7 @@ public class SchemaTreePane extends VBox {
                         confirm.showAndWait().ifPresent(bt -> {
                             if (bt == ButtonType.YES) {
                                 ClientRegistry.disconnect(profile);
+                                MetadataCache.invalidate(profile);
                                 ConnectionStore.delete(profile);
                                 reload();
                             }
@@ -573,6 +759,10 @@ public class SchemaTreePane extends VBox {
                     if (MetadataService.supportsDatabaseFilter(profile)) {
                         menu.getItems().add(filterDbs);
                     }
+                    // MongoDB's driver pools its own connections; the Hikari stats are JDBC-only.
+                    if (profile.getType() != ConnectionProfile.DatabaseType.MONGODB) {
+                        menu.getItems().add(poolStats);
+                    }
                     menu.getItems().addAll(edit, disconnect, new SeparatorMenuItem(), delete);
                 }
                 case TABLE, VIEW, PARTITION -> {
@@ -586,6 +776,7 @@ public class SchemaTreePane extends VBox {
                     modifyTable.setOnAction(e -> ModifyTableDialog.show(mainWindow, profile, obj));
                     MenuItem refreshTable = new MenuItem("Refresh");
                     refreshTable.setOnAction(e -> {
+                        MetadataCache.invalidate(profile, obj.getCatalog());
                         obj.setLoaded(false);
                         getTreeItem().setExpanded(false);
                         mainWindow.setStatus("Refreshed " + obj.getName());
@@ -653,6 +844,7 @@ public class SchemaTreePane extends VBox {
                 case DATABASE -> {
                     MenuItem refreshDb = new MenuItem("Refresh");
                     refreshDb.setOnAction(e -> {
+                        MetadataCache.invalidate(profile, obj.getCatalog());
                         obj.setLoaded(false);
                         getTreeItem().setExpanded(false);
                         mainWindow.setStatus("Refreshed " + obj.getName());
@@ -715,6 +907,8 @@ public class SchemaTreePane extends VBox {
                 case SCHEMA -> {
                     MenuItem refreshSchema = new MenuItem("Refresh");
                     refreshSchema.setOnAction(e -> {
+                        MetadataCache.invalidate(profile, profile.getType() == ConnectionProfile.DatabaseType.ORACLE
+                                ? obj.getName() : obj.getCatalog());
                         obj.setLoaded(false);
                         getTreeItem().setExpanded(false);
                         mainWindow.setStatus("Refreshed " + obj.getName());
@@ -742,6 +936,7 @@ public class SchemaTreePane extends VBox {
                     rename.setOnAction(e -> renameRoutine(profile, obj));
                     MenuItem refresh = new MenuItem("Refresh");
                     refresh.setOnAction(e -> {
+                        MetadataCache.invalidate(profile, obj.getCatalog());
                         obj.setLoaded(false);
                         mainWindow.setStatus("Refreshed " + obj.getName());
                         reload();
@@ -824,6 +1019,7 @@ public class SchemaTreePane extends VBox {
                          java.sql.Statement stmt = conn.createStatement()) {
                         stmt.execute(sql);
                     }
+                    MetadataCache.invalidate(profile, obj.getCatalog());
                     Platform.runLater(() -> {
                         mainWindow.setStatus("Renamed " + obj.getName() + " to " + trimmed);
                         reload();
@@ -855,6 +1051,7 @@ public class SchemaTreePane extends VBox {
                      java.sql.Statement stmt = conn.createStatement()) {
                     stmt.execute(sql);
                 }
+                MetadataCache.invalidate(profile, obj.getCatalog());
                 Platform.runLater(() -> {
                     mainWindow.setStatus("Dropped " + obj.getName());
                     reload();
@@ -46,9 +46,14 @@ public final class SettingsDialog {
         editor.getChildren().addAll(general, font);
         editor.setExpanded(true);
 
+        TreeItem<String> database = new TreeItem<>("Database");
+        TreeItem<String> mongo = new TreeItem<>("MongoDB");
+        database.getChildren().add(mongo);
+        database.setExpanded(true);
+
         TreeItem<String> plugins = new TreeItem<>("Plugins");
 
-        root.getChildren().addAll(appearanceBehavior, editor, plugins);
+        root.getChildren().addAll(appearanceBehavior, editor, database, plugins);
         TreeView<String> tree = new TreeView<>(root);
         tree.setShowRoot(false);
         tree.setPrefWidth(220);
@@ -57,9 +62,10 @@ public final class SettingsDialog {
         VBox appearancePanel = buildAppearancePanel(settings);
         VBox generalPanel = buildGeneralPanel(settings);
         VBox fontPanel = buildFontPanel(settings);
+        VBox mongoPanel = buildMongoPanel(settings);
         VBox pluginsPanel = buildPluginsPanel();
 
-        StackPane content = new StackPane(appearancePanel, generalPanel, fontPanel, pluginsPanel);
+        StackPane content = new StackPane(appearancePanel, generalPanel, fontPanel, mongoPanel, pluginsPanel);
         content.setPadding(new Insets(20));
         showOnly(content, appearancePanel);
 
@@ -69,6 +75,7 @@ public final class SettingsDialog {
                 case "Appearance" -> showOnly(content, appearancePanel);
                 case "General" -> showOnly(content, generalPanel);
                 case "Font" -> showOnly(content, fontPanel);
+                case "MongoDB" -> showOnly(content, mongoPanel);
                 case "Plugins" -> showOnly(content, pluginsPanel);
                 default -> { /* category header clicked — keep current panel */ }
             }
@@ -87,7 +94,8 @@ public final class SettingsDialog {
         ok.getStyleClass().add("run-button");
         ok.setDefaultButton(true);
 
-        Runnable applyAction = () -> applySettings(mainWindow, settings, appearancePanel, generalPanel, fontPanel);
+        Runnable applyAction = () -> applySettings(mainWindow, settings, appearancePanel, generalPanel, fontPanel,
+                mongoPanel);
         apply.setOnAction(e -> applyAction.run());
         ok.setOnAction(e -> { applyAction.run(); stage.close(); });
 
@@ -206,6 +214,86 @@ public final class SettingsDialog {
         return panel;
     }
 
+    private static VBox buildMongoPanel(AppSettingsStore.Settings settings) {
+        Label title = new Label("Database \u203a MongoDB");
+        title.getStyleClass().add("panel-header");
+
+        Label gridEdits = new Label("Grid Edits");
+        gridEdits.getStyleClass().add("connection-section-label");
+
+        Label chunkLabel = new Label("Documents per bulk write:");
+        chunkLabel.getStyleClass().add("connection-field-label");
+        Spinner<Integer> chunkSpinner = new Spinner<>(1, 100_000, settings.getMongoBulkWriteChunkSize(), 100);
+        chunkSpinner.setEditable(true);
+        chunkSpinner.setPrefWidth(110);
+
+        CheckBox orderedCheck = new CheckBox("Ordered \u2014 stop at the first document that fails");
+        orderedCheck.setSelected(settings.isMongoBulkWriteOrdered());
+
+        Label hint = new Label("Submit sends all pending document edits as bulkWrite batches of this size. "
+                + "Unordered batches let the server apply the remaining edits when one document fails; "
+                + "every failure is listed by _id either way.");
+        hint.getStyleClass().add("console-status");
+        hint.setWrapText(true);
+        hint.setMaxWidth(420);
+
+        HBox row = new HBox(10, chunkLabel, chunkSpinner);
+        row.setAlignment(Pos.CENTER_LEFT);
+
+        Label paging = new Label("Paging");
+        paging.getStyleClass().add("connection-section-label");
+
+        CheckBox rangeCheck = new CheckBox("Reopen sorted results by range on the sort key");
+        rangeCheck.setSelected(settings.isMongoRangePaging());
+
+        Label pagingHint = new Label("Results page through one open server cursor. When a page has to be "
+                + "re-read (after edits, or once the server has timed the cursor out), a sorted result resumes "
+                + "with a range query from the page's last sort value instead of skipping every earlier "
+                + "document. Turn this off if the sort field mixes value types across documents.");
+        pagingHint.getStyleClass().add("console-status");
+        pagingHint.setWrapText(true);
+        pagingHint.setMaxWidth(420);
+
+        Label countLabel = new Label("Filtered count time limit (s):");
+        countLabel.getStyleClass().add("connection-field-label");
+        Spinner<Integer> countSpinner = new Spinner<>(1, 3600, settings.getMongoCountMaxTimeSeconds(), 5);
+        countSpinner.setEditable(true);
+        countSpinner.setPrefWidth(90);
+        HBox countRow = new HBox(10, countLabel, countSpinner);
+        countRow.setAlignment(Pos.CENTER_LEFT);
+
+        Label aggregate = new Label("Aggregation");
+        aggregate.getStyleClass().add("connection-section-label");
+
+        CheckBox diskUseCheck = new CheckBox("Allow disk use for large sorts and groups");
+        diskUseCheck.setSelected(settings.isMongoAggregateAllowDiskUse());
+
+        Label batchLabel = new Label("Cursor batch size:");
+        batchLabel.getStyleClass().add("connection-field-label");
+        Spinner<Integer> batchSpinner = new Spinner<>(1, 100_000, settings.getMongoAggregateBatchSize(), 100);
+        batchSpinner.setEditable(true);
+        batchSpinner.setPrefWidth(90);
+        HBox batchRow = new HBox(10, batchLabel, batchSpinner);
+        batchRow.setAlignment(Pos.CENTER_LEFT);
+
+        Label aggregateHint = new Label("Console aggregate() results stream into the grid from a live cursor, "
+                + "this many documents per round trip. A statement's own options document "
+                + "({ allowDiskUse: \u2026, batchSize: \u2026 }) overrides both.");
+        aggregateHint.getStyleClass().add("console-status");
+        aggregateHint.setWrapText(true);
+        aggregateHint.setMaxWidth(420);
+
+        VBox panel = new VBox(14, title, gridEdits, row, orderedCheck, hint, paging, rangeCheck, pagingHint,
+                countRow, aggregate, diskUseCheck, batchRow, aggregateHint);
+        panel.getProperties().put("chunkSpinner", chunkSpinner);
+        panel.getProperties().put("orderedCheck", orderedCheck);
+        panel.getProperties().put("rangeCheck", rangeCheck);
+        panel.getProperties().put("countSpinner", countSpinner);
+        panel.getProperties().put("diskUseCheck", diskUseCheck);
+        panel.getProperties().put("batchSpinner", batchSpinner);
+        return panel;
+    }
+
     private static VBox buildPluginsPanel() {
         Label title = new Label("Plugins");
         title.getStyleClass().add("panel-header");
@@ -225,16 +313,29 @@ public final class SettingsDialog {
 
     @SuppressWarnings("unchecked")
     private static void applySettings(MainWindow mainWindow, AppSettingsStore.Settings settings,
-                                      VBox appearancePanel, VBox generalPanel, VBox fontPanel) {
+                                      VBox appearancePanel, VBox generalPanel, VBox fontPanel,
+                                      VBox mongoPanel) {
         ComboBox<AppSettingsStore.Theme> themeCombo = (ComboBox<AppSettingsStore.Theme>) appearancePanel.getUserData();
         CheckBox ctrlScrollCheck = (CheckBox) generalPanel.getUserData();
         ComboBox<String> fontCombo = (ComboBox<String>) fontPanel.getProperties().get("fontCombo");
         Spinner<Double> sizeSpinner = (Spinner<Double>) fontPanel.getProperties().get("sizeSpinner");
+        Spinner<Integer> chunkSpinner = (Spinner<Integer>) mongoPanel.getProperties().get("chunkSpinner");
+        CheckBox orderedCheck = (CheckBox) mongoPanel.getProperties().get("orderedCheck");
+        CheckBox rangeCheck = (CheckBox) mongoPanel.getProperties().get("rangeCheck");
+        Spinner<Integer> countSpinner = (Spinner<Integer>) mongoPanel.getProperties().get("countSpinner");
+        CheckBox diskUseCheck = (CheckBox) mongoPanel.getProperties().get("diskUseCheck");
+        Spinner<Integer> batchSpinner = (Spinner<Integer>) mongoPanel.getProperties().get("batchSpinner");
 
         settings.setTheme(themeCombo.getValue());
         settings.setCtrlScrollZoomEnabled(ctrlScrollCheck.isSelected());
         settings.setEditorFontFamily(fontCombo.getValue());
         settings.setEditorFontSize(sizeSpinner.getValue());
+        settings.setMongoBulkWriteChunkSize(chunkSpinner.getValue());
+        settings.setMongoBulkWriteOrdered(orderedCheck.isSelected());
+        settings.setMongoRangePaging(rangeCheck.isSelected());
+        settings.setMongoCountMaxTimeSeconds(countSpinner.getValue());
+        settings.setMongoAggregateAllowDiskUse(diskUseCheck.isSelected());
+        settings.setMongoAggregateBatchSize(batchSpinner.getValue());
         AppSettingsStore.save(settings);
 
         ThemeManager.setTheme(settings.getTheme());
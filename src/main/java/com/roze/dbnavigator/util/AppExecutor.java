@@ -4,6 +4,7 @@ import javafx.concurrent.Task;
 
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /** Central background thread pool for all database work (never block the FX thread). */
 public final class AppExecutor {
@@ -24,6 +25,11 @@ public final class AppExecutor {
         POOL.submit(runnable);
     }
 
+    /** Like {@link #run(Runnable)}, but returns the Future so the work can be cancelled (interrupted). */
+    public static Future<?> submit(Runnable runnable) {
+        return POOL.submit(runnable);
+    }
+
     public static void shutdown() {
         POOL.shutdownNow();
     }
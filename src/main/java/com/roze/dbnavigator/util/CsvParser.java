@@ -0,0 +1,302 @@
+package com.roze.dbnavigator.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Streaming RFC 4180 reader for delimited text files. The file is memory-
+ * mapped a window at a time and decoded to UTF-8 incrementally (a multi-byte
+ * sequence split across windows is carried over), so any file size works in
+ * constant memory. Quoted fields may contain delimiters, doubled quotes and
+ * line breaks.
+ *
+ * Parsing one record copies its unescaped characters into a single reusable
+ * char array; {@link #field} hands out reusable CharSequence views over it,
+ * so nothing is allocated per field until a caller asks for a String. Views
+ * are only valid until the next call to {@link #next}.
+ *
+ * Lenient where the old line splitter was: a quote in the middle of an
+ * unquoted field still toggles quoting, a lone CR ends a record like CRLF
+ * does, and a UTF-8 byte-order mark is skipped. Completely blank lines are
+ * skipped rather than read as a record with one empty field.
+ *
+ * Tab-separated files are read without quoting (see {@link #quotes}): in TSV
+ * a '"' is ordinary text, and fields can't hold tabs or line breaks.
+ */
+public final class CsvParser implements AutoCloseable {
+
+    private static final long WINDOW_BYTES = 64L * 1024 * 1024;
+    private static final int BYTE_BUFFER = 64 * 1024;
+    private static final int CHAR_BUFFER = 64 * 1024;
+
+    private enum State { FIELD_START, UNQUOTED, QUOTED, QUOTE_IN_QUOTED }
+
+    private final FileChannel channel;
+    private final long end;
+    private final char delimiter;
+    /** '"', or -1 when nothing is quoted — never equal to a char. */
+    private final int quote;
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final ByteBuffer bytes = ByteBuffer.allocate(BYTE_BUFFER);
+    private final CharBuffer chars = CharBuffer.allocate(CHAR_BUFFER);
+    /** chars' backing array and read cursor, walked directly in the parse loop. */
+    private char[] buffer;
+    private int position;
+    private int limit;
+
+    private MappedByteBuffer window;
+    private long windowEnd;
+    private boolean eof;
+    private boolean atFileStart;
+
+    private char[] data = new char[1024];
+    private int dataLength;
+    private int[] fieldEnds = new int[64];
+    private int fieldCount;
+    /** A field opened with a quote, so a record of just "" isn't taken for a blank line. */
+    private boolean quotedEmpty;
+    private FieldView[] views = new FieldView[0];
+
+    private long line;
+    private long recordLine;
+    private boolean skipLf;
+
+    private CsvParser(FileChannel channel, long start, long end, long firstLine, char delimiter) {
+        this.channel = channel;
+        this.end = end;
+        this.windowEnd = start;
+        this.delimiter = delimiter;
+        this.quote = quotes(delimiter) ? '"' : -1;
+        this.line = firstLine;
+        this.atFileStart = start == 0;
+    }
+
+    /** Whether a file with this delimiter is read with '"' quoting — false for TSV. */
+    public static boolean quotes(char delimiter) {
+        return delimiter != '\t';
+    }
+
+    /** Reads the whole file. */
+    public static CsvParser open(Path file, char delimiter) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        return new CsvParser(channel, 0, channel.size(), 1, delimiter);
+    }
+
+    /**
+     * Reads only [start, end) of the file, which must begin on a record
+     * boundary — one chunk of a partitioned import.
+     *
+     * @param firstLine line number of the line at {@code start}
+     */
+    public static CsvParser open(Path file, char delimiter, long start, long end, long firstLine)
+            throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        return new CsvParser(channel, start, Math.min(end, channel.size()), firstLine, delimiter);
+    }
+
+    /** Advances to the next record; false at end of input. */
+    public boolean next() throws IOException {
+        while (true) {
+            if (!readRecord()) return false;
+            if (fieldCount > 1 || fieldEnds[0] > 0 || quotedEmpty) return true;
+            // blank line — keep going
+        }
+    }
+
+    /** 1-based line on which the current record starts. */
+    public long lineNumber() { return recordLine; }
+
+    public int fieldCount() { return fieldCount; }
+
+    /**
+     * View of one field of the current record, valid until {@link #next}.
+     *
+     * @throws IndexOutOfBoundsException past {@link #fieldCount} — the views
+     *         of a longer earlier record are still there, and would otherwise
+     *         answer with stale offsets
+     */
+    public CharSequence field(int index) {
+        Objects.checkIndex(index, fieldCount);
+        return views[index];
+    }
+
+    /** The field as a String, or null when the record has fewer fields. */
+    public String fieldString(int index) {
+        if (index >= fieldCount) return null;
+        int from = index == 0 ? 0 : fieldEnds[index - 1];
+        return new String(data, from, fieldEnds[index] - from);
+    }
+
+    /** All fields of the current record as Strings. */
+    public String[] toArray() {
+        String[] out = new String[fieldCount];
+        for (int i = 0; i < fieldCount; i++) out[i] = fieldString(i);
+        return out;
+    }
+
+    @Override
+    public void close() throws IOException {
+        window = null;
+        channel.close();
+    }
+
+    private boolean readRecord() throws IOException {
+        dataLength = 0;
+        fieldCount = 0;
+        quotedEmpty = false;
+        State state = State.FIELD_START;
+        boolean started = false;
+        while (true) {
+            if (position == limit && !refill()) {
+                if (!started) return false;
+                endField();
+                return true;
+            }
+            char c = buffer[position++];
+            if (skipLf) {
+                skipLf = false;
+                if (c == '\n') {
+                    line++;
+                    continue;
+                }
+            }
+            if (!started) {
+                if (atFileStart) {
+                    atFileStart = false;
+                    if (c == '\uFEFF') continue;
+                }
+                started = true;
+                recordLine = line;
+            }
+            switch (state) {
+                case FIELD_START, UNQUOTED -> {
+                    if (c == delimiter) {
+                        endField();
+                        state = State.FIELD_START;
+                    } else if (c == quote) {
+                        if (state == State.FIELD_START) quotedEmpty = true;
+                        state = State.QUOTED;
+                    } else if (c == '\n') {
+                        line++;
+                        endField();
+                        return true;
+                    } else if (c == '\r') {
+                        skipLf = true;
+                        endField();
+                        return true;
+                    } else {
+                        append(c);
+                        state = State.UNQUOTED;
+                    }
+                }
+                case QUOTED -> {
+                    if (c == quote) {
+                        state = State.QUOTE_IN_QUOTED;
+                    } else {
+                        if (c == '\n') line++;
+                        append(c);
+                    }
+                }
+                case QUOTE_IN_QUOTED -> {
+                    if (c == quote) {
+                        append('"');
+                        state = State.QUOTED;
+                    } else {
+                        // Closing quote: reprocess this char as ordinary field text.
+                        position--;
+                        state = State.UNQUOTED;
+                    }
+                }
+            }
+        }
+    }
+
+    private void append(char c) {
+        if (dataLength == data.length) data = Arrays.copyOf(data, data.length * 2);
+        data[dataLength++] = c;
+    }
+
+    private void endField() {
+        if (fieldCount == fieldEnds.length) fieldEnds = Arrays.copyOf(fieldEnds, fieldCount * 2);
+        fieldEnds[fieldCount++] = dataLength;
+        if (views.length < fieldCount) {
+            int old = views.length;
+            views = Arrays.copyOf(views, Math.max(fieldCount, old * 2));
+            for (int i = old; i < views.length; i++) views[i] = new FieldView(i);
+        }
+    }
+
+    /**
+     * Decodes the next run of characters; false once the input is exhausted.
+     * Bytes are copied out of the mapped window into a heap buffer first:
+     * the UTF-8 decoder only takes its array fast path (with the ASCII
+     * intrinsic) when both sides are heap buffers. A sequence cut off at the
+     * end of the byte buffer is simply carried over by compact().
+     */
+    private boolean refill() throws IOException {
+        if (eof) return false;
+        chars.clear();
+        while (true) {
+            while (bytes.hasRemaining()) {
+                if (window == null || !window.hasRemaining()) {
+                    if (windowEnd >= end) break;
+                    map(windowEnd);
+                }
+                int n = Math.min(bytes.remaining(), window.remaining());
+                bytes.put(window.slice(window.position(), n));
+                window.position(window.position() + n);
+            }
+            boolean last = windowEnd >= end && (window == null || !window.hasRemaining());
+            bytes.flip();
+            CoderResult result = decoder.decode(bytes, chars, last);
+            bytes.compact();
+            if (result.isOverflow()) break;
+            if (last) {
+                decoder.flush(chars);
+                eof = true;
+                break;
+            }
+            if (chars.position() > 0) break;
+        }
+        chars.flip();
+        buffer = chars.array();
+        position = 0;
+        limit = chars.limit();
+        return limit > 0;
+    }
+
+    private void map(long from) throws IOException {
+        long size = Math.min(WINDOW_BYTES, end - from);
+        window = channel.map(FileChannel.MapMode.READ_ONLY, from, size);
+        windowEnd = from + size;
+    }
+
+    /** Reusable view over one field of the current record. */
+    private final class FieldView implements CharSequence {
+        private final int index;
+
+        FieldView(int index) { this.index = index; }
+
+        private int from() { return index == 0 ? 0 : fieldEnds[index - 1]; }
+
+        @Override public int length() { return fieldEnds[index] - from(); }
+        @Override public char charAt(int i) { return data[from() + i]; }
+        @Override public CharSequence subSequence(int start, int stop) {
+            return CharBuffer.wrap(data, from() + start, stop - start);
+        }
+        @Override public String toString() { return fieldString(index); }
+    }
+}
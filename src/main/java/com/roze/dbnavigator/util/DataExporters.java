@@ -3,14 +3,24 @@ package com.roze.dbnavigator.util;
 import com.roze.dbnavigator.model.DbObject;
 import com.roze.dbnavigator.model.QueryResult;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Locale;
 
 /**
- * Builds text for each of DataGrip's "Extractor" export formats from a
- * QueryResult. Delimited formats (CSV/TSV/pipe/semicolon) share one
- * implementation; SQL Inserts/Updates and Where Clause build real,
- * runnable SQL text.
+ * DataGrip's "Extractor" export formats, each implemented as a streaming
+ * {@link RowSink} so an export costs the same memory for ten rows or ten
+ * million — whether fed from an in-memory QueryResult ({@link #feed}) or
+ * straight off a live cursor (JdbcClient.stream). Delimited formats
+ * (CSV/TSV/pipe/semicolon) share one implementation; SQL Inserts/Updates and
+ * Where Clause build real, runnable SQL text.
  */
 public final class DataExporters {
 
@@ -22,7 +32,8 @@ public final class DataExporters {
         CSV("CSV"),
         TSV("TSV"),
         PIPE("Pipe-separated"),
-        SEMICOLON("Semicolon-separated");
+        SEMICOLON("Semicolon-separated"),
+        JSON("JSON");
 
         private final String label;
         Format(String label) { this.label = label; }
@@ -31,100 +42,235 @@ public final class DataExporters {
 
     private DataExporters() {}
 
+    /** Renders a whole result to one String — for previews and Copy to Clipboard; files use {@link #sink}. */
     public static String render(Format format, QueryResult result, String qualifiedTable, int rowLimit) {
-        List<String> columns = result.getColumns();
+        if (format == Format.EXCEL) return "(binary format — use Export to File, not Copy to Clipboard)";
+        StringWriter out = new StringWriter();
+        try {
+            feed(sink(format, out, qualifiedTable), result, rowLimit);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);   // StringWriter never actually throws
+        }
+        return out.toString();
+    }
+
+    /** Runs every row of an in-memory result (up to rowLimit; <= 0 means all) through a sink. */
+    public static void feed(RowSink sink, QueryResult result, int rowLimit) throws IOException {
         List<List<String>> rows = result.getRows();
         int limit = rowLimit <= 0 ? rows.size() : Math.min(rowLimit, rows.size());
+        sink.begin(result.getColumns(), result.getColumnTypes());
+        for (int i = 0; i < limit; i++) sink.accept(rows.get(i));
+        sink.end();
+    }
 
+    /** Streaming sink for any text format, writing to {@code out} (which the caller closes). */
+    public static RowSink sink(Format format, Writer out, String qualifiedTable) {
         return switch (format) {
-            case CSV -> delimited(columns, rows, limit, ',');
-            case TSV -> delimited(columns, rows, limit, '\t');
-            case PIPE -> delimited(columns, rows, limit, '|');
-            case SEMICOLON -> delimited(columns, rows, limit, ';');
-            case SQL_INSERTS -> sqlInserts(columns, rows, limit, qualifiedTable);
-            case SQL_UPDATES -> sqlUpdates(columns, rows, limit, qualifiedTable);
-            case WHERE_CLAUSE -> whereClauses(columns, rows, limit);
-            case EXCEL -> "(binary format — use Export to File, not Copy to Clipboard)";
+            case CSV -> new DelimitedSink(out, ',');
+            case TSV -> new DelimitedSink(out, '\t');
+            case PIPE -> new DelimitedSink(out, '|');
+            case SEMICOLON -> new DelimitedSink(out, ';');
+            case SQL_INSERTS -> new SqlInsertSink(out, qualifiedTable);
+            case SQL_UPDATES -> new SqlUpdateSink(out, qualifiedTable);
+            case WHERE_CLAUSE -> new WhereClauseSink(out);
+            case JSON -> new JsonSink(out);
+            case EXCEL -> throw new IllegalArgumentException("Excel is a binary format — use the OutputStream sink");
+        };
+    }
+
+    /**
+     * Streaming sink for any format, binary included, writing to {@code out}
+     * (which the caller closes) — what file exports use. Text formats are
+     * UTF-8 encoded through a buffer that {@link RowSink#end} flushes.
+     */
+    public static RowSink sink(Format format, OutputStream out, String qualifiedTable) {
+        if (format == Format.EXCEL) return XlsxWriter.sink(out);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        RowSink text = sink(format, writer, qualifiedTable);
+        return new RowSink() {
+            @Override public void begin(List<String> columns, List<String> types) throws IOException { text.begin(columns, types); }
+            @Override public void accept(List<String> row) throws IOException { text.accept(row); }
+            @Override
+            public void end() throws IOException {
+                text.end();
+                writer.flush();
+            }
         };
     }
 
     // ------------------------------------------------------------ delimited
 
-    private static String delimited(List<String> columns, List<List<String>> rows, int limit, char delim) {
-        StringBuilder sb = new StringBuilder();
-        sb.append(joinRow(columns, delim)).append('\n');
-        for (int i = 0; i < limit; i++) {
-            sb.append(joinRow(rows.get(i), delim)).append('\n');
+    private static final class DelimitedSink implements RowSink {
+        private final Writer out;
+        private final char delim;
+
+        DelimitedSink(Writer out, char delim) {
+            this.out = out;
+            this.delim = delim;
         }
-        return sb.toString();
+
+        @Override public void begin(List<String> columns, List<String> types) throws IOException { writeDelimitedRow(out, columns, delim); }
+        @Override public void accept(List<String> row) throws IOException { writeDelimitedRow(out, row, delim); }
+        @Override public void end() {}
     }
 
-    private static String joinRow(List<String> values, char delim) {
-        StringBuilder sb = new StringBuilder();
+    /** Writes one delimited line (values escaped, terminated by '\n'). */
+    public static void writeDelimitedRow(Writer out, List<String> values, char delim) throws IOException {
         for (int i = 0; i < values.size(); i++) {
-            if (i > 0) sb.append(delim);
-            sb.append(escapeDelimited(values.get(i), delim));
+            if (i > 0) out.write(delim);
+            out.write(escapeDelimited(values.get(i), delim));
         }
-        return sb.toString();
+        out.write('\n');
     }
 
     private static String escapeDelimited(String value, char delim) {
         if (value == null) return "";
-        boolean needsQuote = value.indexOf(delim) >= 0 || value.contains("\"") || value.contains("\n");
+        boolean needsQuote = value.indexOf(delim) >= 0 || value.contains("\"")
+                || value.contains("\n") || value.contains("\r");
         if (!needsQuote) return value;
         return '"' + value.replace("\"", "\"\"") + '"';
     }
 
     // ------------------------------------------------------------ SQL
 
-    private static String sqlInserts(List<String> columns, List<List<String>> rows, int limit, String table) {
-        StringBuilder sb = new StringBuilder();
-        String columnList = String.join(", ", columns.stream().map(DbObject::quote).toList());
-        for (int i = 0; i < limit; i++) {
-            List<String> row = rows.get(i);
+    private static final class SqlInsertSink implements RowSink {
+        private final Writer out;
+        private final String table;
+        private String columnList;
+
+        SqlInsertSink(Writer out, String table) {
+            this.out = out;
+            this.table = table;
+        }
+
+        @Override
+        public void begin(List<String> columns, List<String> types) {
+            columnList = String.join(", ", columns.stream().map(DbObject::quote).toList());
+        }
+
+        @Override
+        public void accept(List<String> row) throws IOException {
+            StringBuilder sb = new StringBuilder();
             sb.append("INSERT INTO ").append(table).append(" (").append(columnList).append(") VALUES (");
             for (int c = 0; c < row.size(); c++) {
                 if (c > 0) sb.append(", ");
                 sb.append(literal(row.get(c)));
             }
-            sb.append(");\n");
+            out.write(sb.append(");\n").toString());
         }
-        return sb.toString();
+
+        @Override public void end() {}
     }
 
-    private static String sqlUpdates(List<String> columns, List<List<String>> rows, int limit, String table) {
-        StringBuilder sb = new StringBuilder();
-        // No guaranteed primary key at this layer — key on every column, which
-        // is always correct (if verbose) as an UPDATE ... WHERE identifying clause.
-        for (int i = 0; i < limit; i++) {
-            List<String> row = rows.get(i);
+    /**
+     * No guaranteed primary key at this layer — key on every column, which
+     * is always correct (if verbose) as an UPDATE ... WHERE identifying clause.
+     */
+    private static final class SqlUpdateSink implements RowSink {
+        private final Writer out;
+        private final String table;
+        private List<String> columns;
+
+        SqlUpdateSink(Writer out, String table) {
+            this.out = out;
+            this.table = table;
+        }
+
+        @Override public void begin(List<String> columns, List<String> types) { this.columns = List.copyOf(columns); }
+
+        @Override
+        public void accept(List<String> row) throws IOException {
+            StringBuilder sb = new StringBuilder();
             sb.append("UPDATE ").append(table).append(" SET ");
             for (int c = 0; c < columns.size(); c++) {
                 if (c > 0) sb.append(", ");
                 sb.append(DbObject.quote(columns.get(c))).append(" = ").append(literal(row.get(c)));
             }
             sb.append(" WHERE ");
-            for (int c = 0; c < columns.size(); c++) {
-                if (c > 0) sb.append(" AND ");
-                sb.append(DbObject.quote(columns.get(c))).append(" = ").append(literal(row.get(c)));
-            }
-            sb.append(";\n");
+            appendConditions(sb, columns, row);
+            out.write(sb.append(";\n").toString());
         }
-        return sb.toString();
+
+        @Override public void end() {}
     }
 
-    private static String whereClauses(List<String> columns, List<List<String>> rows, int limit) {
-        StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < limit; i++) {
-            List<String> row = rows.get(i);
-            sb.append("WHERE ");
+    private static final class WhereClauseSink implements RowSink {
+        private final Writer out;
+        private List<String> columns;
+
+        WhereClauseSink(Writer out) { this.out = out; }
+
+        @Override public void begin(List<String> columns, List<String> types) { this.columns = List.copyOf(columns); }
+
+        @Override
+        public void accept(List<String> row) throws IOException {
+            StringBuilder sb = new StringBuilder("WHERE ");
+            appendConditions(sb, columns, row);
+            out.write(sb.append(";\n").toString());
+        }
+
+        @Override public void end() {}
+    }
+
+    private static void appendConditions(StringBuilder sb, List<String> columns, List<String> row) {
+        for (int c = 0; c < columns.size(); c++) {
+            if (c > 0) sb.append(" AND ");
+            sb.append(DbObject.quote(columns.get(c))).append(" = ").append(literal(row.get(c)));
+        }
+    }
+
+    // ------------------------------------------------------------ JSON
+
+    /**
+     * JSON array of objects keyed by column name. Any cell whose text already
+     * looks like a JSON object or array — which is how nested documents/arrays
+     * are rendered for display, since grids only hold flattened strings — is
+     * embedded as real nested JSON rather than a doubly-escaped string.
+     */
+    private static final class JsonSink implements RowSink {
+        private final Writer out;
+        private List<String> columns;
+        private boolean first = true;
+
+        JsonSink(Writer out) { this.out = out; }
+
+        @Override
+        public void begin(List<String> columns, List<String> types) throws IOException {
+            this.columns = List.copyOf(columns);
+            out.write("[");
+        }
+
+        @Override
+        public void accept(List<String> row) throws IOException {
+            StringBuilder obj = new StringBuilder(first ? "\n  {" : ",\n  {");
+            first = false;
             for (int c = 0; c < columns.size(); c++) {
-                if (c > 0) sb.append(" AND ");
-                sb.append(DbObject.quote(columns.get(c))).append(" = ").append(literal(row.get(c)));
+                if (c > 0) obj.append(", ");
+                String value = c < row.size() ? row.get(c) : null;
+                obj.append('"').append(jsonEscape(columns.get(c))).append("\": ").append(jsonValue(value));
             }
-            sb.append(";\n");
+            out.write(obj.append('}').toString());
+        }
+
+        @Override
+        public void end() throws IOException {
+            out.write("\n]\n");
         }
-        return sb.toString();
+    }
+
+    private static String jsonValue(String value) {
+        if (value == null || value.equals("NULL")) return "null";
+        String trimmed = value.strip();
+        if ((trimmed.startsWith("{") && trimmed.endsWith("}"))
+                || (trimmed.startsWith("[") && trimmed.endsWith("]"))) {
+            return trimmed;   // already-serialized nested document/array — embed as-is
+        }
+        return '"' + jsonEscape(value) + '"';
+    }
+
+    private static String jsonEscape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"")
+                .replace("\n", "\\n").replace("\r", "\\r").replace("\t", "\\t");
     }
 
     private static String literal(String value) {
@@ -0,0 +1,61 @@
+package com.roze.dbnavigator.util;
+
+import java.io.BufferedWriter;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Buffered UTF-8 text writer over a FileChannel that also counts the bytes
+ * that have actually reached the channel, so a long-running streamed export
+ * can report progress ("1.2 GB written") without ever holding its output in
+ * memory.
+ */
+public final class ExportFileWriter extends Writer {
+
+    private static final int BUFFER_SIZE = 256 * 1024;
+
+    private final CountingStream counter;
+    private final Writer writer;
+
+    public ExportFileWriter(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        this.counter = new CountingStream(Channels.newOutputStream(channel));
+        this.writer = new BufferedWriter(new OutputStreamWriter(counter, StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    /** Bytes flushed to the file so far (excludes what is still buffered). */
+    public long bytesWritten() { return counter.count; }
+
+    @Override public void write(char[] cbuf, int off, int len) throws IOException { writer.write(cbuf, off, len); }
+    @Override public void write(String str, int off, int len) throws IOException { writer.write(str, off, len); }
+    @Override public void write(int c) throws IOException { writer.write(c); }
+    @Override public void flush() throws IOException { writer.flush(); }
+    @Override public void close() throws IOException { writer.close(); }
+
+    private static final class CountingStream extends FilterOutputStream {
+        private volatile long count;
+
+        CountingStream(OutputStream out) { super(out); }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.roze.dbnavigator.util;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Streaming target for exported rows: {@link #begin} once with the column
+ * names and database type names, {@link #accept} per row, then {@link #end}.
+ * Sinks write straight through to whatever they were created over and never
+ * keep rows, so they can be fed from a live cursor of any size. They also never
+ * close that underlying writer/stream — its owner does.
+ *
+ * @see DataExporters#sink
+ */
+public interface RowSink {
+
+    void begin(List<String> columns, List<String> types) throws IOException;
+
+    /** @param row may be reused by the caller after this returns */
+    void accept(List<String> row) throws IOException;
+
+    void end() throws IOException;
+}
@@ -1,6 +1,7 @@
 package com.roze.dbnavigator.util;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -67,6 +68,29 @@ public final class SqlParameters {
         return out.toString();
     }
 
+    /**
+     * The query with each {@code :paramName} turned into a JDBC {@code ?}
+     * placeholder, and the values to bind in placeholder order (a name used
+     * twice is bound twice). Unlike {@link #substitute}, the text stays the
+     * same whatever the values, so a session console's prepared-statement
+     * cache can reuse the server's parse for every run.
+     */
+    public record Bound(String sql, List<String> values) {}
+
+    public static Bound bind(String sql, Map<String, String> values) {
+        List<int[]> ranges = findTokenRanges(sql);
+        List<String> ordered = new ArrayList<>();
+        StringBuilder out = new StringBuilder();
+        int lastEnd = 0;
+        for (int[] range : ranges) {
+            out.append(sql, lastEnd, range[0]).append('?');
+            ordered.add(values.get(sql.substring(range[0] + 1, range[1])));
+            lastEnd = range[1];
+        }
+        out.append(sql.substring(lastEnd));
+        return new Bound(out.toString(), Collections.unmodifiableList(ordered));
+    }
+
     /** Start/end offsets of each ":paramName" token (start is the colon's index), outside quotes/comments. */
     private static List<int[]> findTokenRanges(String sql) {
         List<int[]> ranges = new ArrayList<>();
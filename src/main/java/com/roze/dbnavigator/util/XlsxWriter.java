@@ -1,73 +1,260 @@
 package com.roze.dbnavigator.util;
 
-import java.io.File;
+import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
 /**
- * Writes a single-sheet .xlsx file by hand — an XLSX is just a zip of a few
- * small XML files, so no Apache POI (or any other new dependency) is needed
- * for a flat "export this table's rows" use case. Every cell is written as
- * an inline string, which keeps this simple and is valid OOXML; it's not as
- * compact as using a shared-strings table, but for typical export sizes
- * that's an acceptable trade-off for zero extra dependencies.
+ * Writes .xlsx files by hand — an XLSX is just a zip of a few small XML
+ * files, so no Apache POI (or any other new dependency) is needed for a flat
+ * "export these rows" use case.
+ *
+ * Streams: each sheet's XML is written into its zip entry row by row as rows
+ * arrive, and the parts that depend on the whole export (workbook, content
+ * types, shared strings) are written after the last row — zip entries can be
+ * in any order. Cells are typed from the result's column types where the
+ * text actually parses: numbers as numeric cells, dates/timestamps as date
+ * serials with a date format, booleans as boolean cells. Text repeated across
+ * rows goes through a shared-strings table, bounded so a column of unique
+ * values can't grow it without limit (past the bound, cells are inline
+ * strings). Past Excel's 1,048,576-row limit the export rolls over to
+ * another sheet, header repeated.
  */
 public final class XlsxWriter {
 
+    /** Excel's hard per-sheet row limit, header row included. */
+    private static final int MAX_SHEET_ROWS = 1_048_576;
+    private static final int SHARED_STRINGS_LIMIT = 100_000;
+    /** Longer text is rarely repeated — not worth a shared-strings slot. */
+    private static final int SHARED_STRING_MAX_LENGTH = 256;
+
+    private static final Pattern NUMBER = Pattern.compile("-?\\d+(\\.\\d+)?([eE][-+]?\\d+)?");
+    private static final LocalDate EXCEL_EPOCH = LocalDate.of(1899, 12, 30);
+
+    // Style indexes into STYLES' cellXfs
+    private static final int STYLE_HEADER = 1;
+    private static final int STYLE_DATE = 2;
+    private static final int STYLE_DATETIME = 3;
+
+    private enum CellType { TEXT, NUMBER, DATE, BOOLEAN }
+
     private XlsxWriter() {}
 
-    public static void write(File file, List<String> columns, List<List<String>> rows) throws IOException {
-        try (ZipOutputStream zip = new ZipOutputStream(java.nio.file.Files.newOutputStream(file.toPath()))) {
-            entry(zip, "[Content_Types].xml", CONTENT_TYPES);
-            entry(zip, "_rels/.rels", RELS);
-            entry(zip, "xl/workbook.xml", WORKBOOK);
-            entry(zip, "xl/_rels/workbook.xml.rels", WORKBOOK_RELS);
-            entry(zip, "xl/styles.xml", STYLES);
-            entry(zip, "xl/worksheets/sheet1.xml", buildSheet(columns, rows));
-        }
+    /**
+     * Streaming sink writing a workbook to {@code out}, which is finished as a
+     * zip on {@link RowSink#end} but not closed.
+     */
+    public static RowSink sink(OutputStream out) {
+        return new Sink(out);
     }
 
-    private static void entry(ZipOutputStream zip, String name, String content) throws IOException {
-        zip.putNextEntry(new ZipEntry(name));
-        write(zip, content);
-        zip.closeEntry();
-    }
+    private static final class Sink implements RowSink {
+        private final ZipOutputStream zip;
+        private final Writer xml;
+        private final Map<String, Integer> sharedIndex = new HashMap<>();
+        private final List<String> sharedStrings = new ArrayList<>();
+        private List<String> columns;
+        private CellType[] cellTypes;
+        private String[] columnRefs;
+        private int sheetCount;
+        private int sheetRow;
+
+        Sink(OutputStream out) {
+            this.zip = new ZipOutputStream(out);
+            this.xml = new BufferedWriter(new OutputStreamWriter(zip, StandardCharsets.UTF_8), 64 * 1024);
+        }
+
+        @Override
+        public void begin(List<String> columns, List<String> types) throws IOException {
+            this.columns = List.copyOf(columns);
+            cellTypes = new CellType[columns.size()];
+            columnRefs = new String[columns.size()];
+            for (int c = 0; c < columns.size(); c++) {
+                cellTypes[c] = cellTypeOf(c < types.size() ? types.get(c) : null);
+                columnRefs[c] = columnRef(c);
+            }
+            startSheet();
+        }
+
+        @Override
+        public void accept(List<String> row) throws IOException {
+            if (sheetRow == MAX_SHEET_ROWS) {
+                endSheet();
+                startSheet();
+            }
+            int r = ++sheetRow;
+            xml.write("<row r=\"");
+            xml.write(Integer.toString(r));
+            xml.write("\">");
+            for (int c = 0; c < row.size() && c < columnRefs.length; c++) {
+                String value = row.get(c);
+                if (value != null) cell(c, r, value);
+            }
+            xml.write("</row>");
+        }
+
+        @Override
+        public void end() throws IOException {
+            endSheet();
+            entry("xl/sharedStrings.xml", sharedStringsXml());
+            entry("[Content_Types].xml", contentTypes(sheetCount));
+            entry("_rels/.rels", RELS);
+            entry("xl/workbook.xml", workbook(sheetCount));
+            entry("xl/_rels/workbook.xml.rels", workbookRels(sheetCount));
+            entry("xl/styles.xml", STYLES);
+            zip.finish();
+        }
+
+        private void startSheet() throws IOException {
+            sheetCount++;
+            sheetRow = 1;
+            zip.putNextEntry(new ZipEntry("xl/worksheets/sheet" + sheetCount + ".xml"));
+            xml.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>"
+                    + "<worksheet xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\">"
+                    + "<sheetData><row r=\"1\">");
+            for (int c = 0; c < columns.size(); c++) {
+                xml.write("<c r=\"" + columnRefs[c] + "1\" t=\"inlineStr\" s=\"" + STYLE_HEADER + "\"><is><t xml:space=\"preserve\">");
+                xml.write(escape(columns.get(c)));
+                xml.write("</t></is></c>");
+            }
+            xml.write("</row>");
+        }
+
+        private void endSheet() throws IOException {
+            xml.write("</sheetData></worksheet>");
+            xml.flush();
+            zip.closeEntry();
+        }
+
+        private void cell(int c, int r, String value) throws IOException {
+            String ref = columnRefs[c] + r;
+            switch (cellTypes[c]) {
+                case NUMBER -> {
+                    if (NUMBER.matcher(value).matches() && significantDigits(value) <= 15) {
+                        xml.write("<c r=\"" + ref + "\"><v>" + value + "</v></c>");
+                        return;
+                    }
+                }
+                case DATE -> {
+                    String serial = dateSerial(value);
+                    if (serial != null) {
+                        int style = value.length() > 10 ? STYLE_DATETIME : STYLE_DATE;
+                        xml.write("<c r=\"" + ref + "\" s=\"" + style + "\"><v>" + serial + "</v></c>");
+                        return;
+                    }
+                }
+                case BOOLEAN -> {
+                    String bool = booleanValue(value);
+                    if (bool != null) {
+                        xml.write("<c r=\"" + ref + "\" t=\"b\"><v>" + bool + "</v></c>");
+                        return;
+                    }
+                }
+                case TEXT -> { }
+            }
+            Integer shared = sharedStringIndex(value);
+            if (shared != null) {
+                xml.write("<c r=\"" + ref + "\" t=\"s\"><v>" + shared + "</v></c>");
+            } else {
+                xml.write("<c r=\"" + ref + "\" t=\"inlineStr\"><is><t xml:space=\"preserve\">");
+                xml.write(escape(value));
+                xml.write("</t></is></c>");
+            }
+        }
+
+        private Integer sharedStringIndex(String value) {
+            if (value.length() > SHARED_STRING_MAX_LENGTH) return null;
+            Integer index = sharedIndex.get(value);
+            if (index == null && sharedStrings.size() < SHARED_STRINGS_LIMIT) {
+                index = sharedStrings.size();
+                sharedStrings.add(value);
+                sharedIndex.put(value, index);
+            }
+            return index;
+        }
+
+        private String sharedStringsXml() {
+            StringBuilder sb = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>"
+                    + "<sst xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\" uniqueCount=\"")
+                    .append(sharedStrings.size()).append("\">");
+            for (String s : sharedStrings) {
+                sb.append("<si><t xml:space=\"preserve\">").append(escape(s)).append("</t></si>");
+            }
+            return sb.append("</sst>").toString();
+        }
 
-    private static void write(OutputStream out, String content) throws IOException {
-        out.write(content.getBytes(StandardCharsets.UTF_8));
+        private void entry(String name, String content) throws IOException {
+            zip.putNextEntry(new ZipEntry(name));
+            xml.write(content);
+            xml.flush();
+            zip.closeEntry();
+        }
     }
 
-    private static String buildSheet(List<String> columns, List<List<String>> rows) {
-        StringBuilder sb = new StringBuilder();
-        sb.append("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>");
-        sb.append("<worksheet xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\">");
-        sb.append("<sheetData>");
+    /** Maps a database type name (int4, numeric, timestamp, bool, ...) to how its cells are written. */
+    private static CellType cellTypeOf(String typeName) {
+        if (typeName == null || typeName.isBlank()) return CellType.TEXT;
+        String t = typeName.toLowerCase(Locale.ROOT);
+        if (t.contains("bool") || t.equals("bit")) return CellType.BOOLEAN;
+        if (t.contains("date") || t.contains("timestamp")) return CellType.DATE;
+        if (t.contains("int") || t.contains("numeric") || t.contains("decimal") || t.contains("number")
+                || t.contains("float") || t.contains("double") || t.equals("real")) {
+            return CellType.NUMBER;
+        }
+        return CellType.TEXT;
+    }
 
-        sb.append(row(1, columns, true));
-        for (int r = 0; r < rows.size(); r++) {
-            sb.append(row(r + 2, rows.get(r), false));
+    /**
+     * Excel keeps 15 significant digits — a bigint id or a wide numeric beyond
+     * that would be silently rounded, so those stay text.
+     */
+    private static int significantDigits(String number) {
+        int digits = 0;
+        for (int i = 0; i < number.length(); i++) {
+            char ch = number.charAt(i);
+            if (ch == 'e' || ch == 'E') break;
+            if (ch >= '0' && ch <= '9' && (digits > 0 || ch != '0')) digits++;
         }
+        return digits;
+    }
 
-        sb.append("</sheetData></worksheet>");
-        return sb.toString();
+    /** "2024-03-01" or "2024-03-01 13:45:00[.123]" as an Excel date serial; null if it doesn't parse. */
+    private static String dateSerial(String value) {
+        try {
+            if (value.length() == 10) {
+                return Long.toString(ChronoUnit.DAYS.between(EXCEL_EPOCH, LocalDate.parse(value)));
+            }
+            if (value.length() < 19) return null;
+            LocalDateTime dt = LocalDateTime.parse(value.replace(' ', 'T'));
+            double days = ChronoUnit.DAYS.between(EXCEL_EPOCH, dt.toLocalDate())
+                    + dt.toLocalTime().toNanoOfDay() / 86_400_000_000_000.0;
+            return Double.toString(days);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
     }
 
-    private static String row(int rowIndex, List<String> values, boolean header) {
-        StringBuilder sb = new StringBuilder("<row r=\"").append(rowIndex).append("\">");
-        for (int c = 0; c < values.size(); c++) {
-            String ref = columnRef(c) + rowIndex;
-            String value = values.get(c);
-            sb.append("<c r=\"").append(ref).append("\" t=\"inlineStr\"");
-            if (header) sb.append(" s=\"1\"");
-            sb.append("><is><t xml:space=\"preserve\">")
-              .append(escape(value == null ? "" : value))
-              .append("</t></is></c>");
-        }
-        return sb.append("</row>").toString();
+    private static String booleanValue(String value) {
+        return switch (value.toLowerCase(Locale.ROOT)) {
+            case "true", "t", "1" -> "1";
+            case "false", "f", "0" -> "0";
+            default -> null;
+        };
     }
 
     /** 0 -> A, 1 -> B, ... 26 -> AA, matching spreadsheet column references. */
@@ -81,40 +268,74 @@ public final class XlsxWriter {
         return sb.toString();
     }
 
+    /** XML-escapes text and drops control characters that XML 1.0 can't represent at all. */
     private static String escape(String s) {
-        return s.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+        StringBuilder sb = null;
+        for (int i = 0; i < s.length(); i++) {
+            char ch = s.charAt(i);
+            String replacement = switch (ch) {
+                case '&' -> "&amp;";
+                case '<' -> "&lt;";
+                case '>' -> "&gt;";
+                default -> ch < 0x20 && ch != '\t' && ch != '\n' && ch != '\r' ? "" : null;
+            };
+            if (replacement != null && sb == null) sb = new StringBuilder(s.length() + 16).append(s, 0, i);
+            if (sb != null) {
+                if (replacement != null) sb.append(replacement); else sb.append(ch);
+            }
+        }
+        return sb == null ? s : sb.toString();
     }
 
-    private static final String CONTENT_TYPES =
-            "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>"
-            + "<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\">"
-            + "<Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>"
-            + "<Default Extension=\"xml\" ContentType=\"application/xml\"/>"
-            + "<Override PartName=\"/xl/workbook.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.sheet.main+xml\"/>"
-            + "<Override PartName=\"/xl/worksheets/sheet1.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.worksheet+xml\"/>"
-            + "<Override PartName=\"/xl/styles.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.styles+xml\"/>"
-            + "</Types>";
+    private static String contentTypes(int sheets) {
+        StringBuilder sb = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>"
+                + "<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\">"
+                + "<Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>"
+                + "<Default Extension=\"xml\" ContentType=\"application/xml\"/>"
+                + "<Override PartName=\"/xl/workbook.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.sheet.main+xml\"/>");
+        for (int i = 1; i <= sheets; i++) {
+            sb.append("<Override PartName=\"/xl/worksheets/sheet").append(i)
+              .append(".xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.worksheet+xml\"/>");
+        }
+        return sb.append("<Override PartName=\"/xl/styles.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.styles+xml\"/>")
+                 .append("<Override PartName=\"/xl/sharedStrings.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.sharedStrings+xml\"/>")
+                 .append("</Types>").toString();
+    }
 
-    private static final String RELS =
-            "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>"
-            + "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">"
-            + "<Relationship Id=\"rId1\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/officeDocument\" Target=\"xl/workbook.xml\"/>"
-            + "</Relationships>";
+    private static String workbook(int sheets) {
+        StringBuilder sb = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>"
+                + "<workbook xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\" "
+                + "xmlns:r=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships\"><sheets>");
+        for (int i = 1; i <= sheets; i++) {
+            sb.append("<sheet name=\"Export").append(i == 1 ? "" : " (" + i + ")")
+              .append("\" sheetId=\"").append(i).append("\" r:id=\"rId").append(i).append("\"/>");
+        }
+        return sb.append("</sheets></workbook>").toString();
+    }
 
-    private static final String WORKBOOK =
-            "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>"
-            + "<workbook xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\" "
-            + "xmlns:r=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships\">"
-            + "<sheets><sheet name=\"Export\" sheetId=\"1\" r:id=\"rId1\"/></sheets></workbook>";
+    /** Sheets are rId1..rIdN; styles and shared strings follow them. */
+    private static String workbookRels(int sheets) {
+        StringBuilder sb = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>"
+                + "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">");
+        for (int i = 1; i <= sheets; i++) {
+            sb.append("<Relationship Id=\"rId").append(i)
+              .append("\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/worksheet\" Target=\"worksheets/sheet")
+              .append(i).append(".xml\"/>");
+        }
+        return sb.append("<Relationship Id=\"rId").append(sheets + 1)
+                 .append("\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/styles\" Target=\"styles.xml\"/>")
+                 .append("<Relationship Id=\"rId").append(sheets + 2)
+                 .append("\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/sharedStrings\" Target=\"sharedStrings.xml\"/>")
+                 .append("</Relationships>").toString();
+    }
 
-    private static final String WORKBOOK_RELS =
+    private static final String RELS =
             "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>"
             + "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">"
-            + "<Relationship Id=\"rId1\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/worksheet\" Target=\"worksheets/sheet1.xml\"/>"
-            + "<Relationship Id=\"rId2\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/styles\" Target=\"styles.xml\"/>"
+            + "<Relationship Id=\"rId1\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/officeDocument\" Target=\"xl/workbook.xml\"/>"
             + "</Relationships>";
 
-    // Style index 0 = default; style index 1 = bold (for the header row)
+    // Style index 0 = default; 1 = bold (header row); 2 = date (numFmt 14); 3 = date-time (numFmt 22)
     private static final String STYLES =
             "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>"
             + "<styleSheet xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\">"
@@ -123,6 +344,8 @@ public final class XlsxWriter {
             + "<fills count=\"1\"><fill><patternFill patternType=\"none\"/></fill></fills>"
             + "<borders count=\"1\"><border/></borders>"
             + "<cellStyleXfs count=\"1\"><xf/></cellStyleXfs>"
-            + "<cellXfs count=\"2\"><xf fontId=\"0\"/><xf fontId=\"1\"/></cellXfs>"
+            + "<cellXfs count=\"4\"><xf fontId=\"0\"/><xf fontId=\"1\"/>"
+            + "<xf fontId=\"0\" numFmtId=\"14\" applyNumberFormat=\"1\"/>"
+            + "<xf fontId=\"0\" numFmtId=\"22\" applyNumberFormat=\"1\"/></cellXfs>"
             + "</styleSheet>";
 }